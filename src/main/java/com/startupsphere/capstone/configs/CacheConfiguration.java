@@ -27,9 +27,7 @@ public class CacheConfiguration {
                 "bookmarks",
                 "views",
                 "likes",
-                "reports",
-                "rankings",
-                "topRankings"
+                "reports"
         );
         cacheManager.setCaffeine(caffeineCacheBuilder());
         return cacheManager;
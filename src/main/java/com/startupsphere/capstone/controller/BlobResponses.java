@@ -0,0 +1,167 @@
+package com.startupsphere.capstone.controller;
+
+import com.startupsphere.capstone.service.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Writes a blob store entry as an HTTP response: the content hash as a strong
+ * ETag, 304 for a matching If-None-Match, and a single byte range (206) or 416
+ * for Range requests, honouring If-Range; always with nosniff. The body goes
+ * out through Tomcat's sendfile when the connector offers it, else through
+ * FileChannel.transferTo, so the file is never read into a byte[].
+ */
+final class BlobResponses {
+
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private BlobResponses() {
+    }
+
+    /**
+     * @param disposition Content-Disposition header, or null for none
+     */
+    static void serve(BlobStore blobStore, String hash, String contentType, String cacheControl, String disposition,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long size;
+        try {
+            size = blobStore.size(hash);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long[] bounds = prepare(hash, size, contentType, cacheControl, disposition, request, response);
+        if (bounds == null) {
+            return;
+        }
+        long start = bounds[0];
+        long end = bounds[1];
+
+        Optional<Path> file = blobStore.localPath(hash);
+        if (file.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.get().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        blobStore.transferTo(hash, start, end - start + 1, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * Same as above for a blob already held in memory
+     */
+    static void serve(byte[] content, String hash, String contentType, String cacheControl,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long[] bounds = prepare(hash, content.length, contentType, cacheControl, null, request, response);
+        if (bounds != null) {
+            response.getOutputStream().write(content, (int) bounds[0], (int) (bounds[1] - bounds[0] + 1));
+        }
+    }
+
+    // Sets the headers and status; the byte range to write, or null when the response is complete
+    private static long[] prepare(String hash, long size, String contentType, String cacheControl,
+            String disposition, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + hash + "\"";
+        // Browsers must go by the stored type, never by guessing from the bytes
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", cacheControl);
+        if (matches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return null;
+        }
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        if (disposition != null) {
+            response.setHeader("Content-Disposition", disposition);
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader("Range");
+        String ifRange = request.getHeader("If-Range");
+        if (range != null && (ifRange == null || ifRange.trim().equals(etag))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds != null && bounds.length == 0) {
+                response.setHeader("Content-Range", "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return null;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return null;
+        }
+        return new long[] { start, end };
+    }
+
+    // True when an If-None-Match header lists the ETag or is *
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * First and last byte of a single range, an empty array when it is not
+     * satisfiable, or null to send the whole blob (malformed or multiple ranges)
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the final n bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return new long[0];
+                }
+                return new long[] { Math.max(0, size - suffix), size - 1 };
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size) {
+                return new long[0];
+            }
+            return start <= end ? new long[] { start, end } : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -45,8 +45,14 @@ public class InvestorController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Investor>> searchInvestors(@RequestParam String query) {
-        List<Investor> investors = investorService.searchInvestors(query);
+    public ResponseEntity<List<Investor>> searchInvestors(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Investor> investors = investorService.searchInvestors(query, page, size);
         return ResponseEntity.ok(investors);
     }
 
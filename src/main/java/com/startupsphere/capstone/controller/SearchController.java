@@ -8,6 +8,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/search")
 public class SearchController {
@@ -19,11 +21,25 @@ public class SearchController {
     }
 
     @GetMapping
-    public ResponseEntity<SearchResultsDTO> search(@RequestParam String query) {
-        if (query == null || query.trim().isEmpty()) {
+    public ResponseEntity<SearchResultsDTO> search(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (query == null || query.trim().isEmpty() || page < 0 || size < 1 || size > 100) {
             return ResponseEntity.badRequest().build();
         }
-        SearchResultsDTO results = searchService.search(query.trim());
+        SearchResultsDTO results = searchService.search(query.trim(), fuzzy, page, size);
         return ResponseEntity.ok(results);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Map<String, Object>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "5") int limit) {
+        if (q == null || q.trim().isEmpty() || limit < 1 || limit > 10) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(searchService.suggest(q, limit));
+    }
+}
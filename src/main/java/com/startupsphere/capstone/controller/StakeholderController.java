@@ -1,12 +1,19 @@
 package com.startupsphere.capstone.controller;
 
 import com.startupsphere.capstone.entity.Stakeholder;
+import com.startupsphere.capstone.repository.StakeholderRepository;
+import com.startupsphere.capstone.service.ConditionalGetService;
+import com.startupsphere.capstone.service.GeoClusterIndex;
+import com.startupsphere.capstone.service.GeoGridIndex;
+import com.startupsphere.capstone.service.GeoIndexService;
 import com.startupsphere.capstone.service.StakeholderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -16,17 +23,70 @@ import java.util.Optional;
 public class StakeholderController {
 
     private final StakeholderService service;
+    private final GeoIndexService geoIndexService;
+    private final StakeholderRepository stakeholderRepository;
+    private final ConditionalGetService conditionalGetService;
 
     @Autowired
-    public StakeholderController(StakeholderService service) {
+    public StakeholderController(StakeholderService service, GeoIndexService geoIndexService,
+            StakeholderRepository stakeholderRepository, ConditionalGetService conditionalGetService) {
         this.service = service;
+        this.geoIndexService = geoIndexService;
+        this.stakeholderRepository = stakeholderRepository;
+        this.conditionalGetService = conditionalGetService;
     }
 
     @GetMapping
-    public List<Stakeholder> getAll() {
+    public List<Stakeholder> getAll(ServletWebRequest webRequest) {
+        if (conditionalGetService.checkNotModified("stakeholders", webRequest, stakeholderRepository.findVersion())) {
+            return null;
+        }
         return service.findAll();
     }
 
+    /**
+     * Map markers of the stakeholders inside a viewport, from the in-memory grid
+     */
+    @GetMapping("/within")
+    public ResponseEntity<Map<String, Object>> getWithin(
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @RequestParam(defaultValue = "1000") int limit) {
+        if (!GeoIndexService.isViewport(minLat, minLng, maxLat, maxLng) || limit < 1 || limit > 5000) {
+            return ResponseEntity.badRequest().build();
+        }
+        GeoGridIndex.Result result = geoIndexService.stakeholdersWithin(minLat, minLng, maxLat, maxLng, limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("points", result.getPoints());
+        response.put("total", result.getTotal());
+        response.put("truncated", result.getTotal() > result.getPoints().size());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Marker clusters of the stakeholders inside a viewport at a map zoom level
+     */
+    @GetMapping("/clusters")
+    public ResponseEntity<Map<String, Object>> getClusters(
+            @RequestParam int zoom,
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @RequestParam(defaultValue = "2000") int limit) {
+        if (!GeoIndexService.isViewport(minLat, minLng, maxLat, maxLng) || zoom < 0 || limit < 1 || limit > 10000) {
+            return ResponseEntity.badRequest().build();
+        }
+        GeoClusterIndex.Result result = geoIndexService.stakeholderClusters(zoom, minLat, minLng, maxLat, maxLng, limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("clusters", result.getClusters());
+        response.put("total", result.getTotal());
+        response.put("truncated", result.getTotal() > result.getClusters().size());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Stakeholder> getById(@PathVariable Long id) {
         return service.findById(id)
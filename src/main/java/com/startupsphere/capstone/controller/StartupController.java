@@ -1,14 +1,28 @@
 package com.startupsphere.capstone.controller;
 
+import com.startupsphere.capstone.dtos.NearbyPointDTO;
+import com.startupsphere.capstone.dtos.StartupSummaryDTO;
+import com.startupsphere.capstone.dtos.StoredFileDTO;
 import com.startupsphere.capstone.entity.Startup;
 import com.startupsphere.capstone.entity.User;
 import com.startupsphere.capstone.repository.StartupRepository;
 import com.startupsphere.capstone.responses.ErrorResponse;
 import com.startupsphere.capstone.responses.SuccessResponse;
+import com.startupsphere.capstone.service.BlobStore;
+import com.startupsphere.capstone.service.ConditionalGetService;
+import com.startupsphere.capstone.service.GeoClusterIndex;
+import com.startupsphere.capstone.service.GeoGridIndex;
+import com.startupsphere.capstone.service.GeoIndexService;
+import com.startupsphere.capstone.service.ImageTypes;
 import com.startupsphere.capstone.service.NotificationService;
+import com.startupsphere.capstone.service.PhotoVariantService;
+import com.startupsphere.capstone.service.StartupFacetIndex;
+import com.startupsphere.capstone.service.StartupRankingService;
 import com.startupsphere.capstone.service.StartupService;
 
 import io.jsonwebtoken.io.IOException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,10 +37,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -39,10 +55,22 @@ public class StartupController {
 
     private final StartupService startupService;
     private final StartupRepository startupRepository;
-
-    public StartupController(StartupService startupService, StartupRepository startupRepository) {
+    private final StartupRankingService rankingService;
+    private final GeoIndexService geoIndexService;
+    private final BlobStore blobStore;
+    private final PhotoVariantService photoVariantService;
+    private final ConditionalGetService conditionalGetService;
+
+    public StartupController(StartupService startupService, StartupRepository startupRepository,
+            StartupRankingService rankingService, GeoIndexService geoIndexService, BlobStore blobStore,
+            PhotoVariantService photoVariantService, ConditionalGetService conditionalGetService) {
         this.startupService = startupService;
         this.startupRepository = startupRepository;
+        this.rankingService = rankingService;
+        this.geoIndexService = geoIndexService;
+        this.blobStore = blobStore;
+        this.photoVariantService = photoVariantService;
+        this.conditionalGetService = conditionalGetService;
     }
 
     @Autowired
@@ -104,14 +132,14 @@ public class StartupController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<Startup>> getAllStartups(
+    public ResponseEntity<Page<StartupSummaryDTO>> getAllStartups(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Startup> startups = startupService.getAllStartups(pageable);
+        Page<StartupSummaryDTO> startups = startupService.getAllStartups(pageable);
         return ResponseEntity.ok(startups);
     }
 
@@ -129,14 +157,17 @@ public class StartupController {
     }
 
     @GetMapping("/{id:[0-9]+}")
-    public ResponseEntity<Startup> getStartupById(@PathVariable Long id) {
+    public ResponseEntity<Startup> getStartupById(@PathVariable Long id, ServletWebRequest webRequest) {
+        if (conditionalGetService.checkNotModified("startup", webRequest, startupRepository.findVersionById(id))) {
+            return null;
+        }
         return startupService.getStartupById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/submitted")
-    public ResponseEntity<Page<Startup>> getAllSubmittedStartups(
+    public ResponseEntity<Page<StartupSummaryDTO>> getAllSubmittedStartups(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
@@ -145,7 +176,7 @@ public class StartupController {
             logger.info("Fetching paginated submitted startups");
             Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
             Pageable pageable = PageRequest.of(page, size, sort);
-            Page<Startup> startups = startupService.getAllSubmittedStartups(pageable);
+            Page<StartupSummaryDTO> startups = startupService.getAllSubmittedStartups(pageable);
             return ResponseEntity.ok(startups);
         } catch (Exception e) {
             logger.error("Error fetching submitted startups: {}", e.getMessage(), e);
@@ -201,6 +232,7 @@ public class StartupController {
             Startup startup = optionalStartup.get();
             startup.setViewsCount(startup.getViewsCount() + 1);
             startupRepository.save(startup);
+            rankingService.refreshScore(id);
             return ResponseEntity.ok(startup.getViewsCount());
         } else {
             return ResponseEntity.notFound().build();
@@ -408,10 +440,10 @@ public class StartupController {
     }
 
     @GetMapping("/my-startups/details")
-    public ResponseEntity<List<Startup>> getStartupsByLoggedInUser() {
+    public ResponseEntity<List<StartupSummaryDTO>> getStartupsByLoggedInUser() {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            List<Startup> startups = startupService.getStartupsByLoggedInUser(authentication);
+            List<StartupSummaryDTO> startups = startupService.getStartupsByLoggedInUser(authentication);
             return ResponseEntity.ok(startups);
         } catch (RuntimeException e) {
             return ResponseEntity.status(401).build();
@@ -559,28 +591,21 @@ public class StartupController {
         }
 
         try {
-            Optional<Startup> optionalStartup = startupService.getStartupById(id);
-            if (optionalStartup.isEmpty()) {
+            if (!startupRepository.existsById(id)) {
                 logger.warn("Startup not found for ID: {}", id);
                 return ResponseEntity.badRequest().body(
                         new ErrorResponse("Startup with ID " + id + " not found."));
             }
 
-            Startup startup = optionalStartup.get();
-            logger.info("Found startup: {}", startup.getCompanyName());
-
-            byte[] photoBytes = photo.getBytes();
-            logger.info("Successfully read photo bytes, size: {}", photoBytes.length);
-
-            startup.setPhoto(photoBytes);
-            logger.info("Set photo bytes to startup entity");
-
-            startupService.updateStartup(id, startup);
+            startupService.storePhoto(id, photo);
             logger.info("Successfully updated startup with photo");
 
             return ResponseEntity.ok(
                     new SuccessResponse("Photo uploaded successfully."));
-        } catch (IOException e) {
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected photo for startup ID: {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (java.io.IOException e) {
             logger.error("Failed to read photo bytes for startup ID: {}", id, e);
             return ResponseEntity.status(500).body(
                     new ErrorResponse("Error processing image file: " + e.getMessage()));
@@ -591,8 +616,25 @@ public class StartupController {
         }
     }
 
+    /**
+     * A startup's current photo, or with size the smallest variant at least
+     * that many pixels on its longest side. The photo behind this URL can
+     * change, so clients revalidate with the ETag; /photos/{hash} never changes.
+     */
     @GetMapping("/{id:[0-9]+}/photo")
-    public ResponseEntity<byte[]> getStartupPhoto(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getStartupPhoto(@PathVariable Long id,
+            @RequestParam(required = false) Integer size, HttpServletRequest request,
+            HttpServletResponse response) throws java.io.IOException {
+        if (size != null && size < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<StoredFileDTO> stored = startupRepository.findStoredPhoto(id);
+        if (stored.isPresent() && stored.get().hash() != null && blobStore.exists(stored.get().hash())) {
+            servePhoto(stored.get().hash(), stored.get().contentType(), size, "no-cache", request, response);
+            return null;
+        }
+
+        // Not migrated to the blob store yet, or its copy there was lost and the table still has it
         Optional<Startup> optionalStartup = startupService.getStartupById(id);
         if (optionalStartup.isEmpty() || optionalStartup.get().getPhoto() == null) {
             logger.warn("Photo not found for startup ID: {}", id);
@@ -602,18 +644,63 @@ public class StartupController {
         byte[] photo = optionalStartup.get().getPhoto();
         return ResponseEntity.ok()
                 .header("Content-Type", "image/jpeg")
+                .header("X-Content-Type-Options", "nosniff")
                 .body(photo);
     }
 
+    /**
+     * A photo by content hash, cacheable forever. Only photos are served here,
+     * never certificates.
+     */
+    @GetMapping("/photos/{hash:[0-9a-f]{64}}")
+    public ResponseEntity<Void> getPhotoByHash(@PathVariable String hash,
+            @RequestParam(required = false) Integer size, HttpServletRequest request,
+            HttpServletResponse response) throws java.io.IOException {
+        if (size != null && size < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!startupRepository.existsByPhotoHash(hash)) {
+            return ResponseEntity.notFound().build();
+        }
+        String contentType = startupRepository.findPhotoContentTypeByHash(hash);
+        servePhoto(hash, contentType, size, BlobResponses.IMMUTABLE, request, response);
+        return null;
+    }
+
+    // A sized request falls back to the original while its variant is generated, so that answer is revalidated
+    private void servePhoto(String hash, String contentType, Integer size, String cacheControl,
+            HttpServletRequest request, HttpServletResponse response) throws java.io.IOException {
+        if (!ImageTypes.isPhotoType(contentType)) {
+            // Stored before uploads were sniffed; never rendered inline from our origin
+            BlobResponses.serve(blobStore, hash, "application/octet-stream", cacheControl, "attachment", request,
+                    response);
+            return;
+        }
+        if (size == null) {
+            BlobResponses.serve(blobStore, hash, contentType, cacheControl, null, request, response);
+            return;
+        }
+        Optional<PhotoVariantService.Variant> variant = photoVariantService.variant(hash, size);
+        if (variant.isEmpty()) {
+            BlobResponses.serve(blobStore, hash, contentType, "no-cache", null, request, response);
+        } else if (variant.get().content() != null) {
+            BlobResponses.serve(variant.get().content(), variant.get().hash(), variant.get().contentType(),
+                    cacheControl, request, response);
+        } else {
+            BlobResponses.serve(blobStore, variant.get().hash(), variant.get().contentType(), cacheControl, null,
+                    request, response);
+        }
+    }
+
     @GetMapping("/email-verified")
-    public ResponseEntity<Page<Startup>> getAllEmailVerifiedStartups(
+    public ResponseEntity<Page<StartupSummaryDTO>> getAllEmailVerifiedStartups(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Startup> startups = startupService.getAllEmailVerifiedStartups(pageable);
+        Page<StartupSummaryDTO> startups = startupService.getAllEmailVerifiedStartups(pageable);
         return ResponseEntity.ok(startups);
     }
 
@@ -638,17 +725,32 @@ public class StartupController {
     }
 
     @GetMapping("/approved")
-    public ResponseEntity<Page<Startup>> getAllApprovedStartups(
+    public ResponseEntity<Page<StartupSummaryDTO>> getAllApprovedStartups(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDir) {
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            ServletWebRequest webRequest) {
+        if (conditionalGetService.checkNotModified("approvedStartups", webRequest,
+                startupRepository.findApprovedVersion())) {
+            return null;
+        }
         Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Startup> startups = startupService.getAllApprovedStartups(pageable);
+        Page<StartupSummaryDTO> startups = startupService.getAllApprovedStartups(pageable);
         return ResponseEntity.ok(startups);
     }
 
+    /**
+     * How many polls of the startup, stakeholder and ranking reads were
+     * answered with 304 Not Modified
+     */
+    @GetMapping("/conditional-get-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getConditionalGetStats() {
+        return ResponseEntity.ok(conditionalGetService.getStats());
+    }
+
     @PostMapping("/test-reminder-emails")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, String>> testReminderEmails() {
@@ -676,21 +778,13 @@ public class StartupController {
         }
 
         try {
-            Optional<Startup> optionalStartup = startupService.getStartupById(id);
-            if (optionalStartup.isEmpty()) {
+            if (!startupRepository.existsById(id)) {
                 logger.warn("Startup not found for ID: {}", id);
                 return ResponseEntity.badRequest().body(
                         new ErrorResponse("Startup with ID " + id + " not found."));
             }
 
-            Startup startup = optionalStartup.get();
-            logger.info("Found startup: {}", startup.getCompanyName());
-
-            byte[] fileBytes = registrationCertificate.getBytes();
-            logger.info("Successfully read registration certificate bytes, size: {}", fileBytes.length);
-
-            startup.setRegistrationCertificate(fileBytes);
-            startupService.updateStartup(id, startup);
+            startupService.storeRegistrationCertificate(id, registrationCertificate);
             logger.info("Successfully updated startup with registration certificate");
 
             return ResponseEntity.ok(
@@ -707,7 +801,18 @@ public class StartupController {
     }
 
     @GetMapping("/{id:[0-9]+}/registration-certificate")
-    public ResponseEntity<byte[]> getRegistrationCertificate(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getRegistrationCertificate(@PathVariable Long id, HttpServletRequest request,
+            HttpServletResponse response) throws java.io.IOException {
+        Optional<StoredFileDTO> stored = startupRepository.findStoredCertificate(id);
+        if (stored.isPresent() && stored.get().hash() != null && blobStore.exists(stored.get().hash())) {
+            String contentType = stored.get().contentType();
+            String extension = "application/pdf".equals(contentType) ? ".pdf" : "";
+            BlobResponses.serve(blobStore, stored.get().hash(), contentType, "private, no-cache",
+                    "attachment; filename=registration_certificate" + extension, request, response);
+            return null;
+        }
+
+        // Not migrated to the blob store yet, or its copy there was lost and the table still has it
         Optional<Startup> optionalStartup = startupService.getStartupById(id);
         if (optionalStartup.isEmpty() || optionalStartup.get().getRegistrationCertificate() == null) {
             logger.warn("Registration certificate not found for startup ID: {}", id);
@@ -718,14 +823,29 @@ public class StartupController {
         return ResponseEntity.ok()
                 .header("Content-Type", "application/pdf")
                 .header("Content-Disposition", "attachment; filename=registration_certificate.pdf")
+                .header("X-Content-Type-Options", "nosniff")
                 .body(file);
     }
 
+    /**
+     * Startups for the review screen, with industry, region and status counts
+     * under the same filters, from the in-memory facet index. Metric bounds are
+     * inclusive.
+     */
     @GetMapping("/review")
-    public ResponseEntity<Page<Startup>> getStartupsWithFilters(
+    public ResponseEntity<Map<String, Object>> getStartupsWithFilters(
             @RequestParam(required = false) String industry,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String region,
+            @RequestParam(defaultValue = "false") Boolean isDraft,
+            @RequestParam(required = false) Boolean emailVerified,
+            @RequestParam(required = false) String fundingStage,
+            @RequestParam(required = false) Double minAnnualRevenue,
+            @RequestParam(required = false) Double maxAnnualRevenue,
+            @RequestParam(required = false) Double minFunding,
+            @RequestParam(required = false) Double maxFunding,
+            @RequestParam(required = false) Integer minFundingRounds,
+            @RequestParam(required = false) Integer maxFundingRounds,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
@@ -737,22 +857,105 @@ public class StartupController {
         try {
             Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
             Pageable pageable = PageRequest.of(page, size, sort);
-            Page<Startup> startups = startupService.getStartupsWithFilters(
+            Map<StartupFacetIndex.Metric, StartupFacetIndex.Range> ranges =
+                    new EnumMap<>(StartupFacetIndex.Metric.class);
+            putRange(ranges, StartupFacetIndex.Metric.ANNUAL_REVENUE, minAnnualRevenue, maxAnnualRevenue);
+            putRange(ranges, StartupFacetIndex.Metric.TOTAL_FUNDING, minFunding, maxFunding);
+            putRange(ranges, StartupFacetIndex.Metric.FUNDING_ROUNDS,
+                    minFundingRounds != null ? minFundingRounds.doubleValue() : null,
+                    maxFundingRounds != null ? maxFundingRounds.doubleValue() : null);
+            Map<String, Object> startups = startupService.getStartupsWithFacets(
                     industry,
                     status,
                     region,
+                    isDraft,
+                    emailVerified,
+                    fundingStage,
+                    ranges,
                     search,
                     startDate,
                     endDate,
                     pageable
             );
             return ResponseEntity.ok(startups);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            logger.warn("Invalid review filter: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error fetching filtered startups: {}", e.getMessage(), e);
             return ResponseEntity.status(500).build();
         }
     }
 
+    private static void putRange(Map<StartupFacetIndex.Metric, StartupFacetIndex.Range> ranges,
+            StartupFacetIndex.Metric metric, Double min, Double max) {
+        if (min != null || max != null) {
+            ranges.put(metric, new StartupFacetIndex.Range(min, max));
+        }
+    }
+
+    /**
+     * Map markers of the startups inside a viewport, from the in-memory grid
+     */
+    @GetMapping("/within")
+    public ResponseEntity<Map<String, Object>> getStartupsWithin(
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @RequestParam(required = false) String industry,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "1000") int limit) {
+        if (!GeoIndexService.isViewport(minLat, minLng, maxLat, maxLng) || limit < 1 || limit > 5000) {
+            return ResponseEntity.badRequest().build();
+        }
+        GeoGridIndex.Result result = geoIndexService.startupsWithin(minLat, minLng, maxLat, maxLng,
+                industry, status, limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("points", result.getPoints());
+        response.put("total", result.getTotal());
+        response.put("truncated", result.getTotal() > result.getPoints().size());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * The k approved startups nearest to a location, from the in-memory grid
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyPointDTO>> getNearbyStartups(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(defaultValue = "25") double radiusKm,
+            @RequestParam(required = false) String industry) {
+        if (Math.abs(lat) > 90 || Math.abs(lng) > 180 || k < 1 || k > 100 || !(radiusKm > 0 && radiusKm <= 500)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(geoIndexService.nearbyStartups(lat, lng, k, radiusKm, industry));
+    }
+
+    /**
+     * Marker clusters of the startups inside a viewport at a map zoom level
+     */
+    @GetMapping("/clusters")
+    public ResponseEntity<Map<String, Object>> getStartupClusters(
+            @RequestParam int zoom,
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @RequestParam(defaultValue = "2000") int limit) {
+        if (!GeoIndexService.isViewport(minLat, minLng, maxLat, maxLng) || zoom < 0 || limit < 1 || limit > 10000) {
+            return ResponseEntity.badRequest().build();
+        }
+        GeoClusterIndex.Result result = geoIndexService.startupClusters(zoom, minLat, minLng, maxLat, maxLng, limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("clusters", result.getClusters());
+        response.put("total", result.getTotal());
+        response.put("truncated", result.getTotal() > result.getClusters().size());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/industries")
     public ResponseEntity<List<String>> getDistinctIndustries() {
         try {
@@ -996,7 +1199,7 @@ public class StartupController {
             // Save all valid startups in batch
             if (!startups.isEmpty()) {
                 try {
-                    List<Startup> savedStartups = startupRepository.saveAll(startups);
+                    List<Startup> savedStartups = startupService.saveUploadedStartups(startups);
                     logger.info("Successfully saved {} startups from CSV upload", savedStartups.size());
                     
                     // Log sample of saved data for verification (first startup only)
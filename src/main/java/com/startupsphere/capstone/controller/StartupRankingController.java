@@ -1,20 +1,36 @@
 package com.startupsphere.capstone.controller;
 
-import com.startupsphere.capstone.entity.Startup;
-import com.startupsphere.capstone.repository.StartupRepository;
+import com.startupsphere.capstone.dtos.IndustryGrowthDTO;
+import com.startupsphere.capstone.dtos.MetricTrendPointDTO;
+import com.startupsphere.capstone.entity.RankingWeightProfile;
+import com.startupsphere.capstone.entity.StartupScore;
+import com.startupsphere.capstone.service.ConditionalGetService;
+import com.startupsphere.capstone.service.RankingCursor;
+import com.startupsphere.capstone.service.RankingSnapshot;
+import com.startupsphere.capstone.service.RankingSnapshotService;
+import com.startupsphere.capstone.service.RankingWeightsService;
+import com.startupsphere.capstone.service.StartupAnalyticsCube;
+import com.startupsphere.capstone.service.StartupMetricHistoryService;
+import com.startupsphere.capstone.service.StartupMetricsSnapshot;
+import com.startupsphere.capstone.service.StartupPositionIndex;
 import com.startupsphere.capstone.service.StartupRankingService;
+import com.startupsphere.capstone.service.StartupScoringPipeline;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,66 +38,100 @@ import java.util.stream.Collectors;
 public class StartupRankingController {
 
     @Autowired
-    private StartupRepository startupRepository;
+    private StartupRankingService rankingService;
 
     @Autowired
-    private StartupRankingService rankingService;
+    private RankingSnapshotService rankingSnapshotService;
+
+    @Autowired
+    private StartupScoringPipeline scoringPipeline;
 
+    @Autowired
+    private RankingWeightsService rankingWeightsService;
+
+    @Autowired
+    private StartupAnalyticsCube analyticsCube;
+
+    @Autowired
+    private StartupMetricHistoryService metricHistoryService;
+
+    @Autowired
+    private ConditionalGetService conditionalGetService;
+
+    /**
+     * Ranked startups, one page at a time. Pass the nextCursor of a response as
+     * cursor to get the page after it; cursor pages stay consistent while scores
+     * change and cost the same at any depth. page is kept for offset paging.
+     */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getRankedStartups(
             @RequestParam(required = false) String industry,
             @RequestParam(required = false, defaultValue = "overall") String metric,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-
-        List<Startup> allStartups = startupRepository.findAll();
-        List<Startup> approvedStartups = allStartups.stream()
-                .filter(startup -> "Approved".equalsIgnoreCase(startup.getStatus())) // Filter by status
-                .collect(Collectors.toList());
-
-        List<Startup> rankedStartups;
-        if (industry != null && !industry.trim().isEmpty() && !industry.equalsIgnoreCase("All")) {
-            rankedStartups = rankingService.rankStartupsByIndustry(approvedStartups, industry);
-        } else {
-            rankedStartups = rankingService.rankStartupsByMetric(approvedStartups, metric);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest webRequest) {
+
+        RankingSnapshot snapshot = rankingSnapshotService.current();
+        if (snapshot.getVersion() == 0) {
+            return scoreTablePage(industry, metric, page, size, cursor, Long.MAX_VALUE, score -> {
+                Map<String, Object> data = new HashMap<>();
+                data.put("id", score.getStartupId());
+                data.put("companyName", score.getCompanyName());
+                data.put("industry", score.getIndustry());
+                data.put("overallScore", Math.round(score.getOverallScore()));
+                data.put("growthScore", Math.round(score.getGrowthScore() * 100));
+                data.put("investmentScore", Math.round(score.getInvestmentScore() * 100));
+                data.put("ecosystemScore", Math.round(score.getEcosystemScore() * 100));
+                data.put("engagementScore", Math.round(score.getEngagementScore() * 100));
+                data.put("totalFunding", score.getTotalFunding());
+                return data;
+            });
         }
-
-        // Apply pagination
-        int start = page * size;
-        int end = Math.min(start + size, rankedStartups.size());
-        List<Startup> paginatedStartups = rankedStartups.subList(start, end);
-
-        List<Map<String, Object>> startupData = paginatedStartups.stream().map(startup -> {
+        if (conditionalGetService.checkNotModified("rankings", webRequest, snapshot.getVersion())) {
+            return null;
+        }
+        StartupMetricsSnapshot startups = snapshot.getMetrics();
+        int[] order = snapshot.order(metric, industry);
+        page = Math.max(page, 0);
+        size = Math.max(size, 1);
+
+        long start;
+        try {
+            start = startIndex(snapshot, metric, industry, cursor, page, size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        long end = Math.min(start + size, order.length);
+        List<Map<String, Object>> startupData = new ArrayList<>();
+        for (long i = start; i < end; i++) {
+            int row = order[(int) i];
             Map<String, Object> data = new HashMap<>();
-            data.put("id", startup.getId());
-            data.put("companyName", startup.getCompanyName());
-            data.put("industry", startup.getIndustry());
-            data.put("overallScore", Math.round(rankingService.calculateOverallScore(startup)));
-            data.put("growthScore", Math.round(rankingService.calculateGrowthScore(startup) * 100));
-            data.put("investmentScore", Math.round(rankingService.calculateInvestmentScore(startup) * 100));
-            data.put("ecosystemScore", Math.round(rankingService.calculateEcosystemScore(startup) * 100));
-            data.put("engagementScore", Math.round(rankingService.calculateEngagementScore(startup) * 100));
-            data.put("totalFunding", startup.getTotalStartupFundingReceived());
-            return data;
-        }).collect(Collectors.toList());
+            data.put("id", startups.getId(row));
+            data.put("companyName", startups.getCompanyName(row));
+            data.put("industry", startups.getIndustry(row));
+            data.put("overallScore", Math.round(snapshot.overallScore(row)));
+            data.put("growthScore", Math.round(snapshot.growthScore(row) * 100));
+            data.put("investmentScore", Math.round(snapshot.investmentScore(row) * 100));
+            data.put("ecosystemScore", Math.round(snapshot.ecosystemScore(row) * 100));
+            data.put("engagementScore", Math.round(snapshot.engagementScore(row) * 100));
+            data.put("totalFunding", startups.getFundingReceived(row));
+            startupData.add(data);
+        }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("content", startupData);
-        response.put("totalElements", rankedStartups.size());
-        response.put("totalPages", (int) Math.ceil((double) rankedStartups.size() / size));
-        response.put("size", size);
-        response.put("number", page);
-        response.put("numberOfElements", startupData.size());
-        response.put("first", page == 0);
-        response.put("last", end >= rankedStartups.size());
-        response.put("empty", startupData.isEmpty());
-        
+        Map<String, Object> response = cursor != null
+                ? cursorResponse(startupData, order.length, size, end >= order.length)
+                : pageResponse(startupData, order.length, page, size);
+        response.put("nextCursor", end < order.length
+                ? snapshot.cursorAt(metric, order[(int) end - 1]).encode()
+                : null);
+        response.put("version", snapshot.getVersion());
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Map<String, Object>> getStartupScoreDetails(@PathVariable Long id) {
-        return startupRepository.findById(id)
+        return rankingService.getMetrics(id)
                 .map(startup -> {
                     Map<String, Object> details = new HashMap<>();
                     details.put("id", startup.getId());
@@ -96,16 +146,16 @@ public class StartupRankingController {
 
                     Map<String, Object> metrics = new HashMap<>();
                     metrics.put("annualRevenue", startup.getAnnualRevenue());
-                    metrics.put("growthRate", startup.getAverageStartupGrowthRate());
-                    metrics.put("survivalRate", startup.getStartupSurvivalRate());
-                    metrics.put("fundingReceived", startup.getTotalStartupFundingReceived());
-                    metrics.put("fundingRounds", startup.getNumberOfFundingRounds());
-                    metrics.put("governmentSupport", startup.getAmountOfGovernmentGrantsOrSubsidiesReceived());
-                    metrics.put("mentors", startup.getNumberOfMentorsOrAdvisorsInvolved());
-                    metrics.put("partnerships", startup.getPublicPrivatePartnershipsInvolvingStartups());
-                    metrics.put("views", startup.getViewsCount());
-                    metrics.put("likes", startup.getLikes() != null ? startup.getLikes().size() : 0);
-                    metrics.put("bookmarks", startup.getBookmarks() != null ? startup.getBookmarks().size() : 0);
+                    metrics.put("growthRate", startup.getGrowthRate());
+                    metrics.put("survivalRate", startup.getSurvivalRate());
+                    metrics.put("fundingReceived", startup.getFundingReceived());
+                    metrics.put("fundingRounds", startup.getFundingRounds());
+                    metrics.put("governmentSupport", startup.getGovernmentGrants());
+                    metrics.put("mentors", startup.getMentors());
+                    metrics.put("partnerships", startup.getPartnerships());
+                    metrics.put("views", startup.getViews());
+                    metrics.put("likes", startup.getLikes());
+                    metrics.put("bookmarks", startup.getBookmarks());
 
                     details.put("metrics", metrics);
                     return ResponseEntity.ok(details);
@@ -113,111 +163,433 @@ public class StartupRankingController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/position")
+    public ResponseEntity<Map<String, Object>> getStartupPosition(
+            @PathVariable Long id,
+            @RequestParam(required = false, defaultValue = "overall") String metric,
+            @RequestParam(required = false) String industry,
+            @RequestParam(defaultValue = "2") int neighbours) {
+
+        StartupPositionIndex.Position position = rankingService.getPosition(id, metric, industry,
+                Math.min(neighbours, 10));
+        if (position == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Category scores are 0-1 internally, present them on the same 0-100 scale as the overall score
+        boolean categoryMetric = Arrays.asList(RankingSnapshot.METRICS).indexOf(metric.toLowerCase()) > 0;
+        double scale = categoryMetric ? 100 : 1;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", id);
+        response.put("metric", metric);
+        response.put("industry", industry != null && !industry.trim().isEmpty() ? industry : "All");
+        response.put("position", position.getRank());
+        response.put("total", position.getTotal());
+        response.put("score", Math.round(position.getScore() * scale));
+        response.put("above", mapNeighbours(position.getAbove(), scale));
+        response.put("below", mapNeighbours(position.getBelow(), scale));
+        return ResponseEntity.ok(response);
+    }
+
+    private List<Map<String, Object>> mapNeighbours(List<StartupPositionIndex.Neighbour> neighbours, double scale) {
+        return neighbours.stream()
+                .map(neighbour -> {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("position", neighbour.getRank());
+                    data.put("id", neighbour.getId());
+                    data.put("companyName", neighbour.getCompanyName());
+                    data.put("score", Math.round(neighbour.getScore() * scale));
+                    return data;
+                })
+                .collect(Collectors.toList());
+    }
+
     @GetMapping("/top")
     public ResponseEntity<Map<String, Object>> getTopStartups(
             @RequestParam(required = false, defaultValue = "10") Integer limit,
             @RequestParam(required = false) String industry,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest webRequest) {
+
+        RankingSnapshot snapshot = rankingSnapshotService.current();
+        if (snapshot.getVersion() == 0) {
+            return scoreTablePage(industry, "overall", page, size, cursor, Math.max(limit, 0), score -> {
+                Map<String, Object> data = new HashMap<>();
+                data.put("id", score.getStartupId());
+                data.put("companyName", score.getCompanyName());
+                data.put("industry", score.getIndustry());
+                data.put("score", Math.round(score.getOverallScore()));
+                data.put("growthRate", score.getGrowthRate());
+                data.put("totalFunding", score.getTotalFunding());
+                return data;
+            });
+        }
+        if (conditionalGetService.checkNotModified("topRankings", webRequest, snapshot.getVersion())) {
+            return null;
+        }
+        StartupMetricsSnapshot startups = snapshot.getMetrics();
+        int[] order = snapshot.order("overall", industry);
+        page = Math.max(page, 0);
+        size = Math.max(size, 1);
+
+        // Only the first `limit` ranks are visible
+        long totalElements = Math.min(order.length, Math.max(limit, 0));
+        long start;
+        try {
+            start = startIndex(snapshot, "overall", industry, cursor, page, size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        long end = Math.min(start + size, totalElements);
+        List<Map<String, Object>> startupData = new ArrayList<>();
+        for (long i = start; i < end; i++) {
+            int row = order[(int) i];
+            Map<String, Object> data = new HashMap<>();
+            data.put("id", startups.getId(row));
+            data.put("companyName", startups.getCompanyName(row));
+            data.put("industry", startups.getIndustry(row));
+            data.put("score", Math.round(snapshot.overallScore(row)));
+            data.put("growthRate", startups.getGrowthRate(row));
+            data.put("totalFunding", startups.getFundingReceived(row));
+            startupData.add(data);
+        }
 
-        List<Startup> allStartups = startupRepository.findAll();
-        List<Startup> approvedStartups = allStartups.stream()
-                .filter(startup -> "Approved".equalsIgnoreCase(startup.getStatus())) // Filter by status
-                .collect(Collectors.toList());
+        Map<String, Object> response = cursor != null
+                ? cursorResponse(startupData, totalElements, size, end >= totalElements)
+                : pageResponse(startupData, totalElements, page, size);
+        response.put("nextCursor", end < totalElements
+                ? snapshot.cursorAt("overall", order[(int) end - 1]).encode()
+                : null);
+        response.put("version", snapshot.getVersion());
+        return ResponseEntity.ok(response);
+    }
 
-        List<Startup> rankedStartups;
-        if (industry != null && !industry.trim().isEmpty() && !industry.equalsIgnoreCase("All")) {
-            rankedStartups = rankingService.rankStartupsByIndustry(approvedStartups, industry);
-        } else {
-            rankedStartups = rankingService.rankStartups(approvedStartups);
+    // Until the first snapshot is published, e.g. right after startup, pages come from the stored
+    // scores instead of an empty ranking. Not validated by ETag, and there is no snapshot to seek a cursor in.
+    private ResponseEntity<Map<String, Object>> scoreTablePage(String industry, String metric, int page, int size,
+            String cursor, long limit, Function<StartupScore, Map<String, Object>> mapper) {
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Rankings are still loading, start again without a cursor"));
+        }
+        page = cursor != null ? 0 : Math.max(page, 0);
+        size = Math.max(size, 1);
+
+        Page<StartupScore> scores = rankingService.getRankedScores(industry, metric, PageRequest.of(page, size));
+        long totalElements = Math.min(scores.getTotalElements(), limit);
+        long start = (long) page * size;
+        List<Map<String, Object>> startupData = new ArrayList<>();
+        for (int i = 0; i < scores.getNumberOfElements() && start + i < totalElements; i++) {
+            startupData.add(mapper.apply(scores.getContent().get(i)));
         }
 
-        // Apply limit first, then pagination
-        rankedStartups = rankedStartups.stream().limit(limit).collect(Collectors.toList());
-        
-        int start = page * size;
-        int end = Math.min(start + size, rankedStartups.size());
-        List<Startup> paginatedStartups = start < rankedStartups.size() 
-            ? rankedStartups.subList(start, end) 
-            : Collections.emptyList();
+        Map<String, Object> response = cursor != null
+                ? cursorResponse(startupData, totalElements, size, start + size >= totalElements)
+                : pageResponse(startupData, totalElements, page, size);
+        response.put("nextCursor", null);
+        response.put("version", 0L);
+        return ResponseEntity.ok(response);
+    }
 
-        List<Map<String, Object>> startupData = paginatedStartups.stream().map(startup -> {
-            Map<String, Object> data = new HashMap<>();
-            data.put("id", startup.getId());
-            data.put("companyName", startup.getCompanyName());
-            data.put("industry", startup.getIndustry());
-            data.put("score", Math.round(rankingService.calculateOverallScore(startup)));
-            data.put("growthRate", startup.getAverageStartupGrowthRate());
-            data.put("totalFunding", startup.getTotalStartupFundingReceived());
-            return data;
-        }).collect(Collectors.toList());
+    // Where a page starts in the snapshot order: right after the cursor key, or at page * size
+    private long startIndex(RankingSnapshot snapshot, String metric, String industry, String cursor, int page,
+            int size) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return cursor == null ? (long) page * size : 0;
+        }
+        return snapshot.seek(metric, industry, RankingCursor.decode(cursor));
+    }
 
+    private Map<String, Object> cursorResponse(List<Map<String, Object>> content, long totalElements, int size,
+            boolean last) {
         Map<String, Object> response = new HashMap<>();
-        response.put("content", startupData);
-        response.put("totalElements", rankedStartups.size());
-        response.put("totalPages", (int) Math.ceil((double) rankedStartups.size() / size));
+        response.put("content", content);
+        response.put("totalElements", totalElements);
+        response.put("size", size);
+        response.put("numberOfElements", content.size());
+        response.put("last", last);
+        response.put("empty", content.isEmpty());
+        return response;
+    }
+
+    private Map<String, Object> pageResponse(List<Map<String, Object>> content, long totalElements, int page,
+            int size) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", content);
+        response.put("totalElements", totalElements);
+        response.put("totalPages", (int) Math.ceil((double) totalElements / size));
         response.put("size", size);
         response.put("number", page);
-        response.put("numberOfElements", startupData.size());
+        response.put("numberOfElements", content.size());
         response.put("first", page == 0);
-        response.put("last", end >= rankedStartups.size());
-        response.put("empty", startupData.isEmpty());
+        response.put("last", (long) (page + 1) * size >= totalElements);
+        response.put("empty", content.isEmpty());
+        return response;
+    }
 
+    @PostMapping("/recalculate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> recalculateScores() {
+        int count = rankingService.recalculateAllScores();
+        return ResponseEntity.ok(Map.of("message", "Ranking scores recalculated", "count", count));
+    }
+
+    @GetMapping("/pipeline-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getScoringPipelineStats() {
+        StartupScoringPipeline.Stats lastRun = scoringPipeline.getLastRun();
+        Map<String, Object> response = new HashMap<>();
+        response.put("parallelism", scoringPipeline.getParallelism());
+        response.put("totalRuns", scoringPipeline.getTotalRuns());
+        response.put("totalStartupsScored", scoringPipeline.getTotalStartups());
+        response.put("lastRunStartups", lastRun.getStartups());
+        response.put("lastRunMillis", lastRun.getDurationMillis());
+        response.put("lastRunStartupsPerSecond", Math.round(lastRun.getStartupsPerSecond()));
+        response.put("snapshotVersion", rankingSnapshotService.current().getVersion());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/weights")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getWeightProfiles() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("active", rankingWeightsService.getActiveWeights());
+        response.put("profiles", rankingWeightsService.getProfiles());
+        response.put("snapshotVersion", rankingSnapshotService.current().getVersion());
         return ResponseEntity.ok(response);
     }
 
+    @PutMapping("/weights/{name}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> saveWeightProfile(@PathVariable String name,
+            @RequestBody RankingWeightProfile profile) {
+        try {
+            RankingWeightProfile saved = rankingWeightsService.saveProfile(name, profile);
+            return ResponseEntity.ok(Map.of("message", "Ranking weight profile saved", "profile", saved));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/weights/{name}/activate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> activateWeightProfile(@PathVariable String name) {
+        try {
+            RankingWeightProfile active = rankingWeightsService.activate(name);
+            return ResponseEntity.ok(Map.of("message", "Ranking weight profile activated", "profile", active));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/weights/{name}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> deleteWeightProfile(@PathVariable String name) {
+        try {
+            rankingWeightsService.deleteProfile(name);
+            return ResponseEntity.ok(Map.of("message", "Ranking weight profile deleted"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * A/B view of two weight profiles: the top startups under each, with every
+     * startup's rank and score under the other profile
+     */
+    @GetMapping("/weights/compare")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> compareWeightProfiles(
+            @RequestParam String candidate,
+            @RequestParam(required = false) String baseline,
+            @RequestParam(required = false) String industry,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            RankingWeightsService.Comparison comparison = rankingWeightsService.compare(baseline, candidate,
+                    industry, Math.min(Math.max(limit, 1), 100));
+            Map<String, Object> response = new HashMap<>();
+            response.put("baseline", baseline != null ? baseline : "active");
+            response.put("candidate", candidate);
+            response.put("baselineTop", comparison.getBaseline());
+            response.put("candidateTop", comparison.getCandidate());
+            response.put("overlap", comparison.getOverlap());
+            response.put("rankedStartups", comparison.getRanked());
+            response.put("snapshotVersion", rankingSnapshotService.current().getVersion());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/dashboard-analytics")
     public ResponseEntity<Map<String, Object>> getDashboardAnalytics() {
-        List<Startup> allStartups = startupRepository.findAll();
         Map<String, Object> response = new HashMap<>();
 
-        response.put("growthData", generateGrowthData(allStartups));
+        response.put("growthData", generateGrowthData(analyticsCube.rollUp(StartupAnalyticsCube.Dimension.INDUSTRY)));
 
-        response.put("fundingData", generateFundingData(allStartups));
+        response.put("fundingData",
+                generateFundingData(analyticsCube.rollUp(StartupAnalyticsCube.Dimension.FUNDING_STAGE)));
 
-        response.put("locationData", generateLocationData(allStartups));
+        response.put("locationData", generateLocationData(analyticsCube.rollUp(StartupAnalyticsCube.Dimension.CITY)));
 
         return ResponseEntity.ok(response);
     }
 
-    private List<Map<String, Object>> generateGrowthData(List<Startup> startups) {
-        // Group all startups by industry and count them
-        Map<String, Long> industryCount = startups.stream()
-                .filter(s -> s.getIndustry() != null && !s.getIndustry().isEmpty())
-                .collect(Collectors.groupingBy(
-                        Startup::getIndustry,
-                        Collectors.counting()));
-
-        // Get top industries by startup count (limit to top 5)
-        List<String> industriesList = industryCount.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+    /**
+     * Slice and dice the startup analytics cube
+     *
+     * @param groupBy Comma-separated dimensions: industry, region, city,
+     *                fundingStage, month
+     * @param from    First creation month (yyyy-MM) to include
+     * @param to      Last creation month (yyyy-MM) to include
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<Map<String, Object>> getAnalyticsSlice(
+            @RequestParam(required = false, defaultValue = "industry") String groupBy,
+            @RequestParam(required = false) String industry,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String fundingStage,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        try {
+            List<StartupAnalyticsCube.Dimension> dimensions = new ArrayList<>();
+            for (String name : groupBy.split(",")) {
+                if (!name.trim().isEmpty()) {
+                    dimensions.add(StartupAnalyticsCube.Dimension.of(name));
+                }
+            }
+            Map<StartupAnalyticsCube.Dimension, String> filters = new EnumMap<>(StartupAnalyticsCube.Dimension.class);
+            putFilter(filters, StartupAnalyticsCube.Dimension.INDUSTRY, industry);
+            putFilter(filters, StartupAnalyticsCube.Dimension.REGION, region);
+            putFilter(filters, StartupAnalyticsCube.Dimension.CITY, city);
+            putFilter(filters, StartupAnalyticsCube.Dimension.FUNDING_STAGE, fundingStage);
+
+            List<StartupAnalyticsCube.Slice> slices = analyticsCube.slice(dimensions, filters,
+                    from != null && !from.isBlank() ? YearMonth.parse(from.trim()) : null,
+                    to != null && !to.isBlank() ? YearMonth.parse(to.trim()) : null);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("groupBy", dimensions.stream()
+                    .map(StartupAnalyticsCube.Dimension::getKey)
+                    .collect(Collectors.toList()));
+            response.put("slices", slices);
+            response.put("totalStartups", slices.stream().mapToLong(StartupAnalyticsCube.Slice::getCount).sum());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Monthly average growth rate per industry from the recorded metric history
+     *
+     * @param months How many months back to include, the current one included
+     */
+    @GetMapping("/analytics/growth")
+    public ResponseEntity<Map<String, Object>> getIndustryGrowth(
+            @RequestParam(defaultValue = "6") int months,
+            @RequestParam(required = false) String industry) {
+        YearMonth to = YearMonth.now();
+        YearMonth from = to.minusMonths(Math.min(Math.max(months, 1), 120) - 1);
+        List<Map<String, Object>> series = metricHistoryService.getIndustryGrowth(from, to).stream()
+                .filter(growth -> industry == null || industry.trim().isEmpty() || industry.equalsIgnoreCase("All")
+                        || industry.trim().equalsIgnoreCase(growth.getIndustry()))
+                .sorted(Comparator.comparingInt(IndustryGrowthDTO::getPeriod)
+                        .thenComparing(IndustryGrowthDTO::getIndustry))
+                .map(growth -> {
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("month", YearMonth.of(growth.getPeriod() / 100, growth.getPeriod() % 100).toString());
+                    item.put("industry", growth.getIndustry());
+                    item.put("averageGrowthRate", growth.getAverageGrowthRate());
+                    item.put("startups", growth.getStartups());
+                    return item;
+                })
+                .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("from", from.toString());
+        response.put("to", to.toString());
+        response.put("series", series);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * A startup's recorded metrics over time
+     *
+     * @param from First month (yyyy-MM) to include; defaults to twelve months ago
+     * @param to   Last month (yyyy-MM) to include; defaults to the current month
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<Map<String, Object>> getStartupMetricHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        try {
+            YearMonth toMonth = to != null && !to.isBlank() ? YearMonth.parse(to.trim()) : YearMonth.now();
+            YearMonth fromMonth = from != null && !from.isBlank() ? YearMonth.parse(from.trim())
+                    : toMonth.minusMonths(11);
+
+            List<MetricTrendPointDTO> points = metricHistoryService.getTrend(id, fromMonth.atDay(1).atStartOfDay(),
+                    toMonth.plusMonths(1).atDay(1).atStartOfDay().minusNanos(1));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", id);
+            response.put("from", fromMonth.toString());
+            response.put("to", toMonth.toString());
+            response.put("points", points);
+            return ResponseEntity.ok(response);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private void putFilter(Map<StartupAnalyticsCube.Dimension, String> filters,
+            StartupAnalyticsCube.Dimension dimension, String value) {
+        if (value != null && !value.trim().isEmpty() && !value.trim().equalsIgnoreCase("All")) {
+            filters.put(dimension, value);
+        }
+    }
+
+    private List<Map<String, Object>> generateGrowthData(List<StartupAnalyticsCube.Slice> industries) {
+        // Top industries by startup count (limit to top 5); rollups come largest first
+        List<String> industriesList = industries.stream()
+                .map(s -> s.getDimensions().get("industry"))
+                .filter(industry -> industry != null && !industry.isEmpty())
                 .limit(5)
-                .map(Map.Entry::getKey)
                 .collect(Collectors.toList());
 
-        List<Map<String, Object>> growthData = new ArrayList<>();
-        LocalDate today = LocalDate.now();
+        YearMonth current = YearMonth.now();
+        Map<String, Double> growthByMonthAndIndustry = new HashMap<>();
+        for (IndustryGrowthDTO growth : metricHistoryService.getIndustryGrowth(current.minusMonths(5), current)) {
+            growthByMonthAndIndustry.put(growth.getPeriod() + "|" + growth.getIndustry(),
+                    growth.getAverageGrowthRate());
+        }
 
+        List<Map<String, Object>> growthData = new ArrayList<>();
         for (int i = 5; i >= 0; i--) {
-            YearMonth month = YearMonth.from(today.minusMonths(i));
+            YearMonth month = current.minusMonths(i);
             String monthName = month.format(DateTimeFormatter.ofPattern("MMM"));
 
             Map<String, Object> monthData = new LinkedHashMap<>();
             monthData.put("name", monthName);
 
-            // Add each industry's growth data
+            // Recorded average growth rate of each industry that month; left out before history starts
+            int period = month.getYear() * 100 + month.getMonthValue();
             for (String industry : industriesList) {
-                double avgGrowthRate = startups.stream()
-                        .filter(s -> industry.equals(s.getIndustry()))
-                        .mapToDouble(Startup::getAverageStartupGrowthRate)
-                        .average()
-                        .orElse(0.0);
-
-                // Apply scaling based on month position
-                double scaleFactor = 1.0 + (0.1 * i);
-                long value = Math.round(avgGrowthRate * scaleFactor);
-                
-                monthData.put(industry, value);
+                Double avgGrowthRate = growthByMonthAndIndustry.get(period + "|" + industry);
+                if (avgGrowthRate != null) {
+                    monthData.put(industry, Math.round(avgGrowthRate));
+                }
             }
 
             growthData.add(monthData);
@@ -226,12 +598,13 @@ public class StartupRankingController {
         return growthData;
     }
 
-    private List<Map<String, Object>> generateFundingData(List<Startup> startups) {
-        Map<String, Long> fundingDistribution = startups.stream()
-                .filter(s -> s.getFundingStage() != null && !s.getFundingStage().isEmpty())
-                .collect(Collectors.groupingBy(
-                        Startup::getFundingStage,
-                        Collectors.counting()));
+    private List<Map<String, Object>> generateFundingData(List<StartupAnalyticsCube.Slice> fundingStages) {
+        Map<String, Long> fundingDistribution = fundingStages.stream()
+                .filter(s -> s.getDimensions().get("fundingStage") != null
+                        && !s.getDimensions().get("fundingStage").isEmpty())
+                .collect(Collectors.toMap(
+                        s -> s.getDimensions().get("fundingStage"),
+                        StartupAnalyticsCube.Slice::getCount));
 
         Map<String, Long> standardizedFunding = new LinkedHashMap<>();
         standardizedFunding.put("Seed", fundingDistribution.getOrDefault("Seed", 0L));
@@ -262,33 +635,31 @@ public class StartupRankingController {
                 .collect(Collectors.toList());
     }
 
-    private List<Map<String, Object>> generateLocationData(List<Startup> startups) {
-        Map<String, Long> locationDistribution = startups.stream()
-                .filter(s -> s.getCity() != null && !s.getCity().isEmpty())
-                .collect(Collectors.groupingBy(
-                        Startup::getCity,
-                        Collectors.counting()));
+    private List<Map<String, Object>> generateLocationData(List<StartupAnalyticsCube.Slice> cities) {
+        List<StartupAnalyticsCube.Slice> locations = cities.stream()
+                .filter(s -> s.getDimensions().get("city") != null && !s.getDimensions().get("city").isEmpty())
+                .collect(Collectors.toList());
 
-        List<Map.Entry<String, Long>> topLocations = locationDistribution.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        // Rollups come largest first
+        List<StartupAnalyticsCube.Slice> topLocations = locations.stream()
                 .limit(4)
                 .collect(Collectors.toList());
 
         List<Map<String, Object>> result = new ArrayList<>();
 
-        for (Map.Entry<String, Long> entry : topLocations) {
+        for (StartupAnalyticsCube.Slice location : topLocations) {
             Map<String, Object> item = new HashMap<>();
-            item.put("name", entry.getKey());
-            item.put("value", entry.getValue());
+            item.put("name", location.getDimensions().get("city"));
+            item.put("value", location.getCount());
             result.add(item);
         }
 
         long topLocationsCount = topLocations.stream()
-                .mapToLong(Map.Entry::getValue)
+                .mapToLong(StartupAnalyticsCube.Slice::getCount)
                 .sum();
 
-        long totalCount = locationDistribution.values().stream()
-                .mapToLong(Long::longValue)
+        long totalCount = locations.stream()
+                .mapToLong(StartupAnalyticsCube.Slice::getCount)
                 .sum();
 
         long otherCount = totalCount - topLocationsCount;
@@ -301,4 +672,4 @@ public class StartupRankingController {
 
         return result;
     }
-}
\ No newline at end of file
+}
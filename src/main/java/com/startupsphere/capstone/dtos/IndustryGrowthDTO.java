@@ -0,0 +1,35 @@
+package com.startupsphere.capstone.dtos;
+
+/**
+ * Average growth rate of one industry in one month of recorded metric history
+ */
+public class IndustryGrowthDTO {
+    private final int period;
+    private final String industry;
+    private final double averageGrowthRate;
+    private final long startups;
+
+    public IndustryGrowthDTO(Integer period, String industry, Double averageGrowthRate, Long startups) {
+        this.period = period;
+        this.industry = industry;
+        this.averageGrowthRate = averageGrowthRate != null ? averageGrowthRate : 0.0;
+        this.startups = startups != null ? startups : 0L;
+    }
+
+    // Month as yyyyMM
+    public int getPeriod() {
+        return period;
+    }
+
+    public String getIndustry() {
+        return industry;
+    }
+
+    public double getAverageGrowthRate() {
+        return averageGrowthRate;
+    }
+
+    public long getStartups() {
+        return startups;
+    }
+}
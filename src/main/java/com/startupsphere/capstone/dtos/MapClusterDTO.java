@@ -0,0 +1,46 @@
+package com.startupsphere.capstone.dtos;
+
+import java.util.Map;
+
+/**
+ * A group of nearby map markers at one zoom level: where to draw it, how many
+ * it stands for and how they split by industry
+ */
+public class MapClusterDTO {
+    private final double lat;
+    private final double lng;
+    private final int count;
+    private final Long id;
+    private final Map<String, Integer> industries;
+
+    public MapClusterDTO(double lat, double lng, int count, Long id, Map<String, Integer> industries) {
+        this.lat = lat;
+        this.lng = lng;
+        this.count = count;
+        this.id = id;
+        this.industries = industries;
+    }
+
+    // Centroid of the members
+    public double getLat() {
+        return lat;
+    }
+
+    public double getLng() {
+        return lng;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    // The member's id when the cluster is a single marker, otherwise null
+    public Long getId() {
+        return id;
+    }
+
+    // Members per industry; empty for stakeholders
+    public Map<String, Integer> getIndustries() {
+        return industries;
+    }
+}
@@ -0,0 +1,60 @@
+package com.startupsphere.capstone.dtos;
+
+/**
+ * A startup or stakeholder as a map marker: where it is and what to label it
+ * with, loaded without the rest of the row
+ */
+public class MapPointDTO {
+    private final long id;
+    private final String name;
+    private final String locationName;
+    private final double lat;
+    private final double lng;
+    private final String industry;
+    private final String status;
+
+    // Startups
+    public MapPointDTO(Long id, String name, String locationName, Double lat, Double lng, String industry,
+            String status) {
+        this.id = id;
+        this.name = name;
+        this.locationName = locationName;
+        this.lat = lat;
+        this.lng = lng;
+        this.industry = industry;
+        this.status = status;
+    }
+
+    // Stakeholders, which have neither industry nor status
+    public MapPointDTO(Long id, String name, String locationName, Double lat, Double lng) {
+        this(id, name, locationName, lat, lng, null, null);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLocationName() {
+        return locationName;
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public double getLng() {
+        return lng;
+    }
+
+    public String getIndustry() {
+        return industry;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,61 @@
+package com.startupsphere.capstone.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * A startup's complete metrics as of one entry of its metric history
+ */
+public class MetricTrendPointDTO {
+    private final LocalDateTime capturedAt;
+    private final double annualRevenue;
+    private final double growthRate;
+    private final double survivalRate;
+    private final double fundingReceived;
+    private final int views;
+    private final int likes;
+    private final int bookmarks;
+
+    public MetricTrendPointDTO(LocalDateTime capturedAt, double annualRevenue, double growthRate,
+            double survivalRate, double fundingReceived, int views, int likes, int bookmarks) {
+        this.capturedAt = capturedAt;
+        this.annualRevenue = annualRevenue;
+        this.growthRate = growthRate;
+        this.survivalRate = survivalRate;
+        this.fundingReceived = fundingReceived;
+        this.views = views;
+        this.likes = likes;
+        this.bookmarks = bookmarks;
+    }
+
+    public LocalDateTime getCapturedAt() {
+        return capturedAt;
+    }
+
+    public double getAnnualRevenue() {
+        return annualRevenue;
+    }
+
+    public double getGrowthRate() {
+        return growthRate;
+    }
+
+    public double getSurvivalRate() {
+        return survivalRate;
+    }
+
+    public double getFundingReceived() {
+        return fundingReceived;
+    }
+
+    public int getViews() {
+        return views;
+    }
+
+    public int getLikes() {
+        return likes;
+    }
+
+    public int getBookmarks() {
+        return bookmarks;
+    }
+}
@@ -0,0 +1,52 @@
+package com.startupsphere.capstone.dtos;
+
+/**
+ * A map marker and its great-circle distance from where the search was made
+ */
+public class NearbyPointDTO {
+    private final long id;
+    private final String name;
+    private final String locationName;
+    private final double lat;
+    private final double lng;
+    private final String industry;
+    private final double distanceKm;
+
+    public NearbyPointDTO(MapPointDTO point, double distanceKm) {
+        this.id = point.getId();
+        this.name = point.getName();
+        this.locationName = point.getLocationName();
+        this.lat = point.getLat();
+        this.lng = point.getLng();
+        this.industry = point.getIndustry();
+        this.distanceKm = distanceKm;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLocationName() {
+        return locationName;
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public double getLng() {
+        return lng;
+    }
+
+    public String getIndustry() {
+        return industry;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+}
@@ -0,0 +1,27 @@
+package com.startupsphere.capstone.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregates of a set of rows that change whenever a response built from them
+ * would: the latest lastUpdated, the row count and id sum (for rows added or
+ * removed) and, for startups, the engagement counter sums, which are bumped in
+ * place without touching lastUpdated.
+ */
+public record ResourceVersionDTO(
+        LocalDateTime lastModified,
+        Long rows,
+        Long idSum,
+        Long viewsSum,
+        Long likesSum,
+        Long bookmarksSum
+) {
+
+    public ResourceVersionDTO(LocalDateTime lastModified, Long rows, Long idSum) {
+        this(lastModified, rows, idSum, null, null, null);
+    }
+
+    public boolean isEmpty() {
+        return rows == null || rows == 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.startupsphere.capstone.dtos;
+
+/**
+ * The searchable text of one startup, stakeholder or investor, loaded without
+ * the rest of the row to build the in-memory search index and suggestions
+ */
+public class SearchDocumentDTO {
+    private final long id;
+    private final String name;
+    private final String secondary;
+    private final long weight;
+
+    // Startups and stakeholders: name and location
+    public SearchDocumentDTO(Long id, String name, String secondary, Integer weight) {
+        this.id = id;
+        this.name = name;
+        this.secondary = secondary;
+        this.weight = weight != null ? weight : 0;
+    }
+
+    // Investors: first and last name
+    public SearchDocumentDTO(Integer id, String firstname, String lastname, Integer weight) {
+        this.id = id;
+        this.name = (firstname != null ? firstname : "") + " " + (lastname != null ? lastname : "");
+        this.secondary = null;
+        this.weight = weight != null ? weight : 0;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Also searchable, ranked below name hits; null when there is none
+    public String getSecondary() {
+        return secondary;
+    }
+
+    // How high the name ranks among suggestions: views, or linked startups for stakeholders
+    public long getWeight() {
+        return weight;
+    }
+}
@@ -34,6 +34,34 @@ public class StakeholderDTO {
     // Constructors
     public StakeholderDTO() {}
 
+    // Scalar projection for search results, without associated startups
+    public StakeholderDTO(Long id, String name, String email, String phoneNumber, String region, String regionCode,
+            String province, String provinceCode, String city, String cityCode, String barangay, String barangayCode,
+            String street, String postalCode, String facebook, String linkedIn, Double locationLat,
+            Double locationLng, String locationName, LocalDateTime createdAt, LocalDateTime lastUpdated) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.region = region;
+        this.regionCode = regionCode;
+        this.province = province;
+        this.provinceCode = provinceCode;
+        this.city = city;
+        this.cityCode = cityCode;
+        this.barangay = barangay;
+        this.barangayCode = barangayCode;
+        this.street = street;
+        this.postalCode = postalCode;
+        this.facebook = facebook;
+        this.linkedIn = linkedIn;
+        this.locationLat = locationLat;
+        this.locationLng = locationLng;
+        this.locationName = locationName;
+        this.createdAt = createdAt;
+        this.lastUpdated = lastUpdated;
+    }
+
     public StakeholderDTO(Stakeholder stakeholder) {
         this.id = stakeholder.getId();
         this.name = stakeholder.getName();
@@ -0,0 +1,68 @@
+package com.startupsphere.capstone.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * The few startup columns the dashboard charts group by, so the dashboard
+ * never loads full Startup rows with their photo and certificate LOBs.
+ */
+public class StartupAnalyticsDTO {
+    private final Long id;
+    private final String industry;
+    private final String region;
+    private final String city;
+    private final String fundingStage;
+    private final LocalDateTime createdAt;
+    private final double averageStartupGrowthRate;
+    private final double totalFunding;
+    private final double annualRevenue;
+
+    public StartupAnalyticsDTO(Long id, String industry, String region, String city, String fundingStage,
+            LocalDateTime createdAt, Double averageStartupGrowthRate, Double totalFunding, Double annualRevenue) {
+        this.id = id;
+        this.industry = industry;
+        this.region = region;
+        this.city = city;
+        this.fundingStage = fundingStage;
+        this.createdAt = createdAt;
+        this.averageStartupGrowthRate = averageStartupGrowthRate != null ? averageStartupGrowthRate : 0.0;
+        this.totalFunding = totalFunding != null ? totalFunding : 0.0;
+        this.annualRevenue = annualRevenue != null ? annualRevenue : 0.0;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getIndustry() {
+        return industry;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getFundingStage() {
+        return fundingStage;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public double getAverageStartupGrowthRate() {
+        return averageStartupGrowthRate;
+    }
+
+    public double getTotalFunding() {
+        return totalFunding;
+    }
+
+    public double getAnnualRevenue() {
+        return annualRevenue;
+    }
+}
@@ -50,6 +50,48 @@ public class StartupDTO {
         this(startup, true);
     }
 
+    // Scalar projection for search results, without associated stakeholders
+    public StartupDTO(Long id, String companyName, String companyDescription, String foundedDate,
+            String typeOfCompany, String numberOfEmployees, String phoneNumber, String contactEmail,
+            String streetAddress, String city, String province, String region, String barangay, String postalCode,
+            String industry, String website, String facebook, String twitter, String instagram, String linkedIn,
+            Double locationLat, Double locationLng, String locationName, String status, Double revenue,
+            Double annualRevenue, Double paidUpCapital, String fundingStage, Integer viewsCount,
+            Boolean emailVerified, LocalDateTime createdAt, LocalDateTime lastUpdated) {
+        this.id = id;
+        this.companyName = companyName;
+        this.companyDescription = companyDescription;
+        this.foundedDate = foundedDate;
+        this.typeOfCompany = typeOfCompany;
+        this.numberOfEmployees = numberOfEmployees;
+        this.phoneNumber = phoneNumber;
+        this.contactEmail = contactEmail;
+        this.streetAddress = streetAddress;
+        this.city = city;
+        this.province = province;
+        this.region = region;
+        this.barangay = barangay;
+        this.postalCode = postalCode;
+        this.industry = industry;
+        this.website = website;
+        this.facebook = facebook;
+        this.twitter = twitter;
+        this.instagram = instagram;
+        this.linkedIn = linkedIn;
+        this.locationLat = locationLat;
+        this.locationLng = locationLng;
+        this.locationName = locationName;
+        this.status = status;
+        this.revenue = revenue;
+        this.annualRevenue = annualRevenue;
+        this.paidUpCapital = paidUpCapital;
+        this.fundingStage = fundingStage;
+        this.viewsCount = viewsCount;
+        this.emailVerified = emailVerified;
+        this.createdAt = createdAt;
+        this.lastUpdated = lastUpdated;
+    }
+
     public StartupDTO(Startup startup, boolean includeStakeholders) {
         this.id = startup.getId();
         this.companyName = startup.getCompanyName();
@@ -0,0 +1,94 @@
+package com.startupsphere.capstone.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * The startup columns the review screen filters and sorts by, loaded without
+ * the rest of the row to build the in-memory facet index and its metric ranges
+ */
+public class StartupFacetDTO {
+    private final Long id;
+    private final String industry;
+    private final String status;
+    private final String region;
+    private final Boolean isDraft;
+    private final Boolean emailVerified;
+    private final String fundingStage;
+    private final String companyName;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime lastUpdated;
+    private final Double annualRevenue;
+    private final Double totalStartupFundingReceived;
+    private final Integer numberOfFundingRounds;
+
+    public StartupFacetDTO(Long id, String industry, String status, String region, Boolean isDraft,
+            Boolean emailVerified, String fundingStage, String companyName, LocalDateTime createdAt,
+            LocalDateTime lastUpdated, Double annualRevenue, Double totalStartupFundingReceived,
+            Integer numberOfFundingRounds) {
+        this.id = id;
+        this.industry = industry;
+        this.status = status;
+        this.region = region;
+        this.isDraft = isDraft;
+        this.emailVerified = emailVerified;
+        this.fundingStage = fundingStage;
+        this.companyName = companyName;
+        this.createdAt = createdAt;
+        this.lastUpdated = lastUpdated;
+        this.annualRevenue = annualRevenue;
+        this.totalStartupFundingReceived = totalStartupFundingReceived;
+        this.numberOfFundingRounds = numberOfFundingRounds;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getIndustry() {
+        return industry;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public Boolean getIsDraft() {
+        return isDraft;
+    }
+
+    public Boolean getEmailVerified() {
+        return emailVerified;
+    }
+
+    public String getFundingStage() {
+        return fundingStage;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public Double getAnnualRevenue() {
+        return annualRevenue;
+    }
+
+    public Double getTotalStartupFundingReceived() {
+        return totalStartupFundingReceived;
+    }
+
+    public Integer getNumberOfFundingRounds() {
+        return numberOfFundingRounds;
+    }
+}
@@ -0,0 +1,136 @@
+package com.startupsphere.capstone.dtos;
+
+/**
+ * Scalar ranking inputs of one startup, selected straight from the startups
+ * table so scoring never hydrates a Startup entity or its likes/bookmarks.
+ * Profile and social media completeness are counted by the query itself.
+ */
+public class StartupMetricsDTO {
+    private final Long id;
+    private final String companyName;
+    private final String industry;
+    private final String status;
+    private final double annualRevenue;
+    private final double growthRate;
+    private final double survivalRate;
+    private final double paidUpCapital;
+    private final double fundingReceived;
+    private final int fundingRounds;
+    private final int foreignInvestments;
+    private final double governmentGrants;
+    private final int incubationPrograms;
+    private final int mentors;
+    private final int partnerships;
+    private final int views;
+    private final int likes;
+    private final int bookmarks;
+    private final int profileFields;
+    private final int socialLinks;
+
+    public StartupMetricsDTO(Long id, String companyName, String industry, String status,
+            Double annualRevenue, Double growthRate, Double survivalRate, Double paidUpCapital,
+            Double fundingReceived, Integer fundingRounds, Integer foreignInvestments, Double governmentGrants,
+            Integer incubationPrograms, Integer mentors, Integer partnerships, Integer views,
+            Number likes, Number bookmarks, Number profileFields, Number socialLinks) {
+        this.id = id;
+        this.companyName = companyName;
+        this.industry = industry;
+        this.status = status;
+        this.annualRevenue = annualRevenue != null ? annualRevenue : 0.0;
+        this.growthRate = growthRate != null ? growthRate : 0.0;
+        this.survivalRate = survivalRate != null ? survivalRate : 0.0;
+        this.paidUpCapital = paidUpCapital != null ? paidUpCapital : 0.0;
+        this.fundingReceived = fundingReceived != null ? fundingReceived : 0.0;
+        this.fundingRounds = fundingRounds != null ? fundingRounds : 0;
+        this.foreignInvestments = foreignInvestments != null ? foreignInvestments : 0;
+        this.governmentGrants = governmentGrants != null ? governmentGrants : 0.0;
+        this.incubationPrograms = incubationPrograms != null ? incubationPrograms : 0;
+        this.mentors = mentors != null ? mentors : 0;
+        this.partnerships = partnerships != null ? partnerships : 0;
+        this.views = views != null ? views : 0;
+        this.likes = likes != null ? likes.intValue() : 0;
+        this.bookmarks = bookmarks != null ? bookmarks.intValue() : 0;
+        this.profileFields = profileFields != null ? profileFields.intValue() : 0;
+        this.socialLinks = socialLinks != null ? socialLinks.intValue() : 0;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    public String getIndustry() {
+        return industry;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public double getAnnualRevenue() {
+        return annualRevenue;
+    }
+
+    public double getGrowthRate() {
+        return growthRate;
+    }
+
+    public double getSurvivalRate() {
+        return survivalRate;
+    }
+
+    public double getPaidUpCapital() {
+        return paidUpCapital;
+    }
+
+    public double getFundingReceived() {
+        return fundingReceived;
+    }
+
+    public int getFundingRounds() {
+        return fundingRounds;
+    }
+
+    public int getForeignInvestments() {
+        return foreignInvestments;
+    }
+
+    public double getGovernmentGrants() {
+        return governmentGrants;
+    }
+
+    public int getIncubationPrograms() {
+        return incubationPrograms;
+    }
+
+    public int getMentors() {
+        return mentors;
+    }
+
+    public int getPartnerships() {
+        return partnerships;
+    }
+
+    public int getViews() {
+        return views;
+    }
+
+    public int getLikes() {
+        return likes;
+    }
+
+    public int getBookmarks() {
+        return bookmarks;
+    }
+
+    public int getProfileFields() {
+        return profileFields;
+    }
+
+    public int getSocialLinks() {
+        return socialLinks;
+    }
+}
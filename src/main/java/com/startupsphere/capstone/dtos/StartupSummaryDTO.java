@@ -0,0 +1,40 @@
+package com.startupsphere.capstone.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * A startup as shown in list pages, selected column by column so a page never
+ * reads the photo, certificate or description LOBs or joins the owner. The full
+ * row is served by the detail endpoint, and the photo by its own endpoint when
+ * hasPhoto is set, or from /startups/photos/{photoHash} once it is in the blob
+ * store.
+ */
+public record StartupSummaryDTO(
+        Long id,
+        String companyName,
+        String industry,
+        String status,
+        String region,
+        String city,
+        String province,
+        String locationName,
+        Double locationLat,
+        Double locationLng,
+        String typeOfCompany,
+        String fundingStage,
+        Double annualRevenue,
+        String contactEmail,
+        String website,
+        Integer viewsCount,
+        Integer likesCount,
+        Integer bookmarksCount,
+        Boolean emailVerified,
+        Boolean isDraft,
+        Boolean hasPhoto,
+        String photoHash,
+        Boolean hasDescription,
+        Integer userId,
+        LocalDateTime createdAt,
+        LocalDateTime lastUpdated
+) {
+}
@@ -0,0 +1,9 @@
+package com.startupsphere.capstone.dtos;
+
+/**
+ * Where an uploaded file of a startup is in the blob store, read without the
+ * rest of the row. The hash is null when there is no file, or when it is still
+ * kept in the row waiting for migration.
+ */
+public record StoredFileDTO(String hash, Long size, String contentType) {
+}
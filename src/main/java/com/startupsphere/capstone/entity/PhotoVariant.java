@@ -0,0 +1,83 @@
+package com.startupsphere.capstone.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A resized copy of a photo in the blob store, remembered per original blob and
+ * width so each size is generated once however many startups share the photo.
+ * A photo already within a width maps to itself.
+ */
+@Entity
+@Table(name = "photo_variants")
+public class PhotoVariant {
+
+    // Original hash and width, as "<hash>-<width>"
+    @Id
+    @Column(name = "id", length = 80)
+    private String id;
+
+    @Column(name = "original_hash", length = 64, nullable = false)
+    private String originalHash;
+
+    @Column(name = "width", nullable = false)
+    private int width;
+
+    @Column(name = "variant_hash", length = 64, nullable = false)
+    private String variantHash;
+
+    // Null when the variant is the original, whose type the startup row keeps
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public PhotoVariant() {
+    }
+
+    public PhotoVariant(String originalHash, int width, String variantHash, String contentType, long size) {
+        this.id = id(originalHash, width);
+        this.originalHash = originalHash;
+        this.width = width;
+        this.variantHash = variantHash;
+        this.contentType = contentType;
+        this.size = size;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public static String id(String originalHash, int width) {
+        return originalHash + "-" + width;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOriginalHash() {
+        return originalHash;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public String getVariantHash() {
+        return variantHash;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,209 @@
+package com.startupsphere.capstone.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Named set of ranking weights and normalization maxima. At most one profile is
+ * active; the others can be compared against it before switching.
+ */
+@Entity
+@Table(name = "ranking_weight_profiles")
+public class RankingWeightProfile {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "active", nullable = false)
+    private boolean active;
+
+    // Category weights, adding up to 1
+    @Column(name = "growth_weight", nullable = false)
+    private double growthWeight;
+
+    @Column(name = "investment_weight", nullable = false)
+    private double investmentWeight;
+
+    @Column(name = "ecosystem_weight", nullable = false)
+    private double ecosystemWeight;
+
+    @Column(name = "engagement_weight", nullable = false)
+    private double engagementWeight;
+
+    // Values at or above which a metric counts as fully met
+    @Column(name = "max_annual_revenue", nullable = false)
+    private double maxAnnualRevenue;
+
+    @Column(name = "max_growth_rate", nullable = false)
+    private double maxGrowthRate;
+
+    @Column(name = "max_funding", nullable = false)
+    private double maxFunding;
+
+    @Column(name = "max_government_grant", nullable = false)
+    private double maxGovernmentGrant;
+
+    @Column(name = "max_funding_rounds", nullable = false)
+    private int maxFundingRounds;
+
+    @Column(name = "max_mentors", nullable = false)
+    private int maxMentors;
+
+    @Column(name = "max_partnerships", nullable = false)
+    private int maxPartnerships;
+
+    @Column(name = "max_views", nullable = false)
+    private int maxViews;
+
+    @Column(name = "max_likes", nullable = false)
+    private int maxLikes;
+
+    @Column(name = "max_bookmarks", nullable = false)
+    private int maxBookmarks;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public RankingWeightProfile() {
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public double getGrowthWeight() {
+        return growthWeight;
+    }
+
+    public void setGrowthWeight(double growthWeight) {
+        this.growthWeight = growthWeight;
+    }
+
+    public double getInvestmentWeight() {
+        return investmentWeight;
+    }
+
+    public void setInvestmentWeight(double investmentWeight) {
+        this.investmentWeight = investmentWeight;
+    }
+
+    public double getEcosystemWeight() {
+        return ecosystemWeight;
+    }
+
+    public void setEcosystemWeight(double ecosystemWeight) {
+        this.ecosystemWeight = ecosystemWeight;
+    }
+
+    public double getEngagementWeight() {
+        return engagementWeight;
+    }
+
+    public void setEngagementWeight(double engagementWeight) {
+        this.engagementWeight = engagementWeight;
+    }
+
+    public double getMaxAnnualRevenue() {
+        return maxAnnualRevenue;
+    }
+
+    public void setMaxAnnualRevenue(double maxAnnualRevenue) {
+        this.maxAnnualRevenue = maxAnnualRevenue;
+    }
+
+    public double getMaxGrowthRate() {
+        return maxGrowthRate;
+    }
+
+    public void setMaxGrowthRate(double maxGrowthRate) {
+        this.maxGrowthRate = maxGrowthRate;
+    }
+
+    public double getMaxFunding() {
+        return maxFunding;
+    }
+
+    public void setMaxFunding(double maxFunding) {
+        this.maxFunding = maxFunding;
+    }
+
+    public double getMaxGovernmentGrant() {
+        return maxGovernmentGrant;
+    }
+
+    public void setMaxGovernmentGrant(double maxGovernmentGrant) {
+        this.maxGovernmentGrant = maxGovernmentGrant;
+    }
+
+    public int getMaxFundingRounds() {
+        return maxFundingRounds;
+    }
+
+    public void setMaxFundingRounds(int maxFundingRounds) {
+        this.maxFundingRounds = maxFundingRounds;
+    }
+
+    public int getMaxMentors() {
+        return maxMentors;
+    }
+
+    public void setMaxMentors(int maxMentors) {
+        this.maxMentors = maxMentors;
+    }
+
+    public int getMaxPartnerships() {
+        return maxPartnerships;
+    }
+
+    public void setMaxPartnerships(int maxPartnerships) {
+        this.maxPartnerships = maxPartnerships;
+    }
+
+    public int getMaxViews() {
+        return maxViews;
+    }
+
+    public void setMaxViews(int maxViews) {
+        this.maxViews = maxViews;
+    }
+
+    public int getMaxLikes() {
+        return maxLikes;
+    }
+
+    public void setMaxLikes(int maxLikes) {
+        this.maxLikes = maxLikes;
+    }
+
+    public int getMaxBookmarks() {
+        return maxBookmarks;
+    }
+
+    public void setMaxBookmarks(int maxBookmarks) {
+        this.maxBookmarks = maxBookmarks;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -59,6 +59,15 @@ public class Startup {
     @Column(name = "views_count", nullable = false)
     private Integer viewsCount = 0;
 
+    // Maintained by atomic UPDATEs in LikeService/BookmarksService, never written by entity saves
+    @Column(name = "likes_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer likesCount = 0;
+
+    @Column(name = "bookmarks_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer bookmarksCount = 0;
+
     private String companyName;
     
     @Lob
@@ -118,6 +127,36 @@ public class Startup {
     @Column(name = "photo", columnDefinition = "LONGBLOB")
     private byte[] photo;
 
+    // Derived in setPhoto/setCompanyDescription so ranking and list queries never read the LOB columns
+    @Column(name = "photo_size")
+    private Long photoSize = 0L;
+
+    @Column(name = "has_photo")
+    private Boolean hasPhoto = false;
+
+    @Column(name = "has_description")
+    private Boolean hasDescription = false;
+
+    // Blob store keys (SHA-256) of the photo and certificate; the LOB columns only
+    // hold files uploaded before the blob store, until they are migrated
+    @Column(name = "photo_hash", length = 64)
+    private String photoHash;
+
+    @Column(name = "photo_content_type")
+    private String photoContentType;
+
+    @JsonIgnore
+    @Column(name = "certificate_hash", length = 64)
+    private String certificateHash;
+
+    @JsonIgnore
+    @Column(name = "certificate_content_type")
+    private String certificateContentType;
+
+    @JsonIgnore
+    @Column(name = "certificate_size")
+    private Long certificateSize;
+
     @Column(name = "created_at", nullable = true, updatable = false)
     private LocalDateTime createdAt;
 
@@ -178,6 +217,7 @@ public class Startup {
         this.viewsCount = viewsCount;
         this.companyName = companyName;
         this.companyDescription = companyDescription;
+        this.hasDescription = companyDescription != null && !companyDescription.trim().isEmpty();
         this.foundedDate = foundedDate;
         this.typeOfCompany = typeOfCompany;
         this.numberOfEmployees = numberOfEmployees;
@@ -259,6 +299,41 @@ public class Startup {
 
     public void setPhoto(byte[] photo) {
         this.photo = photo;
+        this.photoSize = photo != null ? (long) photo.length : 0L;
+        this.hasPhoto = photoSize > 0;
+        this.photoHash = null;
+        this.photoContentType = null;
+    }
+
+    /**
+     * Point the photo at a blob store entry, dropping any photo kept in the row
+     */
+    public void setStoredPhoto(String hash, long size, String contentType) {
+        this.photo = null;
+        this.photoHash = hash;
+        this.photoSize = size;
+        this.hasPhoto = size > 0;
+        this.photoContentType = contentType;
+    }
+
+    public String getPhotoHash() {
+        return photoHash;
+    }
+
+    public String getPhotoContentType() {
+        return photoContentType;
+    }
+
+    public Long getPhotoSize() {
+        return (photoSize == null) ? 0L : photoSize;
+    }
+
+    public Boolean getHasPhoto() {
+        return Boolean.TRUE.equals(hasPhoto);
+    }
+
+    public Boolean getHasDescription() {
+        return Boolean.TRUE.equals(hasDescription);
     }
 
     public User getUser() {
@@ -293,6 +368,22 @@ public class Startup {
         this.viewsCount = viewsCount;
     }
 
+    public Integer getLikesCount() {
+        return (likesCount == null) ? 0 : likesCount;
+    }
+
+    public void setLikesCount(Integer likesCount) {
+        this.likesCount = likesCount;
+    }
+
+    public Integer getBookmarksCount() {
+        return (bookmarksCount == null) ? 0 : bookmarksCount;
+    }
+
+    public void setBookmarksCount(Integer bookmarksCount) {
+        this.bookmarksCount = bookmarksCount;
+    }
+
     public String getCompanyName() {
         return companyName;
     }
@@ -307,6 +398,7 @@ public class Startup {
 
     public void setCompanyDescription(String companyDescription) {
         this.companyDescription = companyDescription;
+        this.hasDescription = companyDescription != null && !companyDescription.trim().isEmpty();
     }
 
     public String getFoundedDate() {
@@ -731,6 +823,31 @@ public class Startup {
 
     public void setRegistrationCertificate(byte[] registrationCertificate) {
         this.registrationCertificate = registrationCertificate;
+        this.certificateHash = null;
+        this.certificateContentType = null;
+        this.certificateSize = null;
+    }
+
+    /**
+     * Point the certificate at a blob store entry, dropping any file kept in the row
+     */
+    public void setStoredRegistrationCertificate(String hash, long size, String contentType) {
+        this.registrationCertificate = null;
+        this.certificateHash = hash;
+        this.certificateSize = size;
+        this.certificateContentType = contentType;
+    }
+
+    public String getCertificateHash() {
+        return certificateHash;
+    }
+
+    public String getCertificateContentType() {
+        return certificateContentType;
+    }
+
+    public Long getCertificateSize() {
+        return certificateSize;
     }
 
     public Boolean getIsDraft() {
@@ -0,0 +1,162 @@
+package com.startupsphere.capstone.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One append-only entry of a startup's metric history.
+ *
+ * Full rows carry every metric: one per startup at the start of each month
+ * (monthly), and the first row written for a startup after a restart. Delta
+ * rows, written when metrics change in between, carry only the metrics that
+ * changed since the previous row of that startup; changed_fields says which.
+ * Rows are only ever inserted, in batches by StartupMetricHistoryService.
+ */
+@Entity
+@Table(name = "startup_metric_snapshots", indexes = {
+    @Index(name = "idx_metric_history_startup", columnList = "startup_id, captured_at"),
+    @Index(name = "idx_metric_history_monthly", columnList = "monthly, period, industry")
+})
+public class StartupMetricHistory {
+
+    // Bits of changed_fields, one per metric column
+    public static final int ANNUAL_REVENUE = 1;
+    public static final int GROWTH_RATE = 1 << 1;
+    public static final int SURVIVAL_RATE = 1 << 2;
+    public static final int FUNDING_RECEIVED = 1 << 3;
+    public static final int VIEWS = 1 << 4;
+    public static final int LIKES = 1 << 5;
+    public static final int BOOKMARKS = 1 << 6;
+    public static final int ALL_FIELDS = (1 << 7) - 1;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "startup_id", nullable = false)
+    private Long startupId;
+
+    // Month of capture as yyyyMM, e.g. 202510
+    @Column(name = "period", nullable = false)
+    private int period;
+
+    @Column(name = "captured_at", nullable = false)
+    private LocalDateTime capturedAt;
+
+    @Column(name = "monthly", nullable = false)
+    private boolean monthly;
+
+    @Column(name = "full_snapshot", nullable = false)
+    private boolean fullSnapshot;
+
+    @Column(name = "changed_fields", nullable = false)
+    private int changedFields;
+
+    @Column(name = "industry")
+    private String industry;
+
+    // Null in delta rows when the metric did not change
+    @Column(name = "annual_revenue")
+    private Double annualRevenue;
+
+    @Column(name = "growth_rate")
+    private Double growthRate;
+
+    @Column(name = "survival_rate")
+    private Double survivalRate;
+
+    @Column(name = "funding_received")
+    private Double fundingReceived;
+
+    @Column(name = "views")
+    private Integer views;
+
+    @Column(name = "likes")
+    private Integer likes;
+
+    @Column(name = "bookmarks")
+    private Integer bookmarks;
+
+    public StartupMetricHistory() {
+    }
+
+    public StartupMetricHistory(Long startupId, int period, LocalDateTime capturedAt, boolean monthly,
+            boolean fullSnapshot, int changedFields, String industry, Double annualRevenue, Double growthRate,
+            Double survivalRate, Double fundingReceived, Integer views, Integer likes, Integer bookmarks) {
+        this.startupId = startupId;
+        this.period = period;
+        this.capturedAt = capturedAt;
+        this.monthly = monthly;
+        this.fullSnapshot = fullSnapshot;
+        this.changedFields = changedFields;
+        this.industry = industry;
+        this.annualRevenue = annualRevenue;
+        this.growthRate = growthRate;
+        this.survivalRate = survivalRate;
+        this.fundingReceived = fundingReceived;
+        this.views = views;
+        this.likes = likes;
+        this.bookmarks = bookmarks;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getStartupId() {
+        return startupId;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    public LocalDateTime getCapturedAt() {
+        return capturedAt;
+    }
+
+    public boolean isMonthly() {
+        return monthly;
+    }
+
+    public boolean isFullSnapshot() {
+        return fullSnapshot;
+    }
+
+    public int getChangedFields() {
+        return changedFields;
+    }
+
+    public String getIndustry() {
+        return industry;
+    }
+
+    public Double getAnnualRevenue() {
+        return annualRevenue;
+    }
+
+    public Double getGrowthRate() {
+        return growthRate;
+    }
+
+    public Double getSurvivalRate() {
+        return survivalRate;
+    }
+
+    public Double getFundingReceived() {
+        return fundingReceived;
+    }
+
+    public Integer getViews() {
+        return views;
+    }
+
+    public Integer getLikes() {
+        return likes;
+    }
+
+    public Integer getBookmarks() {
+        return bookmarks;
+    }
+}
@@ -0,0 +1,170 @@
+package com.startupsphere.capstone.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted ranking scores for a single startup. Rows are recalculated only when
+ * the owning startup (or its likes, bookmarks or views) changes, so ranking reads
+ * become indexed ORDER BY queries instead of re-scoring every startup.
+ */
+@Entity
+@Table(name = "startup_scores", indexes = {
+    @Index(name = "idx_score_overall", columnList = "approved, overall_score, startup_id"),
+    @Index(name = "idx_score_growth", columnList = "approved, growth_score, startup_id"),
+    @Index(name = "idx_score_investment", columnList = "approved, investment_score, startup_id"),
+    @Index(name = "idx_score_ecosystem", columnList = "approved, ecosystem_score, startup_id"),
+    @Index(name = "idx_score_engagement", columnList = "approved, engagement_score, startup_id"),
+    @Index(name = "idx_score_industry_overall", columnList = "approved, industry, overall_score, startup_id")
+})
+public class StartupScore {
+
+    @Id
+    @Column(name = "startup_id")
+    private Long startupId;
+
+    @Column(name = "company_name")
+    private String companyName;
+
+    @Column(name = "industry")
+    private String industry;
+
+    @Column(name = "approved", nullable = false)
+    private Boolean approved = false;
+
+    // Overall score is on a 0-100 scale, the category scores are 0-1
+    @Column(name = "overall_score", nullable = false)
+    private double overallScore;
+
+    @Column(name = "growth_score", nullable = false)
+    private double growthScore;
+
+    @Column(name = "investment_score", nullable = false)
+    private double investmentScore;
+
+    @Column(name = "ecosystem_score", nullable = false)
+    private double ecosystemScore;
+
+    @Column(name = "engagement_score", nullable = false)
+    private double engagementScore;
+
+    // Denormalized display fields so ranking pages never load the startup row
+    @Column(name = "growth_rate")
+    private double growthRate;
+
+    @Column(name = "total_funding")
+    private double totalFunding;
+
+    @Column(name = "calculated_at")
+    private LocalDateTime calculatedAt;
+
+    public StartupScore() {
+    }
+
+    public StartupScore(Long startupId) {
+        this.startupId = startupId;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        this.calculatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getStartupId() {
+        return startupId;
+    }
+
+    public void setStartupId(Long startupId) {
+        this.startupId = startupId;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    public void setCompanyName(String companyName) {
+        this.companyName = companyName;
+    }
+
+    public String getIndustry() {
+        return industry;
+    }
+
+    public void setIndustry(String industry) {
+        this.industry = industry;
+    }
+
+    public Boolean getApproved() {
+        return approved;
+    }
+
+    public void setApproved(Boolean approved) {
+        this.approved = approved;
+    }
+
+    public double getOverallScore() {
+        return overallScore;
+    }
+
+    public void setOverallScore(double overallScore) {
+        this.overallScore = overallScore;
+    }
+
+    public double getGrowthScore() {
+        return growthScore;
+    }
+
+    public void setGrowthScore(double growthScore) {
+        this.growthScore = growthScore;
+    }
+
+    public double getInvestmentScore() {
+        return investmentScore;
+    }
+
+    public void setInvestmentScore(double investmentScore) {
+        this.investmentScore = investmentScore;
+    }
+
+    public double getEcosystemScore() {
+        return ecosystemScore;
+    }
+
+    public void setEcosystemScore(double ecosystemScore) {
+        this.ecosystemScore = ecosystemScore;
+    }
+
+    public double getEngagementScore() {
+        return engagementScore;
+    }
+
+    public void setEngagementScore(double engagementScore) {
+        this.engagementScore = engagementScore;
+    }
+
+    public double getGrowthRate() {
+        return growthRate;
+    }
+
+    public void setGrowthRate(double growthRate) {
+        this.growthRate = growthRate;
+    }
+
+    public double getTotalFunding() {
+        return totalFunding;
+    }
+
+    public void setTotalFunding(double totalFunding) {
+        this.totalFunding = totalFunding;
+    }
+
+    public LocalDateTime getCalculatedAt() {
+        return calculatedAt;
+    }
+
+    public void setCalculatedAt(LocalDateTime calculatedAt) {
+        this.calculatedAt = calculatedAt;
+    }
+}
@@ -10,12 +10,22 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.startupsphere.capstone.dtos.SearchDocumentDTO;
 import com.startupsphere.capstone.entity.Investor;
 
 @Repository
 public interface InvestorRepository extends JpaRepository<Investor, Integer> {
     Page<Investor> findByFirstnameContainingIgnoreCaseOrLastnameContainingIgnoreCase(String firstname, String lastname, Pageable pageable);
-    List<Investor> findByFirstnameContainingIgnoreCaseOrLastnameContainingIgnoreCase(String firstname, String lastname);
+
+    @Query("SELECT new com.startupsphere.capstone.dtos.SearchDocumentDTO(i.investorId, i.firstname, i.lastname, " +
+            "i.views) " +
+            "FROM Investor i")
+    List<SearchDocumentDTO> findAllSearchDocuments();
+
+    @Query("SELECT new com.startupsphere.capstone.dtos.SearchDocumentDTO(i.investorId, i.firstname, i.lastname, " +
+            "i.views) " +
+            "FROM Investor i WHERE i.investorId = :id")
+    Optional<SearchDocumentDTO> findSearchDocumentById(@Param("id") Integer id);
 
     @Query("SELECT i FROM Investor i WHERE i.user_id.id = :userId")
     Optional<Investor> findByUserId(@Param("userId") Integer userId);
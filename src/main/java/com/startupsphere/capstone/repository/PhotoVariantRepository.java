@@ -0,0 +1,9 @@
+package com.startupsphere.capstone.repository;
+
+import com.startupsphere.capstone.entity.PhotoVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PhotoVariantRepository extends JpaRepository<PhotoVariant, String> {
+}
@@ -0,0 +1,12 @@
+package com.startupsphere.capstone.repository;
+
+import com.startupsphere.capstone.entity.RankingWeightProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RankingWeightProfileRepository extends JpaRepository<RankingWeightProfile, String> {
+    Optional<RankingWeightProfile> findFirstByActiveTrue();
+}
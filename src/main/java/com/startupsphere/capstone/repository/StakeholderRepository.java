@@ -1,5 +1,9 @@
 package com.startupsphere.capstone.repository;
 
+import com.startupsphere.capstone.dtos.MapPointDTO;
+import com.startupsphere.capstone.dtos.ResourceVersionDTO;
+import com.startupsphere.capstone.dtos.SearchDocumentDTO;
+import com.startupsphere.capstone.dtos.StakeholderDTO;
 import com.startupsphere.capstone.entity.Stakeholder;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -11,8 +15,38 @@ import java.util.Optional;
 public interface StakeholderRepository extends JpaRepository<Stakeholder, Long> {
     Optional<Stakeholder> findByEmail(String email);
 
-    @Query("SELECT s FROM Stakeholder s WHERE " +
-            "LOWER(s.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(s.locationName) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Stakeholder> searchByFields(@Param("query") String query);
+    @Query("SELECT new com.startupsphere.capstone.dtos.ResourceVersionDTO(MAX(s.lastUpdated), COUNT(s), SUM(s.id)) " +
+            "FROM Stakeholder s")
+    ResourceVersionDTO findVersion();
+
+    @Query("SELECT new com.startupsphere.capstone.dtos.SearchDocumentDTO(s.id, s.name, s.locationName, " +
+            "SIZE(s.startupStakeholders)) " +
+            "FROM Stakeholder s")
+    List<SearchDocumentDTO> findAllSearchDocuments();
+
+    @Query("SELECT new com.startupsphere.capstone.dtos.SearchDocumentDTO(s.id, s.name, s.locationName, " +
+            "SIZE(s.startupStakeholders)) " +
+            "FROM Stakeholder s WHERE s.id = :id")
+    Optional<SearchDocumentDTO> findSearchDocumentById(@Param("id") Long id);
+
+    @Query("SELECT new com.startupsphere.capstone.dtos.MapPointDTO(s.id, s.name, s.locationName, " +
+            "s.locationLat, s.locationLng) " +
+            "FROM Stakeholder s WHERE s.locationLat IS NOT NULL AND s.locationLng IS NOT NULL")
+    List<MapPointDTO> findAllMapPoints();
+
+    @Query("SELECT new com.startupsphere.capstone.dtos.MapPointDTO(s.id, s.name, s.locationName, " +
+            "s.locationLat, s.locationLng) " +
+            "FROM Stakeholder s WHERE s.id = :id AND s.locationLat IS NOT NULL AND s.locationLng IS NOT NULL")
+    Optional<MapPointDTO> findMapPointById(@Param("id") Long id);
+
+    // The given stakeholders plus every stakeholder linked to one of the given startups
+    @Query("SELECT new com.startupsphere.capstone.dtos.StakeholderDTO(" +
+            "s.id, s.name, s.email, s.phoneNumber, s.region, s.regionCode, s.province, s.provinceCode, " +
+            "s.city, s.cityCode, s.barangay, s.barangayCode, s.street, s.postalCode, s.facebook, s.linkedIn, " +
+            "s.locationLat, s.locationLng, s.locationName, s.createdAt, s.lastUpdated) " +
+            "FROM Stakeholder s WHERE s.id IN :stakeholderIds OR s.id IN (" +
+            "SELECT ss.stakeholder.id FROM StartupStakeholder ss WHERE ss.startup.id IN :startupIds) " +
+            "ORDER BY s.id")
+    List<StakeholderDTO> findSearchResults(@Param("stakeholderIds") List<Long> stakeholderIds,
+            @Param("startupIds") List<Long> startupIds);
 }
\ No newline at end of file
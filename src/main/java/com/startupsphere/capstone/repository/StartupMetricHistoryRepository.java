@@ -0,0 +1,31 @@
+package com.startupsphere.capstone.repository;
+
+import com.startupsphere.capstone.dtos.IndustryGrowthDTO;
+import com.startupsphere.capstone.entity.StartupMetricHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StartupMetricHistoryRepository extends JpaRepository<StartupMetricHistory, Long> {
+    boolean existsByMonthlyTrueAndPeriod(int period);
+
+    // Full row a trend starts from: the last one before the requested range
+    Optional<StartupMetricHistory> findTopByStartupIdAndFullSnapshotTrueAndCapturedAtLessThanOrderByCapturedAtDescIdDesc(
+            Long startupId, LocalDateTime before);
+
+    List<StartupMetricHistory> findByStartupIdAndCapturedAtBetweenOrderByCapturedAtAscIdAsc(Long startupId,
+            LocalDateTime from, LocalDateTime to);
+
+    // Range scan over idx_metric_history_monthly
+    @Query("SELECT new com.startupsphere.capstone.dtos.IndustryGrowthDTO(" +
+            "h.period, h.industry, AVG(h.growthRate), COUNT(h)) FROM StartupMetricHistory h " +
+            "WHERE h.monthly = true AND h.period BETWEEN :from AND :to AND h.industry IS NOT NULL " +
+            "GROUP BY h.period, h.industry")
+    List<IndustryGrowthDTO> findIndustryGrowth(@Param("from") int fromPeriod, @Param("to") int toPeriod);
+}
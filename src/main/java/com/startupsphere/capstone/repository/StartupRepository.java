@@ -7,12 +7,53 @@ import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import com.startupsphere.capstone.dtos.MapPointDTO;
+import com.startupsphere.capstone.dtos.ResourceVersionDTO;
+import com.startupsphere.capstone.dtos.SearchDocumentDTO;
+import com.startupsphere.capstone.dtos.StartupAnalyticsDTO;
+import com.startupsphere.capstone.dtos.StartupDTO;
+import com.startupsphere.capstone.dtos.StartupFacetDTO;
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
+import com.startupsphere.capstone.dtos.StartupSummaryDTO;
+import com.startupsphere.capstone.dtos.StoredFileDTO;
 import com.startupsphere.capstone.entity.Startup;
 import org.springframework.data.repository.query.Param;
 
 public interface StartupRepository extends JpaRepository<Startup, Long> {
+    // Ranking inputs only: never reads the photo, certificate or description LOBs, loads no
+    // collections and counts no child tables
+    String METRICS_SELECT = "SELECT new com.startupsphere.capstone.dtos.StartupMetricsDTO(" +
+            "s.id, s.companyName, s.industry, s.status, " +
+            "s.annualRevenue, s.averageStartupGrowthRate, s.startupSurvivalRate, s.paidUpCapital, " +
+            "s.totalStartupFundingReceived, s.numberOfFundingRounds, s.numberOfStartupsWithForeignInvestment, " +
+            "s.amountOfGovernmentGrantsOrSubsidiesReceived, s.numberOfStartupsInIncubationPrograms, " +
+            "s.numberOfMentorsOrAdvisorsInvolved, s.publicPrivatePartnershipsInvolvingStartups, s.viewsCount, " +
+            "s.likesCount, s.bookmarksCount, " +
+            "(CASE WHEN TRIM(s.companyName) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN s.hasDescription = true THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.foundedDate) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.typeOfCompany) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.numberOfEmployees) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.phoneNumber) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.contactEmail) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.streetAddress) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.city) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.province) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.postalCode) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.industry) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.businessActivity) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.fundingStage) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN s.hasPhoto = true THEN 1 ELSE 0 END), " +
+            "(CASE WHEN TRIM(s.website) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.facebook) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.twitter) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.instagram) <> '' THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN TRIM(s.linkedIn) <> '' THEN 1 ELSE 0 END)) " +
+            "FROM Startup s ";
+
     Page<Startup> findByCompanyNameContainingIgnoreCase(String query, Pageable pageable);
     List<Startup> findByCompanyNameContainingIgnoreCase(String query);
 
@@ -44,15 +85,68 @@ public interface StartupRepository extends JpaRepository<Startup, Long> {
     @Query("SELECT s FROM Startup s WHERE s.status = 'Approved'")
     List<Startup> findAllApprovedStartups();
 
-    @Query("SELECT s FROM Startup s WHERE " +
+    // List-page columns only: no LOBs and no join to the owner
+    String SUMMARY_SELECT = "SELECT new com.startupsphere.capstone.dtos.StartupSummaryDTO(" +
+            "s.id, s.companyName, s.industry, s.status, s.region, s.city, s.province, s.locationName, " +
+            "s.locationLat, s.locationLng, s.typeOfCompany, s.fundingStage, s.annualRevenue, s.contactEmail, " +
+            "s.website, s.viewsCount, s.likesCount, s.bookmarksCount, s.emailVerified, s.isDraft, s.hasPhoto, " +
+            "s.photoHash, s.hasDescription, s.user.id, s.createdAt, s.lastUpdated) FROM Startup s";
+
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(s) FROM Startup s")
+    Page<StartupSummaryDTO> findAllSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + " WHERE s.status = :status AND s.isDraft = false",
+            countQuery = "SELECT COUNT(s) FROM Startup s WHERE s.status = :status AND s.isDraft = false")
+    Page<StartupSummaryDTO> findSummariesByStatusAndIsDraftFalse(@Param("status") String status, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + " WHERE s.emailVerified = true",
+            countQuery = "SELECT COUNT(s) FROM Startup s WHERE s.emailVerified = true")
+    Page<StartupSummaryDTO> findVerifiedEmailSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + " WHERE s.status = 'Approved'",
+            countQuery = "SELECT COUNT(s) FROM Startup s WHERE s.status = 'Approved'")
+    Page<StartupSummaryDTO> findApprovedSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " WHERE s.user.id = :userId")
+    List<StartupSummaryDTO> findSummariesByUserId(@Param("userId") Integer userId);
+
+    @Query(SUMMARY_SELECT + " WHERE s.id IN :ids")
+    List<StartupSummaryDTO> findSummariesByIds(@Param("ids") List<Long> ids);
+
+    String VERSION_SELECT = "SELECT new com.startupsphere.capstone.dtos.ResourceVersionDTO(MAX(s.lastUpdated), " +
+            "COUNT(s), SUM(s.id), SUM(s.viewsCount), SUM(s.likesCount), SUM(s.bookmarksCount)) FROM Startup s";
+
+    @Query(VERSION_SELECT + " WHERE s.id = :id")
+    ResourceVersionDTO findVersionById(@Param("id") Long id);
+
+    @Query(VERSION_SELECT + " WHERE s.status = 'Approved'")
+    ResourceVersionDTO findApprovedVersion();
+
+    @Query("SELECT new com.startupsphere.capstone.dtos.StoredFileDTO(s.photoHash, s.photoSize, s.photoContentType) " +
+            "FROM Startup s WHERE s.id = :id")
+    Optional<StoredFileDTO> findStoredPhoto(@Param("id") Long id);
+
+    @Query("SELECT new com.startupsphere.capstone.dtos.StoredFileDTO(s.certificateHash, s.certificateSize, " +
+            "s.certificateContentType) FROM Startup s WHERE s.id = :id")
+    Optional<StoredFileDTO> findStoredCertificate(@Param("id") Long id);
+
+    boolean existsByPhotoHash(String photoHash);
+
+    @Query("SELECT MAX(s.photoContentType) FROM Startup s WHERE s.photoHash = :hash")
+    String findPhotoContentTypeByHash(@Param("hash") String hash);
+
+    String FILTER_CONDITIONS = " WHERE " +
             "s.isDraft = false AND " +
             "(:industry IS NULL OR s.industry = :industry) AND " +
             "(:status IS NULL OR s.status = :status) AND " +
             "(:region IS NULL OR s.region = :region) AND " +
             "(:search IS NULL OR LOWER(s.companyName) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
             "(:startDate IS NULL OR s.createdAt >= :startDate) AND " +
-            "(:endDate IS NULL OR s.createdAt <= :endDate)")
-    Page<Startup> findStartupsWithFilters(
+            "(:endDate IS NULL OR s.createdAt <= :endDate)";
+
+    @Query(value = SUMMARY_SELECT + FILTER_CONDITIONS,
+            countQuery = "SELECT COUNT(s) FROM Startup s" + FILTER_CONDITIONS)
+    Page<StartupSummaryDTO> findSummariesWithFilters(
             @Param("industry") String industry,
             @Param("status") String status,
             @Param("region") String region,
@@ -61,7 +155,7 @@ public interface StartupRepository extends JpaRepository<Startup, Long> {
             @Param("endDate") LocalDateTime endDate,
             Pageable pageable
     );
-    
+
     @Query("SELECT s FROM Startup s WHERE " +
             "s.isDraft = false AND " +
             "(:industry IS NULL OR s.industry = :industry) AND " +
@@ -90,8 +184,102 @@ public interface StartupRepository extends JpaRepository<Startup, Long> {
             "LOWER(s.locationName) LIKE LOWER(CONCAT('%', :query, '%'))")
     Page<Startup> searchByFields(@Param("query") String query, Pageable pageable);
     
-    @Query("SELECT s FROM Startup s WHERE " +
-            "LOWER(s.companyName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(s.locationName) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Startup> searchByFields(@Param("query") String query);
-}
\ No newline at end of file
+
+    @Query(METRICS_SELECT + "ORDER BY s.id")
+    List<StartupMetricsDTO> findAllMetrics();
+
+    @Query(METRICS_SELECT + "WHERE s.id IN :ids ORDER BY s.id")
+    List<StartupMetricsDTO> findMetricsByIds(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Startup s SET s.likesCount = CASE WHEN s.likesCount + :delta < 0 THEN 0 " +
+            "ELSE s.likesCount + :delta END WHERE s.id = :id")
+    int adjustLikesCount(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Startup s SET s.bookmarksCount = CASE WHEN s.bookmarksCount + :delta < 0 THEN 0 " +
+            "ELSE s.bookmarksCount + :delta END WHERE s.id = :id")
+    int adjustBookmarksCount(@Param("id") Long id, @Param("delta") int delta);
+
+    @Query("SELECT s.id FROM Startup s WHERE " +
+            "s.likesCount <> (SELECT COUNT(l) FROM Like l WHERE l.startup = s) OR " +
+            "s.bookmarksCount <> (SELECT COUNT(b) FROM Bookmarks b WHERE b.startup = s)")
+    List<Long> findIdsWithEngagementCounterDrift();
+
+    @Modifying
+    @Query("UPDATE Startup s SET " +
+            "s.likesCount = (SELECT COUNT(l) FROM Like l WHERE l.startup = s), " +
+            "s.bookmarksCount = (SELECT COUNT(b) FROM Bookmarks b WHERE b.startup = s) " +
+            "WHERE s.id IN :ids")
+    int recountEngagementCounters(@Param("ids") List<Long> ids);
+
+    // Fills the derived photo columns of rows written before they existed; a photo in the
+    // blob store (photo_hash set) already has them from the upload or the migration
+    @Modifying
+    @Query(value = "UPDATE startups SET " +
+            "photo_size = COALESCE(LENGTH(photo), 0), " +
+            "has_photo = COALESCE(LENGTH(photo), 0) > 0 " +
+            "WHERE has_photo IS NULL AND photo_hash IS NULL", nativeQuery = true)
+    int backfillPhotoFlags();
+
+    @Modifying
+    @Query(value = "UPDATE startups SET " +
+            "has_description = COALESCE(LENGTH(TRIM(company_description)), 0) > 0 " +
+            "WHERE has_description IS NULL", nativeQuery = true)
+    int backfillDescriptionFlags();
+
+    String ANALYTICS_SELECT = "SELECT new com.startupsphere.capstone.dtos.StartupAnalyticsDTO(" +
+            "s.id, s.industry, s.region, s.city, s.fundingStage, s.createdAt, s.averageStartupGrowthRate, " +
+            "s.totalStartupFundingReceived, s.annualRevenue) FROM Startup s";
+
+    @Query(ANALYTICS_SELECT)
+    List<StartupAnalyticsDTO> findAllAnalytics();
+
+    @Query(ANALYTICS_SELECT + " WHERE s.id IN :ids")
+    List<StartupAnalyticsDTO> findAnalyticsByIds(@Param("ids") List<Long> ids);
+
+    String FACET_SELECT = "SELECT new com.startupsphere.capstone.dtos.StartupFacetDTO(" +
+            "s.id, s.industry, s.status, s.region, s.isDraft, s.emailVerified, s.fundingStage, s.companyName, " +
+            "s.createdAt, s.lastUpdated, s.annualRevenue, s.totalStartupFundingReceived, s.numberOfFundingRounds) " +
+            "FROM Startup s";
+
+    @Query(FACET_SELECT)
+    List<StartupFacetDTO> findAllFacets();
+
+    @Query(FACET_SELECT + " WHERE s.id IN :ids")
+    List<StartupFacetDTO> findFacetsByIds(@Param("ids") List<Long> ids);
+
+    String SEARCH_DOCUMENT_SELECT = "SELECT new com.startupsphere.capstone.dtos.SearchDocumentDTO(" +
+            "s.id, s.companyName, s.locationName, s.viewsCount) FROM Startup s";
+
+    @Query(SEARCH_DOCUMENT_SELECT)
+    List<SearchDocumentDTO> findAllSearchDocuments();
+
+    @Query(SEARCH_DOCUMENT_SELECT + " WHERE s.id IN :ids")
+    List<SearchDocumentDTO> findSearchDocumentsByIds(@Param("ids") List<Long> ids);
+
+    String MAP_POINT_SELECT = "SELECT new com.startupsphere.capstone.dtos.MapPointDTO(" +
+            "s.id, s.companyName, s.locationName, s.locationLat, s.locationLng, s.industry, s.status) " +
+            "FROM Startup s WHERE s.locationLat IS NOT NULL AND s.locationLng IS NOT NULL";
+
+    @Query(MAP_POINT_SELECT)
+    List<MapPointDTO> findAllMapPoints();
+
+    @Query(MAP_POINT_SELECT + " AND s.id IN :ids")
+    List<MapPointDTO> findMapPointsByIds(@Param("ids") List<Long> ids);
+
+    String SEARCH_RESULT_SELECT = "SELECT new com.startupsphere.capstone.dtos.StartupDTO(" +
+            "s.id, s.companyName, s.companyDescription, s.foundedDate, s.typeOfCompany, s.numberOfEmployees, " +
+            "s.phoneNumber, s.contactEmail, s.streetAddress, s.city, s.province, s.region, s.barangay, " +
+            "s.postalCode, s.industry, s.website, s.facebook, s.twitter, s.instagram, s.linkedIn, " +
+            "s.locationLat, s.locationLng, s.locationName, s.status, s.revenue, s.annualRevenue, " +
+            "s.paidUpCapital, s.fundingStage, s.viewsCount, s.emailVerified, s.createdAt, s.lastUpdated) " +
+            "FROM Startup s";
+
+    // The given startups plus every startup linked to one of the given stakeholders
+    @Query(SEARCH_RESULT_SELECT + " WHERE s.id IN :startupIds OR s.id IN (" +
+            "SELECT ss.startup.id FROM StartupStakeholder ss WHERE ss.stakeholder.id IN :stakeholderIds) " +
+            "ORDER BY s.id")
+    List<StartupDTO> findSearchResults(@Param("startupIds") List<Long> startupIds,
+            @Param("stakeholderIds") List<Long> stakeholderIds);
+}
@@ -0,0 +1,24 @@
+package com.startupsphere.capstone.repository;
+
+import com.startupsphere.capstone.entity.StartupScore;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StartupScoreRepository extends JpaRepository<StartupScore, Long> {
+    Page<StartupScore> findByApprovedTrue(Pageable pageable);
+
+    Page<StartupScore> findByApprovedTrueAndIndustry(String industry, Pageable pageable);
+
+    // Category scores do not depend on the weights, so new weights only need the overall score recombined
+    @Modifying
+    @Query("UPDATE StartupScore s SET s.overallScore = (s.growthScore * :growth + s.investmentScore * :investment"
+            + " + s.ecosystemScore * :ecosystem + s.engagementScore * :engagement) * 100")
+    int reweighOverallScores(@Param("growth") double growth, @Param("investment") double investment,
+            @Param("ecosystem") double ecosystem, @Param("engagement") double engagement);
+}
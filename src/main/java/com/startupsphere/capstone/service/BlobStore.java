@@ -0,0 +1,46 @@
+package com.startupsphere.capstone.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Storage for uploaded files, addressed by the SHA-256 of their content: the
+ * same bytes always get the same key, are stored once, and a key's content
+ * never changes, so it can be cached forever. Keys are lower-case hex.
+ */
+public interface BlobStore {
+
+    /**
+     * Key and length of stored content
+     */
+    record StoredBlob(String hash, long size) {
+    }
+
+    /**
+     * Store content read to its end, without holding it all in memory
+     */
+    StoredBlob put(InputStream content) throws IOException;
+
+    boolean exists(String hash);
+
+    /**
+     * Read a blob from the start; the caller closes the stream
+     */
+    InputStream open(String hash) throws IOException;
+
+    long size(String hash) throws IOException;
+
+    /**
+     * Copy count bytes of a blob from position on to a channel
+     */
+    void transferTo(String hash, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * The file holding a blob, for servers that can send files themselves;
+     * empty for stores that are not on the local disk
+     */
+    Optional<Path> localPath(String hash);
+}
@@ -3,6 +3,7 @@ package com.startupsphere.capstone.service;
 import com.startupsphere.capstone.entity.Bookmarks;
 import com.startupsphere.capstone.entity.User;
 import com.startupsphere.capstone.repository.BookmarksRepository;
+import com.startupsphere.capstone.repository.StartupRepository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -22,15 +23,26 @@ import java.util.Map;
 public class BookmarksService {
 
     private final BookmarksRepository bookmarksRepository;
+    private final StartupRepository startupRepository;
+    private final StartupRankingService rankingService;
 
     @Autowired
-    public BookmarksService(BookmarksRepository bookmarksRepository) {
+    public BookmarksService(BookmarksRepository bookmarksRepository, StartupRepository startupRepository,
+            StartupRankingService rankingService) {
         this.bookmarksRepository = bookmarksRepository;
+        this.startupRepository = startupRepository;
+        this.rankingService = rankingService;
     }
 
+    @Transactional
     @CacheEvict(value = "bookmarks", allEntries = true)
     public Bookmarks createBookmark(Bookmarks bookmark) {
-        return bookmarksRepository.save(bookmark);
+        Bookmarks saved = bookmarksRepository.save(bookmark);
+        if (saved.getStartup() != null) {
+            startupRepository.adjustBookmarksCount(saved.getStartup().getId(), 1);
+            rankingService.refreshScore(saved.getStartup().getId());
+        }
+        return saved;
     }
 
     public List<Bookmarks> getBookmarksByUser(User user) {
@@ -59,7 +71,9 @@ public class BookmarksService {
                         bookmark.getUser().getBookmarks().remove(bookmark);
                     }
                     // Remove the bookmark from the startup's list
+                    Long startupId = null;
                     if (bookmark.getStartup() != null) {
+                        startupId = bookmark.getStartup().getId();
                         bookmark.getStartup().getBookmarks().remove(bookmark);
                     }
                     // Remove the bookmark from the investor's list
@@ -67,6 +81,10 @@ public class BookmarksService {
                         bookmark.getInvestor().getBookmarks().remove(bookmark);
                     }
                     bookmarksRepository.delete(bookmark);
+                    if (startupId != null) {
+                        startupRepository.adjustBookmarksCount(startupId, -1);
+                        rankingService.refreshScore(startupId);
+                    }
                     return true;
                 }
             }
@@ -0,0 +1,297 @@
+package com.startupsphere.capstone.service;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of non-negative ints stored the way Roaring bitmaps do: values are
+ * grouped by their high 16 bits, and each group's low 16 bits are kept as a
+ * sorted array while it holds at most 4096 values, or as a 65536-bit bitset
+ * (8 KB) past that. Sparse groups stay small and dense ones cost one bit per
+ * value, and intersections work a whole group at a time.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public final class CompressedBitmap {
+
+    private static final int ARRAY_LIMIT = 4096; // Past this a bitset is smaller than the array
+    private static final int BITSET_WORDS = 1024;
+
+    // Ascending high 16 bits of each group
+    private char[] keys = new char[0];
+    // char[] with the first cardinalities[i] used, or long[BITSET_WORDS]
+    private Object[] containers = new Object[0];
+    private int[] cardinalities = new int[0];
+    private int size;
+
+    public void add(int value) {
+        int at = find((char) (value >>> 16));
+        char low = (char) value;
+        if (at < 0) {
+            at = -at - 1;
+            insertGroup(at, (char) (value >>> 16), new char[4], 0);
+        }
+        if (containers[at] instanceof char[] array) {
+            int card = cardinalities[at];
+            int position = Arrays.binarySearch(array, 0, card, low);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (card == ARRAY_LIMIT) {
+                long[] bitset = toBitset(array, card);
+                bitset[low >>> 6] |= 1L << low;
+                containers[at] = bitset;
+            } else {
+                if (card == array.length) {
+                    array = Arrays.copyOf(array, Math.min(card * 2, ARRAY_LIMIT));
+                    containers[at] = array;
+                }
+                System.arraycopy(array, position, array, position + 1, card - position);
+                array[position] = low;
+            }
+            cardinalities[at]++;
+        } else {
+            long[] bitset = (long[]) containers[at];
+            long bit = 1L << low;
+            if ((bitset[low >>> 6] & bit) == 0) {
+                bitset[low >>> 6] |= bit;
+                cardinalities[at]++;
+            }
+        }
+    }
+
+    public void remove(int value) {
+        int at = find((char) (value >>> 16));
+        if (at < 0) {
+            return;
+        }
+        char low = (char) value;
+        if (containers[at] instanceof char[] array) {
+            int card = cardinalities[at];
+            int position = Arrays.binarySearch(array, 0, card, low);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(array, position + 1, array, position, card - position - 1);
+        } else {
+            long[] bitset = (long[]) containers[at];
+            long bit = 1L << low;
+            if ((bitset[low >>> 6] & bit) == 0) {
+                return;
+            }
+            bitset[low >>> 6] &= ~bit;
+            if (cardinalities[at] - 1 == ARRAY_LIMIT) {
+                containers[at] = toArray(bitset, ARRAY_LIMIT);
+            }
+        }
+        if (--cardinalities[at] == 0) {
+            removeGroup(at);
+        }
+    }
+
+    public boolean contains(int value) {
+        int at = find((char) (value >>> 16));
+        if (at < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (containers[at] instanceof char[] array) {
+            return Arrays.binarySearch(array, 0, cardinalities[at], low) >= 0;
+        }
+        return (((long[]) containers[at])[low >>> 6] & (1L << low)) != 0;
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += cardinalities[i];
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Values in both bitmaps, as a new bitmap
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Object container = and(containers[i], cardinalities[i], other.containers[j], other.cardinalities[j]);
+                int card = container instanceof char[] array ? array.length : cardinality((long[]) container);
+                if (card > 0) {
+                    result.insertGroup(result.size, keys[i], container, card);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of values in both bitmaps, without building the intersection
+     */
+    public int andCardinality(CompressedBitmap other) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                total += andCardinality(containers[i], cardinalities[i], other.containers[j],
+                        other.cardinalities[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Visit every value in ascending order
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            if (containers[i] instanceof char[] array) {
+                for (int k = 0; k < cardinalities[i]; k++) {
+                    consumer.accept(high | array[k]);
+                }
+            } else {
+                long[] bitset = (long[]) containers[i];
+                for (int word = 0; word < BITSET_WORDS; word++) {
+                    long bits = bitset[word];
+                    while (bits != 0) {
+                        consumer.accept(high | (word << 6) | Long.numberOfTrailingZeros(bits));
+                        bits &= bits - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    // Intersection of two groups: an exact-size array, or a bitset when large
+    private static Object and(Object a, int aCard, Object b, int bCard) {
+        if (a instanceof char[] aArray && b instanceof char[] bArray) {
+            char[] result = new char[Math.min(aCard, bCard)];
+            int count = 0;
+            for (int i = 0, j = 0; i < aCard && j < bCard; ) {
+                if (aArray[i] < bArray[j]) {
+                    i++;
+                } else if (aArray[i] > bArray[j]) {
+                    j++;
+                } else {
+                    result[count++] = aArray[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+        if (a instanceof long[] && b instanceof char[]) {
+            return and(b, bCard, a, aCard);
+        }
+        if (a instanceof char[] aArray) {
+            long[] bitset = (long[]) b;
+            char[] result = new char[aCard];
+            int count = 0;
+            for (int i = 0; i < aCard; i++) {
+                if ((bitset[aArray[i] >>> 6] & (1L << aArray[i])) != 0) {
+                    result[count++] = aArray[i];
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+        long[] aBits = (long[]) a;
+        long[] bBits = (long[]) b;
+        long[] result = new long[BITSET_WORDS];
+        int card = 0;
+        for (int word = 0; word < BITSET_WORDS; word++) {
+            result[word] = aBits[word] & bBits[word];
+            card += Long.bitCount(result[word]);
+        }
+        return card <= ARRAY_LIMIT ? toArray(result, card) : result;
+    }
+
+    private static int andCardinality(Object a, int aCard, Object b, int bCard) {
+        if (a instanceof long[] aBits && b instanceof long[] bBits) {
+            int card = 0;
+            for (int word = 0; word < BITSET_WORDS; word++) {
+                card += Long.bitCount(aBits[word] & bBits[word]);
+            }
+            return card;
+        }
+        Object result = and(a, aCard, b, bCard);
+        return ((char[]) result).length;
+    }
+
+    private static int cardinality(long[] bitset) {
+        int card = 0;
+        for (long word : bitset) {
+            card += Long.bitCount(word);
+        }
+        return card;
+    }
+
+    private static long[] toBitset(char[] array, int card) {
+        long[] bitset = new long[BITSET_WORDS];
+        for (int i = 0; i < card; i++) {
+            bitset[array[i] >>> 6] |= 1L << array[i];
+        }
+        return bitset;
+    }
+
+    private static char[] toArray(long[] bitset, int card) {
+        char[] array = new char[card];
+        int count = 0;
+        for (int word = 0; word < BITSET_WORDS; word++) {
+            long bits = bitset[word];
+            while (bits != 0) {
+                array[count++] = (char) ((word << 6) | Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return array;
+    }
+
+    private int find(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertGroup(int at, char key, Object container, int card) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+            cardinalities = Arrays.copyOf(cardinalities, capacity);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(containers, at, containers, at + 1, size - at);
+        System.arraycopy(cardinalities, at, cardinalities, at + 1, size - at);
+        keys[at] = key;
+        containers[at] = container;
+        cardinalities[at] = card;
+        size++;
+    }
+
+    private void removeGroup(int at) {
+        System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+        System.arraycopy(containers, at + 1, containers, at, size - at - 1);
+        System.arraycopy(cardinalities, at + 1, cardinalities, at, size - at - 1);
+        size--;
+        containers[size] = null;
+    }
+}
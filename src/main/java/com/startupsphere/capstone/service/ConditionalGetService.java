@@ -0,0 +1,106 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.ResourceVersionDTO;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers conditional GETs of polled JSON reads with 304 before anything is
+ * loaded or serialized, from a version read off a cheap aggregate query or an
+ * in-memory snapshot. Only ETags are sent and checked. They are weak, as the
+ * JSON is only equivalent, not byte-for-byte the same, and counted per
+ * resource so the share of polls answered with 304 can be watched.
+ */
+@Service
+public class ConditionalGetService {
+
+    // Ranking snapshot versions restart at 1 with the application
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    private static final class Counters {
+        final LongAdder requests = new LongAdder();
+        final LongAdder conditional = new LongAdder();
+        final LongAdder notModified = new LongAdder();
+    }
+
+    /**
+     * Set the validators on the response and check them against the request
+     *
+     * @param resource Name the request is counted under
+     * @param version Version of the rows behind the response; when no row
+     *                matches, the request is left to the handler (usually a 404)
+     * @return True when the response is a finished 304
+     */
+    public boolean checkNotModified(String resource, ServletWebRequest request, ResourceVersionDTO version) {
+        if (version == null || version.isEmpty()) {
+            record(resource, request, false);
+            return false;
+        }
+        String etag = "W/\"" + version.rows() + "-" + version.idSum() + "-" + millis(version.lastModified()) + "-"
+                + version.viewsSum() + "-" + version.likesSum() + "-" + version.bookmarksSum() + "\"";
+        return checkNotModified(resource, request, etag);
+    }
+
+    /**
+     * Same as above for a response determined by a ranking snapshot version
+     */
+    public boolean checkNotModified(String resource, ServletWebRequest request, long snapshotVersion) {
+        return checkNotModified(resource, request, "W/\"" + bootId + "-" + snapshotVersion + "\"");
+    }
+
+    // ETag only: counter bumps, deleted rows and edits within the same second all leave
+    // MAX(lastUpdated) where it was, so If-Modified-Since would answer 304 for stale data
+    private boolean checkNotModified(String resource, ServletWebRequest request, String etag) {
+        // Cached, but revalidated on every use
+        request.getResponse().setHeader("Cache-Control", "no-cache");
+        boolean notModified = request.checkNotModified(etag);
+        record(resource, request, notModified);
+        return notModified;
+    }
+
+    private void record(String resource, ServletWebRequest request, boolean notModified) {
+        Counters resourceCounters = counters.computeIfAbsent(resource, key -> new Counters());
+        resourceCounters.requests.increment();
+        if (request.getHeader("If-None-Match") != null) {
+            resourceCounters.conditional.increment();
+        }
+        if (notModified) {
+            resourceCounters.notModified.increment();
+        }
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+
+    /**
+     * Requests, requests with If-None-Match and 304s per resource since startup, with
+     * the share of all and of conditional requests answered with 304
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        counters.forEach((resource, resourceCounters) -> {
+            long requests = resourceCounters.requests.sum();
+            long conditional = resourceCounters.conditional.sum();
+            long notModified = resourceCounters.notModified.sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", requests);
+            entry.put("conditionalRequests", conditional);
+            entry.put("notModified", notModified);
+            entry.put("hitRate", requests > 0 ? (double) notModified / requests : 0.0);
+            entry.put("conditionalHitRate", conditional > 0 ? (double) notModified / conditional : 0.0);
+            stats.put(resource, entry);
+        });
+        return stats;
+    }
+}
@@ -0,0 +1,67 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.repository.StartupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Keeps the denormalized likes_count/bookmarks_count columns on startups honest.
+ * Likes and bookmarks removed without going through LikeService or
+ * BookmarksService (cascades, manual cleanup) make the counters drift; this job
+ * recounts only the drifted startups and re-scores them.
+ */
+@Service
+public class EngagementCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EngagementCounterService.class);
+    private static final int RECOUNT_BATCH_SIZE = 500;
+
+    private final StartupRepository startupRepository;
+    private final StartupRankingService rankingService;
+
+    public EngagementCounterService(StartupRepository startupRepository, StartupRankingService rankingService) {
+        this.startupRepository = startupRepository;
+        this.rankingService = rankingService;
+    }
+
+    /**
+     * Recount likes and bookmarks of every startup whose counters disagree
+     * with the child tables
+     *
+     * @return Number of startups corrected
+     */
+    @Transactional
+    public int reconcileCounters() {
+        List<Long> drifted = startupRepository.findIdsWithEngagementCounterDrift();
+        if (drifted.isEmpty()) {
+            return 0;
+        }
+        for (int from = 0; from < drifted.size(); from += RECOUNT_BATCH_SIZE) {
+            startupRepository.recountEngagementCounters(
+                    drifted.subList(from, Math.min(from + RECOUNT_BATCH_SIZE, drifted.size())));
+        }
+        rankingService.refreshScoresById(drifted);
+        logger.info("Reconciled like/bookmark counters for {} startups", drifted.size());
+        return drifted.size();
+    }
+
+    // Also covers the first start after the counter columns were added
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcileOnStartup() {
+        reconcileCounters();
+    }
+
+    @Scheduled(cron = "${ranking.counters.reconcile-cron:0 30 3 * * ?}")
+    @Transactional
+    public void scheduledReconcile() {
+        reconcileCounters();
+    }
+}
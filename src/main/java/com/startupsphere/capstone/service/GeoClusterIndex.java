@@ -0,0 +1,176 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.MapClusterDTO;
+import com.startupsphere.capstone.dtos.MapPointDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Map marker clusters for every zoom level, kept as a hierarchy of Web Mercator
+ * grids: at zoom z each map tile is split into CELLS_PER_TILE x CELLS_PER_TILE
+ * cells, and a cell's cluster aggregates the markers inside it (count,
+ * coordinate sums for the centroid, members per industry).
+ *
+ * Adding or removing a marker updates one cell per level, so clusters stay
+ * current without reclustering, and a map view is a range lookup per cell row
+ * at its zoom level. Not thread-safe; callers guard it with their own lock.
+ */
+public final class GeoClusterIndex {
+
+    static final int MAX_ZOOM = 14; // Past this clusters are mostly single markers; use the viewport query
+    static final int CELLS_PER_TILE = 8; // 32 px cells on 256 px tiles
+
+    private static final double MAX_MERCATOR_LAT = 85.05112878;
+
+    /**
+     * Clusters inside a viewport, up to a limit, and how many there are in all
+     */
+    public static final class Result {
+        private final List<MapClusterDTO> clusters = new ArrayList<>();
+        private int total;
+
+        public List<MapClusterDTO> getClusters() {
+            return clusters;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    private static final class Cluster {
+        int count;
+        double latSum;
+        double lngSum;
+        long idSum; // The member's id when count is 1
+        int[] industryCounts = new int[0];
+    }
+
+    // Cells by row * columns + column, one map per zoom level
+    private final List<NavigableMap<Long, Cluster>> levels = new ArrayList<>(MAX_ZOOM + 1);
+    private final Map<String, Integer> industryCodes = new HashMap<>();
+    private final List<String> industryNames = new ArrayList<>();
+
+    public GeoClusterIndex() {
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            levels.add(new TreeMap<>());
+        }
+    }
+
+    public void add(MapPointDTO point) {
+        update(point, 1);
+    }
+
+    /**
+     * Take back a marker added before, with the same coordinates and industry
+     */
+    public void subtract(MapPointDTO point) {
+        update(point, -1);
+    }
+
+    public void clear() {
+        for (NavigableMap<Long, Cluster> level : levels) {
+            level.clear();
+        }
+        industryCodes.clear();
+        industryNames.clear();
+    }
+
+    /**
+     * Clusters at a zoom level whose cells overlap a viewport. A viewport whose
+     * minLng is above its maxLng crosses the antimeridian.
+     *
+     * @param limit Most clusters to return; past it clusters are only counted
+     */
+    public Result clusters(int zoom, double minLat, double minLng, double maxLat, double maxLng, int limit) {
+        Result result = new Result();
+        zoom = Math.max(0, Math.min(zoom, MAX_ZOOM));
+        if (minLng <= maxLng) {
+            scan(result, zoom, minLat, maxLat, minLng, maxLng, limit);
+        } else {
+            scan(result, zoom, minLat, maxLat, minLng, 180, limit);
+            scan(result, zoom, minLat, maxLat, -180, maxLng, limit);
+        }
+        return result;
+    }
+
+    private void scan(Result result, int zoom, double minLat, double maxLat, double minLng, double maxLng,
+            int limit) {
+        long columns = columns(zoom);
+        long fromColumn = column(minLng, zoom);
+        long toColumn = column(maxLng, zoom);
+        // Mercator rows run from the north down
+        for (long row = row(maxLat, zoom), toRow = row(minLat, zoom); row <= toRow; row++) {
+            for (Cluster cluster : levels.get(zoom).subMap(row * columns + fromColumn, true,
+                    row * columns + toColumn, true).values()) {
+                if (result.total++ < limit) {
+                    result.clusters.add(toDTO(cluster));
+                }
+            }
+        }
+    }
+
+    private MapClusterDTO toDTO(Cluster cluster) {
+        Map<String, Integer> industries = new LinkedHashMap<>();
+        for (int code = 0; code < cluster.industryCounts.length; code++) {
+            if (cluster.industryCounts[code] > 0) {
+                industries.put(industryNames.get(code), cluster.industryCounts[code]);
+            }
+        }
+        return new MapClusterDTO(cluster.latSum / cluster.count, cluster.lngSum / cluster.count, cluster.count,
+                cluster.count == 1 ? cluster.idSum : null, industries);
+    }
+
+    private void update(MapPointDTO point, int delta) {
+        if (!(Math.abs(point.getLat()) <= 90 && Math.abs(point.getLng()) <= 180)) {
+            return; // Never added, like GeoGridIndex leaves it out
+        }
+        int industry = point.getIndustry() == null ? -1 : industryCodes.computeIfAbsent(
+                point.getIndustry().trim().toLowerCase(Locale.ROOT), k -> {
+                    industryNames.add(point.getIndustry().trim());
+                    return industryNames.size() - 1;
+                });
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            long key = row(point.getLat(), zoom) * columns(zoom) + column(point.getLng(), zoom);
+            Cluster cluster = levels.get(zoom).computeIfAbsent(key, k -> new Cluster());
+            cluster.count += delta;
+            if (cluster.count <= 0) {
+                levels.get(zoom).remove(key);
+                continue;
+            }
+            cluster.latSum += delta * point.getLat();
+            cluster.lngSum += delta * point.getLng();
+            cluster.idSum += delta * point.getId();
+            if (industry >= 0) {
+                if (industry >= cluster.industryCounts.length) {
+                    cluster.industryCounts = Arrays.copyOf(cluster.industryCounts, industry + 1);
+                }
+                cluster.industryCounts[industry] += delta;
+            }
+        }
+    }
+
+    private static long columns(int zoom) {
+        return (long) CELLS_PER_TILE << zoom;
+    }
+
+    static long column(double lng, int zoom) {
+        long columns = columns(zoom);
+        return Math.min((long) Math.floor((lng + 180) / 360 * columns), columns - 1);
+    }
+
+    static long row(double lat, int zoom) {
+        double sin = Math.sin(Math.toRadians(Math.max(-MAX_MERCATOR_LAT, Math.min(lat, MAX_MERCATOR_LAT))));
+        double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        long rows = columns(zoom);
+        return Math.max(0, Math.min((long) Math.floor(y * rows), rows - 1));
+    }
+}
@@ -0,0 +1,381 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.MapPointDTO;
+import com.startupsphere.capstone.dtos.NearbyPointDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Map markers on a uniform grid of latitude/longitude cells, answering viewport
+ * queries by visiting only the non-empty cells the viewport overlaps.
+ *
+ * Cells are keyed row-major (row * COLUMNS + column) in a sorted map, so the
+ * cells of one viewport row are a single range lookup and empty sea costs
+ * nothing. Every point carries two category codes, industry and status for
+ * startups, which filters compare without touching strings.
+ *
+ * Nearest-neighbour queries walk the rows outward from the query point, and
+ * within each row only the columns a great-circle bound allows; the bound
+ * shrinks to the k-th best distance found so far, so the walk stops early.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public final class GeoGridIndex {
+
+    static final double CELL_DEGREES = 0.05; // About 5.5 km north to south
+    static final int ROWS = (int) Math.round(180 / CELL_DEGREES);
+    static final long COLUMNS = Math.round(360 / CELL_DEGREES);
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180;
+
+    private static final int NONE = -2; // Code of a missing industry or status
+    private static final int ANY = -1; // Code of an absent filter
+
+    /**
+     * Points inside a viewport, up to a limit, and how many there are in all
+     */
+    public static final class Result {
+        private final List<MapPointDTO> points = new ArrayList<>();
+        private int total;
+
+        public List<MapPointDTO> getPoints() {
+            return points;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    private static final class Cell {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    docs[i] = docs[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final NavigableMap<Long, Cell> cells = new TreeMap<>();
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private final Map<String, Integer> industryCodes = new HashMap<>();
+    private final Map<String, Integer> statusCodes = new HashMap<>();
+
+    // Per document number; numbers of removed documents are reused
+    private MapPointDTO[] points = new MapPointDTO[16];
+    private int[] industries = new int[16];
+    private int[] statuses = new int[16];
+    private int[] free = new int[16];
+    private int freeCount;
+    private int docCount;
+
+    public int size() {
+        return docById.size();
+    }
+
+    // The point of an id, or null when it is not indexed
+    public MapPointDTO get(long id) {
+        Integer doc = docById.get(id);
+        return doc == null ? null : points[doc];
+    }
+
+    /**
+     * Add a point, replacing any earlier one of the same id; points off the
+     * globe are left out
+     */
+    public void put(MapPointDTO point) {
+        remove(point.getId());
+        if (!(Math.abs(point.getLat()) <= 90 && Math.abs(point.getLng()) <= 180)) {
+            return;
+        }
+        int doc = freeCount > 0 ? free[--freeCount] : newDoc();
+        points[doc] = point;
+        industries[doc] = codeOf(industryCodes, point.getIndustry());
+        statuses[doc] = codeOf(statusCodes, point.getStatus());
+        docById.put(point.getId(), doc);
+        cells.computeIfAbsent(cellKey(point.getLat(), point.getLng()), k -> new Cell()).add(doc);
+    }
+
+    public void remove(long id) {
+        Integer doc = docById.remove(id);
+        if (doc == null) {
+            return;
+        }
+        long key = cellKey(points[doc].getLat(), points[doc].getLng());
+        Cell cell = cells.get(key);
+        cell.remove(doc);
+        if (cell.size == 0) {
+            cells.remove(key);
+        }
+        points[doc] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = doc;
+    }
+
+    public void clear() {
+        cells.clear();
+        docById.clear();
+        industryCodes.clear();
+        statusCodes.clear();
+        points = new MapPointDTO[16];
+        industries = new int[16];
+        statuses = new int[16];
+        freeCount = 0;
+        docCount = 0;
+    }
+
+    /**
+     * Points inside a viewport, edges included. A viewport whose minLng is above
+     * its maxLng crosses the antimeridian.
+     *
+     * @param industry Only points of this industry, ignoring case; null for all
+     * @param status   Only points of this status, ignoring case; null for all
+     * @param limit    Most points to return; past it points are only counted
+     */
+    public Result within(double minLat, double minLng, double maxLat, double maxLng, String industry,
+            String status, int limit) {
+        Result result = new Result();
+        int industryCode = industry == null ? ANY : industryCodes.getOrDefault(key(industry), NONE);
+        int statusCode = status == null ? ANY : statusCodes.getOrDefault(key(status), NONE);
+        if (industryCode == NONE || statusCode == NONE) {
+            return result; // No point has it
+        }
+        if (minLng <= maxLng) {
+            scan(result, minLat, maxLat, minLng, maxLng, industryCode, statusCode, limit);
+        } else {
+            scan(result, minLat, maxLat, minLng, 180, industryCode, statusCode, limit);
+            scan(result, minLat, maxLat, -180, maxLng, industryCode, statusCode, limit);
+        }
+        return result;
+    }
+
+    private void scan(Result result, double minLat, double maxLat, double minLng, double maxLng,
+            int industryCode, int statusCode, int limit) {
+        long fromColumn = column(minLng);
+        long toColumn = column(maxLng);
+        for (long row = row(minLat), toRow = row(maxLat); row <= toRow; row++) {
+            for (Cell cell : cells.subMap(row * COLUMNS + fromColumn, true, row * COLUMNS + toColumn, true).values()) {
+                for (int i = 0; i < cell.size; i++) {
+                    int doc = cell.docs[i];
+                    if ((industryCode != ANY && industries[doc] != industryCode)
+                            || (statusCode != ANY && statuses[doc] != statusCode)) {
+                        continue;
+                    }
+                    MapPointDTO point = points[doc];
+                    if (point.getLat() < minLat || point.getLat() > maxLat
+                            || point.getLng() < minLng || point.getLng() > maxLng) {
+                        continue;
+                    }
+                    if (result.total++ < limit) {
+                        result.points.add(point);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The k points closest to a location within a radius, nearest first
+     *
+     * @param industry Only points of this industry, ignoring case; null for all
+     * @param status   Only points of this status, ignoring case; null for all
+     */
+    public List<NearbyPointDTO> nearest(double lat, double lng, int k, double radiusKm, String industry,
+            String status) {
+        int industryCode = industry == null ? ANY : industryCodes.getOrDefault(key(industry), NONE);
+        int statusCode = status == null ? ANY : statusCodes.getOrDefault(key(status), NONE);
+        if (industryCode == NONE || statusCode == NONE || k <= 0) {
+            return List.of();
+        }
+
+        // Max-heap of the best so far, so the farthest of them is the one replaced
+        double[] distances = new double[k];
+        int[] docs = new int[k];
+        int found = 0;
+        double bound = radiusKm;
+        long centerRow = row(lat);
+        for (long step = 0; ; step++) {
+            long north = centerRow + step;
+            long south = centerRow - step;
+            // Distance to the nearest edge of each row; rows past the bound are done
+            double northGap = north < ROWS ? Math.max(0, north * CELL_DEGREES - 90 - lat) * KM_PER_DEGREE
+                    : Double.MAX_VALUE;
+            double southGap = south >= 0 ? Math.max(0, lat - ((south + 1) * CELL_DEGREES - 90)) * KM_PER_DEGREE
+                    : Double.MAX_VALUE;
+            if (northGap > bound && southGap > bound) {
+                break;
+            }
+            for (long row : step == 0 ? new long[] { centerRow } : new long[] { north, south }) {
+                if (row < 0 || row >= ROWS || (row == north ? northGap : southGap) > bound) {
+                    continue;
+                }
+                long[] columnRanges = columnRanges(lng, longitudeSpan(lat, bound));
+                for (int r = 0; r < columnRanges.length; r += 2) {
+                    for (Cell cell : cells.subMap(row * COLUMNS + columnRanges[r], true,
+                            row * COLUMNS + columnRanges[r + 1], true).values()) {
+                        for (int i = 0; i < cell.size; i++) {
+                            int doc = cell.docs[i];
+                            if ((industryCode != ANY && industries[doc] != industryCode)
+                                    || (statusCode != ANY && statuses[doc] != statusCode)) {
+                                continue;
+                            }
+                            double distance = distanceKm(lat, lng, points[doc].getLat(), points[doc].getLng());
+                            if (distance > bound) {
+                                continue;
+                            }
+                            if (found < k) {
+                                distances[found] = distance;
+                                docs[found] = doc;
+                                siftUp(distances, docs, found++);
+                            } else {
+                                distances[0] = distance;
+                                docs[0] = doc;
+                                siftDown(distances, docs, k);
+                            }
+                            if (found == k) {
+                                bound = distances[0];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        Integer[] order = new Integer[found];
+        for (int i = 0; i < found; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> distances[a] != distances[b] ? Double.compare(distances[a], distances[b])
+                : Long.compare(points[docs[a]].getId(), points[docs[b]].getId()));
+        List<NearbyPointDTO> nearest = new ArrayList<>(found);
+        for (int i : order) {
+            nearest.add(new NearbyPointDTO(points[docs[i]], distances[i]));
+        }
+        return nearest;
+    }
+
+    /**
+     * Haversine great-circle distance in kilometres
+     */
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Largest longitude difference of any point within a distance, in degrees; 180 when a pole is in reach
+    private static double longitudeSpan(double lat, double distanceKm) {
+        double angle = distanceKm / EARTH_RADIUS_KM;
+        double ratio = Math.sin(angle) / Math.cos(Math.toRadians(lat));
+        if (angle >= Math.PI / 2 || Math.abs(lat) + Math.toDegrees(angle) >= 90 || ratio >= 1) {
+            return 180;
+        }
+        return Math.toDegrees(Math.asin(ratio));
+    }
+
+    // First and last column of each range within a longitude span, split at the antimeridian
+    private static long[] columnRanges(double lng, double span) {
+        if (span >= 180) {
+            return new long[] { 0, COLUMNS - 1 };
+        }
+        if (lng - span < -180) {
+            return new long[] { 0, column(lng + span), column(lng - span + 360), COLUMNS - 1 };
+        }
+        if (lng + span > 180) {
+            return new long[] { 0, column(lng + span - 360), column(lng - span), COLUMNS - 1 };
+        }
+        return new long[] { column(lng - span), column(lng + span) };
+    }
+
+    private static void siftUp(double[] distances, int[] docs, int at) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (distances[parent] >= distances[at]) {
+                return;
+            }
+            swap(distances, docs, parent, at);
+            at = parent;
+        }
+    }
+
+    private static void siftDown(double[] distances, int[] docs, int size) {
+        int at = 0;
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+                child++;
+            }
+            if (distances[at] >= distances[child]) {
+                return;
+            }
+            swap(distances, docs, at, child);
+            at = child;
+        }
+    }
+
+    private static void swap(double[] distances, int[] docs, int i, int j) {
+        double distance = distances[i];
+        distances[i] = distances[j];
+        distances[j] = distance;
+        int doc = docs[i];
+        docs[i] = docs[j];
+        docs[j] = doc;
+    }
+
+    static long cellKey(double lat, double lng) {
+        return row(lat) * COLUMNS + column(lng);
+    }
+
+    static long row(double lat) {
+        return Math.min((long) Math.floor((lat + 90) / CELL_DEGREES), ROWS - 1);
+    }
+
+    static long column(double lng) {
+        return Math.min((long) Math.floor((lng + 180) / CELL_DEGREES), COLUMNS - 1);
+    }
+
+    private static int codeOf(Map<String, Integer> codes, String value) {
+        return value == null ? NONE : codes.computeIfAbsent(key(value), k -> codes.size());
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private int newDoc() {
+        if (docCount == points.length) {
+            int capacity = docCount * 2;
+            points = Arrays.copyOf(points, capacity);
+            industries = Arrays.copyOf(industries, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+        return docCount++;
+    }
+}
@@ -0,0 +1,203 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.MapPointDTO;
+import com.startupsphere.capstone.dtos.NearbyPointDTO;
+import com.startupsphere.capstone.repository.StakeholderRepository;
+import com.startupsphere.capstone.repository.StartupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory {@link GeoGridIndex}es of the startups and stakeholders that have
+ * coordinates, so the map asks for its viewport instead of downloading every
+ * row and filtering client-side, each with a {@link GeoClusterIndex} beside it
+ * for zoomed-out views.
+ *
+ * Built at startup from scalar queries, then kept current from the change
+ * events of StartupService and StakeholderService, each reloading only the
+ * rows that changed.
+ */
+@Service
+public class GeoIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeoIndexService.class);
+
+    private static final int RELOAD_BATCH_SIZE = 500; // Ids per IN query when startups change
+    private static final String APPROVED = "Approved";
+
+    private final StartupRepository startupRepository;
+    private final StakeholderRepository stakeholderRepository;
+
+    private final GuardedGrid startups = new GuardedGrid();
+    private final GuardedGrid stakeholders = new GuardedGrid();
+
+    // One grid, its clusters and the lock guarding both
+    private static final class GuardedGrid {
+        final GeoGridIndex grid = new GeoGridIndex();
+        final GeoClusterIndex clusters = new GeoClusterIndex();
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // Held from reading rows to applying them, so reloads apply in the order they read
+        final Object refreshLock = new Object();
+
+        GeoGridIndex.Result within(double minLat, double minLng, double maxLat, double maxLng, String industry,
+                String status, int limit) {
+            lock.readLock().lock();
+            try {
+                return grid.within(minLat, minLng, maxLat, maxLng, industry, status, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<NearbyPointDTO> nearest(double lat, double lng, int k, double radiusKm, String industry,
+                String status) {
+            lock.readLock().lock();
+            try {
+                return grid.nearest(lat, lng, k, radiusKm, industry, status);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        GeoClusterIndex.Result clusters(int zoom, double minLat, double minLng, double maxLat, double maxLng,
+                int limit) {
+            lock.readLock().lock();
+            try {
+                return clusters.clusters(zoom, minLat, minLng, maxLat, maxLng, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Read under the refresh lock so no concurrent update is overwritten by older rows;
+        // queries only wait while the rows are applied
+        int rebuild(Supplier<List<MapPointDTO>> points) {
+            synchronized (refreshLock) {
+                List<MapPointDTO> rows = points.get();
+                lock.writeLock().lock();
+                try {
+                    grid.clear();
+                    clusters.clear();
+                    rows.forEach(this::put);
+                    return grid.size();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+
+        void update(Collection<Long> ids, Supplier<List<MapPointDTO>> points) {
+            synchronized (refreshLock) {
+                List<MapPointDTO> rows = points.get();
+                lock.writeLock().lock();
+                try {
+                    for (Long id : ids) {
+                        MapPointDTO old = grid.get(id);
+                        if (old != null) {
+                            clusters.subtract(old);
+                            grid.remove(id);
+                        }
+                    }
+                    rows.forEach(this::put);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+
+        private void put(MapPointDTO point) {
+            grid.put(point);
+            clusters.add(point);
+        }
+    }
+
+    public GeoIndexService(StartupRepository startupRepository, StakeholderRepository stakeholderRepository) {
+        this.startupRepository = startupRepository;
+        this.stakeholderRepository = stakeholderRepository;
+    }
+
+    /**
+     * Drop and rebuild both grids
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        int startupCount = startups.rebuild(startupRepository::findAllMapPoints);
+        int stakeholderCount = stakeholders.rebuild(stakeholderRepository::findAllMapPoints);
+        logger.info("Built map index of {} startups and {} stakeholders in {} ms", startupCount, stakeholderCount,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // After commit, so the reload sees the new rows; immediately when no transaction is active
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStartupChanged(StartupChangedEvent event) {
+        if (event.getStartupIds() == null) {
+            startups.rebuild(startupRepository::findAllMapPoints);
+            return;
+        }
+        List<Long> ids = event.getStartupIds();
+        for (int from = 0; from < ids.size(); from += RELOAD_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + RELOAD_BATCH_SIZE, ids.size()));
+            startups.update(batch, () -> startupRepository.findMapPointsByIds(batch));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStakeholderChanged(StakeholderChangedEvent event) {
+        Long id = event.getStakeholderId();
+        stakeholders.update(List.of(id), () -> stakeholderRepository.findMapPointById(id).stream().toList());
+    }
+
+    /**
+     * Whether the corners make a viewport: latitudes in order, everything on the
+     * globe. minLng may exceed maxLng for a viewport across the antimeridian.
+     */
+    public static boolean isViewport(double minLat, double minLng, double maxLat, double maxLng) {
+        return minLat >= -90 && maxLat <= 90 && minLat <= maxLat
+                && Math.abs(minLng) <= 180 && Math.abs(maxLng) <= 180;
+    }
+
+    /**
+     * Startups inside a viewport, optionally of one industry and status
+     */
+    public GeoGridIndex.Result startupsWithin(double minLat, double minLng, double maxLat, double maxLng,
+            String industry, String status, int limit) {
+        return startups.within(minLat, minLng, maxLat, maxLng, industry, status, limit);
+    }
+
+    public GeoGridIndex.Result stakeholdersWithin(double minLat, double minLng, double maxLat, double maxLng,
+            int limit) {
+        return stakeholders.within(minLat, minLng, maxLat, maxLng, null, null, limit);
+    }
+
+    /**
+     * The k approved startups closest to a location within a radius, nearest
+     * first, optionally of one industry
+     */
+    public List<NearbyPointDTO> nearbyStartups(double lat, double lng, int k, double radiusKm, String industry) {
+        return startups.nearest(lat, lng, k, radiusKm, industry, APPROVED);
+    }
+
+    /**
+     * Startup clusters at a zoom level inside a viewport, with members per industry
+     */
+    public GeoClusterIndex.Result startupClusters(int zoom, double minLat, double minLng, double maxLat,
+            double maxLng, int limit) {
+        return startups.clusters(zoom, minLat, minLng, maxLat, maxLng, limit);
+    }
+
+    public GeoClusterIndex.Result stakeholderClusters(int zoom, double minLat, double minLng, double maxLat,
+            double maxLng, int limit) {
+        return stakeholders.clusters(zoom, minLat, minLng, maxLat, maxLng, limit);
+    }
+}
@@ -0,0 +1,57 @@
+package com.startupsphere.capstone.service;
+
+import java.util.Set;
+
+/**
+ * Photo formats accepted for upload, recognized by their leading bytes rather
+ * than by the Content-Type the client sent. Only raster formats that browsers
+ * render without running anything are allowed: an SVG can carry script, so it
+ * is never stored or served inline as a photo.
+ */
+public final class ImageTypes {
+
+    public static final Set<String> PHOTO_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+
+    // Bytes needed to tell the formats apart (WebP is the longest, "RIFF" size "WEBP")
+    public static final int HEADER_LENGTH = 12;
+
+    private ImageTypes() {
+    }
+
+    /**
+     * Content type of an image from its first bytes
+     *
+     * @return One of {@link #PHOTO_TYPES}, or null for anything else
+     */
+    public static String detect(byte[] header) {
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8', '7', 'a') || startsWith(header, 0, 'G', 'I', 'F', '8', '9', 'a')) {
+            return "image/gif";
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    public static boolean isPhotoType(String contentType) {
+        return contentType != null && PHOTO_TYPES.contains(contentType);
+    }
+
+    private static boolean startsWith(byte[] header, int offset, int... expected) {
+        if (header.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((header[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
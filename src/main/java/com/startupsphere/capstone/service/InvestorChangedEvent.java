@@ -0,0 +1,17 @@
+package com.startupsphere.capstone.service;
+
+/**
+ * Published by {@link InvestorService} when an investor is created, edited or
+ * deleted; the search index reloads it after commit.
+ */
+public class InvestorChangedEvent {
+    private final Integer investorId;
+
+    public InvestorChangedEvent(Integer investorId) {
+        this.investorId = investorId;
+    }
+
+    public Integer getInvestorId() {
+        return investorId;
+    }
+}
@@ -2,19 +2,28 @@ package com.startupsphere.capstone.service;
 
 import com.startupsphere.capstone.entity.Investor;
 import com.startupsphere.capstone.repository.InvestorRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class InvestorService {
 
     private final InvestorRepository investorRepository;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public InvestorService(InvestorRepository investorRepository) {
+    public InvestorService(InvestorRepository investorRepository, SearchIndexService searchIndexService,
+            ApplicationEventPublisher eventPublisher) {
         this.investorRepository = investorRepository;
+        this.searchIndexService = searchIndexService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Page<Investor> getAllInvestors(Pageable pageable) {
@@ -31,7 +40,9 @@ public class InvestorService {
     }
 
     public Investor createInvestor(Investor investor) {
-        return investorRepository.save(investor);
+        Investor saved = investorRepository.save(investor);
+        eventPublisher.publishEvent(new InvestorChangedEvent(saved.getInvestorId()));
+        return saved;
     }
 
     public Investor updateInvestor(Integer id, Investor updatedInvestor) {
@@ -56,16 +67,29 @@ public class InvestorService {
                     investor.setViews(updatedInvestor.getViews()); */
                     investor.setUserId(updatedInvestor.getUserId());
                     investor.setDeleted(updatedInvestor.isDeleted());
-                    return investorRepository.save(investor);
+                    Investor saved = investorRepository.save(investor);
+                    eventPublisher.publishEvent(new InvestorChangedEvent(id));
+                    return saved;
                 }).orElseThrow(() -> new RuntimeException("Investor not found with ID: " + id));
     }
 
     public void deleteInvestor(Integer id) {
         investorRepository.deleteById(id);
+        eventPublisher.publishEvent(new InvestorChangedEvent(id));
     }
 
-    public List<Investor> searchInvestors(String query) {
-        return investorRepository.findByFirstnameContainingIgnoreCaseOrLastnameContainingIgnoreCase(query, query);
+    /**
+     * One page of investors whose first or last name matches the query, best
+     * match first, looked up in the search index and loaded in one query
+     */
+    public List<Investor> searchInvestors(String query, int page, int size) {
+        int offset = SearchIndexService.offset(page, size);
+        List<Integer> ids = searchIndexService.searchInvestors(query, offset, size).getIds().stream()
+                .map(Long::intValue)
+                .toList();
+        Map<Integer, Investor> loaded = new HashMap<>();
+        investorRepository.findAllById(ids).forEach(investor -> loaded.put(investor.getInvestorId(), investor));
+        return ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
     }
 
     public int getViewsByUserId(Integer userId) {
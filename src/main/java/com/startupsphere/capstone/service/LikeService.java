@@ -3,12 +3,14 @@ package com.startupsphere.capstone.service;
 import com.startupsphere.capstone.entity.Like;
 import com.startupsphere.capstone.entity.User;
 import com.startupsphere.capstone.repository.LikeRepository;
+import com.startupsphere.capstone.repository.StartupRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 
@@ -23,6 +25,13 @@ public class LikeService {
     @Autowired
     private LikeRepository likeRepository;
 
+    @Autowired
+    private StartupRepository startupRepository;
+
+    @Autowired
+    private StartupRankingService rankingService;
+
+    @Transactional
     @CacheEvict(value = "likes", allEntries = true)
     public String toggleLike(Like like) {
         if (like.getStartup() != null) {
@@ -30,6 +39,8 @@ public class LikeService {
                     like.getUser().getId(), like.getStartup().getId());
             if (existingLike.isPresent()) {
                 likeRepository.delete(existingLike.get());
+                startupRepository.adjustLikesCount(like.getStartup().getId(), -1);
+                rankingService.refreshScore(like.getStartup().getId());
                 return "Like removed";
             }
         }
@@ -45,6 +56,10 @@ public class LikeService {
         }
 
         likeRepository.save(like);
+        if (like.getStartup() != null) {
+            startupRepository.adjustLikesCount(like.getStartup().getId(), 1);
+            rankingService.refreshScore(like.getStartup().getId());
+        }
         return "Like added";
     }
 
@@ -61,8 +76,16 @@ public class LikeService {
         return likeRepository.findById(id);
     }
 
+    @Transactional
     public void deleteLike(Long id) {
+        Long startupId = likeRepository.findById(id)
+                .map(like -> like.getStartup() != null ? like.getStartup().getId() : null)
+                .orElse(null);
         likeRepository.deleteById(id);
+        if (startupId != null) {
+            startupRepository.adjustLikesCount(startupId, -1);
+            rankingService.refreshScore(startupId);
+        }
     }
 
     public long getLikeCountByStartupId(Long startupId) {
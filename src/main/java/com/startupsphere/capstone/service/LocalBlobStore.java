@@ -0,0 +1,114 @@
+package com.startupsphere.capstone.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BlobStore} on the local disk. A blob lives at
+ * root/ab/cd/abcd..., named by its hash; uploads are hashed while they are
+ * copied to a temporary file, then moved into place, so a partly written
+ * upload is never visible under a key.
+ */
+@Service
+public class LocalBlobStore implements BlobStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public LocalBlobStore(@Value("${blobstore.local.root:data/blobs}") String root) {
+        this.root = Path.of(root).toAbsolutePath();
+    }
+
+    @Override
+    public StoredBlob put(InputStream content) throws IOException {
+        Path temporary = Files.createDirectories(root.resolve("tmp"));
+        temporary = Files.createTempFile(temporary, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                size = Files.copy(in, temporary, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = path(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Stored by a concurrent upload of the same content
+                }
+            }
+            return new StoredBlob(hash, size);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return HASH.matcher(hash).matches() && Files.isRegularFile(path(hash));
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        return Files.newInputStream(path(hash));
+    }
+
+    @Override
+    public long size(String hash) throws IOException {
+        return Files.size(path(hash));
+    }
+
+    @Override
+    public void transferTo(String hash, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel file = FileChannel.open(path(hash), StandardOpenOption.READ)) {
+            // transferTo may send less than asked, e.g. to a non-blocking or full channel
+            while (count > 0) {
+                long sent = file.transferTo(position, count, target);
+                if (sent <= 0 && position >= file.size()) {
+                    throw new IOException("Blob " + hash + " ended before byte " + position);
+                }
+                position += sent;
+                count -= sent;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String hash) {
+        return Optional.of(path(hash));
+    }
+
+    private Path path(String hash) {
+        if (!HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
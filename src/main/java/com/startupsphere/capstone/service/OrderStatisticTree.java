@@ -0,0 +1,186 @@
+package com.startupsphere.capstone.service;
+
+import java.util.SplittableRandom;
+
+/**
+ * Leaderboard of (score, id) pairs, best first: higher score ranks higher and
+ * equal scores are ordered by ascending id, the same order as the ranking pages.
+ *
+ * Implemented as a treap where every node also stores the size of its subtree,
+ * so insert, remove, rank-of-entry and entry-at-rank are all O(log n) expected.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public final class OrderStatisticTree {
+
+    private static final class Node {
+        final double score;
+        final long id;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(double score, long id, int priority) {
+            this.score = score;
+            this.id = id;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public void insert(double score, long id) {
+        root = insert(root, new Node(score, id, random.nextInt()));
+    }
+
+    /**
+     * @return Whether the entry was present
+     */
+    public boolean remove(double score, long id) {
+        int before = size(root);
+        root = remove(root, score, id);
+        return size(root) < before;
+    }
+
+    /**
+     * Zero-based position of an entry, or -1 when it is not in the tree
+     */
+    public int rankOf(double score, long id) {
+        Node node = root;
+        int rank = 0;
+        while (node != null) {
+            int cmp = compare(score, id, node);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Id of the entry at a zero-based position
+     */
+    public long idAt(int rank) {
+        return nodeAt(rank).id;
+    }
+
+    /**
+     * Score of the entry at a zero-based position
+     */
+    public double scoreAt(int rank) {
+        return nodeAt(rank).score;
+    }
+
+    private Node nodeAt(int rank) {
+        if (rank < 0 || rank >= size(root)) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of " + size(root));
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank > leftSize) {
+                rank -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.score, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node remove(Node node, double score, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(score, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, score, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, score, id);
+        } else {
+            return join(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    // All keys in left come before all keys in right
+    private Node join(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = join(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = join(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Negative when (score, id) ranks before the node
+    private static int compare(double score, long id, Node node) {
+        int cmp = Double.compare(node.score, score);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+}
@@ -0,0 +1,324 @@
+package com.startupsphere.capstone.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.startupsphere.capstone.entity.PhotoVariant;
+import com.startupsphere.capstone.repository.PhotoVariantRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resized copies of startup photos for cards and map popups. Every width in
+ * {@link #WIDTHS} is generated once per original blob on a bounded worker pool,
+ * stored in the {@link BlobStore} next to the original and recorded as a
+ * {@link PhotoVariant}; the small ones are also kept in a byte-bounded
+ * in-memory cache. A request for a variant not generated yet never waits: it
+ * gets the original and queues the generation.
+ */
+@Service
+public class PhotoVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoVariantService.class);
+
+    /** Longest side of each variant, ascending */
+    public static final int[] WIDTHS = { 64, 256, 1024 };
+
+    // Variants up to this width are kept in memory
+    private static final int HOT_MAX_WIDTH = 256;
+
+    // Largest image decoded after subsampling, to keep a hostile upload from exhausting the heap
+    private static final long MAX_DECODED_PIXELS = 40_000_000L;
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    /**
+     * A variant to serve; content is set when it is held in memory, else it is
+     * read from the blob store by hash
+     */
+    public record Variant(String hash, String contentType, long size, byte[] content) {
+    }
+
+    // A decoded image and the dimensions of the original
+    private record Decoded(BufferedImage image, int width, int height) {
+    }
+
+    private final BlobStore blobStore;
+    private final PhotoVariantRepository variantRepository;
+    private final ThreadPoolExecutor executor;
+
+    // Variant hash -> bytes, bounded by total length
+    private final Cache<String, byte[]> hot;
+
+    // PhotoVariant id -> row
+    private final Cache<String, PhotoVariant> known = Caffeine.newBuilder().maximumSize(30_000).build();
+
+    // Originals the JDK cannot decode, so they are not tried on every request
+    private final Cache<String, Boolean> undecodable = Caffeine.newBuilder().maximumSize(10_000).build();
+
+    // Original hash -> generation queued or running
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public PhotoVariantService(BlobStore blobStore, PhotoVariantRepository variantRepository,
+            @Value("${photos.variants.threads:2}") int threads,
+            @Value("${photos.variants.queue-capacity:100}") int queueCapacity,
+            @Value("${photos.variants.cache-bytes:33554432}") long cacheBytes) {
+        this.blobStore = blobStore;
+        this.variantRepository = variantRepository;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "photo-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.hot = Caffeine.newBuilder()
+                .maximumWeight(cacheBytes)
+                .weigher((String hash, byte[] bytes) -> bytes.length)
+                .build();
+    }
+
+    /**
+     * Queue generation of every variant of a newly stored photo
+     */
+    public void prepare(String originalHash) {
+        generation(originalHash).exceptionally(e -> {
+            logger.warn("Photo variants of {} not generated: {}", originalHash, e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * The smallest variant at least the given width, or empty when the original
+     * should be served: it is within that width, wider than every variant, not
+     * an image the JDK decodes, or its variants are not generated yet
+     */
+    public Optional<Variant> variant(String originalHash, int width) {
+        int target = 0;
+        for (int candidate : WIDTHS) {
+            if (candidate >= width) {
+                target = candidate;
+                break;
+            }
+        }
+        if (target == 0 || undecodable.getIfPresent(originalHash) != null || inFlight.containsKey(originalHash)) {
+            return Optional.empty();
+        }
+        PhotoVariant row = find(originalHash, target);
+        if (row == null) {
+            // Photos moved in by the migration or uploaded while the queue was full
+            generation(originalHash).exceptionally(e -> {
+                logger.debug("Photo variants of {} not queued: {}", originalHash, e.getMessage());
+                return null;
+            });
+            return Optional.empty();
+        }
+        if (row.getVariantHash().equals(originalHash)) {
+            return Optional.empty();
+        }
+        byte[] content = target <= HOT_MAX_WIDTH ? hot.get(row.getVariantHash(), this::read) : null;
+        return Optional.of(new Variant(row.getVariantHash(), row.getContentType(), row.getSize(), content));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private PhotoVariant find(String originalHash, int width) {
+        return known.get(PhotoVariant.id(originalHash, width), id -> variantRepository.findById(id).orElse(null));
+    }
+
+    // Joins a generation already queued for the original, so each is decoded once
+    private CompletableFuture<Void> generation(String originalHash) {
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlight.putIfAbsent(originalHash, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(originalHash);
+                    created.complete(null);
+                } catch (RuntimeException e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(originalHash, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(originalHash, created);
+            created.completeExceptionally(new RejectedExecutionException("photo variant queue is full"));
+        }
+        return created;
+    }
+
+    private void generate(String originalHash) {
+        boolean done = true;
+        for (int width : WIDTHS) {
+            done &= find(originalHash, width) != null;
+        }
+        if (done) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Decoded decoded;
+        try {
+            decoded = decode(originalHash);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to decode photo {}: {}", originalHash, e.getMessage());
+            decoded = null;
+        }
+        if (decoded == null) {
+            undecodable.put(originalHash, Boolean.TRUE);
+            return;
+        }
+
+        boolean alpha = decoded.image().getColorModel().hasAlpha();
+        String contentType = alpha ? "image/png" : "image/jpeg";
+        int longest = Math.max(decoded.width(), decoded.height());
+        List<PhotoVariant> rows = new ArrayList<>();
+        BufferedImage current = decoded.image();
+        try {
+            // Largest first, each scaled down from the one before
+            for (int i = WIDTHS.length - 1; i >= 0; i--) {
+                int width = WIDTHS[i];
+                if (longest <= width) {
+                    rows.add(new PhotoVariant(originalHash, width, originalHash, null, blobStore.size(originalHash)));
+                    continue;
+                }
+                current = scale(current, width, alpha);
+                byte[] bytes = encode(current, alpha);
+                BlobStore.StoredBlob blob = blobStore.put(new ByteArrayInputStream(bytes));
+                rows.add(new PhotoVariant(originalHash, width, blob.hash(), contentType, blob.size()));
+                if (width <= HOT_MAX_WIDTH) {
+                    hot.put(blob.hash(), bytes);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store variants of photo " + originalHash, e);
+        }
+        variantRepository.saveAll(rows);
+        rows.forEach(row -> known.put(row.getId(), row));
+        logger.info("Generated {} variants of photo {} ({}x{}) in {} ms", rows.size(), originalHash,
+                decoded.width(), decoded.height(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Null when no ImageIO reader takes the format or the image is too large
+    private Decoded decode(String hash) throws IOException {
+        try (InputStream in = blobStore.open(hash); ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Skip source pixels while decoding, keeping at least twice the largest variant
+                int step = Math.max(1, Math.max(width, height) / (2 * WIDTHS[WIDTHS.length - 1]));
+                if ((long) width * height / ((long) step * step) > MAX_DECODED_PIXELS) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return new Decoded(reader.read(0, param), width, height);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves with bilinear filtering until within twice the target, then scales to it
+    static BufferedImage scale(BufferedImage image, int longest, boolean alpha) {
+        double ratio = (double) longest / Math.max(image.getWidth(), image.getHeight());
+        if (ratio >= 1) {
+            return image;
+        }
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // PNG keeps transparency; everything else becomes a JPEG
+    private static byte[] encode(BufferedImage image, boolean alpha) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (alpha) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // Null for a variant missing from the blob store, which is then streamed (and 404s) as usual
+    private byte[] read(String hash) {
+        try (InputStream in = blobStore.open(hash)) {
+            return in.readAllBytes();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read photo variant " + hash, e);
+        }
+    }
+}
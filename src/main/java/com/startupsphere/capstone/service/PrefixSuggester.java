@@ -0,0 +1,371 @@
+package com.startupsphere.capstone.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead over the names of one kind of document: a compressed prefix trie
+ * (radix tree) of normalized names where every node keeps its best completions,
+ * heaviest first. A suggestion is a walk down the typed prefix and a copy of
+ * that node's list, so it never depends on how many names there are.
+ *
+ * Each name is keyed by its full text and by every word-start suffix, so
+ * "Acme Labs" is suggested for both "ac" and "la". Adding or removing a name
+ * only touches the nodes on its keys' paths. Not thread-safe; callers guard it
+ * with their own lock.
+ */
+public final class PrefixSuggester {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_ENTRIES = new int[0];
+
+    /**
+     * A completion: the document and its name as entered
+     */
+    public static final class Suggestion {
+        private final long id;
+        private final String name;
+
+        Suggestion(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static final class Node {
+        String label; // Characters on the edge from the parent
+        char[] keys = NO_KEYS; // First label character of each child, ascending
+        Node[] children = NO_CHILDREN;
+        int[] terminals = NO_ENTRIES; // Entries with a key ending here
+        int[] top = NO_ENTRIES; // Best entries anywhere below, best first
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            int at = Arrays.binarySearch(keys, c);
+            return at >= 0 ? children[at] : null;
+        }
+
+        void putChild(Node child) {
+            int at = Arrays.binarySearch(keys, child.label.charAt(0));
+            if (at >= 0) {
+                children[at] = child;
+                return;
+            }
+            at = -at - 1;
+            keys = insert(keys, at, child.label.charAt(0));
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = child;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+        }
+
+        void removeChild(char c) {
+            int at = Arrays.binarySearch(keys, c);
+            char[] fewerKeys = new char[keys.length - 1];
+            Node[] fewer = new Node[children.length - 1];
+            System.arraycopy(keys, 0, fewerKeys, 0, at);
+            System.arraycopy(keys, at + 1, fewerKeys, at, keys.length - at - 1);
+            System.arraycopy(children, 0, fewer, 0, at);
+            System.arraycopy(children, at + 1, fewer, at, children.length - at - 1);
+            keys = fewerKeys;
+            children = fewer;
+        }
+    }
+
+    private final int limit;
+    private final Node root = new Node("");
+    private final Map<Long, Integer> entryById = new HashMap<>();
+
+    // Per entry number; numbers of removed entries are reused
+    private long[] ids = new long[16];
+    private String[] names = new String[16];
+    private long[] weights = new long[16];
+    private int[] free = new int[16];
+    private int freeCount;
+    private int entryCount;
+
+    /**
+     * @param limit Completions kept per node, the most a suggestion can return
+     */
+    public PrefixSuggester(int limit) {
+        this.limit = limit;
+    }
+
+    public int size() {
+        return entryById.size();
+    }
+
+    /**
+     * Add a name, replacing any earlier one of the same document
+     *
+     * @param weight Higher weights are suggested first
+     */
+    public void put(long id, String name, long weight) {
+        remove(id);
+        Set<String> keys = keysOf(name);
+        if (keys.isEmpty()) {
+            return;
+        }
+        int entry = freeCount > 0 ? free[--freeCount] : newEntry();
+        ids[entry] = id;
+        names[entry] = name.trim();
+        weights[entry] = weight;
+        entryById.put(id, entry);
+        for (String key : keys) {
+            insert(key, entry);
+        }
+    }
+
+    public void remove(long id) {
+        Integer entry = entryById.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String key : keysOf(names[entry])) {
+            remove(root, key, 0, entry);
+        }
+        names[entry] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = entry;
+    }
+
+    public void clear() {
+        root.keys = NO_KEYS;
+        root.children = NO_CHILDREN;
+        root.terminals = NO_ENTRIES;
+        root.top = NO_ENTRIES;
+        entryById.clear();
+        ids = new long[16];
+        names = new String[16];
+        weights = new long[16];
+        freeCount = 0;
+        entryCount = 0;
+    }
+
+    /**
+     * Best completions of a prefix, heaviest first, at most the limit given at
+     * construction
+     */
+    public List<Suggestion> suggest(String prefix, int count) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length() && i + common < key.length()) {
+                return List.of(); // Diverges inside the edge
+            }
+            i += common;
+            node = child;
+        }
+        int n = Math.min(count, node.top.length);
+        List<Suggestion> suggestions = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            suggestions.add(new Suggestion(ids[node.top[k]], names[node.top[k]]));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Lower-case, accent-free words joined by single spaces, the form names are
+     * keyed by and prefixes are looked up in
+     */
+    static String normalize(String text) {
+        return String.join(" ", NON_WORD.split(TextSearchIndex.normalize(text))).trim();
+    }
+
+    // The full name and each suffix starting at a later word
+    private static Set<String> keysOf(String name) {
+        Set<String> keys = new LinkedHashSet<>();
+        String key = normalize(name);
+        while (!key.isEmpty()) {
+            keys.add(key);
+            int space = key.indexOf(' ');
+            key = space < 0 ? "" : key.substring(space + 1);
+        }
+        return keys;
+    }
+
+    private void insert(String key, int entry) {
+        Node node = root;
+        offer(node, entry);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                child.terminals = new int[] { entry };
+                child.top = new int[] { entry };
+                node.putChild(child);
+                return;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.putChild(child);
+                middle.top = child.top.clone();
+                node.putChild(middle);
+                child = middle;
+            }
+            offer(child, entry);
+            i += common;
+            node = child;
+        }
+        if (indexOf(node.terminals, entry) < 0) {
+            node.terminals = insert(node.terminals, node.terminals.length, entry);
+        }
+    }
+
+    private void remove(Node node, String key, int i, int entry) {
+        if (i == key.length()) {
+            int at = indexOf(node.terminals, entry);
+            if (at >= 0) {
+                node.terminals = delete(node.terminals, at);
+            }
+        } else {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                return;
+            }
+            remove(child, key, i + child.label.length(), entry);
+            if (child.terminals.length == 0 && child.children.length == 0) {
+                node.removeChild(child.label.charAt(0));
+            } else if (child.terminals.length == 0 && child.children.length == 1) {
+                // Merge a pass-through node into its only child to stay compressed
+                Node only = child.children[0];
+                only.label = child.label + only.label;
+                node.putChild(only);
+            }
+        }
+        if (indexOf(node.top, entry) >= 0) {
+            node.top = recompute(node);
+        }
+    }
+
+    // Best entries of a node from its own terminals and its children's lists
+    private int[] recompute(Node node) {
+        int[] best = NO_ENTRIES;
+        for (int entry : node.terminals) {
+            best = offer(best, entry);
+        }
+        for (Node child : node.children) {
+            for (int entry : child.top) {
+                best = offer(best, entry);
+            }
+        }
+        return best;
+    }
+
+    private void offer(Node node, int entry) {
+        node.top = offer(node.top, entry);
+    }
+
+    private int[] offer(int[] top, int entry) {
+        if (indexOf(top, entry) >= 0) {
+            return top;
+        }
+        int at = top.length;
+        while (at > 0 && better(entry, top[at - 1])) {
+            at--;
+        }
+        if (at >= limit) {
+            return top;
+        }
+        int[] result = insert(top, at, entry);
+        return result.length > limit ? Arrays.copyOf(result, limit) : result;
+    }
+
+    // Heavier first, then shorter names, then lower ids
+    private boolean better(int a, int b) {
+        if (weights[a] != weights[b]) {
+            return weights[a] > weights[b];
+        }
+        if (names[a].length() != names[b].length()) {
+            return names[a].length() < names[b].length();
+        }
+        return ids[a] < ids[b];
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int n = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < n && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(int[] entries, int entry) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] == entry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] insert(int[] entries, int at, int entry) {
+        int[] result = new int[entries.length + 1];
+        System.arraycopy(entries, 0, result, 0, at);
+        result[at] = entry;
+        System.arraycopy(entries, at, result, at + 1, entries.length - at);
+        return result;
+    }
+
+    private static char[] insert(char[] chars, int at, char c) {
+        char[] result = new char[chars.length + 1];
+        System.arraycopy(chars, 0, result, 0, at);
+        result[at] = c;
+        System.arraycopy(chars, at, result, at + 1, chars.length - at);
+        return result;
+    }
+
+    private static int[] delete(int[] entries, int at) {
+        int[] result = new int[entries.length - 1];
+        System.arraycopy(entries, 0, result, 0, at);
+        System.arraycopy(entries, at + 1, result, at, entries.length - at - 1);
+        return result;
+    }
+
+    private int newEntry() {
+        if (entryCount == ids.length) {
+            int capacity = entryCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        return entryCount++;
+    }
+}
@@ -0,0 +1,19 @@
+package com.startupsphere.capstone.service;
+
+/**
+ * Published by {@link StartupRankingService} whenever a startup's stored scores
+ * change or are removed. {@link RankingSnapshotService} and
+ * {@link StartupPositionIndex} pick the change up after commit.
+ */
+public class RankingChangedEvent {
+    private final Long startupId;
+
+    public RankingChangedEvent(Long startupId) {
+        this.startupId = startupId;
+    }
+
+    // Null when every startup may have changed
+    public Long getStartupId() {
+        return startupId;
+    }
+}
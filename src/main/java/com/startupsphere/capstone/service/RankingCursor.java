@@ -0,0 +1,69 @@
+package com.startupsphere.capstone.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a ranking: the (score, id) of the last startup a client
+ * has seen, plus the metric it was ranked by. The next page starts right after
+ * that key wherever it now falls, so scores changing between requests never
+ * cause skipped or repeated startups the way offsets do.
+ *
+ * Sent to clients as an opaque URL-safe token.
+ */
+public final class RankingCursor {
+
+    private final int metricIndex;
+    private final double score;
+    private final long id;
+
+    public RankingCursor(int metricIndex, double score, long id) {
+        this.metricIndex = metricIndex;
+        this.score = score;
+        this.id = id;
+    }
+
+    public int getMetricIndex() {
+        return metricIndex;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Token form; the exact bits of the score are kept so ties resolve exactly
+     */
+    public String encode() {
+        String key = metricIndex + ":" + Long.toHexString(Double.doubleToLongBits(score)) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token from {@link #encode()}
+     *
+     * @throws IllegalArgumentException When the token is malformed
+     */
+    public static RankingCursor decode(String token) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = key.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            int metricIndex = Integer.parseInt(parts[0]);
+            if (metricIndex < 0 || metricIndex >= RankingSnapshot.METRICS.length) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new RankingCursor(metricIndex, Double.longBitsToDouble(Long.parseUnsignedLong(parts[1], 16)),
+                    Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and bad Base64 both land here
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Complete, immutable startup ranking at one point in time: every score of every
+ * startup plus the full best-first order of approved startups for each metric,
+ * overall and within each industry.
+ *
+ * Published by {@link RankingSnapshotService}; readers never lock, they just page
+ * through the arrays of whichever snapshot is current. The version increases with
+ * every published snapshot so clients can tell when rankings changed.
+ */
+public final class RankingSnapshot {
+
+    public static final String[] METRICS = { "overall", "growth", "investment", "ecosystem", "engagement" };
+
+    public static final RankingSnapshot EMPTY = new RankingSnapshot(0, RankingWeights.DEFAULT,
+            StartupMetricsSnapshot.EMPTY, new double[METRICS.length][0], Map.of());
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final long version;
+    private final long builtAt;
+    // Profile the scores were computed with
+    private final RankingWeights weights;
+    private final StartupMetricsSnapshot metrics;
+    // scores[metric][row], overall on a 0-100 scale and the categories on 0-1
+    private final double[][] scores;
+    // Industry key ("" for all industries) -> metric -> rows best first
+    private final Map<String, int[][]> orders;
+
+    private RankingSnapshot(long version, RankingWeights weights, StartupMetricsSnapshot metrics,
+            double[][] scores, Map<String, int[][]> orders) {
+        this.version = version;
+        this.builtAt = System.currentTimeMillis();
+        this.weights = weights;
+        this.metrics = metrics;
+        this.scores = scores;
+        this.orders = orders;
+    }
+
+    /**
+     * Order the approved startups of a metrics snapshot by already computed scores
+     *
+     * @param scores One score column per entry of {@link #METRICS}
+     */
+    public static RankingSnapshot build(long version, RankingWeights weights, StartupMetricsSnapshot metrics,
+            double[][] scores) {
+        Map<String, int[]> candidates = approvedRowsByIndustry(metrics);
+        Map<String, int[][]> orders = new HashMap<>();
+        candidates.forEach((industry, rows) -> {
+            int[][] byMetric = new int[METRICS.length][];
+            for (int m = 0; m < METRICS.length; m++) {
+                byMetric[m] = TopKSelector.selectTop(scores[m], rows, rows.length);
+            }
+            orders.put(industry, byMetric);
+        });
+        return new RankingSnapshot(version, weights, metrics, scores, orders);
+    }
+
+    /**
+     * Same as {@link #build}, but reuses already computed best-first orders of
+     * all approved rows. Industry orders are filtered out of them, which keeps
+     * them sorted without sorting again.
+     *
+     * @param orders One order per entry of {@link #METRICS}
+     */
+    public static RankingSnapshot fromOrders(long version, RankingWeights weights, StartupMetricsSnapshot metrics,
+            double[][] scores, int[][] orders) {
+        Map<String, int[]> candidates = approvedRowsByIndustry(metrics);
+        Map<String, int[][]> byIndustry = new HashMap<>();
+        candidates.forEach((industry, rows) -> byIndustry.put(industry,
+                industry.isEmpty() ? orders : new int[METRICS.length][rows.length]));
+
+        String[] rowIndustries = new String[metrics.size()];
+        for (int row = 0; row < rowIndustries.length; row++) {
+            rowIndustries[row] = industryKey(metrics.industries[row]);
+        }
+        Map<String, int[]> filled = new HashMap<>();
+        for (int m = 0; m < METRICS.length; m++) {
+            filled.clear();
+            for (int row : orders[m]) {
+                String industry = rowIndustries[row];
+                if (!industry.isEmpty()) {
+                    int[] position = filled.computeIfAbsent(industry, key -> new int[1]);
+                    byIndustry.get(industry)[m][position[0]++] = row;
+                }
+            }
+        }
+        return new RankingSnapshot(version, weights, metrics, scores, byIndustry);
+    }
+
+    /**
+     * The same ranking under another profile with the same normalization maxima.
+     * Category scores and their orders are shared with this snapshot; only the
+     * overall column is recombined and re-sorted.
+     */
+    public RankingSnapshot reweigh(long version, RankingWeights profile) {
+        if (!profile.sameNormalization(weights)) {
+            throw new IllegalArgumentException("Profile normalizes differently, the snapshot must be rebuilt");
+        }
+        double[][] reweighed = scores.clone();
+        reweighed[0] = overallColumn(profile);
+        int[][] global = orders.get("");
+        int[][] reordered = new int[METRICS.length][];
+        if (global == null) {
+            for (int m = 0; m < METRICS.length; m++) {
+                reordered[m] = NO_ROWS;
+            }
+        } else {
+            reordered = global.clone();
+            reordered[0] = TopKSelector.selectTop(reweighed[0], global[1], global[1].length);
+        }
+        return fromOrders(version, profile, metrics, reweighed, reordered);
+    }
+
+    /**
+     * The same ranking with a few startups changed, e.g. by a like or a view.
+     * Scores of the other startups are copied over and their orders filtered,
+     * which keeps them sorted; only the changed rows are scored with this
+     * snapshot's profile, sorted and merged in.
+     *
+     * @param changedIds Ascending ids of the changed startups
+     * @param rows       Their current metrics, ordered by ascending id; changed
+     *                   ids without a row were deleted
+     */
+    public RankingSnapshot update(long version, long[] changedIds, List<StartupMetricsDTO> rows) {
+        StartupMetricsSnapshot updated = metrics.merge(changedIds, rows);
+        double[][] updatedScores = new double[METRICS.length][updated.size()];
+        // New row of every row whose metrics were kept, -1 for changed and deleted ones
+        int[] moved = new int[metrics.size()];
+        int[] changedRows = new int[rows.size()];
+        int changedCount = 0;
+        int row = 0;
+        int changed = 0;
+        for (int next = 0; next < updated.size(); next++) {
+            long id = updated.ids[next];
+            while (row < metrics.size() && metrics.ids[row] < id) {
+                moved[row++] = -1;
+            }
+            while (changed < changedIds.length && changedIds[changed] < id) {
+                changed++;
+            }
+            boolean kept = row < metrics.size() && metrics.ids[row] == id;
+            if (changed < changedIds.length && changedIds[changed] == id) {
+                if (kept) {
+                    moved[row++] = -1;
+                }
+                score(updated, next, updatedScores);
+                if (updated.approved[next]) {
+                    changedRows[changedCount++] = next;
+                }
+            } else {
+                for (int m = 0; m < METRICS.length; m++) {
+                    updatedScores[m][next] = scores[m][row];
+                }
+                moved[row++] = next;
+            }
+        }
+        while (row < metrics.size()) {
+            moved[row++] = -1;
+        }
+
+        int[][] global = orders.get("");
+        int[] candidates = Arrays.copyOf(changedRows, changedCount);
+        int[][] merged = new int[METRICS.length][];
+        for (int m = 0; m < METRICS.length; m++) {
+            int[] kept = global == null ? NO_ROWS : remap(global[m], moved);
+            int[] sorted = TopKSelector.selectTop(updatedScores[m], candidates, candidates.length);
+            merged[m] = TopKSelector.merge(kept, sorted, kept.length + sorted.length, updatedScores[m]);
+        }
+        return fromOrders(version, weights, updated, updatedScores, merged);
+    }
+
+    // Same single pass as the scoring pipeline
+    private void score(StartupMetricsSnapshot updated, int row, double[][] into) {
+        double growth = StartupRankingService.growthScore(weights, updated, row);
+        double investment = StartupRankingService.investmentScore(weights, updated, row);
+        double ecosystem = StartupRankingService.ecosystemScore(weights, updated, row);
+        double engagement = StartupRankingService.engagementScore(weights, updated, row);
+        into[0][row] = weights.overall(growth, investment, ecosystem, engagement);
+        into[1][row] = growth;
+        into[2][row] = investment;
+        into[3][row] = ecosystem;
+        into[4][row] = engagement;
+    }
+
+    // Rows are renumbered in id order, so the relative order of the remaining rows is unchanged
+    private static int[] remap(int[] order, int[] moved) {
+        int count = 0;
+        for (int row : order) {
+            if (moved[row] >= 0) {
+                count++;
+            }
+        }
+        int[] remapped = new int[count];
+        int next = 0;
+        for (int row : order) {
+            if (moved[row] >= 0) {
+                remapped[next++] = moved[row];
+            }
+        }
+        return remapped;
+    }
+
+    /**
+     * Overall score of every row under a profile: a linear recombination of the
+     * stored category scores when the profile normalizes like this snapshot, a
+     * rescore of the primitive metric columns otherwise
+     */
+    public double[] overallColumn(RankingWeights profile) {
+        double[] overall = new double[metrics.size()];
+        if (profile.sameNormalization(weights)) {
+            for (int row = 0; row < overall.length; row++) {
+                overall[row] = profile.overall(scores[1][row], scores[2][row], scores[3][row], scores[4][row]);
+            }
+        } else {
+            for (int row = 0; row < overall.length; row++) {
+                overall[row] = StartupRankingService.overallScore(profile, metrics, row);
+            }
+        }
+        return overall;
+    }
+
+    /**
+     * Approved rows in id order, under "" and under their industry key
+     */
+    static Map<String, int[]> approvedRowsByIndustry(StartupMetricsSnapshot metrics) {
+        Map<String, int[]> counts = new HashMap<>();
+        for (int row = 0; row < metrics.size(); row++) {
+            if (metrics.approved[row]) {
+                counts.computeIfAbsent("", key -> new int[1])[0]++;
+                String industry = industryKey(metrics.industries[row]);
+                if (!industry.isEmpty()) {
+                    counts.computeIfAbsent(industry, key -> new int[1])[0]++;
+                }
+            }
+        }
+
+        Map<String, int[]> rows = new HashMap<>();
+        counts.forEach((industry, count) -> {
+            rows.put(industry, new int[count[0]]);
+            count[0] = 0;
+        });
+        for (int row = 0; row < metrics.size(); row++) {
+            if (metrics.approved[row]) {
+                rows.get("")[counts.get("")[0]++] = row;
+                String industry = industryKey(metrics.industries[row]);
+                if (!industry.isEmpty()) {
+                    rows.get(industry)[counts.get(industry)[0]++] = row;
+                }
+            }
+        }
+        return rows;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public RankingWeights getWeights() {
+        return weights;
+    }
+
+    public StartupMetricsSnapshot getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Rows of approved startups, best first
+     *
+     * @param metric   Metric to order by ("growth", "investment", "ecosystem",
+     *                 "engagement", or "overall")
+     * @param industry Optional industry ("All" or blank means every industry)
+     */
+    public int[] order(String metric, String industry) {
+        int[][] byMetric = orders.get(industryKey(industry));
+        return byMetric == null ? NO_ROWS : byMetric[metricIndex(metric)];
+    }
+
+    /**
+     * Index into {@link #order} of the first startup ranked after a cursor key,
+     * found by binary search so every page costs the same however deep it is.
+     * The key does not need to be in this snapshot; if its startup moved or is
+     * gone, paging continues from where the key would sort now.
+     */
+    public int seek(String metric, String industry, RankingCursor cursor) {
+        if (cursor.getMetricIndex() != metricIndex(metric)) {
+            throw new IllegalArgumentException("Cursor belongs to a ranking by another metric");
+        }
+        int[] order = order(metric, industry);
+        double[] column = scores[cursor.getMetricIndex()];
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int row = order[mid];
+            double score = column[row];
+            // Orders are score descending, then id ascending
+            boolean atOrBeforeKey = score > cursor.getScore()
+                    || (score == cursor.getScore() && metrics.ids[row] <= cursor.getId());
+            if (atOrBeforeKey) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Cursor pointing just past a row
+     */
+    public RankingCursor cursorAt(String metric, int row) {
+        int metricIndex = metricIndex(metric);
+        return new RankingCursor(metricIndex, scores[metricIndex][row], metrics.ids[row]);
+    }
+
+    public double score(String metric, int row) {
+        return scores[metricIndex(metric)][row];
+    }
+
+    public double overallScore(int row) {
+        return scores[0][row];
+    }
+
+    public double growthScore(int row) {
+        return scores[1][row];
+    }
+
+    public double investmentScore(int row) {
+        return scores[2][row];
+    }
+
+    public double ecosystemScore(int row) {
+        return scores[3][row];
+    }
+
+    public double engagementScore(int row) {
+        return scores[4][row];
+    }
+
+    /**
+     * Index into {@link #METRICS}; unknown metrics fall back to overall
+     */
+    public static int metricIndex(String metric) {
+        String key = metric == null ? "overall" : metric.toLowerCase();
+        for (int m = 0; m < METRICS.length; m++) {
+            if (METRICS[m].equals(key)) {
+                return m;
+            }
+        }
+        return 0;
+    }
+
+    // Blank and "All" mean every industry; industries compare case-insensitively like MySQL does
+    static String industryKey(String industry) {
+        if (industry == null || industry.trim().isEmpty() || industry.trim().equalsIgnoreCase("All")) {
+            return "";
+        }
+        return industry.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,242 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
+import com.startupsphere.capstone.repository.StartupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds and publishes {@link RankingSnapshot}s. Every /api/rankings list read is
+ * served from {@link #current()} without locking or touching the database.
+ *
+ * Snapshots are built on a single background thread. Shortly after scores change
+ * (bursts of changes are folded together) only the changed startups are read and
+ * merged into the current snapshot. Everything is rebuilt from fresh metrics once
+ * at startup, on a fixed interval as a safety net, after a full recalculation or
+ * bulk change, and when new weights normalize differently.
+ */
+@Service
+public class RankingSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingSnapshotService.class);
+
+    // Ids per IN query when reading changed startups
+    private static final int METRICS_BATCH_SIZE = 500;
+    // Above this many changed startups, e.g. after a bulk upload, a rebuild is cheaper than reading them by id
+    private static final int MAX_UPDATE_SIZE = 2_000;
+
+    private final StartupRepository startupRepository;
+    private final StartupMetricsSnapshotService metricsSnapshotService;
+    private final StartupScoringPipeline scoringPipeline;
+    private final long debounceMillis;
+
+    private final AtomicReference<RankingSnapshot> current = new AtomicReference<>(RankingSnapshot.EMPTY);
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+    // Changes not yet in the current snapshot: some startups, or everything
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean(false);
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ranking-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RankingSnapshotService(StartupRepository startupRepository,
+            StartupMetricsSnapshotService metricsSnapshotService,
+            StartupScoringPipeline scoringPipeline,
+            @Value("${ranking.snapshot.debounce-ms:2000}") long debounceMillis) {
+        this.startupRepository = startupRepository;
+        this.metricsSnapshotService = metricsSnapshotService;
+        this.scoringPipeline = scoringPipeline;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Latest published ranking; never null, empty (version 0) until the first build
+     */
+    public RankingSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Rebuild from fresh metrics on the calling thread and publish the result
+     */
+    public RankingSnapshot rebuild() {
+        long start = System.nanoTime();
+        StartupMetricsSnapshot metrics = metricsSnapshotService.rebuild();
+
+        StartupScoringPipeline.Result scored = scoringPipeline.score(metrics);
+
+        RankingSnapshot snapshot;
+        // Versions are handed out and published under one lock so they never go backwards
+        synchronized (current) {
+            snapshot = RankingSnapshot.fromOrders(versions.incrementAndGet(), scored.getWeights(), metrics,
+                    scored.getScores(), scored.getOrders());
+            current.set(snapshot);
+        }
+        logger.info("Published ranking snapshot v{} of {} startups in {} ms", snapshot.getVersion(),
+                metrics.size(), (System.nanoTime() - start) / 1_000_000);
+        return snapshot;
+    }
+
+    /**
+     * Merge the current metrics of some startups into the current snapshot and
+     * publish the result, on the calling thread
+     *
+     * @param ids Changed startups; deleted ones are taken off the ranking
+     */
+    public RankingSnapshot update(Set<Long> ids) {
+        long start = System.nanoTime();
+        long[] sortedIds = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+        List<StartupMetricsDTO> rows = new ArrayList<>(sortedIds.length);
+        List<Long> batch = new ArrayList<>(METRICS_BATCH_SIZE);
+        for (int i = 0; i < sortedIds.length; i++) {
+            batch.add(sortedIds[i]);
+            if (batch.size() == METRICS_BATCH_SIZE || i == sortedIds.length - 1) {
+                // Batches are in id order, and so is each result
+                rows.addAll(startupRepository.findMetricsByIds(batch));
+                batch.clear();
+            }
+        }
+
+        RankingSnapshot snapshot;
+        synchronized (current) {
+            snapshot = current.get().update(versions.incrementAndGet(), sortedIds, rows);
+            current.set(snapshot);
+        }
+        logger.debug("Published ranking snapshot v{} with {} changed startups in {} ms", snapshot.getVersion(),
+                sortedIds.length, (System.nanoTime() - start) / 1_000_000);
+        return snapshot;
+    }
+
+    /**
+     * Schedule a background rebuild after the debounce delay. Requests made while
+     * one is already pending are folded into it.
+     */
+    public void requestRebuild() {
+        rebuildRequested.set(true);
+        scheduleRefresh();
+    }
+
+    /**
+     * Schedule a background update of one startup after the debounce delay,
+     * folded together with every other change made in the meantime
+     */
+    public void requestUpdate(Long startupId) {
+        if (startupId == null) {
+            requestRebuild();
+            return;
+        }
+        changedIds.add(startupId);
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        executor.schedule(() -> {
+            refreshPending.set(false);
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                logger.error("Failed to refresh ranking snapshot", e);
+            }
+        }, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void refresh() {
+        boolean rebuild = rebuildRequested.getAndSet(false);
+        Set<Long> ids = Set.copyOf(changedIds);
+        changedIds.removeAll(ids);
+        // An update needs something to update; the first snapshot is always a full build
+        if (rebuild || ids.size() > MAX_UPDATE_SIZE || current.get().getVersion() == 0) {
+            rebuild();
+        } else if (!ids.isEmpty()) {
+            update(ids);
+        }
+    }
+
+    // After commit, so the refresh reads the new scores; immediately when no transaction is active
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRankingChanged(RankingChangedEvent event) {
+        requestUpdate(event.getStartupId());
+    }
+
+    /**
+     * Re-rank the current snapshot under a new profile. Weight-only changes
+     * recombine the stored category scores in memory and publish at once;
+     * changed maxima need fresh category scores, so those rebuild.
+     */
+    public RankingSnapshot reweigh(RankingWeights profile) {
+        long start = System.nanoTime();
+        RankingSnapshot snapshot;
+        synchronized (current) {
+            RankingSnapshot previous = current.get();
+            if (!profile.sameNormalization(previous.getWeights())) {
+                snapshot = null;
+            } else {
+                snapshot = previous.reweigh(versions.incrementAndGet(), profile);
+                current.set(snapshot);
+            }
+        }
+        if (snapshot == null) {
+            return rebuild();
+        }
+        logger.info("Re-ranked snapshot v{} with new ranking weights in {} ms", snapshot.getVersion(),
+                (System.nanoTime() - start) / 1_000_000);
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRankingWeightsChanged(RankingWeightsChangedEvent event) {
+        executor.execute(() -> {
+            try {
+                reweigh(event.getCurrent());
+            } catch (RuntimeException e) {
+                logger.error("Failed to re-rank snapshot with new ranking weights", e);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                logger.error("Failed to build initial ranking snapshot", e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${ranking.snapshot.refresh-interval-ms:300000}",
+            initialDelayString = "${ranking.snapshot.refresh-interval-ms:300000}")
+    public void scheduledRebuild() {
+        requestRebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
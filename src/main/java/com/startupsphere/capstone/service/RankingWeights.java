@@ -0,0 +1,261 @@
+package com.startupsphere.capstone.service;
+
+import java.util.Objects;
+
+/**
+ * Immutable scoring profile: how the four category scores are weighted into the
+ * overall score, and the benchmark maxima each raw metric is normalized against.
+ *
+ * Changing only the weights is a linear recombination of stored category
+ * scores; changing a maximum changes the category scores themselves.
+ */
+public final class RankingWeights {
+
+    public static final RankingWeights DEFAULT = new RankingWeights(
+            0.30, // growth
+            0.30, // investment
+            0.20, // ecosystem
+            0.20, // engagement
+            500000000.0, // 500M PHP as max benchmark
+            100.0, // 100% as max benchmark
+            100000000.0, // 100M PHP as max benchmark
+            50000000.0, // 50M PHP as max benchmark
+            10, // Series D+ as max benchmark
+            50, // Arbitrary max
+            20, // Arbitrary max
+            10000, // Arbitrary max for platform engagement
+            100,
+            50);
+
+    private static final int MAX_SOCIAL_MEDIA_SCORE = 5; // Count of social media platforms
+
+    private final double growthWeight;
+    private final double investmentWeight;
+    private final double ecosystemWeight;
+    private final double engagementWeight;
+
+    private final double maxAnnualRevenue;
+    private final double maxGrowthRate;
+    private final double maxFunding;
+    private final double maxGovernmentGrant;
+    private final int maxFundingRounds;
+    private final int maxMentors;
+    private final int maxPartnerships;
+    private final int maxViews;
+    private final int maxLikes;
+    private final int maxBookmarks;
+
+    public RankingWeights(double growthWeight, double investmentWeight, double ecosystemWeight,
+            double engagementWeight, double maxAnnualRevenue, double maxGrowthRate, double maxFunding,
+            double maxGovernmentGrant, int maxFundingRounds, int maxMentors, int maxPartnerships, int maxViews,
+            int maxLikes, int maxBookmarks) {
+        double weightSum = growthWeight + investmentWeight + ecosystemWeight + engagementWeight;
+        if (growthWeight < 0 || investmentWeight < 0 || ecosystemWeight < 0 || engagementWeight < 0
+                || Math.abs(weightSum - 1.0) > 1e-6) {
+            throw new IllegalArgumentException("Category weights must be non-negative and add up to 1");
+        }
+        if (maxAnnualRevenue <= 0 || maxGrowthRate <= 0 || maxFunding <= 0 || maxGovernmentGrant <= 0
+                || maxFundingRounds <= 0 || maxMentors <= 0 || maxPartnerships <= 0 || maxViews <= 0
+                || maxLikes <= 0 || maxBookmarks <= 0) {
+            throw new IllegalArgumentException("Normalization maxima must be positive");
+        }
+        this.growthWeight = growthWeight;
+        this.investmentWeight = investmentWeight;
+        this.ecosystemWeight = ecosystemWeight;
+        this.engagementWeight = engagementWeight;
+        this.maxAnnualRevenue = maxAnnualRevenue;
+        this.maxGrowthRate = maxGrowthRate;
+        this.maxFunding = maxFunding;
+        this.maxGovernmentGrant = maxGovernmentGrant;
+        this.maxFundingRounds = maxFundingRounds;
+        this.maxMentors = maxMentors;
+        this.maxPartnerships = maxPartnerships;
+        this.maxViews = maxViews;
+        this.maxLikes = maxLikes;
+        this.maxBookmarks = maxBookmarks;
+    }
+
+    /**
+     * Combine category scores into the overall score (0-100)
+     */
+    public double overall(double growthScore, double investmentScore, double ecosystemScore,
+            double engagementScore) {
+        // Combine weighted scores and normalize to 0-100 scale
+        return (growthScore * growthWeight +
+                investmentScore * investmentWeight +
+                ecosystemScore * ecosystemWeight +
+                engagementScore * engagementWeight) * 100;
+    }
+
+    /**
+     * Growth & performance score (0-1)
+     */
+    public double growth(double annualRevenue, double growthRate, double survivalRate) {
+        // Revenue component (normalized)
+        double revenueScore = Math.min(annualRevenue / maxAnnualRevenue, 1.0);
+
+        // Growth rate component (already percentage but cap at 100%)
+        double growthRateScore = Math.min(growthRate / maxGrowthRate, 1.0);
+
+        // Survival rate (already percentage)
+        double survivalRateScore = survivalRate / 100.0;
+
+        // Combine with equal weights within this category
+        return (revenueScore + growthRateScore + survivalRateScore) / 3.0;
+    }
+
+    /**
+     * Investment & funding score (0-1)
+     */
+    public double investment(double paidUpCapital, double fundingReceived, int fundingRounds,
+            int foreignInvestments, double governmentGrants) {
+        // Capital metrics
+        double capitalScore = Math.min(paidUpCapital / maxFunding, 1.0);
+        double fundingScore = Math.min(fundingReceived / maxFunding, 1.0);
+
+        // Funding rounds
+        double fundingRoundsScore = Math.min((double) fundingRounds / maxFundingRounds, 1.0);
+
+        // Foreign investment (binary: has/doesn't have)
+        double foreignInvestmentScore = foreignInvestments > 0 ? 1.0 : 0.0;
+
+        // Government support
+        double govtSupportScore = Math.min(governmentGrants / maxGovernmentGrant, 1.0);
+
+        // Combine with equal weights within this category
+        return (capitalScore + fundingScore + fundingRoundsScore + foreignInvestmentScore + govtSupportScore) / 5.0;
+    }
+
+    /**
+     * Ecosystem integration score (0-1)
+     */
+    public double ecosystem(int incubationPrograms, int mentors, int partnerships) {
+        // Incubator participation (binary: is/isn't in an incubator)
+        double incubatorScore = incubationPrograms > 0 ? 1.0 : 0.0;
+
+        // Mentorship
+        double mentorshipScore = Math.min((double) mentors / maxMentors, 1.0);
+
+        // Partnerships
+        double partnershipScore = Math.min((double) partnerships / maxPartnerships, 1.0);
+
+        // Combine with equal weights within this category
+        return (incubatorScore + mentorshipScore + partnershipScore) / 3.0;
+    }
+
+    /**
+     * Engagement score (0-1)
+     *
+     * @param profileScore Share of profile fields filled in (0-1)
+     * @param socialLinks  Number of social media profiles filled in
+     */
+    public double engagement(double profileScore, int socialLinks, int views, int likes, int bookmarks) {
+        // Social media presence score
+        double socialMediaScore = (double) socialLinks / MAX_SOCIAL_MEDIA_SCORE;
+
+        // Platform engagement (views, likes, bookmarks)
+        double viewsScore = Math.min((double) views / maxViews, 1.0);
+        double likesScore = Math.min((double) likes / maxLikes, 1.0);
+        double bookmarksScore = Math.min((double) bookmarks / maxBookmarks, 1.0);
+        double platformEngagementScore = (viewsScore + likesScore + bookmarksScore) / 3.0;
+
+        // Combine with equal weights within this category
+        return (profileScore + socialMediaScore + platformEngagementScore) / 3.0;
+    }
+
+    /**
+     * Whether two profiles produce the same category scores, so switching
+     * between them only needs the overall score recombined
+     */
+    public boolean sameNormalization(RankingWeights other) {
+        return maxAnnualRevenue == other.maxAnnualRevenue
+                && maxGrowthRate == other.maxGrowthRate
+                && maxFunding == other.maxFunding
+                && maxGovernmentGrant == other.maxGovernmentGrant
+                && maxFundingRounds == other.maxFundingRounds
+                && maxMentors == other.maxMentors
+                && maxPartnerships == other.maxPartnerships
+                && maxViews == other.maxViews
+                && maxLikes == other.maxLikes
+                && maxBookmarks == other.maxBookmarks;
+    }
+
+    public double getGrowthWeight() {
+        return growthWeight;
+    }
+
+    public double getInvestmentWeight() {
+        return investmentWeight;
+    }
+
+    public double getEcosystemWeight() {
+        return ecosystemWeight;
+    }
+
+    public double getEngagementWeight() {
+        return engagementWeight;
+    }
+
+    public double getMaxAnnualRevenue() {
+        return maxAnnualRevenue;
+    }
+
+    public double getMaxGrowthRate() {
+        return maxGrowthRate;
+    }
+
+    public double getMaxFunding() {
+        return maxFunding;
+    }
+
+    public double getMaxGovernmentGrant() {
+        return maxGovernmentGrant;
+    }
+
+    public int getMaxFundingRounds() {
+        return maxFundingRounds;
+    }
+
+    public int getMaxMentors() {
+        return maxMentors;
+    }
+
+    public int getMaxPartnerships() {
+        return maxPartnerships;
+    }
+
+    public int getMaxViews() {
+        return maxViews;
+    }
+
+    public int getMaxLikes() {
+        return maxLikes;
+    }
+
+    public int getMaxBookmarks() {
+        return maxBookmarks;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RankingWeights)) {
+            return false;
+        }
+        RankingWeights other = (RankingWeights) o;
+        return growthWeight == other.growthWeight
+                && investmentWeight == other.investmentWeight
+                && ecosystemWeight == other.ecosystemWeight
+                && engagementWeight == other.engagementWeight
+                && sameNormalization(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(growthWeight, investmentWeight, ecosystemWeight, engagementWeight, maxAnnualRevenue,
+                maxGrowthRate, maxFunding, maxGovernmentGrant, maxFundingRounds, maxMentors, maxPartnerships,
+                maxViews, maxLikes, maxBookmarks);
+    }
+}
@@ -0,0 +1,24 @@
+package com.startupsphere.capstone.service;
+
+/**
+ * Published by {@link StartupRankingService} when the stored scores were switched
+ * to another profile. After commit the ranking service takes the profile over,
+ * then {@link RankingSnapshotService} and {@link StartupPositionIndex} re-rank.
+ */
+public class RankingWeightsChangedEvent {
+    private final RankingWeights previous;
+    private final RankingWeights current;
+
+    public RankingWeightsChangedEvent(RankingWeights previous, RankingWeights current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public RankingWeights getPrevious() {
+        return previous;
+    }
+
+    public RankingWeights getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,268 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.entity.RankingWeightProfile;
+import com.startupsphere.capstone.repository.RankingWeightProfileRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores named ranking weight profiles and switches the active one at runtime.
+ * Profiles can be compared side by side on the current ranking snapshot before
+ * one is activated.
+ */
+@Service
+public class RankingWeightsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingWeightsService.class);
+
+    private final RankingWeightProfileRepository profileRepository;
+    private final StartupRankingService rankingService;
+    private final RankingSnapshotService snapshotService;
+
+    /**
+     * Top startups under two profiles
+     */
+    public static class Comparison {
+        private final List<Entry> baseline;
+        private final List<Entry> candidate;
+        private final int overlap;
+        private final int ranked;
+
+        Comparison(List<Entry> baseline, List<Entry> candidate, int overlap, int ranked) {
+            this.baseline = baseline;
+            this.candidate = candidate;
+            this.overlap = overlap;
+            this.ranked = ranked;
+        }
+
+        public List<Entry> getBaseline() {
+            return baseline;
+        }
+
+        public List<Entry> getCandidate() {
+            return candidate;
+        }
+
+        // Startups that are in both top lists
+        public int getOverlap() {
+            return overlap;
+        }
+
+        // Startups ranked under both profiles
+        public int getRanked() {
+            return ranked;
+        }
+    }
+
+    public static class Entry {
+        private final long id;
+        private final String companyName;
+        private final int rank;
+        private final double score;
+        private final int otherRank;
+        private final double otherScore;
+
+        Entry(long id, String companyName, int rank, double score, int otherRank, double otherScore) {
+            this.id = id;
+            this.companyName = companyName;
+            this.rank = rank;
+            this.score = score;
+            this.otherRank = otherRank;
+            this.otherScore = otherScore;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getCompanyName() {
+            return companyName;
+        }
+
+        // One-based rank under the profile of the list this entry is in
+        public int getRank() {
+            return rank;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        // Rank and score of the same startup under the other profile
+        public int getOtherRank() {
+            return otherRank;
+        }
+
+        public double getOtherScore() {
+            return otherScore;
+        }
+    }
+
+    public RankingWeightsService(RankingWeightProfileRepository profileRepository,
+            StartupRankingService rankingService,
+            RankingSnapshotService snapshotService) {
+        this.profileRepository = profileRepository;
+        this.rankingService = rankingService;
+        this.snapshotService = snapshotService;
+    }
+
+    // Stored scores were computed with the active profile, so it is taken over without re-ranking
+    @PostConstruct
+    public void loadActiveProfile() {
+        profileRepository.findFirstByActiveTrue().ifPresent(profile -> {
+            rankingService.setWeights(toWeights(profile));
+            logger.info("Using ranking weight profile '{}'", profile.getName());
+        });
+    }
+
+    public List<RankingWeightProfile> getProfiles() {
+        return profileRepository.findAll();
+    }
+
+    /**
+     * Weights currently in effect, with the built-in defaults when no profile is active
+     */
+    public RankingWeights getActiveWeights() {
+        return rankingService.getWeights();
+    }
+
+    /**
+     * Create or replace a profile. Saving the active profile re-ranks at once.
+     */
+    @Transactional
+    public RankingWeightProfile saveProfile(String name, RankingWeightProfile profile) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Profile name is required");
+        }
+        RankingWeights weights = toWeights(profile);
+        RankingWeightProfile stored = profileRepository.findById(name.trim())
+                .orElseGet(RankingWeightProfile::new);
+        stored.setName(name.trim());
+        copy(weights, stored);
+        RankingWeightProfile saved = profileRepository.save(stored);
+        if (saved.isActive()) {
+            rankingService.applyWeights(weights);
+        }
+        return saved;
+    }
+
+    /**
+     * Make a profile the active one and re-rank every startup with it
+     */
+    @Transactional
+    public RankingWeightProfile activate(String name) {
+        RankingWeightProfile profile = findProfile(name);
+        profileRepository.findFirstByActiveTrue()
+                .filter(active -> !active.getName().equals(profile.getName()))
+                .ifPresent(active -> {
+                    active.setActive(false);
+                    profileRepository.saveAndFlush(active);
+                });
+        profile.setActive(true);
+        RankingWeightProfile saved = profileRepository.save(profile);
+        rankingService.applyWeights(toWeights(saved));
+        logger.info("Activated ranking weight profile '{}'", saved.getName());
+        return saved;
+    }
+
+    @Transactional
+    public void deleteProfile(String name) {
+        RankingWeightProfile profile = findProfile(name);
+        if (profile.isActive()) {
+            throw new IllegalArgumentException("The active profile cannot be deleted");
+        }
+        profileRepository.delete(profile);
+    }
+
+    /**
+     * Rank the current snapshot under two profiles side by side. Overall scores
+     * are recombined from the snapshot's category scores (or rescored from its
+     * metric columns when a profile changes the maxima); nothing is read from the
+     * database besides the two profiles, and nothing is published.
+     *
+     * @param baselineName  Profile to compare against; null for the weights in effect
+     * @param candidateName Profile under evaluation
+     * @param industry      Optional industry filter ("All" or blank means every industry)
+     * @param limit         Length of each top list
+     */
+    @Transactional(readOnly = true)
+    public Comparison compare(String baselineName, String candidateName, String industry, int limit) {
+        RankingWeights baseline = baselineName == null || baselineName.trim().isEmpty()
+                ? rankingService.getWeights()
+                : toWeights(findProfile(baselineName));
+        RankingWeights candidate = toWeights(findProfile(candidateName));
+
+        RankingSnapshot snapshot = snapshotService.current();
+        // Any metric order holds exactly the approved rows of the industry
+        int[] rows = snapshot.order("overall", industry);
+        double[] baselineScores = snapshot.overallColumn(baseline);
+        double[] candidateScores = snapshot.overallColumn(candidate);
+        int top = Math.min(Math.max(limit, 0), rows.length);
+        int[] baselineTop = TopKSelector.selectTop(baselineScores, rows, top);
+        int[] candidateTop = TopKSelector.selectTop(candidateScores, rows, top);
+
+        // Where each listed startup lands under the other profile
+        int[] baselineTopCandidateRanks = TopKSelector.ranks(candidateScores, baselineTop, rows);
+        int[] candidateTopBaselineRanks = TopKSelector.ranks(baselineScores, candidateTop, rows);
+
+        int overlap = 0;
+        for (int rank : baselineTopCandidateRanks) {
+            if (rank <= top) {
+                overlap++;
+            }
+        }
+        return new Comparison(
+                entries(snapshot, baselineTop, baselineScores, baselineTopCandidateRanks, candidateScores),
+                entries(snapshot, candidateTop, candidateScores, candidateTopBaselineRanks, baselineScores),
+                overlap, rows.length);
+    }
+
+    public static RankingWeights toWeights(RankingWeightProfile profile) {
+        return new RankingWeights(profile.getGrowthWeight(), profile.getInvestmentWeight(),
+                profile.getEcosystemWeight(), profile.getEngagementWeight(), profile.getMaxAnnualRevenue(),
+                profile.getMaxGrowthRate(), profile.getMaxFunding(), profile.getMaxGovernmentGrant(),
+                profile.getMaxFundingRounds(), profile.getMaxMentors(), profile.getMaxPartnerships(),
+                profile.getMaxViews(), profile.getMaxLikes(), profile.getMaxBookmarks());
+    }
+
+    private RankingWeightProfile findProfile(String name) {
+        return profileRepository.findById(name == null ? "" : name.trim())
+                .orElseThrow(() -> new RuntimeException("Ranking weight profile not found: " + name));
+    }
+
+    private static void copy(RankingWeights weights, RankingWeightProfile profile) {
+        profile.setGrowthWeight(weights.getGrowthWeight());
+        profile.setInvestmentWeight(weights.getInvestmentWeight());
+        profile.setEcosystemWeight(weights.getEcosystemWeight());
+        profile.setEngagementWeight(weights.getEngagementWeight());
+        profile.setMaxAnnualRevenue(weights.getMaxAnnualRevenue());
+        profile.setMaxGrowthRate(weights.getMaxGrowthRate());
+        profile.setMaxFunding(weights.getMaxFunding());
+        profile.setMaxGovernmentGrant(weights.getMaxGovernmentGrant());
+        profile.setMaxFundingRounds(weights.getMaxFundingRounds());
+        profile.setMaxMentors(weights.getMaxMentors());
+        profile.setMaxPartnerships(weights.getMaxPartnerships());
+        profile.setMaxViews(weights.getMaxViews());
+        profile.setMaxLikes(weights.getMaxLikes());
+        profile.setMaxBookmarks(weights.getMaxBookmarks());
+    }
+
+    // otherRanks[i] is the rank of top[i] under the other profile
+    private static List<Entry> entries(RankingSnapshot snapshot, int[] top, double[] scores, int[] otherRanks,
+            double[] otherScores) {
+        StartupMetricsSnapshot metrics = snapshot.getMetrics();
+        List<Entry> entries = new ArrayList<>(top.length);
+        for (int i = 0; i < top.length; i++) {
+            int row = top[i];
+            entries.add(new Entry(metrics.getId(row), metrics.getCompanyName(row), i + 1, scores[row],
+                    otherRanks[i], otherScores[row]));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,201 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.SearchDocumentDTO;
+import com.startupsphere.capstone.repository.InvestorRepository;
+import com.startupsphere.capstone.repository.StakeholderRepository;
+import com.startupsphere.capstone.repository.StartupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory {@link TextSearchIndex}es over startup names and locations,
+ * stakeholder names and locations, and investor names.
+ *
+ * Built at startup from scalar queries, then kept current from the change
+ * events of StartupService, StakeholderService and InvestorService, each
+ * reloading only the rows that changed. Searches return ranked pages of ids
+ * for the callers to batch-load.
+ *
+ * Each index has a {@link PrefixSuggester} beside it for typeahead, weighted
+ * by views, or by linked startups for stakeholders, as of the last reload.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private static final int RELOAD_BATCH_SIZE = 500; // Ids per IN query when startups change
+    private static final int SUGGESTION_LIMIT = 10; // Completions kept per trie node
+
+    private final StartupRepository startupRepository;
+    private final StakeholderRepository stakeholderRepository;
+    private final InvestorRepository investorRepository;
+
+    private final GuardedIndex startups = new GuardedIndex();
+    private final GuardedIndex stakeholders = new GuardedIndex();
+    private final GuardedIndex investors = new GuardedIndex();
+
+    // One index, its typeahead trie and the lock guarding both
+    private static final class GuardedIndex {
+        final TextSearchIndex index = new TextSearchIndex();
+        final PrefixSuggester suggester = new PrefixSuggester(SUGGESTION_LIMIT);
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // Held from reading rows to applying them, so reloads apply in the order they read
+        final Object refreshLock = new Object();
+
+        TextSearchIndex.Hits search(String query, boolean fuzzy, int offset, int limit) {
+            lock.readLock().lock();
+            try {
+                return fuzzy ? index.fuzzySearch(query, offset, limit) : index.search(query, offset, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<PrefixSuggester.Suggestion> suggest(String prefix, int count) {
+            lock.readLock().lock();
+            try {
+                return suggester.suggest(prefix, count);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Read under the refresh lock so no concurrent update is overwritten by older rows;
+        // searches only wait while the rows are applied
+        int rebuild(Supplier<List<SearchDocumentDTO>> documents) {
+            synchronized (refreshLock) {
+                List<SearchDocumentDTO> rows = documents.get();
+                lock.writeLock().lock();
+                try {
+                    index.clear();
+                    suggester.clear();
+                    rows.forEach(this::put);
+                    return index.size();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+
+        void update(Collection<Long> ids, Supplier<List<SearchDocumentDTO>> documents) {
+            synchronized (refreshLock) {
+                List<SearchDocumentDTO> rows = documents.get();
+                lock.writeLock().lock();
+                try {
+                    for (Long id : ids) {
+                        index.remove(id);
+                        suggester.remove(id);
+                    }
+                    rows.forEach(this::put);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+
+        private void put(SearchDocumentDTO document) {
+            index.put(document.getId(), document.getName(), document.getSecondary());
+            suggester.put(document.getId(), document.getName(), document.getWeight());
+        }
+    }
+
+    public SearchIndexService(StartupRepository startupRepository, StakeholderRepository stakeholderRepository,
+            InvestorRepository investorRepository) {
+        this.startupRepository = startupRepository;
+        this.stakeholderRepository = stakeholderRepository;
+        this.investorRepository = investorRepository;
+    }
+
+    /**
+     * Drop and rebuild all three indexes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        int startupCount = startups.rebuild(startupRepository::findAllSearchDocuments);
+        int stakeholderCount = stakeholders.rebuild(stakeholderRepository::findAllSearchDocuments);
+        int investorCount = investors.rebuild(investorRepository::findAllSearchDocuments);
+        logger.info("Built search index of {} startups, {} stakeholders and {} investors in {} ms", startupCount,
+                stakeholderCount, investorCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // After commit, so the reload sees the new rows; immediately when no transaction is active
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStartupChanged(StartupChangedEvent event) {
+        if (event.getStartupIds() == null) {
+            startups.rebuild(startupRepository::findAllSearchDocuments);
+            return;
+        }
+        List<Long> ids = event.getStartupIds();
+        for (int from = 0; from < ids.size(); from += RELOAD_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + RELOAD_BATCH_SIZE, ids.size()));
+            startups.update(batch, () -> startupRepository.findSearchDocumentsByIds(batch));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStakeholderChanged(StakeholderChangedEvent event) {
+        Long id = event.getStakeholderId();
+        stakeholders.update(List.of(id), () -> stakeholderRepository.findSearchDocumentById(id).stream().toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvestorChanged(InvestorChangedEvent event) {
+        Integer id = event.getInvestorId();
+        investors.update(List.of(id.longValue()), () -> investorRepository.findSearchDocumentById(id).stream().toList());
+    }
+
+    /**
+     * Hits skipped before a page; a page number too large for an int offset
+     * gets the last one, past every hit, instead of overflowing
+     */
+    static int offset(int page, int size) {
+        return (int) Math.min((long) page * size, Integer.MAX_VALUE);
+    }
+
+    public TextSearchIndex.Hits searchStartups(String query, int offset, int limit) {
+        return startups.search(query, false, offset, limit);
+    }
+
+    public TextSearchIndex.Hits searchStakeholders(String query, int offset, int limit) {
+        return stakeholders.search(query, false, offset, limit);
+    }
+
+    public TextSearchIndex.Hits searchInvestors(String query, int offset, int limit) {
+        return investors.search(query, false, offset, limit);
+    }
+
+    /**
+     * Typo-tolerant startup search, see {@link TextSearchIndex#fuzzySearch}
+     */
+    public TextSearchIndex.Hits fuzzySearchStartups(String query, int offset, int limit) {
+        return startups.search(query, true, offset, limit);
+    }
+
+    public TextSearchIndex.Hits fuzzySearchStakeholders(String query, int offset, int limit) {
+        return stakeholders.search(query, true, offset, limit);
+    }
+
+    public List<PrefixSuggester.Suggestion> suggestStartups(String prefix, int count) {
+        return startups.suggest(prefix, count);
+    }
+
+    public List<PrefixSuggester.Suggestion> suggestStakeholders(String prefix, int count) {
+        return stakeholders.suggest(prefix, count);
+    }
+
+    public List<PrefixSuggester.Suggestion> suggestInvestors(String prefix, int count) {
+        return investors.suggest(prefix, count);
+    }
+}
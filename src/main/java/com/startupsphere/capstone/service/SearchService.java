@@ -3,130 +3,88 @@ package com.startupsphere.capstone.service;
 import com.startupsphere.capstone.dtos.SearchResultsDTO;
 import com.startupsphere.capstone.dtos.StakeholderDTO;
 import com.startupsphere.capstone.dtos.StartupDTO;
-import com.startupsphere.capstone.entity.Stakeholder;
-import com.startupsphere.capstone.entity.Startup;
-import com.startupsphere.capstone.entity.StartupStakeholder;
 import com.startupsphere.capstone.repository.StakeholderRepository;
 import com.startupsphere.capstone.repository.StartupRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.Cacheable;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class SearchService {
 
     private final StartupRepository startupRepository;
     private final StakeholderRepository stakeholderRepository;
+    private final SearchIndexService searchIndexService;
 
-    public SearchService(StartupRepository startupRepository, StakeholderRepository stakeholderRepository) {
+    public SearchService(StartupRepository startupRepository, StakeholderRepository stakeholderRepository,
+            SearchIndexService searchIndexService) {
         this.startupRepository = startupRepository;
         this.stakeholderRepository = stakeholderRepository;
+        this.searchIndexService = searchIndexService;
     }
 
+    /**
+     * One page of matching startups and stakeholders, each followed by the ones
+     * linked to the other side's matches. Two queries whatever the number of
+     * matches and links: one per side, joined through startup_stakeholders and
+     * projected straight into DTOs.
+     *
+     * @param fuzzy Match words within a small edit distance instead of as
+     *              substrings, for misspelled queries
+     */
     @Transactional(readOnly = true)
-    @Cacheable(value = "searchStartups", key = "#query")
-    public SearchResultsDTO search(String query) {
-        // Get direct search results
-        List<Startup> directStartups = startupRepository.searchByFields(query);
-        List<Stakeholder> directStakeholders = stakeholderRepository.searchByFields(query);
+    @Cacheable(value = "searchStartups", key = "#query + ':' + #fuzzy + ':' + #page + ':' + #size")
+    public SearchResultsDTO search(String query, boolean fuzzy, int page, int size) {
+        // Direct search results: one ranked page of each from the search index
+        int offset = SearchIndexService.offset(page, size);
+        List<Long> startupIds = (fuzzy
+                ? searchIndexService.fuzzySearchStartups(query, offset, size)
+                : searchIndexService.searchStartups(query, offset, size)).getIds();
+        List<Long> stakeholderIds = (fuzzy
+                ? searchIndexService.fuzzySearchStakeholders(query, offset, size)
+                : searchIndexService.searchStakeholders(query, offset, size)).getIds();
+        if (startupIds.isEmpty() && stakeholderIds.isEmpty()) {
+            return new SearchResultsDTO(new ArrayList<>(), new ArrayList<>());
+        }
 
-        // Collect all startups (direct + associated)
-        Set<Startup> allStartups = new HashSet<>(directStartups);
-        directStakeholders.forEach(stakeholder ->
-                stakeholder.getStartupStakeholders().forEach(ss ->
-                        allStartups.add(ss.getStartup())
-                )
-        );
-
-        // Collect all stakeholders (direct + associated)
-        Set<Stakeholder> allStakeholders = new HashSet<>(directStakeholders);
-        directStartups.forEach(startup ->
-                startup.getStartupStakeholders().forEach(ss ->
-                        allStakeholders.add(ss.getStakeholder())
-                )
-        );
-
-        // Convert to DTOs without nested associations
-        List<StartupDTO> startupDTOs = allStartups.stream()
-                .map(startup -> {
-                    StartupDTO dto = new StartupDTO();
-                    dto.setId(startup.getId());
-                    dto.setCompanyName(startup.getCompanyName());
-                    dto.setCompanyDescription(startup.getCompanyDescription());
-                    dto.setFoundedDate(startup.getFoundedDate());
-                    dto.setTypeOfCompany(startup.getTypeOfCompany());
-                    dto.setNumberOfEmployees(startup.getNumberOfEmployees());
-                    dto.setPhoneNumber(startup.getPhoneNumber());
-                    dto.setContactEmail(startup.getContactEmail());
-                    dto.setStreetAddress(startup.getStreetAddress());
-                    dto.setCity(startup.getCity());
-                    dto.setProvince(startup.getProvince());
-                    dto.setRegion(startup.getRegion());
-                    dto.setBarangay(startup.getBarangay());
-                    dto.setPostalCode(startup.getPostalCode());
-                    dto.setIndustry(startup.getIndustry());
-                    dto.setWebsite(startup.getWebsite());
-                    dto.setFacebook(startup.getFacebook());
-                    dto.setTwitter(startup.getTwitter());
-                    dto.setInstagram(startup.getInstagram());
-                    dto.setLinkedIn(startup.getLinkedIn());
-                    dto.setLocationLat(startup.getLocationLat());
-                    dto.setLocationLng(startup.getLocationLng());
-                    dto.setLocationName(startup.getLocationName());
-                    dto.setStatus(startup.getStatus());
-                    dto.setRevenue(startup.getRevenue());
-                    dto.setAnnualRevenue(startup.getAnnualRevenue());
-                    dto.setPaidUpCapital(startup.getPaidUpCapital());
-                    dto.setFundingStage(startup.getFundingStage());
-                    dto.setViewsCount(startup.getViewsCount());
-                    dto.setEmailVerified(startup.getEmailVerified());
-                    dto.setCreatedAt(startup.getCreatedAt());
-                    dto.setLastUpdated(startup.getLastUpdated());
-                    return dto;
-                })
-                .collect(Collectors.toList());
-
-        List<StakeholderDTO> stakeholderDTOs = allStakeholders.stream()
-                .map(stakeholder -> {
-                    StakeholderDTO dto = new StakeholderDTO();
-                    dto.setId(stakeholder.getId());
-                    dto.setName(stakeholder.getName());
-                    dto.setEmail(stakeholder.getEmail());
-                    dto.setPhoneNumber(stakeholder.getPhoneNumber());
-                    dto.setRegion(stakeholder.getRegion());
-                    dto.setRegionCode(stakeholder.getRegionCode());
-                    dto.setProvince(stakeholder.getProvince());
-                    dto.setProvinceCode(stakeholder.getProvinceCode());
-                    dto.setCity(stakeholder.getCity());
-                    dto.setCityCode(stakeholder.getCityCode());
-                    dto.setBarangay(stakeholder.getBarangay());
-                    dto.setBarangayCode(stakeholder.getBarangayCode());
-                    dto.setStreet(stakeholder.getStreet());
-                    dto.setPostalCode(stakeholder.getPostalCode());
-                    dto.setFacebook(stakeholder.getFacebook());
-                    dto.setLinkedIn(stakeholder.getLinkedIn());
-                    dto.setLocationLat(stakeholder.getLocationLat());
-                    dto.setLocationLng(stakeholder.getLocationLng());
-                    dto.setLocationName(stakeholder.getLocationName());
-                    dto.setCreatedAt(stakeholder.getCreatedAt());
-                    dto.setLastUpdated(stakeholder.getLastUpdated());
-                    return dto;
-                })
-                .collect(Collectors.toList());
-
-        return new SearchResultsDTO(startupDTOs, stakeholderDTOs);
+        // Direct hits plus everything associated with the other side's hits
+        List<StartupDTO> startups = directFirst(startupIds,
+                startupRepository.findSearchResults(startupIds, stakeholderIds), StartupDTO::getId);
+        List<StakeholderDTO> stakeholders = directFirst(stakeholderIds,
+                stakeholderRepository.findSearchResults(stakeholderIds, startupIds), StakeholderDTO::getId);
+        return new SearchResultsDTO(startups, stakeholders);
     }
 
-    private StartupDTO convertToStartupDTO(Startup startup) {
-        return new StartupDTO(startup);
+    // Direct hits in rank order, then the associated rows in the order loaded
+    private static <T> List<T> directFirst(List<Long> directIds, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = new LinkedHashMap<>();
+        rows.forEach(row -> byId.put(idOf.apply(row), row));
+        List<T> result = new ArrayList<>(byId.size());
+        for (Long id : directIds) {
+            T row = byId.remove(id);
+            if (row != null) {
+                result.add(row);
+            }
+        }
+        result.addAll(byId.values());
+        return result;
     }
 
-    private StakeholderDTO convertToStakeholderDTO(Stakeholder stakeholder) {
-        return new StakeholderDTO(stakeholder);
+    /**
+     * Typeahead completions of a name prefix per kind, best first. Served from
+     * the in-memory tries alone, so it is neither cached nor transactional.
+     */
+    public Map<String, Object> suggest(String prefix, int limit) {
+        Map<String, Object> suggestions = new LinkedHashMap<>();
+        suggestions.put("startups", searchIndexService.suggestStartups(prefix, limit));
+        suggestions.put("stakeholders", searchIndexService.suggestStakeholders(prefix, limit));
+        suggestions.put("investors", searchIndexService.suggestInvestors(prefix, limit));
+        return suggestions;
     }
-}
\ No newline at end of file
+}
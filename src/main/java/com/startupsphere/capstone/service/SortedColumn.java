@@ -0,0 +1,159 @@
+package com.startupsphere.capstone.service;
+
+import java.util.Arrays;
+
+/**
+ * One numeric column kept sorted as parallel primitive arrays of values and
+ * document numbers, so a range predicate is two binary searches and a copy of
+ * the documents between them. Documents without a value are not stored and
+ * never match a range. Not thread-safe; callers guard it with their own lock.
+ */
+public final class SortedColumn {
+
+    private double[] values = new double[16];
+    private int[] docs = new int[16];
+    private int size;
+
+    /**
+     * Replace the contents with unsorted pairs, sorting them once; NaN values are left out
+     */
+    public void load(int[] loadDocs, double[] loadValues, int count) {
+        Integer[] positions = new Integer[count];
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (!Double.isNaN(loadValues[i])) {
+                positions[kept++] = i;
+            }
+        }
+        Arrays.sort(positions, 0, kept,
+                (a, b) -> compare(loadValues[a], loadDocs[a], loadValues[b], loadDocs[b]));
+        values = new double[Math.max(16, kept)];
+        docs = new int[Math.max(16, kept)];
+        for (int i = 0; i < kept; i++) {
+            values[i] = loadValues[positions[i]];
+            docs[i] = loadDocs[positions[i]];
+        }
+        size = kept;
+    }
+
+    public void add(int doc, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        int at = -find(doc, value) - 1;
+        if (at < 0) {
+            return; // Already there
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            docs = Arrays.copyOf(docs, size * 2);
+        }
+        System.arraycopy(values, at, values, at + 1, size - at);
+        System.arraycopy(docs, at, docs, at + 1, size - at);
+        values[at] = value;
+        docs[at] = doc;
+        size++;
+    }
+
+    /**
+     * Take out a document added with the same value
+     */
+    public void remove(int doc, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        int at = find(doc, value);
+        if (at < 0) {
+            return;
+        }
+        System.arraycopy(values, at + 1, values, at, size - at - 1);
+        System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+        size--;
+    }
+
+    public void clear() {
+        values = new double[16];
+        docs = new int[16];
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Documents whose value is within the bounds, both inclusive; null for no
+     * bound. A NaN bound, like any comparison with NaN, matches nothing.
+     */
+    public CompressedBitmap range(Double min, Double max) {
+        CompressedBitmap result = new CompressedBitmap();
+        if ((min != null && Double.isNaN(min)) || (max != null && Double.isNaN(max))) {
+            return result;
+        }
+        int from = min == null ? 0 : lowerBound(min);
+        int to = max == null ? size : upperBound(max);
+        if (from >= to) {
+            return result;
+        }
+        // Add in document order so bitmap groups grow at their ends
+        int[] matched = Arrays.copyOfRange(docs, from, to);
+        Arrays.sort(matched);
+        for (int doc : matched) {
+            result.add(doc);
+        }
+        return result;
+    }
+
+    // Position of (value, doc) in the sort order, or -(insertion point) - 1 when absent
+    private int find(int doc, double value) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(values[mid], docs[mid], value, doc);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // First position whose value is at least the bound
+    private int lowerBound(double bound) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First position whose value is above the bound
+    private int upperBound(double bound) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(double value, int doc, double otherValue, int otherDoc) {
+        int cmp = Double.compare(value, otherValue);
+        return cmp != 0 ? cmp : Integer.compare(doc, otherDoc);
+    }
+}
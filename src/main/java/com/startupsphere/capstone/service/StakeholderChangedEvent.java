@@ -0,0 +1,17 @@
+package com.startupsphere.capstone.service;
+
+/**
+ * Published by {@link StakeholderService} when a stakeholder is created, edited
+ * or deleted; the in-memory search and map indexes reload it after commit.
+ */
+public class StakeholderChangedEvent {
+    private final Long stakeholderId;
+
+    public StakeholderChangedEvent(Long stakeholderId) {
+        this.stakeholderId = stakeholderId;
+    }
+
+    public Long getStakeholderId() {
+        return stakeholderId;
+    }
+}
@@ -4,6 +4,7 @@ import com.startupsphere.capstone.entity.Stakeholder;
 import com.startupsphere.capstone.entity.StartupStakeholder;
 import com.startupsphere.capstone.repository.StakeholderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,10 +16,12 @@ import java.util.Optional;
 public class StakeholderService {
 
     private final StakeholderRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public StakeholderService(StakeholderRepository repository) {
+    public StakeholderService(StakeholderRepository repository, ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Stakeholder> findAll() {
@@ -34,7 +37,9 @@ public class StakeholderService {
     }
 
     public Stakeholder save(Stakeholder stakeholder) {
-        return repository.save(stakeholder);
+        Stakeholder saved = repository.save(stakeholder);
+        eventPublisher.publishEvent(new StakeholderChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -50,6 +55,7 @@ public class StakeholderService {
 
             // Delete the Stakeholder
             repository.deleteById(id);
+            eventPublisher.publishEvent(new StakeholderChangedEvent(id));
         });
     }
 
@@ -79,6 +85,7 @@ public class StakeholderService {
 
 
                     Stakeholder saved = repository.save(existingStakeholder);
+                    eventPublisher.publishEvent(new StakeholderChangedEvent(id));
                     return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
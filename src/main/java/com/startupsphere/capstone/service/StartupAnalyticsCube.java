@@ -0,0 +1,318 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.StartupAnalyticsDTO;
+import com.startupsphere.capstone.repository.StartupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Pre-aggregated startup counts and sums, one cell per combination of industry,
+ * region, city, funding stage and creation month that actually occurs.
+ *
+ * Built once from a scalar query, then kept current one startup at a time: a
+ * changed startup's old contribution is subtracted from its cell and the new one
+ * added. Queries roll cells up instead of scanning startups, so they cost the
+ * same however many startups there are.
+ */
+@Service
+public class StartupAnalyticsCube {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupAnalyticsCube.class);
+
+    private static final int RELOAD_BATCH_SIZE = 500; // Ids per IN query when startups change
+
+    private final StartupRepository startupRepository;
+
+    private final Map<CellKey, Cell> cells = new HashMap<>();
+    // What each startup added to its cell, so it can be taken back out
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes read-then-apply, so of two overlapping reloads the later read is also applied last
+    private final Object refreshLock = new Object();
+
+    /**
+     * Dimensions a slice can be grouped or filtered by
+     */
+    public enum Dimension {
+        INDUSTRY("industry"),
+        REGION("region"),
+        CITY("city"),
+        FUNDING_STAGE("fundingStage"),
+        MONTH("month");
+
+        private final String key;
+
+        Dimension(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @throws IllegalArgumentException When the name is not a dimension
+         */
+        public static Dimension of(String name) {
+            for (Dimension dimension : values()) {
+                if (dimension.key.equalsIgnoreCase(name.trim())) {
+                    return dimension;
+                }
+            }
+            throw new IllegalArgumentException("Unknown dimension: " + name);
+        }
+    }
+
+    /**
+     * Totals of one group of a slice
+     */
+    public static class Slice {
+        private final Map<String, String> dimensions;
+        private long count;
+        private double growthRateSum;
+        private double fundingSum;
+        private double revenueSum;
+
+        Slice(Map<String, String> dimensions) {
+            this.dimensions = dimensions;
+        }
+
+        // Grouped dimension values; null where startups left the field empty
+        public Map<String, String> getDimensions() {
+            return dimensions;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getAverageGrowthRate() {
+            return count == 0 ? 0.0 : growthRateSum / count;
+        }
+
+        public double getTotalFunding() {
+            return fundingSum;
+        }
+
+        public double getAverageFunding() {
+            return count == 0 ? 0.0 : fundingSum / count;
+        }
+
+        public double getTotalRevenue() {
+            return revenueSum;
+        }
+
+        public double getAverageRevenue() {
+            return count == 0 ? 0.0 : revenueSum / count;
+        }
+
+        private void add(Cell cell) {
+            count += cell.count;
+            growthRateSum += cell.growthRateSum;
+            fundingSum += cell.fundingSum;
+            revenueSum += cell.revenueSum;
+        }
+    }
+
+    private record CellKey(String industry, String region, String city, String fundingStage, YearMonth month) {
+        String get(Dimension dimension) {
+            switch (dimension) {
+                case INDUSTRY:
+                    return industry;
+                case REGION:
+                    return region;
+                case CITY:
+                    return city;
+                case FUNDING_STAGE:
+                    return fundingStage;
+                case MONTH:
+                default:
+                    return month != null ? month.toString() : null;
+            }
+        }
+    }
+
+    private record Contribution(CellKey key, double growthRate, double funding, double revenue) {
+    }
+
+    private static final class Cell {
+        long count;
+        double growthRateSum;
+        double fundingSum;
+        double revenueSum;
+    }
+
+    public StartupAnalyticsCube(StartupRepository startupRepository) {
+        this.startupRepository = startupRepository;
+    }
+
+    /**
+     * Drop all cells and aggregate every startup again
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<StartupAnalyticsDTO> startups;
+        synchronized (refreshLock) {
+            startups = startupRepository.findAllAnalytics();
+            lock.writeLock().lock();
+            try {
+                cells.clear();
+                contributions.clear();
+                startups.forEach(this::add);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Built analytics cube of {} startups in {} cells in {} ms", startups.size(), cells.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // After commit, so the reload sees the new rows; immediately when no transaction is active
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStartupChanged(StartupChangedEvent event) {
+        if (event.getStartupIds() == null) {
+            rebuild();
+            return;
+        }
+        List<Long> ids = event.getStartupIds();
+        synchronized (refreshLock) {
+            for (int from = 0; from < ids.size(); from += RELOAD_BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + RELOAD_BATCH_SIZE, ids.size()));
+                update(batch, startupRepository.findAnalyticsByIds(batch));
+            }
+        }
+    }
+
+    /**
+     * Replace the contributions of some startups; ids without a row are removed
+     */
+    public void update(Collection<Long> startupIds, List<StartupAnalyticsDTO> rows) {
+        lock.writeLock().lock();
+        try {
+            startupIds.forEach(this::remove);
+            rows.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Group the startups matching some filters
+     *
+     * @param groupBy Dimensions to group by; empty for a single grand total
+     * @param filters Exact (case-insensitive) values per dimension; the month
+     *                dimension is filtered with from and to instead
+     * @param from    First creation month to include, or null
+     * @param to      Last creation month to include, or null
+     * @return One slice per group, largest count first
+     */
+    public List<Slice> slice(List<Dimension> groupBy, Map<Dimension, String> filters, YearMonth from,
+            YearMonth to) {
+        Map<List<String>, Slice> groups = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<CellKey, Cell> entry : cells.entrySet()) {
+                CellKey key = entry.getKey();
+                if (!matches(key, filters, from, to)) {
+                    continue;
+                }
+                List<String> group = new ArrayList<>(groupBy.size());
+                for (Dimension dimension : groupBy) {
+                    group.add(key.get(dimension));
+                }
+                groups.computeIfAbsent(group, values -> {
+                    Map<String, String> dimensions = new LinkedHashMap<>();
+                    for (int i = 0; i < groupBy.size(); i++) {
+                        dimensions.put(groupBy.get(i).getKey(), values.get(i));
+                    }
+                    return new Slice(dimensions);
+                }).add(entry.getValue());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Slice> slices = new ArrayList<>(groups.values());
+        slices.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return slices;
+    }
+
+    /**
+     * Totals per value of one dimension, over all startups
+     */
+    public List<Slice> rollUp(Dimension dimension) {
+        return slice(List.of(dimension), Map.of(), null, null);
+    }
+
+    public int getCellCount() {
+        lock.readLock().lock();
+        try {
+            return cells.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean matches(CellKey key, Map<Dimension, String> filters, YearMonth from, YearMonth to) {
+        for (Map.Entry<Dimension, String> filter : filters.entrySet()) {
+            if (filter.getKey() == Dimension.MONTH) {
+                continue;
+            }
+            String value = key.get(filter.getKey());
+            if (value == null || !value.trim().equalsIgnoreCase(filter.getValue().trim())) {
+                return false;
+            }
+        }
+        if (from != null && (key.month() == null || key.month().isBefore(from))) {
+            return false;
+        }
+        return to == null || (key.month() != null && !key.month().isAfter(to));
+    }
+
+    private void add(StartupAnalyticsDTO startup) {
+        CellKey key = new CellKey(startup.getIndustry(), startup.getRegion(), startup.getCity(),
+                startup.getFundingStage(),
+                startup.getCreatedAt() != null ? YearMonth.from(startup.getCreatedAt()) : null);
+        Contribution contribution = new Contribution(key, startup.getAverageStartupGrowthRate(),
+                startup.getTotalFunding(), startup.getAnnualRevenue());
+        contributions.put(startup.getId(), contribution);
+
+        Cell cell = cells.computeIfAbsent(key, k -> new Cell());
+        cell.count++;
+        cell.growthRateSum += contribution.growthRate();
+        cell.fundingSum += contribution.funding();
+        cell.revenueSum += contribution.revenue();
+    }
+
+    private void remove(Long startupId) {
+        Contribution contribution = contributions.remove(startupId);
+        if (contribution == null) {
+            return;
+        }
+        Cell cell = cells.get(contribution.key());
+        cell.count--;
+        if (cell.count == 0) {
+            // Drop empty cells so sums do not keep floating-point residue
+            cells.remove(contribution.key());
+            return;
+        }
+        cell.growthRateSum -= contribution.growthRate();
+        cell.fundingSum -= contribution.funding();
+        cell.revenueSum -= contribution.revenue();
+    }
+}
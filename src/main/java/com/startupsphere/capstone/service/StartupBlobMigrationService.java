@@ -0,0 +1,163 @@
+package com.startupsphere.capstone.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves photos and registration certificates uploaded before the blob store
+ * out of the startups table: each run streams the LOBs of a batch of startups
+ * into the {@link BlobStore}, records their hashes, and queues the resized
+ * variants of each photo.
+ * A row uploaded again in the meantime already has a hash and is left alone.
+ *
+ * Only runs with blobstore.migration.enabled set. The LOB stays in the table,
+ * where the endpoints fall back to it when the blob is missing, until
+ * blobstore.migration.clear-source is also set: then, once every file has been
+ * copied, later runs clear the columns of files found in the blob store. Set
+ * that only when the store survives a redeploy.
+ */
+@Service
+@ConditionalOnProperty(name = "blobstore.migration.enabled", havingValue = "true")
+public class StartupBlobMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupBlobMigrationService.class);
+
+    // A LOB column and the columns describing its blob store copy
+    private record FileColumns(String data, String hash, String size, String contentType, String defaultType) {
+    }
+
+    // Legacy files were served as JPEG and PDF whatever they were
+    private static final FileColumns PHOTO =
+            new FileColumns("photo", "photo_hash", "photo_size", "photo_content_type", "image/jpeg");
+    private static final FileColumns CERTIFICATE = new FileColumns("registration_certificate", "certificate_hash",
+            "certificate_size", "certificate_content_type", "application/pdf");
+
+    private static final String PENDING_SQL = "SELECT id FROM startups WHERE id > ? AND (" +
+            "(photo IS NOT NULL AND photo_hash IS NULL) OR " +
+            "(registration_certificate IS NOT NULL AND certificate_hash IS NULL)) ORDER BY id LIMIT ?";
+
+    private static final String COPIED_SQL = "SELECT id FROM startups WHERE id > ? AND (" +
+            "(photo IS NOT NULL AND photo_hash IS NOT NULL) OR " +
+            "(registration_certificate IS NOT NULL AND certificate_hash IS NOT NULL)) ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+    private final PhotoVariantService photoVariantService;
+
+    @Value("${blobstore.migration.batch-size:100}")
+    private int batchSize;
+
+    @Value("${blobstore.migration.clear-source:false}")
+    private boolean clearSource;
+
+    // Last startup handled; a failed row is retried once the table has been gone through
+    private long cursor;
+    private long clearCursor;
+
+    public StartupBlobMigrationService(JdbcTemplate jdbcTemplate, BlobStore blobStore,
+            PhotoVariantService photoVariantService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blobStore = blobStore;
+        this.photoVariantService = photoVariantService;
+    }
+
+    /**
+     * Migrate the next batch of startups still holding files in the table, or
+     * with nothing left to copy and clear-source set, clear the next batch of
+     * copied files
+     */
+    @Scheduled(fixedDelayString = "${blobstore.migration.interval-ms:60000}")
+    public synchronized void migrateBatch() {
+        List<Long> ids = jdbcTemplate.queryForList(PENDING_SQL, Long.class, cursor, batchSize);
+        if (ids.isEmpty()) {
+            cursor = 0;
+            if (clearSource) {
+                clearBatch();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        int moved = 0;
+        for (Long id : ids) {
+            try {
+                moved += migrate(id, PHOTO) + migrate(id, CERTIFICATE);
+            } catch (RuntimeException e) {
+                logger.error("Failed to move files of startup ID: {} to the blob store: {}", id, e.getMessage(), e);
+            }
+            cursor = id;
+        }
+        logger.info("Moved {} files of {} startups to the blob store in {} ms", moved, ids.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // 1 when the column held a file that is now in the blob store
+    private int migrate(long id, FileColumns columns) {
+        BlobStore.StoredBlob blob = jdbcTemplate.query(
+                "SELECT " + columns.data() + " FROM startups WHERE id = ? AND " + columns.hash() + " IS NULL",
+                rs -> {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    try (InputStream in = rs.getBinaryStream(1)) {
+                        return in != null ? blobStore.put(in) : null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, id);
+        if (blob == null) {
+            return 0;
+        }
+        int updated = jdbcTemplate.update("UPDATE startups SET " + columns.hash() + " = ?, " + columns.size() + " = ?, "
+                + columns.contentType() + " = COALESCE(" + columns.contentType() + ", ?) WHERE id = ? AND "
+                + columns.hash() + " IS NULL",
+                blob.hash(), blob.size(), columns.defaultType(), id);
+        if (updated > 0 && columns == PHOTO) {
+            photoVariantService.prepare(blob.hash());
+        }
+        return updated;
+    }
+
+    private void clearBatch() {
+        List<Long> ids = jdbcTemplate.queryForList(COPIED_SQL, Long.class, clearCursor, batchSize);
+        if (ids.isEmpty()) {
+            clearCursor = 0;
+            return;
+        }
+        int cleared = 0;
+        for (Long id : ids) {
+            try {
+                cleared += clear(id, PHOTO) + clear(id, CERTIFICATE);
+            } catch (RuntimeException e) {
+                logger.error("Failed to clear copied files of startup ID: {}: {}", id, e.getMessage(), e);
+            }
+            clearCursor = id;
+        }
+        logger.info("Cleared {} files of {} startups copied to the blob store", cleared, ids.size());
+    }
+
+    // 1 when the column held a file whose blob is in the store and is now cleared
+    private int clear(long id, FileColumns columns) {
+        List<String> hashes = jdbcTemplate.queryForList("SELECT " + columns.hash() + " FROM startups WHERE id = ? AND "
+                + columns.data() + " IS NOT NULL AND " + columns.hash() + " IS NOT NULL", String.class, id);
+        if (hashes.isEmpty()) {
+            return 0;
+        }
+        String hash = hashes.get(0);
+        if (!blobStore.exists(hash)) {
+            logger.warn("Blob {} of startup ID: {} is missing, keeping its {} column", hash, id, columns.data());
+            return 0;
+        }
+        return jdbcTemplate.update("UPDATE startups SET " + columns.data() + " = NULL WHERE id = ? AND "
+                + columns.hash() + " = ?", id, hash);
+    }
+}
@@ -0,0 +1,21 @@
+package com.startupsphere.capstone.service;
+
+import java.util.List;
+
+/**
+ * Published by {@link StartupService} when startup rows themselves were
+ * created, edited or deleted (not for likes, bookmarks or views). In-memory
+ * read models listen for it after commit and reload just those startups.
+ */
+public class StartupChangedEvent {
+    private final List<Long> startupIds;
+
+    public StartupChangedEvent(List<Long> startupIds) {
+        this.startupIds = startupIds;
+    }
+
+    // Startups that are gone are simply missing when reloaded
+    public List<Long> getStartupIds() {
+        return startupIds;
+    }
+}
@@ -0,0 +1,518 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.StartupFacetDTO;
+import com.startupsphere.capstone.repository.StartupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * In-memory facet index behind the admin review screen: one
+ * {@link CompressedBitmap} of internal startup numbers per value of industry,
+ * status, region, draft flag, email verification and funding stage.
+ *
+ * A filter is the bitmap AND of the selected values, and the industry, region
+ * and status histograms are intersection counts against each of their values,
+ * so a page, its total and its facet counts come from one pass over the index
+ * instead of a page query, a COUNT query and one GROUP BY per facet. Ranges over
+ * the financial metrics come from a {@link SortedColumn} per metric and join the
+ * AND like any other filter. Name search and the creation date range are checked
+ * per startup on top. Built once from a scalar query, then kept current from
+ * StartupChangedEvent.
+ */
+@Service
+public class StartupFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupFacetIndex.class);
+
+    private static final int RELOAD_BATCH_SIZE = 500; // Ids per IN query when startups change
+
+    // Sort fields the index can order by; others are left to the database
+    private static final Set<String> SORTABLE = Set.of("id", "createdAt", "lastUpdated", "companyName");
+
+    /**
+     * Fields a review query can filter by
+     */
+    public enum Facet {
+        INDUSTRY("industry"),
+        STATUS("status"),
+        REGION("region"),
+        IS_DRAFT("isDraft"),
+        EMAIL_VERIFIED("emailVerified"),
+        FUNDING_STAGE("fundingStage");
+
+        private final String key;
+
+        Facet(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Numeric columns a review query can bound
+     */
+    public enum Metric {
+        ANNUAL_REVENUE("annualRevenue"),
+        TOTAL_FUNDING("totalStartupFundingReceived"),
+        FUNDING_ROUNDS("numberOfFundingRounds");
+
+        private final String key;
+
+        Metric(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Inclusive bounds on a metric; null for no bound on that side
+     */
+    public record Range(Double min, Double max) {
+    }
+
+    // Facets whose histograms come back with every query
+    private static final Facet[] COUNTED = { Facet.INDUSTRY, Facet.REGION, Facet.STATUS };
+
+    /**
+     * One page of a review query with its total and facet counts
+     */
+    public static class Result {
+        private final int total;
+        private final List<Long> ids;
+        private final Map<String, Map<String, Integer>> facets;
+
+        Result(int total, List<Long> ids, Map<String, Map<String, Integer>> facets) {
+            this.total = total;
+            this.ids = ids;
+            this.facets = facets;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        // Ids of the page in order, or null when the sort field is not one the index orders by
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        // Per counted facet, startups per value, most first. Each facet is counted
+        // under every filter except its own, so the other values show what picking
+        // them instead would give.
+        public Map<String, Map<String, Integer>> getFacets() {
+            return facets;
+        }
+    }
+
+    // The startups having each value of one facet, by value in lower case
+    private static final class Values {
+        final Map<String, CompressedBitmap> bitmaps = new HashMap<>();
+        final Map<String, String> names = new HashMap<>(); // As first entered
+    }
+
+    private final StartupRepository startupRepository;
+
+    private final Map<Facet, Values> facets = new EnumMap<>(Facet.class);
+    private final Map<Metric, SortedColumn> columns = new EnumMap<>(Metric.class);
+    private final CompressedBitmap all = new CompressedBitmap();
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes read-then-apply, so of two overlapping reloads the later read is also applied last
+    private final Object refreshLock = new Object();
+
+    // Per document number; numbers of removed documents are reused
+    private long[] ids = new long[16];
+    private String[][] keys = new String[16][]; // Value key per facet, null when empty
+    private String[] names = new String[16]; // Lower-case company names
+    private long[] createdAt = new long[16]; // Epoch seconds, Long.MIN_VALUE when unknown
+    private long[] lastUpdated = new long[16];
+    private double[][] metrics = new double[16][]; // Value per metric, NaN when empty
+    private int[] free = new int[16];
+    private int freeCount;
+    private int docCount;
+
+    public StartupFacetIndex(StartupRepository startupRepository) {
+        this.startupRepository = startupRepository;
+        for (Facet facet : Facet.values()) {
+            facets.put(facet, new Values());
+        }
+        for (Metric metric : Metric.values()) {
+            columns.put(metric, new SortedColumn());
+        }
+    }
+
+    /**
+     * Drop the index and load every startup again
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        int count;
+        // Read under the refresh lock so no concurrent update is overwritten by older rows;
+        // queries only wait while the rows are applied
+        synchronized (refreshLock) {
+            List<StartupFacetDTO> rows = startupRepository.findAllFacets();
+            lock.writeLock().lock();
+            try {
+                clear();
+                rows.forEach(this::add);
+                loadColumns();
+                count = docById.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Built facet index of {} startups in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // After commit, so the reload sees the new rows; immediately when no transaction is active
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStartupChanged(StartupChangedEvent event) {
+        if (event.getStartupIds() == null) {
+            rebuild();
+            return;
+        }
+        List<Long> ids = event.getStartupIds();
+        synchronized (refreshLock) {
+            for (int from = 0; from < ids.size(); from += RELOAD_BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + RELOAD_BATCH_SIZE, ids.size()));
+                update(batch, startupRepository.findFacetsByIds(batch));
+            }
+        }
+    }
+
+    /**
+     * Replace some startups; ids without a row are removed
+     */
+    public void update(Collection<Long> startupIds, List<StartupFacetDTO> rows) {
+        lock.writeLock().lock();
+        try {
+            startupIds.forEach(this::remove);
+            for (StartupFacetDTO row : rows) {
+                add(row);
+                int doc = docById.get(row.getId());
+                for (Metric metric : Metric.values()) {
+                    columns.get(metric).add(doc, metrics[doc][metric.ordinal()]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Startups having every selected facet value and metrics within their ranges,
+     * whose name contains the search text and created within the date range, with
+     * the facet counts of that selection
+     *
+     * @param filters   Selected value per facet, ignoring case
+     * @param ranges    Bounds per metric
+     * @param search    Text the company name must contain, ignoring case; null for any
+     * @param from      Earliest creation time, inclusive; null for no bound
+     * @param to        Latest creation time, inclusive; null for no bound
+     * @param sortBy    id, createdAt, lastUpdated or companyName; page ids are null for any other
+     * @param ascending Sort direction
+     */
+    public Result query(Map<Facet, String> filters, Map<Metric, Range> ranges, String search,
+            LocalDateTime from, LocalDateTime to, String sortBy, boolean ascending, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            // Restrictions that apply to every facet count as well as to the page
+            List<CompressedBitmap> always = new ArrayList<>();
+            ranges.forEach((metric, range) -> always.add(columns.get(metric).range(range.min(), range.max())));
+            if (search != null || from != null || to != null) {
+                always.add(checked(search, from, to));
+            }
+            Map<Facet, CompressedBitmap> selected = new EnumMap<>(Facet.class);
+            filters.forEach((facet, value) -> selected.put(facet,
+                    facets.get(facet).bitmaps.getOrDefault(key(value), new CompressedBitmap())));
+
+            CompressedBitmap matches = intersect(selected.values(), always);
+            List<Long> page = SORTABLE.contains(sortBy) ? page(matches, order(sortBy, ascending), offset, limit) : null;
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (Facet facet : COUNTED) {
+                List<CompressedBitmap> others = new ArrayList<>();
+                selected.forEach((other, bitmap) -> {
+                    if (other != facet) {
+                        others.add(bitmap);
+                    }
+                });
+                CompressedBitmap base = intersect(others, always);
+                List<Map.Entry<String, Integer>> histogram = new ArrayList<>();
+                Values values = facets.get(facet);
+                values.bitmaps.forEach((key, bitmap) -> {
+                    int count = base.andCardinality(bitmap);
+                    if (count > 0) {
+                        histogram.add(Map.entry(values.names.get(key), count));
+                    }
+                });
+                histogram.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+                Map<String, Integer> ordered = new LinkedHashMap<>();
+                histogram.forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+                counts.put(facet.getKey(), ordered);
+            }
+            return new Result(matches.cardinality(), page, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Startups passing the per-row checks: name search and creation range
+    private CompressedBitmap checked(String search, LocalDateTime from, LocalDateTime to) {
+        String text = search != null ? search.toLowerCase(Locale.ROOT) : null;
+        long fromSeconds = from != null ? from.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+        long toSeconds = to != null ? to.toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+        boolean ranged = from != null || to != null;
+        CompressedBitmap result = new CompressedBitmap();
+        all.forEach(doc -> {
+            if ((text == null || (names[doc] != null && names[doc].contains(text)))
+                    && (!ranged || (createdAt[doc] != Long.MIN_VALUE && createdAt[doc] >= fromSeconds
+                            && createdAt[doc] <= toSeconds))) {
+                result.add(doc);
+            }
+        });
+        return result;
+    }
+
+    // AND of both sets of bitmaps, smallest first; every startup when there are none
+    private CompressedBitmap intersect(Collection<CompressedBitmap> bitmaps, List<CompressedBitmap> always) {
+        List<CompressedBitmap> operands = new ArrayList<>(bitmaps);
+        operands.addAll(always);
+        if (operands.isEmpty()) {
+            return all;
+        }
+        operands.sort(Comparator.comparingInt(CompressedBitmap::cardinality));
+        CompressedBitmap result = operands.get(0);
+        for (int i = 1; i < operands.size() && !result.isEmpty(); i++) {
+            result = result.and(operands.get(i));
+        }
+        return result;
+    }
+
+    // Compares document numbers in page order; ties go by id in the same direction
+    private IntBinaryOperator order(String sortBy, boolean ascending) {
+        IntBinaryOperator byField = switch (sortBy) {
+            case "createdAt" -> (a, b) -> Long.compare(createdAt[a], createdAt[b]);
+            case "lastUpdated" -> (a, b) -> Long.compare(lastUpdated[a], lastUpdated[b]);
+            case "companyName" -> (a, b) -> names[a] == null ? (names[b] == null ? 0 : -1)
+                    : names[b] == null ? 1 : names[a].compareTo(names[b]);
+            default -> (a, b) -> 0;
+        };
+        return (a, b) -> {
+            int result = byField.applyAsInt(a, b);
+            if (result == 0) {
+                result = Long.compare(ids[a], ids[b]);
+            }
+            return ascending ? result : -result;
+        };
+    }
+
+    // Ids of the matches from offset on, keeping only the first offset + limit in a heap
+    private List<Long> page(CompressedBitmap matches, IntBinaryOperator order, int offset, int limit) {
+        int wanted = (int) Math.min(Math.min((long) offset + limit, Integer.MAX_VALUE), matches.cardinality());
+        if (offset >= wanted) {
+            return List.of();
+        }
+        int[] heap = new int[wanted]; // Max-heap by page order: the last of the page on top
+        int[] count = { 0 };
+        matches.forEach(doc -> {
+            if (count[0] < wanted) {
+                heap[count[0]] = doc;
+                siftUp(heap, count[0]++, order);
+            } else if (order.applyAsInt(doc, heap[0]) < 0) {
+                heap[0] = doc;
+                siftDown(heap, wanted, order);
+            }
+        });
+        Integer[] sorted = new Integer[wanted];
+        for (int i = 0; i < wanted; i++) {
+            sorted[i] = heap[i];
+        }
+        Arrays.sort(sorted, order::applyAsInt);
+        List<Long> page = new ArrayList<>(wanted - offset);
+        for (int i = offset; i < wanted; i++) {
+            page.add(ids[sorted[i]]);
+        }
+        return page;
+    }
+
+    private static void siftUp(int[] heap, int at, IntBinaryOperator order) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (order.applyAsInt(heap[parent], heap[at]) >= 0) {
+                return;
+            }
+            swap(heap, parent, at);
+            at = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, IntBinaryOperator order) {
+        int at = 0;
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && order.applyAsInt(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (order.applyAsInt(heap[at], heap[child]) >= 0) {
+                return;
+            }
+            swap(heap, at, child);
+            at = child;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    // Facet bitmaps only; metric columns are loaded in bulk on rebuild
+    private void add(StartupFacetDTO row) {
+        int doc = freeCount > 0 ? free[--freeCount] : newDoc();
+        String[] values = {
+                row.getIndustry(), row.getStatus(), row.getRegion(),
+                row.getIsDraft() != null ? row.getIsDraft().toString() : null,
+                row.getEmailVerified() != null ? row.getEmailVerified().toString() : null,
+                row.getFundingStage() };
+        String[] docKeys = new String[values.length];
+        for (Facet facet : Facet.values()) {
+            String value = values[facet.ordinal()];
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            String key = key(value);
+            Values facetValues = facets.get(facet);
+            facetValues.bitmaps.computeIfAbsent(key, k -> new CompressedBitmap()).add(doc);
+            facetValues.names.putIfAbsent(key, value.trim());
+            docKeys[facet.ordinal()] = key;
+        }
+        ids[doc] = row.getId();
+        keys[doc] = docKeys;
+        names[doc] = row.getCompanyName() != null ? row.getCompanyName().toLowerCase(Locale.ROOT) : null;
+        createdAt[doc] = epochSeconds(row.getCreatedAt());
+        lastUpdated[doc] = epochSeconds(row.getLastUpdated());
+        metrics[doc] = new double[] {
+                row.getAnnualRevenue() != null ? row.getAnnualRevenue() : Double.NaN,
+                row.getTotalStartupFundingReceived() != null ? row.getTotalStartupFundingReceived() : Double.NaN,
+                row.getNumberOfFundingRounds() != null ? row.getNumberOfFundingRounds() : Double.NaN };
+        docById.put(row.getId(), doc);
+        all.add(doc);
+    }
+
+    private void remove(Long id) {
+        Integer doc = docById.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (Facet facet : Facet.values()) {
+            String key = keys[doc][facet.ordinal()];
+            if (key == null) {
+                continue;
+            }
+            Values facetValues = facets.get(facet);
+            CompressedBitmap bitmap = facetValues.bitmaps.get(key);
+            bitmap.remove(doc);
+            if (bitmap.isEmpty()) {
+                facetValues.bitmaps.remove(key);
+                facetValues.names.remove(key);
+            }
+        }
+        for (Metric metric : Metric.values()) {
+            columns.get(metric).remove(doc, metrics[doc][metric.ordinal()]);
+        }
+        all.remove(doc);
+        keys[doc] = null;
+        metrics[doc] = null;
+        names[doc] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = doc;
+    }
+
+    private void clear() {
+        facets.values().forEach(values -> {
+            values.bitmaps.clear();
+            values.names.clear();
+        });
+        docById.values().forEach(all::remove);
+        docById.clear();
+        columns.values().forEach(SortedColumn::clear);
+        ids = new long[16];
+        keys = new String[16][];
+        names = new String[16];
+        createdAt = new long[16];
+        lastUpdated = new long[16];
+        metrics = new double[16][];
+        freeCount = 0;
+        docCount = 0;
+    }
+
+    // Sort every metric column once after a full load
+    private void loadColumns() {
+        int[] docs = new int[docById.size()];
+        double[] values = new double[docs.length];
+        for (Metric metric : Metric.values()) {
+            int[] count = { 0 };
+            all.forEach(doc -> {
+                docs[count[0]] = doc;
+                values[count[0]++] = metrics[doc][metric.ordinal()];
+            });
+            columns.get(metric).load(docs, values, count[0]);
+        }
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long epochSeconds(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+    }
+
+    private int newDoc() {
+        if (docCount == ids.length) {
+            int capacity = docCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            names = Arrays.copyOf(names, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            lastUpdated = Arrays.copyOf(lastUpdated, capacity);
+            metrics = Arrays.copyOf(metrics, capacity);
+        }
+        return docCount++;
+    }
+}
@@ -0,0 +1,294 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.IndustryGrowthDTO;
+import com.startupsphere.capstone.dtos.MetricTrendPointDTO;
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
+import com.startupsphere.capstone.entity.StartupMetricHistory;
+import com.startupsphere.capstone.repository.StartupMetricHistoryRepository;
+import com.startupsphere.capstone.repository.StartupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.startupsphere.capstone.entity.StartupMetricHistory.*;
+
+/**
+ * Records startup metrics over time in the append-only startup_metric_snapshots
+ * table and reads trends back from it.
+ *
+ * Every startup gets a full row at the start of each month. Startups whose
+ * scores change in between are queued and written by a periodic flush as delta
+ * rows holding only what changed since their previous row. Rows are inserted
+ * with JDBC batches, since Hibernate cannot batch inserts of IDENTITY ids.
+ */
+@Service
+public class StartupMetricHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupMetricHistoryService.class);
+
+    private static final int BATCH_SIZE = 500; // Rows per JDBC batch and ids per IN query
+
+    private static final String INSERT_SQL = "INSERT INTO startup_metric_snapshots (startup_id, period, " +
+            "captured_at, monthly, full_snapshot, changed_fields, industry, annual_revenue, growth_rate, " +
+            "survival_rate, funding_received, views, likes, bookmarks) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Metric columns in changed_fields bit order
+    private static final int[] FIELD_BITS = { ANNUAL_REVENUE, GROWTH_RATE, SURVIVAL_RATE, FUNDING_RECEIVED, VIEWS,
+            LIKES, BOOKMARKS };
+
+    private final StartupRepository startupRepository;
+    private final StartupMetricHistoryRepository historyRepository;
+    private final StartupMetricsSnapshotService metricsSnapshotService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Startups with changes not yet written
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    // Metrics as of each startup's latest row written by this instance, guarded by this;
+    // only rows whose batch went in count, as later deltas are relative to them
+    private final Map<Long, double[]> lastWritten = new HashMap<>();
+
+    public StartupMetricHistoryService(StartupRepository startupRepository,
+            StartupMetricHistoryRepository historyRepository,
+            StartupMetricsSnapshotService metricsSnapshotService,
+            JdbcTemplate jdbcTemplate) {
+        this.startupRepository = startupRepository;
+        this.historyRepository = historyRepository;
+        this.metricsSnapshotService = metricsSnapshotService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Score changes follow every metric change, including likes, bookmarks and views
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRankingChanged(RankingChangedEvent event) {
+        if (event.getStartupId() != null) {
+            pending.add(event.getStartupId());
+        }
+    }
+
+    /**
+     * Write a delta row for every queued startup whose metrics changed
+     *
+     * @return Number of rows written
+     */
+    @Scheduled(fixedDelayString = "${metrics.history.flush-interval-ms:60000}",
+            initialDelayString = "${metrics.history.flush-interval-ms:60000}")
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(pending);
+        pending.removeAll(ids);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        List<double[]> states = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            for (StartupMetricsDTO startup : startupRepository.findMetricsByIds(batch)) {
+                double[] values = { startup.getAnnualRevenue(), startup.getGrowthRate(), startup.getSurvivalRate(),
+                        startup.getFundingReceived(), startup.getViews(), startup.getLikes(),
+                        startup.getBookmarks() };
+                Object[] row = row(lastWritten.get(startup.getId()), startup.getId(), startup.getIndustry(),
+                        values, now, false);
+                if (row != null) {
+                    rows.add(row);
+                    states.add(values);
+                }
+            }
+        }
+        try {
+            insert(rows, states);
+        } catch (RuntimeException e) {
+            // Rows of batches that did go in now match, so those startups write nothing next time
+            pending.addAll(ids);
+            throw e;
+        }
+        logger.debug("Recorded metric changes of {} startups", rows.size());
+        return rows.size();
+    }
+
+    /**
+     * Write a full row for every startup, marked as the monthly capture
+     *
+     * @return Number of rows written
+     */
+    @Scheduled(cron = "${metrics.history.monthly-cron:0 0 1 1 * ?}")
+    public synchronized int captureMonth() {
+        StartupMetricsSnapshot metrics = metricsSnapshotService.rebuild();
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(metrics.size());
+        List<double[]> states = new ArrayList<>(metrics.size());
+        for (int row = 0; row < metrics.size(); row++) {
+            double[] values = { metrics.annualRevenue[row], metrics.growthRate[row], metrics.survivalRate[row],
+                    metrics.fundingReceived[row], metrics.views[row], metrics.likes[row], metrics.bookmarks[row] };
+            rows.add(row(null, metrics.ids[row], metrics.industries[row], values, now, true));
+            states.add(values);
+        }
+        insert(rows, states);
+        logger.info("Captured monthly metric history of {} startups", rows.size());
+        return rows.size();
+    }
+
+    // Catch up on a monthly capture missed while the application was down
+    @EventListener(ApplicationReadyEvent.class)
+    public void captureMissedMonth() {
+        if (!historyRepository.existsByMonthlyTrueAndPeriod(period(YearMonth.now()))) {
+            captureMonth();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Could not record pending metric changes on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Monthly average growth rate per industry, read from the monthly rows
+     */
+    @Transactional(readOnly = true)
+    public List<IndustryGrowthDTO> getIndustryGrowth(YearMonth from, YearMonth to) {
+        return historyRepository.findIndustryGrowth(period(from), period(to));
+    }
+
+    /**
+     * A startup's full metrics at each history entry in a time range. The first
+     * point is the state in effect when the range starts, if any was recorded.
+     */
+    @Transactional(readOnly = true)
+    public List<MetricTrendPointDTO> getTrend(Long startupId, LocalDateTime from, LocalDateTime to) {
+        // One range scan from the last full row before the range, so the deltas
+        // leading up to it are replayed onto a complete state
+        LocalDateTime scanFrom = historyRepository
+                .findTopByStartupIdAndFullSnapshotTrueAndCapturedAtLessThanOrderByCapturedAtDescIdDesc(startupId, from)
+                .map(StartupMetricHistory::getCapturedAt)
+                .orElse(from);
+        return replay(historyRepository
+                .findByStartupIdAndCapturedAtBetweenOrderByCapturedAtAscIdAsc(startupId, scanFrom, to), from);
+    }
+
+    /**
+     * Full metrics at each entry, applying every delta onto the full row before
+     * it; entries before from only make up the point the trend starts with
+     *
+     * @param entries One startup's entries in the order they were written
+     */
+    static List<MetricTrendPointDTO> replay(List<StartupMetricHistory> entries, LocalDateTime from) {
+        List<MetricTrendPointDTO> points = new ArrayList<>();
+        MetricTrendPointDTO atStart = null;
+        double[] state = null;
+        for (StartupMetricHistory entry : entries) {
+            if (entry.isFullSnapshot()) {
+                state = new double[FIELD_BITS.length];
+            } else if (state == null) {
+                continue; // Delta without a full row to apply it to
+            }
+            apply(entry, state);
+            MetricTrendPointDTO point = new MetricTrendPointDTO(entry.getCapturedAt(), state[0], state[1], state[2],
+                    state[3], (int) state[4], (int) state[5], (int) state[6]);
+            if (entry.getCapturedAt().isBefore(from)) {
+                atStart = point;
+            } else {
+                points.add(point);
+            }
+        }
+        if (atStart != null) {
+            points.add(0, atStart);
+        }
+        return points;
+    }
+
+    private static void apply(StartupMetricHistory entry, double[] state) {
+        int changed = entry.getChangedFields();
+        if ((changed & ANNUAL_REVENUE) != 0) {
+            state[0] = entry.getAnnualRevenue();
+        }
+        if ((changed & GROWTH_RATE) != 0) {
+            state[1] = entry.getGrowthRate();
+        }
+        if ((changed & SURVIVAL_RATE) != 0) {
+            state[2] = entry.getSurvivalRate();
+        }
+        if ((changed & FUNDING_RECEIVED) != 0) {
+            state[3] = entry.getFundingReceived();
+        }
+        if ((changed & VIEWS) != 0) {
+            state[4] = entry.getViews();
+        }
+        if ((changed & LIKES) != 0) {
+            state[5] = entry.getLikes();
+        }
+        if ((changed & BOOKMARKS) != 0) {
+            state[6] = entry.getBookmarks();
+        }
+    }
+
+    /**
+     * Row to insert, or null when a delta would hold no change
+     *
+     * @param previous Metrics as of the startup's previous row, or null to write a full row
+     */
+    static Object[] row(double[] previous, long startupId, String industry, double[] values,
+            LocalDateTime capturedAt, boolean monthly) {
+        boolean full = monthly || previous == null;
+        int changed = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (full || values[i] != previous[i]) {
+                changed |= FIELD_BITS[i];
+            }
+        }
+        if (changed == 0) {
+            return null;
+        }
+
+        Object[] row = new Object[14];
+        row[0] = startupId;
+        row[1] = period(YearMonth.from(capturedAt));
+        row[2] = capturedAt;
+        row[3] = monthly;
+        row[4] = full;
+        row[5] = changed;
+        row[6] = industry;
+        for (int i = 0; i < values.length; i++) {
+            if ((changed & FIELD_BITS[i]) != 0) {
+                row[7 + i] = i < 4 ? (Object) values[i] : (Object) (int) values[i];
+            }
+        }
+        return row;
+    }
+
+    // states[i] is what rows[i] leaves its startup at
+    private void insert(List<Object[]> rows, List<double[]> states) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            int to = Math.min(from + BATCH_SIZE, rows.size());
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows.subList(from, to));
+            for (int i = from; i < to; i++) {
+                lastWritten.put((Long) rows.get(i)[0], states.get(i));
+            }
+        }
+    }
+
+    private static int period(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+}
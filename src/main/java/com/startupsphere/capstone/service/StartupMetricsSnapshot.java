@@ -0,0 +1,206 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable column-oriented copy of every startup's ranking inputs.
+ *
+ * Row i of each array belongs to ids[i]; ids are ascending, which is also the
+ * tie-break order used by {@link TopKSelector}. Scoring loops over these arrays
+ * read primitives only and never touch a Startup entity or its collections.
+ */
+public final class StartupMetricsSnapshot {
+
+    public static final StartupMetricsSnapshot EMPTY = of(List.of());
+
+    final long[] ids;
+    final String[] companyNames;
+    final String[] industries;
+    final boolean[] approved;
+
+    final double[] annualRevenue;
+    final double[] growthRate;
+    final double[] survivalRate;
+    final double[] paidUpCapital;
+    final double[] fundingReceived;
+    final double[] governmentGrants;
+
+    final int[] fundingRounds;
+    final int[] foreignInvestments;
+    final int[] incubationPrograms;
+    final int[] mentors;
+    final int[] partnerships;
+    final int[] views;
+    final int[] likes;
+    final int[] bookmarks;
+    final int[] profileFields;
+    final int[] socialLinks;
+
+    private final long builtAt;
+
+    private StartupMetricsSnapshot(int size) {
+        ids = new long[size];
+        companyNames = new String[size];
+        industries = new String[size];
+        approved = new boolean[size];
+        annualRevenue = new double[size];
+        growthRate = new double[size];
+        survivalRate = new double[size];
+        paidUpCapital = new double[size];
+        fundingReceived = new double[size];
+        governmentGrants = new double[size];
+        fundingRounds = new int[size];
+        foreignInvestments = new int[size];
+        incubationPrograms = new int[size];
+        mentors = new int[size];
+        partnerships = new int[size];
+        views = new int[size];
+        likes = new int[size];
+        bookmarks = new int[size];
+        profileFields = new int[size];
+        socialLinks = new int[size];
+        builtAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Copy query rows into columns
+     *
+     * @param rows Rows ordered by ascending startup id
+     */
+    public static StartupMetricsSnapshot of(List<StartupMetricsDTO> rows) {
+        StartupMetricsSnapshot snapshot = new StartupMetricsSnapshot(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            snapshot.set(i, rows.get(i));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Copy of this snapshot with some startups replaced, inserted or removed
+     *
+     * @param changedIds Ascending ids of the startups to replace
+     * @param rows       Current rows of those that still exist, ordered by
+     *                   ascending id; changed ids without a row are removed
+     */
+    public StartupMetricsSnapshot merge(long[] changedIds, List<StartupMetricsDTO> rows) {
+        int kept = 0;
+        int changed = 0;
+        for (long id : ids) {
+            while (changed < changedIds.length && changedIds[changed] < id) {
+                changed++;
+            }
+            if (changed == changedIds.length || changedIds[changed] != id) {
+                kept++;
+            }
+        }
+
+        StartupMetricsSnapshot merged = new StartupMetricsSnapshot(kept + rows.size());
+        int next = 0;
+        int added = 0;
+        changed = 0;
+        for (int row = 0; row < ids.length; row++) {
+            long id = ids[row];
+            while (added < rows.size() && rows.get(added).getId() <= id) {
+                merged.set(next++, rows.get(added++));
+            }
+            while (changed < changedIds.length && changedIds[changed] < id) {
+                changed++;
+            }
+            if (changed == changedIds.length || changedIds[changed] != id) {
+                merged.copy(next++, this, row);
+            }
+        }
+        while (added < rows.size()) {
+            merged.set(next++, rows.get(added++));
+        }
+        return merged;
+    }
+
+    private void set(int i, StartupMetricsDTO row) {
+        ids[i] = row.getId();
+        companyNames[i] = row.getCompanyName();
+        industries[i] = row.getIndustry();
+        approved[i] = "Approved".equalsIgnoreCase(row.getStatus());
+        annualRevenue[i] = row.getAnnualRevenue();
+        growthRate[i] = row.getGrowthRate();
+        survivalRate[i] = row.getSurvivalRate();
+        paidUpCapital[i] = row.getPaidUpCapital();
+        fundingReceived[i] = row.getFundingReceived();
+        governmentGrants[i] = row.getGovernmentGrants();
+        fundingRounds[i] = row.getFundingRounds();
+        foreignInvestments[i] = row.getForeignInvestments();
+        incubationPrograms[i] = row.getIncubationPrograms();
+        mentors[i] = row.getMentors();
+        partnerships[i] = row.getPartnerships();
+        views[i] = row.getViews();
+        likes[i] = row.getLikes();
+        bookmarks[i] = row.getBookmarks();
+        profileFields[i] = row.getProfileFields();
+        socialLinks[i] = row.getSocialLinks();
+    }
+
+    private void copy(int i, StartupMetricsSnapshot from, int row) {
+        ids[i] = from.ids[row];
+        companyNames[i] = from.companyNames[row];
+        industries[i] = from.industries[row];
+        approved[i] = from.approved[row];
+        annualRevenue[i] = from.annualRevenue[row];
+        growthRate[i] = from.growthRate[row];
+        survivalRate[i] = from.survivalRate[row];
+        paidUpCapital[i] = from.paidUpCapital[row];
+        fundingReceived[i] = from.fundingReceived[row];
+        governmentGrants[i] = from.governmentGrants[row];
+        fundingRounds[i] = from.fundingRounds[row];
+        foreignInvestments[i] = from.foreignInvestments[row];
+        incubationPrograms[i] = from.incubationPrograms[row];
+        mentors[i] = from.mentors[row];
+        partnerships[i] = from.partnerships[row];
+        views[i] = from.views[row];
+        likes[i] = from.likes[row];
+        bookmarks[i] = from.bookmarks[row];
+        profileFields[i] = from.profileFields[row];
+        socialLinks[i] = from.socialLinks[row];
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Row of a startup id, or a negative value when it is not in this snapshot
+     */
+    public int indexOf(long startupId) {
+        return Arrays.binarySearch(ids, startupId);
+    }
+
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    public String getCompanyName(int row) {
+        return companyNames[row];
+    }
+
+    public String getIndustry(int row) {
+        return industries[row];
+    }
+
+    public boolean isApproved(int row) {
+        return approved[row];
+    }
+
+    public double getGrowthRate(int row) {
+        return growthRate[row];
+    }
+
+    public double getFundingReceived(int row) {
+        return fundingReceived[row];
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+}
@@ -0,0 +1,46 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.repository.StartupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link StartupMetricsSnapshot}. Snapshots are built from a
+ * single scalar query and swapped in atomically, so readers always see one
+ * complete, consistent set of columns. Rebuilds are driven by
+ * {@link RankingSnapshotService}, off the request threads.
+ */
+@Service
+public class StartupMetricsSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupMetricsSnapshotService.class);
+
+    private final StartupRepository startupRepository;
+    private final AtomicReference<StartupMetricsSnapshot> current = new AtomicReference<>(StartupMetricsSnapshot.EMPTY);
+
+    public StartupMetricsSnapshotService(StartupRepository startupRepository) {
+        this.startupRepository = startupRepository;
+    }
+
+    /**
+     * Latest published snapshot; never null, empty until the first build finishes
+     */
+    public StartupMetricsSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Build a snapshot on the calling thread and publish it
+     */
+    public StartupMetricsSnapshot rebuild() {
+        long start = System.nanoTime();
+        StartupMetricsSnapshot snapshot = StartupMetricsSnapshot.of(startupRepository.findAllMetrics());
+        current.set(snapshot);
+        logger.debug("Built startup metrics snapshot of {} rows in {} ms",
+                snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+        return snapshot;
+    }
+}
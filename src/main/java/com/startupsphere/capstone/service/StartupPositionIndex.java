@@ -0,0 +1,291 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.entity.StartupScore;
+import com.startupsphere.capstone.repository.StartupScoreRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory leaderboards of approved startups, one {@link OrderStatisticTree}
+ * per metric overall and per metric within each industry. Kept in step with the
+ * startup_scores table by re-reading changed rows once their transaction has
+ * committed, so "what is my position?" is answered in O(log n) instead of paging
+ * through the rankings, and never from a score that was rolled back.
+ */
+@Service
+public class StartupPositionIndex {
+
+    private static final String[] METRICS = RankingSnapshot.METRICS;
+
+    private final StartupScoreRepository startupScoreRepository;
+
+    private final Map<String, OrderStatisticTree> trees = new HashMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes read-then-apply, so the row read last is also applied last
+    private final Object refreshLock = new Object();
+
+    /**
+     * Position of a startup on one leaderboard
+     */
+    public static class Position {
+        private final int rank;
+        private final int total;
+        private final double score;
+        private final List<Neighbour> above;
+        private final List<Neighbour> below;
+
+        Position(int rank, int total, double score, List<Neighbour> above, List<Neighbour> below) {
+            this.rank = rank;
+            this.total = total;
+            this.score = score;
+            this.above = above;
+            this.below = below;
+        }
+
+        // One-based, 1 is the top of the leaderboard
+        public int getRank() {
+            return rank;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public List<Neighbour> getAbove() {
+            return above;
+        }
+
+        public List<Neighbour> getBelow() {
+            return below;
+        }
+    }
+
+    public static class Neighbour {
+        private final int rank;
+        private final long id;
+        private final String companyName;
+        private final double score;
+
+        Neighbour(int rank, long id, String companyName, double score) {
+            this.rank = rank;
+            this.id = id;
+            this.companyName = companyName;
+            this.score = score;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getCompanyName() {
+            return companyName;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    // Immutable copy of the indexed columns of a StartupScore row
+    private static final class Entry {
+        final long id;
+        final String companyName;
+        final String industry;
+        final double[] scores = new double[METRICS.length];
+
+        Entry(StartupScore score) {
+            this.id = score.getStartupId();
+            this.companyName = score.getCompanyName();
+            this.industry = RankingSnapshot.industryKey(score.getIndustry());
+            scores[0] = score.getOverallScore();
+            scores[1] = score.getGrowthScore();
+            scores[2] = score.getInvestmentScore();
+            scores[3] = score.getEcosystemScore();
+            scores[4] = score.getEngagementScore();
+        }
+    }
+
+    public StartupPositionIndex(StartupScoreRepository startupScoreRepository) {
+        this.startupScoreRepository = startupScoreRepository;
+    }
+
+    // After commit, so only committed scores are indexed; immediately when no transaction is active
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRankingChanged(RankingChangedEvent event) {
+        Long startupId = event.getStartupId();
+        synchronized (refreshLock) {
+            if (startupId == null) {
+                rebuild(startupScoreRepository.findAll());
+            } else {
+                startupScoreRepository.findById(startupId)
+                        .ifPresentOrElse(this::update, () -> remove(startupId));
+            }
+        }
+    }
+
+    // A profile that normalizes differently rescored every row, and the RankingChangedEvent of that rebuilds
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRankingWeightsChanged(RankingWeightsChangedEvent event) {
+        if (event.getCurrent().sameNormalization(event.getPrevious())) {
+            synchronized (refreshLock) {
+                reweigh(event.getCurrent());
+            }
+        }
+    }
+
+    /**
+     * Replace the whole index, e.g. after a full recalculation
+     */
+    public void rebuild(Collection<StartupScore> scores) {
+        lock.writeLock().lock();
+        try {
+            trees.clear();
+            entries.clear();
+            scores.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Insert or move one startup; unapproved startups are taken off the boards
+     */
+    public void update(StartupScore score) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(score.getStartupId());
+            add(score);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recombine every overall score from the indexed category scores and re-sort
+     * the overall leaderboards; the category leaderboards are unaffected
+     */
+    public void reweigh(RankingWeights weights) {
+        lock.writeLock().lock();
+        try {
+            trees.keySet().removeIf(key -> key.startsWith(METRICS[0] + "|"));
+            for (Entry entry : entries.values()) {
+                entry.scores[0] = weights.overall(entry.scores[1], entry.scores[2], entry.scores[3], entry.scores[4]);
+                trees.computeIfAbsent(treeKey(0, ""), key -> new OrderStatisticTree()).insert(entry.scores[0], entry.id);
+                if (!entry.industry.isEmpty()) {
+                    trees.computeIfAbsent(treeKey(0, entry.industry), key -> new OrderStatisticTree())
+                            .insert(entry.scores[0], entry.id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long startupId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(startupId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Look up where a startup sits
+     *
+     * @param metric     Leaderboard metric ("growth", "investment", "ecosystem",
+     *                   "engagement", or "overall")
+     * @param industry   Optional industry leaderboard ("All" or blank means every industry)
+     * @param neighbours How many entries to return directly above and below
+     * @return Null when the startup is not on that leaderboard
+     */
+    public Position getPosition(Long startupId, String metric, String industry, int neighbours) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(startupId);
+            if (entry == null) {
+                return null;
+            }
+            String industryKey = RankingSnapshot.industryKey(industry);
+            if (!industryKey.isEmpty() && !industryKey.equals(entry.industry)) {
+                return null;
+            }
+
+            int metricIndex = RankingSnapshot.metricIndex(metric);
+            OrderStatisticTree tree = trees.get(treeKey(metricIndex, industryKey));
+            double score = entry.scores[metricIndex];
+            int rank = tree.rankOf(score, entry.id);
+
+            int span = Math.max(neighbours, 0);
+            List<Neighbour> above = new ArrayList<>();
+            for (int i = Math.max(rank - span, 0); i < rank; i++) {
+                above.add(neighbourAt(tree, i));
+            }
+            List<Neighbour> below = new ArrayList<>();
+            for (int i = rank + 1; i <= Math.min(rank + span, tree.size() - 1); i++) {
+                below.add(neighbourAt(tree, i));
+            }
+            return new Position(rank + 1, tree.size(), score, above, below);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Neighbour neighbourAt(OrderStatisticTree tree, int rank) {
+        long id = tree.idAt(rank);
+        return new Neighbour(rank + 1, id, entries.get(id).companyName, tree.scoreAt(rank));
+    }
+
+    private void add(StartupScore score) {
+        if (!Boolean.TRUE.equals(score.getApproved())) {
+            return;
+        }
+        Entry entry = new Entry(score);
+        entries.put(entry.id, entry);
+        for (int m = 0; m < METRICS.length; m++) {
+            trees.computeIfAbsent(treeKey(m, ""), key -> new OrderStatisticTree()).insert(entry.scores[m], entry.id);
+            if (!entry.industry.isEmpty()) {
+                trees.computeIfAbsent(treeKey(m, entry.industry), key -> new OrderStatisticTree())
+                        .insert(entry.scores[m], entry.id);
+            }
+        }
+    }
+
+    private void removeEntry(Long startupId) {
+        Entry entry = entries.remove(startupId);
+        if (entry == null) {
+            return;
+        }
+        for (int m = 0; m < METRICS.length; m++) {
+            trees.get(treeKey(m, "")).remove(entry.scores[m], entry.id);
+            if (!entry.industry.isEmpty()) {
+                OrderStatisticTree tree = trees.get(treeKey(m, entry.industry));
+                tree.remove(entry.scores[m], entry.id);
+                if (tree.size() == 0) {
+                    trees.remove(treeKey(m, entry.industry));
+                }
+            }
+        }
+    }
+
+    private static String treeKey(int metricIndex, String industryKey) {
+        return METRICS[metricIndex] + "|" + industryKey;
+    }
+}
@@ -1,13 +1,29 @@
 package com.startupsphere.capstone.service;
 
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
 import com.startupsphere.capstone.entity.Startup;
+import com.startupsphere.capstone.entity.StartupScore;
+import com.startupsphere.capstone.repository.StartupRepository;
+import com.startupsphere.capstone.repository.StartupScoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Service to calculate and rank startups based on multiple performance criteria
@@ -15,22 +31,37 @@ import java.util.stream.Collectors;
 @Service
 public class StartupRankingService {
 
-    // Score component weights based on specified percentages
-    private static final double GROWTH_WEIGHT = 0.30;
-    private static final double INVESTMENT_WEIGHT = 0.30;
-    private static final double ECOSYSTEM_WEIGHT = 0.20;
-    private static final double ENGAGEMENT_WEIGHT = 0.20;
-
-    // Additional normalization factors
-    private static final double MAX_ANNUAL_REVENUE = 500000000.0; // 500M PHP as max benchmark
-    private static final double MAX_GROWTH_RATE = 100.0; // 100% as max benchmark
-    private static final double MAX_FUNDING = 100000000.0; // 100M PHP as max benchmark
-    private static final double MAX_GOVT_GRANT = 50000000.0; // 50M PHP as max benchmark
-    private static final int MAX_FUNDING_ROUNDS = 10; // Series D+ as max benchmark
-    private static final int MAX_MENTORS = 50; // Arbitrary max
-    private static final int MAX_PARTNERSHIPS = 20; // Arbitrary max
-    private static final int MAX_VIEWS = 10000; // Arbitrary max for platform engagement
-    private static final int MAX_SOCIAL_MEDIA_SCORE = 5; // Count of social media platforms
+    private static final Logger logger = LoggerFactory.getLogger(StartupRankingService.class);
+
+    private static final int PROFILE_FIELD_COUNT = 15; // Fields checked by calculateProfileCompleteness
+    private static final int METRICS_BATCH_SIZE = 500; // Ids per IN query when re-scoring
+
+    private final StartupRepository startupRepository;
+    private final StartupScoreRepository startupScoreRepository;
+    private final StartupMetricsSnapshotService snapshotService;
+    private final StartupPositionIndex positionIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    // Weights and normalization maxima every score is computed with; swapped as a whole
+    private final AtomicReference<RankingWeights> weights = new AtomicReference<>(RankingWeights.DEFAULT);
+
+    public StartupRankingService(StartupRepository startupRepository,
+            StartupScoreRepository startupScoreRepository,
+            StartupMetricsSnapshotService snapshotService,
+            StartupPositionIndex positionIndex,
+            ApplicationEventPublisher eventPublisher) {
+        this.startupRepository = startupRepository;
+        this.startupScoreRepository = startupScoreRepository;
+        this.snapshotService = snapshotService;
+        this.positionIndex = positionIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Scoring profile currently in effect
+     */
+    public RankingWeights getWeights() {
+        return weights.get();
+    }
 
     /**
      * Calculate overall score for a startup
@@ -39,103 +70,116 @@ public class StartupRankingService {
      * @return Normalized score between 0-100
      */
     public double calculateOverallScore(Startup startup) {
-        double growthScore = calculateGrowthScore(startup);
-        double investmentScore = calculateInvestmentScore(startup);
-        double ecosystemScore = calculateEcosystemScore(startup);
-        double engagementScore = calculateEngagementScore(startup);
-
-        // Combine weighted scores and normalize to 0-100 scale
-        return (growthScore * GROWTH_WEIGHT +
-                investmentScore * INVESTMENT_WEIGHT +
-                ecosystemScore * ECOSYSTEM_WEIGHT +
-                engagementScore * ENGAGEMENT_WEIGHT) * 100;
+        return weights.get().overall(calculateGrowthScore(startup), calculateInvestmentScore(startup),
+                calculateEcosystemScore(startup), calculateEngagementScore(startup));
     }
 
     /**
-     * Calculate growth & performance score (30% of total)
+     * Calculate growth & performance score
      */
     public double calculateGrowthScore(Startup startup) {
-        // Revenue component (normalized)
-        double revenueScore = 0.0;
-        if (startup.getAnnualRevenue() != null) {
-            revenueScore = Math.min(startup.getAnnualRevenue() / MAX_ANNUAL_REVENUE, 1.0);
-        }
-
-        // Growth rate component (already percentage but cap at 100%)
-        double growthRateScore = Math.min(startup.getAverageStartupGrowthRate() / MAX_GROWTH_RATE, 1.0);
+        return weights.get().growth(startup.getAnnualRevenue() != null ? startup.getAnnualRevenue() : 0.0,
+                startup.getAverageStartupGrowthRate(), startup.getStartupSurvivalRate());
+    }
 
-        // Survival rate (already percentage)
-        double survivalRateScore = startup.getStartupSurvivalRate() / 100.0;
+    /**
+     * Calculate investment & funding score
+     */
+    public double calculateInvestmentScore(Startup startup) {
+        return weights.get().investment(startup.getPaidUpCapital() != null ? startup.getPaidUpCapital() : 0.0,
+                startup.getTotalStartupFundingReceived(), startup.getNumberOfFundingRounds(),
+                startup.getNumberOfStartupsWithForeignInvestment(),
+                startup.getAmountOfGovernmentGrantsOrSubsidiesReceived());
+    }
 
-        // Combine with equal weights within this category
-        return (revenueScore + growthRateScore + survivalRateScore) / 3.0;
+    /**
+     * Calculate ecosystem integration score
+     */
+    public double calculateEcosystemScore(Startup startup) {
+        return weights.get().ecosystem(startup.getNumberOfStartupsInIncubationPrograms(),
+                startup.getNumberOfMentorsOrAdvisorsInvolved(),
+                startup.getPublicPrivatePartnershipsInvolvingStartups());
     }
 
     /**
-     * Calculate investment & funding score (30% of total)
+     * Calculate engagement score
      */
-    public double calculateInvestmentScore(Startup startup) {
-        // Capital metrics
-        double capitalScore = 0.0;
-        if (startup.getPaidUpCapital() != null) {
-            capitalScore = Math.min(startup.getPaidUpCapital() / MAX_FUNDING, 1.0);
-        }
+    public double calculateEngagementScore(Startup startup) {
+        return weights.get().engagement(calculateProfileCompleteness(startup), countSocialMediaProfiles(startup),
+                startup.getViewsCount() != null ? startup.getViewsCount() : 0,
+                startup.getLikesCount(), startup.getBookmarksCount());
+    }
 
-        double fundingScore = Math.min(startup.getTotalStartupFundingReceived() / MAX_FUNDING, 1.0);
+    // Same formulas over a scalar metrics row, without touching any entity
 
-        // Funding rounds
-        double fundingRoundsScore = Math.min((double) startup.getNumberOfFundingRounds() / MAX_FUNDING_ROUNDS, 1.0);
+    public double calculateOverallScore(StartupMetricsDTO row) {
+        return weights.get().overall(calculateGrowthScore(row), calculateInvestmentScore(row),
+                calculateEcosystemScore(row), calculateEngagementScore(row));
+    }
 
-        // Foreign investment (binary: has/doesn't have)
-        double foreignInvestmentScore = startup.getNumberOfStartupsWithForeignInvestment() > 0 ? 1.0 : 0.0;
+    public double calculateGrowthScore(StartupMetricsDTO row) {
+        return weights.get().growth(row.getAnnualRevenue(), row.getGrowthRate(), row.getSurvivalRate());
+    }
 
-        // Government support
-        double govtSupportScore = Math.min(
-                startup.getAmountOfGovernmentGrantsOrSubsidiesReceived() / MAX_GOVT_GRANT, 1.0);
+    public double calculateInvestmentScore(StartupMetricsDTO row) {
+        return weights.get().investment(row.getPaidUpCapital(), row.getFundingReceived(), row.getFundingRounds(),
+                row.getForeignInvestments(), row.getGovernmentGrants());
+    }
 
-        // Combine with equal weights within this category
-        return (capitalScore + fundingScore + fundingRoundsScore + foreignInvestmentScore + govtSupportScore) / 5.0;
+    public double calculateEcosystemScore(StartupMetricsDTO row) {
+        return weights.get().ecosystem(row.getIncubationPrograms(), row.getMentors(), row.getPartnerships());
     }
 
-    /**
-     * Calculate ecosystem integration score (20% of total)
-     */
-    public double calculateEcosystemScore(Startup startup) {
-        // Incubator participation (binary: is/isn't in an incubator)
-        double incubatorScore = startup.getNumberOfStartupsInIncubationPrograms() > 0 ? 1.0 : 0.0;
+    public double calculateEngagementScore(StartupMetricsDTO row) {
+        return weights.get().engagement((double) row.getProfileFields() / PROFILE_FIELD_COUNT,
+                row.getSocialLinks(), row.getViews(), row.getLikes(), row.getBookmarks());
+    }
 
-        // Mentorship
-        double mentorshipScore = Math.min(
-                (double) startup.getNumberOfMentorsOrAdvisorsInvolved() / MAX_MENTORS, 1.0);
+    // And over one row of a columnar snapshot
 
-        // Partnerships
-        double partnershipScore = Math.min(
-                (double) startup.getPublicPrivatePartnershipsInvolvingStartups() / MAX_PARTNERSHIPS, 1.0);
+    public double calculateOverallScore(StartupMetricsSnapshot snapshot, int row) {
+        return overallScore(weights.get(), snapshot, row);
+    }
 
-        // Combine with equal weights within this category
-        return (incubatorScore + mentorshipScore + partnershipScore) / 3.0;
+    public double calculateGrowthScore(StartupMetricsSnapshot snapshot, int row) {
+        return growthScore(weights.get(), snapshot, row);
     }
 
-    /**
-     * Calculate engagement score (20% of total)
-     */
-    public double calculateEngagementScore(Startup startup) {
-        // Profile completeness score
-        double profileScore = calculateProfileCompleteness(startup);
+    public double calculateInvestmentScore(StartupMetricsSnapshot snapshot, int row) {
+        return investmentScore(weights.get(), snapshot, row);
+    }
+
+    public double calculateEcosystemScore(StartupMetricsSnapshot snapshot, int row) {
+        return ecosystemScore(weights.get(), snapshot, row);
+    }
+
+    public double calculateEngagementScore(StartupMetricsSnapshot snapshot, int row) {
+        return engagementScore(weights.get(), snapshot, row);
+    }
+
+    // Snapshot scoring under an explicit profile, for callers that must not see it change mid-run
 
-        // Social media presence score
-        double socialMediaScore = calculateSocialMediaPresence(startup);
+    static double overallScore(RankingWeights weights, StartupMetricsSnapshot snapshot, int row) {
+        return weights.overall(growthScore(weights, snapshot, row), investmentScore(weights, snapshot, row),
+                ecosystemScore(weights, snapshot, row), engagementScore(weights, snapshot, row));
+    }
 
-        // Platform engagement (views, likes, bookmarks)
-        double viewsScore = Math.min((double) startup.getViewsCount() / MAX_VIEWS, 1.0);
-        double likesScore = Math.min(startup.getLikes() != null ? (double) startup.getLikes().size() / 100.0 : 0.0,
-                1.0);
-        double bookmarksScore = Math
-                .min(startup.getBookmarks() != null ? (double) startup.getBookmarks().size() / 50.0 : 0.0, 1.0);
-        double platformEngagementScore = (viewsScore + likesScore + bookmarksScore) / 3.0;
+    static double growthScore(RankingWeights weights, StartupMetricsSnapshot snapshot, int row) {
+        return weights.growth(snapshot.annualRevenue[row], snapshot.growthRate[row], snapshot.survivalRate[row]);
+    }
 
-        // Combine with equal weights within this category
-        return (profileScore + socialMediaScore + platformEngagementScore) / 3.0;
+    static double investmentScore(RankingWeights weights, StartupMetricsSnapshot snapshot, int row) {
+        return weights.investment(snapshot.paidUpCapital[row], snapshot.fundingReceived[row],
+                snapshot.fundingRounds[row], snapshot.foreignInvestments[row], snapshot.governmentGrants[row]);
+    }
+
+    static double ecosystemScore(RankingWeights weights, StartupMetricsSnapshot snapshot, int row) {
+        return weights.ecosystem(snapshot.incubationPrograms[row], snapshot.mentors[row], snapshot.partnerships[row]);
+    }
+
+    static double engagementScore(RankingWeights weights, StartupMetricsSnapshot snapshot, int row) {
+        return weights.engagement((double) snapshot.profileFields[row] / PROFILE_FIELD_COUNT,
+                snapshot.socialLinks[row], snapshot.views[row], snapshot.likes[row], snapshot.bookmarks[row]);
     }
 
     /**
@@ -151,7 +195,7 @@ public class StartupRankingService {
         }
         totalFields++;
 
-        if (startup.getCompanyDescription() != null && !startup.getCompanyDescription().trim().isEmpty()) {
+        if (startup.getHasDescription()) {
             filledFields++;
         }
         totalFields++;
@@ -216,7 +260,7 @@ public class StartupRankingService {
         }
         totalFields++;
 
-        if (startup.getPhoto() != null && startup.getPhoto().length > 0) {
+        if (startup.getHasPhoto()) {
             filledFields++;
         }
         totalFields++;
@@ -226,9 +270,9 @@ public class StartupRankingService {
     }
 
     /**
-     * Calculate social media presence score
+     * Count the social media profiles that are filled in
      */
-    private double calculateSocialMediaPresence(Startup startup) {
+    private int countSocialMediaProfiles(Startup startup) {
         int socialMediaCount = 0;
 
         // Count how many social media profiles are filled
@@ -252,74 +296,240 @@ public class StartupRankingService {
             socialMediaCount++;
         }
 
-        // Calculate social media presence score
-        return (double) socialMediaCount / MAX_SOCIAL_MEDIA_SCORE;
+        return socialMediaCount;
     }
 
     /**
-     * Rank a list of startups based on their overall scores
-     * 
-     * @param startups List of startups to rank
-     * @return List of startups sorted by ranking
-     */
-    @Cacheable(value = "rankings", key = "'all'")
-    public List<Startup> rankStartups(List<Startup> startups) {
-        return startups.stream()
-                .filter(startup -> "Approved".equalsIgnoreCase(startup.getStatus())) // Filter by status
-                .sorted(Comparator.comparingDouble(this::calculateOverallScore).reversed())
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Filter and rank startups by industry
-     * 
-     * @param startups List of all startups
-     * @param industry Industry to filter by
-     * @return Ranked list of startups in the specified industry
+     * Page through the persisted scores, best first. Serves the ranking pages
+     * until the first ranking snapshot has been published.
+     *
+     * @param industry Optional industry filter ("All" or blank means every industry)
+     * @param metric   Metric to order by ("growth", "investment", "ecosystem",
+     *                 "engagement", or "overall")
+     * @param pageable Page number and size; any sort on it is replaced
+     * @return Page of approved startup scores
      */
-    @Cacheable(value = "rankings", key = "'industry-' + #industry")
-    public List<Startup> rankStartupsByIndustry(List<Startup> startups, String industry) {
-        return startups.stream()
-                .filter(startup -> "Approved".equalsIgnoreCase(startup.getStatus())) // Filter by status
-                .filter(startup -> industry == null || industry.trim().isEmpty() || industry.equalsIgnoreCase("All")
-                        || industry.equalsIgnoreCase(startup.getIndustry()))
-                .sorted(Comparator.comparingDouble(this::calculateOverallScore).reversed())
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<StartupScore> getRankedScores(String industry, String metric, Pageable pageable) {
+        Sort sort = Sort.by(Sort.Direction.DESC, scoreProperty(metric))
+                .and(Sort.by(Sort.Direction.ASC, "startupId"));
+        Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+
+        if (industry != null && !industry.trim().isEmpty() && !industry.equalsIgnoreCase("All")) {
+            return startupScoreRepository.findByApprovedTrueAndIndustry(industry.trim(), sorted);
+        }
+        return startupScoreRepository.findByApprovedTrue(sorted);
     }
 
     /**
-     * Rank startups by a specific metric instead of the overall score
-     * 
-     * @param startups List of startups to rank
-     * @param metric   Metric to rank by ("growth", "investment", "ecosystem",
-     *                 "engagement", or "overall")
-     * @return List of startups sorted by the specified metric
+     * One metric's score for every row of a snapshot
      */
-    @Cacheable(value = "rankings", key = "'metric-' + #metric")
-    public List<Startup> rankStartupsByMetric(List<Startup> startups, String metric) {
-        Comparator<Startup> comparator;
-
-        switch (metric.toLowerCase()) {
+    public double[] scoreColumn(StartupMetricsSnapshot snapshot, String metric) {
+        double[] scores = new double[snapshot.size()];
+        switch (metric == null ? "overall" : metric.toLowerCase()) {
             case "growth":
-                comparator = Comparator.comparingDouble(this::calculateGrowthScore);
+                for (int row = 0; row < scores.length; row++) {
+                    scores[row] = calculateGrowthScore(snapshot, row);
+                }
                 break;
             case "investment":
-                comparator = Comparator.comparingDouble(this::calculateInvestmentScore);
+                for (int row = 0; row < scores.length; row++) {
+                    scores[row] = calculateInvestmentScore(snapshot, row);
+                }
                 break;
             case "ecosystem":
-                comparator = Comparator.comparingDouble(this::calculateEcosystemScore);
+                for (int row = 0; row < scores.length; row++) {
+                    scores[row] = calculateEcosystemScore(snapshot, row);
+                }
                 break;
             case "engagement":
-                comparator = Comparator.comparingDouble(this::calculateEngagementScore);
+                for (int row = 0; row < scores.length; row++) {
+                    scores[row] = calculateEngagementScore(snapshot, row);
+                }
                 break;
             case "overall":
             default:
-                comparator = Comparator.comparingDouble(this::calculateOverallScore);
+                for (int row = 0; row < scores.length; row++) {
+                    scores[row] = calculateOverallScore(snapshot, row);
+                }
+                break;
         }
+        return scores;
+    }
+
+    /**
+     * Scalar ranking inputs of a single startup, read without loading the entity
+     */
+    @Transactional(readOnly = true)
+    public Optional<StartupMetricsDTO> getMetrics(Long startupId) {
+        return startupRepository.findMetricsByIds(List.of(startupId)).stream().findFirst();
+    }
+
+    /**
+     * Where a startup sits on the overall, metric or industry leaderboard
+     *
+     * @return Null when the startup is not ranked on that leaderboard
+     */
+    public StartupPositionIndex.Position getPosition(Long startupId, String metric, String industry,
+            int neighbours) {
+        return positionIndex.getPosition(startupId, metric, industry, neighbours);
+    }
+
+    /**
+     * Recalculate and store the scores of a single startup. Removes the stored
+     * row when the startup no longer exists.
+     */
+    @Transactional
+    public void refreshScore(Long startupId) {
+        if (startupId == null) {
+            return;
+        }
+        getMetrics(startupId)
+                .ifPresentOrElse(this::refreshScore, () -> removeScore(startupId));
+    }
 
-        return startups.stream()
-                .filter(startup -> "Approved".equalsIgnoreCase(startup.getStatus())) // Filter by status
-                .sorted(comparator.reversed())
-                .collect(Collectors.toList());
+    /**
+     * Recalculate and store the scores of a startup that was just saved. Pending
+     * changes are flushed by the metrics query, and likes and bookmarks come from
+     * the startup's counter columns instead of its collections.
+     */
+    @Transactional
+    public void refreshScore(Startup startup) {
+        refreshScore(startup.getId());
+    }
+
+    @Transactional
+    public StartupScore refreshScore(StartupMetricsDTO row) {
+        StartupScore score = startupScoreRepository.findById(row.getId())
+                .orElseGet(() -> new StartupScore(row.getId()));
+
+        score.setCompanyName(row.getCompanyName());
+        score.setIndustry(row.getIndustry());
+        score.setApproved("Approved".equalsIgnoreCase(row.getStatus()));
+        score.setGrowthScore(calculateGrowthScore(row));
+        score.setInvestmentScore(calculateInvestmentScore(row));
+        score.setEcosystemScore(calculateEcosystemScore(row));
+        score.setEngagementScore(calculateEngagementScore(row));
+        score.setOverallScore(calculateOverallScore(row));
+        score.setGrowthRate(row.getGrowthRate());
+        score.setTotalFunding(row.getFundingReceived());
+
+        StartupScore saved = startupScoreRepository.save(score);
+        eventPublisher.publishEvent(new RankingChangedEvent(row.getId()));
+        return saved;
+    }
+
+    @Transactional
+    public void refreshScoresById(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += METRICS_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + METRICS_BATCH_SIZE, ids.size()));
+            startupRepository.findMetricsByIds(batch).forEach(this::refreshScore);
+        }
+    }
+
+    @Transactional
+    public void removeScore(Long startupId) {
+        startupScoreRepository.deleteById(startupId);
+        eventPublisher.publishEvent(new RankingChangedEvent(startupId));
+    }
+
+    /**
+     * Rebuild the whole score table from a fresh metrics snapshot. Only needed for
+     * the initial backfill or after the scoring formula changes.
+     */
+    @Transactional
+    public int recalculateAllScores() {
+        return recalculateAllScores(weights.get());
+    }
+
+    private int recalculateAllScores(RankingWeights profile) {
+        StartupMetricsSnapshot snapshot = snapshotService.rebuild();
+        List<StartupScore> scores = new ArrayList<>(snapshot.size());
+        for (int row = 0; row < snapshot.size(); row++) {
+            StartupScore score = new StartupScore(snapshot.ids[row]);
+            score.setCompanyName(snapshot.companyNames[row]);
+            score.setIndustry(snapshot.industries[row]);
+            score.setApproved(snapshot.approved[row]);
+            score.setGrowthScore(growthScore(profile, snapshot, row));
+            score.setInvestmentScore(investmentScore(profile, snapshot, row));
+            score.setEcosystemScore(ecosystemScore(profile, snapshot, row));
+            score.setEngagementScore(engagementScore(profile, snapshot, row));
+            score.setOverallScore(profile.overall(score.getGrowthScore(), score.getInvestmentScore(),
+                    score.getEcosystemScore(), score.getEngagementScore()));
+            score.setGrowthRate(snapshot.growthRate[row]);
+            score.setTotalFunding(snapshot.fundingReceived[row]);
+            scores.add(score);
+        }
+
+        startupScoreRepository.deleteAllInBatch();
+        startupScoreRepository.saveAll(scores);
+        eventPublisher.publishEvent(new RankingChangedEvent(null));
+        logger.info("Recalculated ranking scores for {} startups", snapshot.size());
+        return snapshot.size();
+    }
+
+    /**
+     * Switch every score to another profile. When only the category weights
+     * differ, the stored category scores are still valid and the overall score is
+     * recombined from them in a single UPDATE; otherwise all scores are
+     * recalculated from a metrics snapshot. Neither path loads a startup entity.
+     * The profile is only taken over once the new scores have committed.
+     */
+    @Transactional
+    public void applyWeights(RankingWeights next) {
+        RankingWeights previous = weights.get();
+        if (previous.equals(next)) {
+            return;
+        }
+        if (next.sameNormalization(previous)) {
+            int updated = startupScoreRepository.reweighOverallScores(next.getGrowthWeight(),
+                    next.getInvestmentWeight(), next.getEcosystemWeight(), next.getEngagementWeight());
+            logger.info("Recombined overall scores of {} startups with new ranking weights", updated);
+        } else {
+            recalculateAllScores(next);
+        }
+        eventPublisher.publishEvent(new RankingWeightsChangedEvent(previous, next));
+    }
+
+    // First of the after-commit listeners, so the read models re-rank under the profile now in use
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRankingWeightsChanged(RankingWeightsChangedEvent event) {
+        weights.set(event.getCurrent());
+    }
+
+    /**
+     * Take over a profile whose scores are already stored, e.g. the active one at startup
+     */
+    void setWeights(RankingWeights profile) {
+        weights.set(profile);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillScores() {
+        int flagged = startupRepository.backfillPhotoFlags() + startupRepository.backfillDescriptionFlags();
+        if (flagged > 0 || startupScoreRepository.count() != startupRepository.count()) {
+            logger.info("Ranking score table is out of sync with startups, rebuilding");
+            recalculateAllScores();
+        } else {
+            positionIndex.rebuild(startupScoreRepository.findAll());
+        }
+    }
+
+    private String scoreProperty(String metric) {
+        switch (metric == null ? "overall" : metric.toLowerCase()) {
+            case "growth":
+                return "growthScore";
+            case "investment":
+                return "investmentScore";
+            case "ecosystem":
+                return "ecosystemScore";
+            case "engagement":
+                return "engagementScore";
+            case "overall":
+            default:
+                return "overallScore";
+        }
     }
-}
\ No newline at end of file
+}
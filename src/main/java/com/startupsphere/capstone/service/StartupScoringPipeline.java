@@ -0,0 +1,216 @@
+package com.startupsphere.capstone.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scores a whole {@link StartupMetricsSnapshot} on a dedicated ForkJoinPool.
+ *
+ * The snapshot rows are split into partitions; each partition computes all four
+ * category scores (and the overall score from them) in a single pass per row,
+ * then orders its approved rows per metric. Sibling partitions are merged
+ * pairwise. Ties keep ascending row (= id) order throughout, so the result is
+ * exactly the order of the sequential Comparator-based ranking.
+ */
+@Service
+public class StartupScoringPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupScoringPipeline.class);
+
+    // Rows per leaf task; smaller partitions cost more in merging than they gain
+    private static final int MIN_PARTITION_SIZE = 8_192;
+
+    private final StartupRankingService rankingService;
+    private final ForkJoinPool pool;
+    private volatile Stats lastRun = new Stats(0, 0, 0);
+    private final AtomicLong totalRuns = new AtomicLong();
+    private final AtomicLong totalStartups = new AtomicLong();
+
+    /**
+     * Scores plus the full best-first order of approved rows for each metric
+     */
+    public static class Result {
+        private final RankingWeights weights;
+        // scores[metric][row], metrics as in RankingSnapshot.METRICS
+        private final double[][] scores;
+        // orders[metric] = approved rows, best first
+        private final int[][] orders;
+
+        Result(RankingWeights weights, double[][] scores, int[][] orders) {
+            this.weights = weights;
+            this.scores = scores;
+            this.orders = orders;
+        }
+
+        public RankingWeights getWeights() {
+            return weights;
+        }
+
+        public double[][] getScores() {
+            return scores;
+        }
+
+        public int[][] getOrders() {
+            return orders;
+        }
+    }
+
+    public static class Stats {
+        private final int startups;
+        private final long durationNanos;
+        private final int parallelism;
+
+        Stats(int startups, long durationNanos, int parallelism) {
+            this.startups = startups;
+            this.durationNanos = durationNanos;
+            this.parallelism = parallelism;
+        }
+
+        public int getStartups() {
+            return startups;
+        }
+
+        public long getDurationMillis() {
+            return durationNanos / 1_000_000;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public double getStartupsPerSecond() {
+            return durationNanos == 0 ? 0.0 : startups * 1_000_000_000.0 / durationNanos;
+        }
+    }
+
+    public StartupScoringPipeline(StartupRankingService rankingService,
+            @Value("${ranking.scoring.parallelism:0}") int parallelism) {
+        this.rankingService = rankingService;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("startup-scoring-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Score every row of a snapshot with the current profile and order the
+     * approved ones per metric
+     */
+    public Result score(StartupMetricsSnapshot metrics) {
+        return score(metrics, rankingService.getWeights());
+    }
+
+    public Result score(StartupMetricsSnapshot metrics, RankingWeights weights) {
+        long start = System.nanoTime();
+        double[][] scores = new double[RankingSnapshot.METRICS.length][metrics.size()];
+        int[][] orders = pool.invoke(new ScoreTask(weights, metrics, scores, 0, metrics.size()));
+
+        long elapsed = System.nanoTime() - start;
+        Stats stats = new Stats(metrics.size(), elapsed, pool.getParallelism());
+        lastRun = stats;
+        totalRuns.incrementAndGet();
+        totalStartups.addAndGet(metrics.size());
+        logger.debug("Scored {} startups in {} ms ({} startups/sec)", stats.getStartups(),
+                stats.getDurationMillis(), Math.round(stats.getStartupsPerSecond()));
+        return new Result(weights, scores, orders);
+    }
+
+    public Stats getLastRun() {
+        return lastRun;
+    }
+
+    public long getTotalRuns() {
+        return totalRuns.get();
+    }
+
+    public long getTotalStartups() {
+        return totalStartups.get();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static final class ScoreTask extends RecursiveTask<int[][]> {
+        // Tasks only ever live inside the pool; ForkJoinTask is Serializable by inheritance alone
+        private static final long serialVersionUID = 1L;
+
+        private final RankingWeights weights;
+        private final StartupMetricsSnapshot metrics;
+        private final double[][] scores;
+        private final int from;
+        private final int to;
+
+        ScoreTask(RankingWeights weights, StartupMetricsSnapshot metrics, double[][] scores, int from, int to) {
+            this.weights = weights;
+            this.metrics = metrics;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[][] compute() {
+            if (to - from <= MIN_PARTITION_SIZE) {
+                return scoreRange();
+            }
+            int mid = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(weights, metrics, scores, from, mid);
+            ScoreTask right = new ScoreTask(weights, metrics, scores, mid, to);
+            left.fork();
+            int[][] rightOrders = right.compute();
+            int[][] leftOrders = left.join();
+
+            int[][] merged = new int[scores.length][];
+            for (int m = 0; m < scores.length; m++) {
+                merged[m] = TopKSelector.merge(leftOrders[m], rightOrders[m],
+                        leftOrders[m].length + rightOrders[m].length, scores[m]);
+            }
+            return merged;
+        }
+
+        // One pass per row for all scores, then a per-metric ordering of this partition
+        private int[][] scoreRange() {
+            int[] approved = new int[to - from];
+            int count = 0;
+            for (int row = from; row < to; row++) {
+                double growth = StartupRankingService.growthScore(weights, metrics, row);
+                double investment = StartupRankingService.investmentScore(weights, metrics, row);
+                double ecosystem = StartupRankingService.ecosystemScore(weights, metrics, row);
+                double engagement = StartupRankingService.engagementScore(weights, metrics, row);
+                scores[0][row] = weights.overall(growth, investment, ecosystem, engagement);
+                scores[1][row] = growth;
+                scores[2][row] = investment;
+                scores[3][row] = ecosystem;
+                scores[4][row] = engagement;
+                if (metrics.approved[row]) {
+                    approved[count++] = row;
+                }
+            }
+
+            int[] candidates = Arrays.copyOf(approved, count);
+            int[][] orders = new int[scores.length][];
+            for (int m = 0; m < scores.length; m++) {
+                orders[m] = TopKSelector.selectTop(scores[m], candidates, count);
+            }
+            return orders;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.sendgrid.Response;
 import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
+import com.startupsphere.capstone.dtos.StartupSummaryDTO;
 import com.startupsphere.capstone.entity.Bookmarks;
 import com.startupsphere.capstone.entity.Like;
 import com.startupsphere.capstone.entity.Startup;
@@ -18,21 +19,34 @@ import com.startupsphere.capstone.repository.StartupRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 import com.startupsphere.capstone.repository.ViewsRepository;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
@@ -55,17 +69,56 @@ public class StartupService {
     private final ViewsRepository viewsRepository;
     private final LikeRepository likeRepository;
     private final BookmarksRepository bookmarksRepository;
+    private final StartupRankingService rankingService;
+    private final StartupFacetIndex facetIndex;
+    private final BlobStore blobStore;
+    private final PhotoVariantService photoVariantService;
+    private final ApplicationEventPublisher eventPublisher;
     // Removed JavaMailSender dependency
 
     public StartupService(
             StartupRepository startupRepository,
             ViewsRepository viewsRepository,
             LikeRepository likeRepository,
-            BookmarksRepository bookmarksRepository) {
+            BookmarksRepository bookmarksRepository,
+            StartupRankingService rankingService,
+            StartupFacetIndex facetIndex,
+            BlobStore blobStore,
+            PhotoVariantService photoVariantService,
+            ApplicationEventPublisher eventPublisher) {
         this.startupRepository = startupRepository;
         this.viewsRepository = viewsRepository;
         this.likeRepository = likeRepository;
         this.bookmarksRepository = bookmarksRepository;
+        this.rankingService = rankingService;
+        this.facetIndex = facetIndex;
+        this.blobStore = blobStore;
+        this.photoVariantService = photoVariantService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Rescore a saved startup and tell the in-memory read models to reload it after commit
+    private void changed(Startup saved) {
+        rankingService.refreshScore(saved);
+        eventPublisher.publishEvent(new StartupChangedEvent(List.of(saved.getId())));
+    }
+
+    private void removed(Long id) {
+        rankingService.removeScore(id);
+        eventPublisher.publishEvent(new StartupChangedEvent(List.of(id)));
+    }
+
+    /**
+     * Save the startups of a bulk upload in one batch and score them
+     */
+    @Transactional
+    @CacheEvict(value = {"startups", "startupById", "approvedStartups", "submittedStartups", "emailVerifiedStartups", "searchStartups", "filteredStartups"}, allEntries = true)
+    public List<Startup> saveUploadedStartups(List<Startup> startups) {
+        List<Startup> saved = startupRepository.saveAll(startups);
+        List<Long> ids = saved.stream().map(Startup::getId).collect(Collectors.toList());
+        rankingService.refreshScoresById(ids);
+        eventPublisher.publishEvent(new StartupChangedEvent(ids));
+        return saved;
     }
 
     @Transactional
@@ -75,7 +128,9 @@ public class StartupService {
 
         startup.setStatus("In Review");
         startup.setIsDraft(false);
-        return startupRepository.save(startup);
+        Startup saved = startupRepository.save(startup);
+        changed(saved);
+        return saved;
     }
 
     @Transactional
@@ -85,7 +140,9 @@ public class StartupService {
         startup.setIsDraft(true);
         startup.setStatus("Draft");
         startup.setEmailVerified(false);
-        return startupRepository.save(startup);
+        Startup saved = startupRepository.save(startup);
+        changed(saved);
+        return saved;
     }
 
     @Transactional
@@ -107,12 +164,14 @@ public class StartupService {
         
         draft.setIsDraft(false);
         draft.setStatus("In Review");
-        return startupRepository.save(draft);
+        Startup submitted = startupRepository.save(draft);
+        changed(submitted);
+        return submitted;
     }
 
     @Cacheable(value = "startups", key = "#pageable.pageNumber + '-' + #pageable.pageSize + '-' + #pageable.sort.toString()")
-    public Page<Startup> getAllStartups(Pageable pageable) {
-        return startupRepository.findAll(pageable);
+    public Page<StartupSummaryDTO> getAllStartups(Pageable pageable) {
+        return startupRepository.findAllSummaries(pageable);
     }
 
     public List<Startup> getAllStartups() {
@@ -206,7 +265,9 @@ public class StartupService {
                         startup.setRegistrationCertificate(updatedStartup.getRegistrationCertificate());
                     }
 
-                    return startupRepository.save(startup);
+                    Startup saved = startupRepository.save(startup);
+                    changed(saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Startup not found with id: " + id));
     }
@@ -232,6 +293,7 @@ public class StartupService {
 
             // Now safely delete the startup
             startupRepository.deleteById(id);
+            removed(id);
 
             logger.info("Successfully deleted startup with id: {}", id);
 
@@ -257,6 +319,7 @@ public class StartupService {
 
             // Now delete the startup
             startupRepository.delete(startup);
+            removed(id);
 
             logger.info("Successfully deleted startup with id: {}", id);
 
@@ -284,6 +347,7 @@ public class StartupService {
 
             // Delete the startup
             startupRepository.deleteById(id);
+            removed(id);
 
             logger.info("Successfully deleted startup with id: {}", id);
 
@@ -313,9 +377,9 @@ public class StartupService {
                 .toList();
     }
 
-    public Page<Startup> getAllSubmittedStartups(Pageable pageable) {
+    public Page<StartupSummaryDTO> getAllSubmittedStartups(Pageable pageable) {
         logger.info("Fetching paginated submitted startups (non-drafts only)");
-        return startupRepository.findByStatusAndIsDraftFalse("In Review", pageable);
+        return startupRepository.findSummariesByStatusAndIsDraftFalse("In Review", pageable);
     }
 
     public List<Startup> getAllSubmittedStartups() {
@@ -323,13 +387,13 @@ public class StartupService {
         return startupRepository.findByStatusAndIsDraftFalse("In Review");
     }
 
-    public List<Startup> getStartupsByLoggedInUser(Authentication authentication) {
+    public List<StartupSummaryDTO> getStartupsByLoggedInUser(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()
                 || authentication.getPrincipal().equals("anonymousUser")) {
             throw new RuntimeException("User not authenticated");
         }
         User loggedInUser = (User) authentication.getPrincipal();
-        return startupRepository.findByUser_Id(loggedInUser.getId());
+        return startupRepository.findSummariesByUserId(loggedInUser.getId());
     }
 
     public List<Startup> getDraftsByLoggedInUser(Authentication authentication) {
@@ -439,6 +503,7 @@ public class StartupService {
         existingDraft.setStatus("Draft");
         
         Startup saved = startupRepository.save(existingDraft);
+        changed(saved);
         logger.info("Successfully updated draft with ID: {}", id);
         return saved;
     }
@@ -461,6 +526,7 @@ public class StartupService {
         }
         
         startupRepository.delete(draft);
+        removed(id);
         logger.info("Successfully deleted draft with ID: {}", id);
     }
 
@@ -476,7 +542,7 @@ public class StartupService {
         String verificationCode = String.format("%06d", new Random().nextInt(999999));
         startup.setVerificationCode(verificationCode);
         startup.setEmailVerified(false);
-        startupRepository.save(startup);
+        changed(startupRepository.save(startup));
 
         // Use SendGrid configuration
         Email from = new Email(fromEmail, fromName);
@@ -527,12 +593,79 @@ public class StartupService {
 
         startup.setEmailVerified(true);
         startup.setVerificationCode(null);
-        startupRepository.save(startup);
+        changed(startupRepository.save(startup));
         logger.info("Email verified for startup ID: {}", startupId);
     }
 
-    public Page<Startup> getAllEmailVerifiedStartups(Pageable pageable) {
-        return startupRepository.findAllVerifiedEmailStartups(pageable);
+    /**
+     * Stream an uploaded photo into the blob store and point the startup at it.
+     * The content type is taken from the image bytes, never from the client.
+     *
+     * @throws IllegalArgumentException When the file is not a JPEG, PNG, GIF or WebP image
+     */
+    @Transactional
+    @CacheEvict(value = {"startups", "startupById", "approvedStartups", "submittedStartups", "emailVerifiedStartups", "searchStartups", "filteredStartups"}, allEntries = true)
+    public Startup storePhoto(Long id, MultipartFile photo) throws IOException {
+        Startup startup = startupRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Startup not found with id: " + id));
+        BlobStore.StoredBlob blob;
+        String contentType;
+        try (InputStream in = new BufferedInputStream(photo.getInputStream())) {
+            in.mark(ImageTypes.HEADER_LENGTH);
+            contentType = ImageTypes.detect(in.readNBytes(ImageTypes.HEADER_LENGTH));
+            if (contentType == null) {
+                throw new IllegalArgumentException("Photo must be a JPEG, PNG, GIF or WebP image");
+            }
+            in.reset();
+            blob = blobStore.put(in);
+        }
+        logger.info("Stored photo of startup ID: {} as blob {} ({} bytes)", id, blob.hash(), blob.size());
+        startup.setStoredPhoto(blob.hash(), blob.size(), contentType);
+        Startup saved = startupRepository.save(startup);
+        changed(saved);
+        photoVariantService.prepare(blob.hash());
+        return saved;
+    }
+
+    /**
+     * Stream an uploaded registration certificate into the blob store and point the startup at it
+     */
+    @Transactional
+    @CacheEvict(value = {"startups", "startupById", "approvedStartups", "submittedStartups", "emailVerifiedStartups", "searchStartups", "filteredStartups"}, allEntries = true)
+    public Startup storeRegistrationCertificate(Long id, MultipartFile certificate) throws IOException {
+        Startup startup = startupRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Startup not found with id: " + id));
+        BlobStore.StoredBlob blob;
+        String contentType;
+        try (InputStream in = new BufferedInputStream(certificate.getInputStream())) {
+            in.mark(ImageTypes.HEADER_LENGTH);
+            contentType = certificateType(in.readNBytes(ImageTypes.HEADER_LENGTH));
+            in.reset();
+            blob = blobStore.put(in);
+        }
+        logger.info("Stored registration certificate of startup ID: {} as blob {} ({} bytes, {})",
+                id, blob.hash(), blob.size(), contentType);
+        startup.setStoredRegistrationCertificate(blob.hash(), blob.size(), contentType);
+        Startup saved = startupRepository.save(startup);
+        eventPublisher.publishEvent(new StartupChangedEvent(List.of(id)));
+        return saved;
+    }
+
+    /**
+     * Content type of a certificate from its first bytes, never the one the
+     * client sent: a PDF or one of the photo types, anything else is served
+     * as an opaque download
+     */
+    static String certificateType(byte[] header) {
+        if (new String(header, 0, Math.min(header.length, 5), StandardCharsets.ISO_8859_1).equals("%PDF-")) {
+            return "application/pdf";
+        }
+        String imageType = ImageTypes.detect(header);
+        return imageType != null ? imageType : "application/octet-stream";
+    }
+
+    public Page<StartupSummaryDTO> getAllEmailVerifiedStartups(Pageable pageable) {
+        return startupRepository.findVerifiedEmailSummaries(pageable);
     }
 
     public List<Startup> getAllEmailVerifiedStartups() {
@@ -545,7 +678,9 @@ public class StartupService {
                 .orElseThrow(() -> new RuntimeException("Startup not found with id: " + id));
 
         startup.setStatus("Approved");
-        return startupRepository.save(startup);
+        Startup approved = startupRepository.save(startup);
+        changed(approved);
+        return approved;
     }
 
     @Transactional
@@ -554,11 +689,13 @@ public class StartupService {
                 .orElseThrow(() -> new RuntimeException("Startup not found with id: " + id));
 
         startup.setStatus("Rejected");
-        return startupRepository.save(startup);
+        Startup rejected = startupRepository.save(startup);
+        changed(rejected);
+        return rejected;
     }
 
-    public Page<Startup> getAllApprovedStartups(Pageable pageable) {
-        return startupRepository.findAllApprovedStartups(pageable);
+    public Page<StartupSummaryDTO> getAllApprovedStartups(Pageable pageable) {
+        return startupRepository.findApprovedSummaries(pageable);
     }
 
     public List<Startup> getAllApprovedStartups() {
@@ -615,7 +752,7 @@ public class StartupService {
         }
     }
 
-    public Page<Startup> getStartupsWithFilters(
+    public Page<StartupSummaryDTO> getStartupsWithFilters(
             String industry,
             String status,
             String region,
@@ -629,7 +766,7 @@ public class StartupService {
         LocalDateTime parsedEndDate = endDate != null ?
                 LocalDate.parse(endDate).atTime(23, 59, 59) : null;
 
-        return startupRepository.findStartupsWithFilters(
+        return startupRepository.findSummariesWithFilters(
                 industry,
                 status,
                 region,
@@ -640,6 +777,85 @@ public class StartupService {
         );
     }
 
+    /**
+     * Review page from the facet index: the page, its total and the industry,
+     * region and status counts under the same filters. Sorts the index cannot
+     * order by are paged by the database, which only knows the original filters.
+     *
+     * @param ranges Inclusive bounds on annual revenue, total funding and funding rounds
+     */
+    public Map<String, Object> getStartupsWithFacets(
+            String industry,
+            String status,
+            String region,
+            Boolean isDraft,
+            Boolean emailVerified,
+            String fundingStage,
+            Map<StartupFacetIndex.Metric, StartupFacetIndex.Range> ranges,
+            String search,
+            String startDate,
+            String endDate,
+            Pageable pageable) {
+
+        LocalDateTime parsedStartDate = startDate != null ?
+                LocalDate.parse(startDate).atStartOfDay() : null;
+        LocalDateTime parsedEndDate = endDate != null ?
+                LocalDate.parse(endDate).atTime(23, 59, 59) : null;
+
+        Map<StartupFacetIndex.Facet, String> filters = new EnumMap<>(StartupFacetIndex.Facet.class);
+        putFilter(filters, StartupFacetIndex.Facet.INDUSTRY, industry);
+        putFilter(filters, StartupFacetIndex.Facet.STATUS, status);
+        putFilter(filters, StartupFacetIndex.Facet.REGION, region);
+        putFilter(filters, StartupFacetIndex.Facet.IS_DRAFT, isDraft);
+        putFilter(filters, StartupFacetIndex.Facet.EMAIL_VERIFIED, emailVerified);
+        putFilter(filters, StartupFacetIndex.Facet.FUNDING_STAGE, fundingStage);
+
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(Sort.Order.desc("createdAt"));
+        ranges.forEach((metric, range) -> {
+            if (range.min() != null && range.max() != null && range.min() > range.max()) {
+                throw new IllegalArgumentException("Minimum " + metric.getKey() + " is above the maximum");
+            }
+        });
+
+        StartupFacetIndex.Result result = facetIndex.query(filters, ranges, search, parsedStartDate, parsedEndDate,
+                order.getProperty(), order.isAscending(), (int) pageable.getOffset(), pageable.getPageSize());
+
+        List<StartupSummaryDTO> content;
+        if (result.getIds() != null) {
+            Map<Long, StartupSummaryDTO> byId = new HashMap<>();
+            startupRepository.findSummariesByIds(result.getIds()).forEach(summary -> byId.put(summary.id(), summary));
+            content = result.getIds().stream().map(byId::get).filter(Objects::nonNull).toList();
+        } else if (Boolean.FALSE.equals(isDraft) && emailVerified == null && fundingStage == null
+                && ranges.isEmpty()) {
+            content = startupRepository.findSummariesWithFilters(industry, status, region, search,
+                    parsedStartDate, parsedEndDate, pageable).getContent();
+        } else {
+            throw new IllegalArgumentException("Cannot sort by " + order.getProperty()
+                    + " with draft, email verification, funding stage or metric filters");
+        }
+
+        Page<StartupSummaryDTO> page = new PageImpl<>(content, pageable, result.getTotal());
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("content", page.getContent());
+        response.put("totalElements", page.getTotalElements());
+        response.put("totalPages", page.getTotalPages());
+        response.put("number", page.getNumber());
+        response.put("size", page.getSize());
+        response.put("numberOfElements", page.getNumberOfElements());
+        response.put("first", page.isFirst());
+        response.put("last", page.isLast());
+        response.put("empty", page.isEmpty());
+        response.put("facets", result.getFacets());
+        return response;
+    }
+
+    private static void putFilter(Map<StartupFacetIndex.Facet, String> filters, StartupFacetIndex.Facet facet,
+            Object value) {
+        if (value != null) {
+            filters.put(facet, value.toString());
+        }
+    }
+
     public List<Startup> getStartupsWithFilters(
             String industry,
             String status,
@@ -9,6 +9,7 @@ import com.startupsphere.capstone.repository.StartupRepository;
 import com.startupsphere.capstone.repository.StartupStakeholderRepository;
 import com.startupsphere.capstone.responses.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +28,9 @@ public class StartupStakeholderService {
     @Autowired
     StakeholderRepository strepo;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
     @Autowired
     public StartupStakeholderService(StartupStakeholderRepository repository) {
         this.repository = repository;
@@ -72,6 +76,8 @@ public class StartupStakeholderService {
         startupStakeholder.setStatus(request.getStatus());
         startupStakeholder.setConnected(true); // Default to connected when created
         StartupStakeholder saved = repository.save(startupStakeholder);
+        // The stakeholder's link count weights its name suggestions
+        eventPublisher.publishEvent(new StakeholderChangedEvent(stakeholder.getId()));
         
         return new ApiResponse(true, "Stakeholder successfully added to startup", saved);
     }
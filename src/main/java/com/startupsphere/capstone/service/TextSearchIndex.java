@@ -0,0 +1,739 @@
+package com.startupsphere.capstone.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the names of one kind of document, answering the
+ * substring searches that used to be LIKE '%query%' full scans.
+ *
+ * Every word of a document is indexed both as a whole word and as its
+ * character trigrams, padded at the word start the way pg_trgm does ("  c",
+ * " ca", "cat", "at "). A query word of three or more characters then matches
+ * anywhere inside a word through its inner trigrams, and a shorter one matches
+ * word starts through the padded ones. Postings are sorted arrays of internal
+ * document numbers, so a query is an intersection of a few arrays.
+ *
+ * Each document has a primary text (the name) and an optional secondary one
+ * (e.g. the location); both are searchable, hits in the name rank higher.
+ *
+ * For misspelled queries there is a fuzzy mode, matching whole words within a
+ * small edit distance. The indexed words are themselves indexed by trigram, so
+ * the words near a query word are found from a few trigram lists of the
+ * vocabulary, which grows far slower than the documents do.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public final class TextSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int MAX_QUERY_WORDS = 8;
+
+    // Hits counted exactly; past this, hits that cannot make the page are no longer checked
+    private static final int TOTAL_HITS_THRESHOLD = 10_000;
+
+    // Documents of the rarest postings looked at before a query with a full page stops
+    private static final int MAX_SCANNED_DOCS = 20_000;
+
+    // Per query word: whole-word match, match at a word start and substring match in the name
+    private static final int EXACT_WORD_SCORE = 4;
+    private static final int NAME_PREFIX_SCORE = 2;
+    private static final int NAME_SUBSTRING_SCORE = 1;
+
+    // Fuzzy mode: closest indexed words kept per query word, and documents gathered per query word
+    private static final int MAX_FUZZY_TERMS = 64;
+    private static final int MAX_FUZZY_DOCS = 50_000;
+
+    private static final long DOC_MASK = 0x7FFFFFFFL;
+
+    /**
+     * One page of ranked hits
+     */
+    public static final class Hits {
+        private final List<Long> ids;
+        private final int total;
+        private final boolean totalExact;
+
+        Hits(List<Long> ids, int total, boolean totalExact) {
+            this.ids = ids;
+            this.total = total;
+            this.totalExact = totalExact;
+        }
+
+        // Document ids of the page, best first
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        // Number of matching documents over all pages; a lower bound when not exact
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean isTotalExact() {
+            return totalExact;
+        }
+    }
+
+    // Ascending document numbers
+    private static final class Postings {
+        int[] docs = new int[2];
+        int size;
+
+        void add(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            docs[at] = doc;
+            size++;
+        }
+
+        void remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0) {
+                System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+                size--;
+            }
+        }
+
+        // First position from "from" on holding a document not below doc, galloping ahead
+        int seek(int from, int doc) {
+            int step = 1;
+            int hi = from;
+            while (hi < size && docs[hi] < doc) {
+                from = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int at = Arrays.binarySearch(docs, from, Math.min(hi + 1, size), doc);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+
+    // An indexed word close to a fuzzy query word and what matching it costs
+    private static final class Term {
+        final Postings postings;
+        final int cost;
+
+        Term(Postings postings, int cost) {
+            this.postings = postings;
+            this.cost = cost;
+        }
+    }
+
+    private final Map<String, Postings> grams = new HashMap<>();
+    private final Map<String, Postings> words = new HashMap<>();
+    // Distinct indexed words by their padded trigrams
+    private final Map<String, Set<String>> wordsByGram = new HashMap<>();
+    private final Map<Long, Integer> docById = new HashMap<>();
+
+    // Per document number; numbers of removed documents are reused
+    private long[] ids = new long[16];
+    private String[] names = new String[16];
+    private String[] secondaries = new String[16];
+    private int[] nameLengths = new int[16];
+    // One bit per trigram of the name, hashed into 64: a cheap "might the name contain it?"
+    private long[] nameSignatures = new long[16];
+    private int[] free = new int[16];
+    private int freeCount;
+    private int docCount;
+
+    public int size() {
+        return docById.size();
+    }
+
+    public boolean contains(long id) {
+        return docById.containsKey(id);
+    }
+
+    /**
+     * Index a document, replacing any earlier version of it
+     */
+    public void put(long id, String name, String secondary) {
+        remove(id);
+        String normalizedName = normalize(name);
+        String normalizedSecondary = normalize(secondary);
+        if (normalizedName.isEmpty() && normalizedSecondary.isEmpty()) {
+            return;
+        }
+
+        int doc = freeCount > 0 ? free[--freeCount] : newDoc();
+        ids[doc] = id;
+        names[doc] = normalizedName;
+        secondaries[doc] = normalizedSecondary;
+        nameLengths[doc] = normalizedName.length();
+        nameSignatures[doc] = signature(NON_WORD.split(normalizedName));
+        docById.put(id, doc);
+        for (String word : wordsOf(normalizedName, normalizedSecondary)) {
+            Postings postings = words.get(word);
+            if (postings == null) {
+                postings = new Postings();
+                words.put(word, postings);
+                for (String gram : indexGrams(word)) {
+                    wordsByGram.computeIfAbsent(gram, k -> new HashSet<>()).add(word);
+                }
+            }
+            postings.add(doc);
+            for (String gram : indexGrams(word)) {
+                grams.computeIfAbsent(gram, k -> new Postings()).add(doc);
+            }
+        }
+    }
+
+    public void remove(long id) {
+        Integer doc = docById.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String word : wordsOf(names[doc], secondaries[doc])) {
+            boolean lastUse = unpost(words, word, doc);
+            for (String gram : indexGrams(word)) {
+                unpost(grams, gram, doc);
+                if (lastUse) {
+                    Set<String> gramWords = wordsByGram.get(gram);
+                    if (gramWords != null && gramWords.remove(word) && gramWords.isEmpty()) {
+                        wordsByGram.remove(gram);
+                    }
+                }
+            }
+        }
+        names[doc] = null;
+        secondaries[doc] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = doc;
+    }
+
+    public void clear() {
+        grams.clear();
+        words.clear();
+        wordsByGram.clear();
+        docById.clear();
+        ids = new long[16];
+        names = new String[16];
+        secondaries = new String[16];
+        nameLengths = new int[16];
+        nameSignatures = new long[16];
+        freeCount = 0;
+        docCount = 0;
+    }
+
+    /**
+     * Documents containing every word of the query, best first: whole-word hits
+     * before word-start hits before hits inside a word, hits in the name before
+     * hits elsewhere, then shorter names first. Like search engines do, hits are
+     * only counted exactly up to a threshold, and a query whose page is full
+     * stops after a bounded number of documents, so very broad queries stay
+     * fast; their page is then the best of the documents looked at, and the
+     * total a lower bound.
+     *
+     * @param offset Number of hits to skip
+     * @param limit  Maximum number of hits to return
+     */
+    public Hits search(String query, int offset, int limit) {
+        List<String> queryWords = queryWords(query);
+        if (queryWords.isEmpty()) {
+            return new Hits(List.of(), 0, true);
+        }
+
+        // Every gram of every query word must be present; the rarest postings lead
+        // and the others are only checked for their documents
+        List<Postings> required = new ArrayList<>();
+        for (String word : queryWords) {
+            for (String gram : queryGrams(word)) {
+                Postings postings = grams.get(gram);
+                if (postings == null) {
+                    return new Hits(List.of(), 0, true);
+                }
+                if (!required.contains(postings)) {
+                    required.add(postings);
+                }
+            }
+        }
+        required.sort((a, b) -> Integer.compare(a.size, b.size));
+        Postings lead = required.get(0);
+        int[] requiredAt = new int[required.size()];
+
+        // Whole-word postings, walked alongside the ascending documents, and the
+        // name signature bits each query word needs inside a name and at a word start
+        Postings[] exactWords = new Postings[queryWords.size()];
+        int[] exactAt = new int[queryWords.size()];
+        long[] inNameBits = new long[queryWords.size()];
+        long[] startBits = new long[queryWords.size()];
+        for (int w = 0; w < exactWords.length; w++) {
+            String word = queryWords.get(w);
+            exactWords[w] = words.get(word);
+            inNameBits[w] = signature(queryGrams(word));
+            // Short query words are matched by their padded start grams already
+            startBits[w] = word.length() < 3 ? inNameBits[w] : inNameBits[w] | signatureBit(" " + word.substring(0, 2));
+        }
+
+        // Best hits so far by sort key: inverted score, then name length, then document number
+        int wanted = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        long[] best = new long[Math.min(wanted, lead.size)];
+        int bestCount = 0;
+        int matches = 0;
+        boolean totalExact = true;
+        for (int i = 0; i < lead.size; i++) {
+            if (i >= MAX_SCANNED_DOCS && bestCount == best.length) {
+                // A broad query with its page filled: the rest is neither ranked nor counted
+                totalExact = false;
+                break;
+            }
+            int doc = lead.docs[i];
+            if (!containsDoc(required, requiredAt, doc)) {
+                continue;
+            }
+            long nameSignature = nameSignatures[doc];
+            int exactScore = 0;
+            int maxNameScore = 0;
+            int unverified = 0; // Bits of the query words still to find in the text
+            for (int w = 0; w < exactWords.length; w++) {
+                if ((nameSignature & startBits[w]) == startBits[w]) {
+                    maxNameScore += NAME_PREFIX_SCORE;
+                } else if ((nameSignature & inNameBits[w]) == inNameBits[w]) {
+                    maxNameScore += NAME_SUBSTRING_SCORE;
+                }
+                if (exactWords[w] != null && (exactAt[w] = exactWords[w].seek(exactAt[w], doc)) < exactWords[w].size
+                        && exactWords[w].docs[exactAt[w]] == doc) {
+                    exactScore += EXACT_WORD_SCORE;
+                } else if (queryWords.get(w).length() > 3) {
+                    // Longer words can have all their trigrams without containing the word
+                    unverified |= 1 << w;
+                }
+            }
+
+            // Only look at the text when the hit could still make the page, or to count it
+            boolean competitive = bestCount < best.length
+                    || (bestCount > 0 && key(exactScore + maxNameScore, nameLengths[doc], doc) < best[0]);
+            if (!competitive && matches >= TOTAL_HITS_THRESHOLD) {
+                totalExact = false;
+                continue;
+            }
+            if (unverified != 0 && !containsAll(doc, queryWords, unverified)) {
+                continue;
+            }
+            matches++;
+            if (!competitive) {
+                continue;
+            }
+
+            long key = key(exactScore + nameScore(names[doc], queryWords), nameLengths[doc], doc);
+            if (bestCount < best.length) {
+                best[bestCount++] = key;
+                siftUp(best, bestCount - 1);
+            } else if (key < best[0]) {
+                best[0] = key;
+                siftDown(best, bestCount);
+            }
+        }
+
+        return page(best, bestCount, offset, matches, totalExact);
+    }
+
+    /**
+     * Documents with a word close to every word of the query, for queries with
+     * typos: each query word matches indexed words within one edit when it has
+     * three to five characters, two when longer, and only itself when shorter.
+     * Best first: fewest edits, then most trigrams in common (Dice), then
+     * shorter names.
+     *
+     * Only the closest words per query word are kept, and only a bounded number
+     * of their documents gathered, so the cost of a query does not grow with the
+     * catalog; the total is not exact when that bound cut documents off.
+     *
+     * @param offset Number of hits to skip
+     * @param limit  Maximum number of hits to return
+     */
+    public Hits fuzzySearch(String query, int offset, int limit) {
+        List<String> queryWords = queryWords(query);
+        if (queryWords.isEmpty()) {
+            return new Hits(List.of(), 0, true);
+        }
+
+        // Per query word: (document << 32 | cost) of the documents holding a close word
+        boolean totalExact = true;
+        List<long[]> perWord = new ArrayList<>(queryWords.size());
+        for (String word : queryWords) {
+            List<Term> terms = fuzzyTerms(word);
+            int gathered = 0;
+            for (Term term : terms) {
+                gathered += term.postings.size;
+            }
+            if (gathered > MAX_FUZZY_DOCS) {
+                totalExact = false;
+            }
+            long[] matches = new long[Math.min(gathered, MAX_FUZZY_DOCS)];
+            int count = 0;
+            for (int t = 0; t < terms.size() && count < matches.length; t++) {
+                Postings postings = terms.get(t).postings;
+                for (int i = 0; i < postings.size && count < matches.length; i++) {
+                    matches[count++] = (long) postings.docs[i] << 32 | terms.get(t).cost;
+                }
+            }
+            if (count == 0) {
+                return new Hits(List.of(), 0, true);
+            }
+            perWord.add(cheapestPerDoc(matches));
+        }
+
+        // Documents matching every word, smallest list first, with the costs summed
+        perWord.sort(Comparator.comparingInt(matches -> matches.length));
+        long[] candidates = perWord.get(0);
+        int count = candidates.length;
+        for (int w = 1; w < perWord.size() && count > 0; w++) {
+            count = intersect(candidates, count, perWord.get(w));
+        }
+
+        int wanted = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        long[] best = new long[Math.min(wanted, count)];
+        int bestCount = 0;
+        for (int i = 0; i < count; i++) {
+            int doc = (int) (candidates[i] >>> 32);
+            long key = (candidates[i] & 0xFFFF) << 47 | (long) Math.min(nameLengths[doc], 0xFFFF) << 31 | doc;
+            if (bestCount < best.length) {
+                best[bestCount++] = key;
+                siftUp(best, bestCount - 1);
+            } else if (bestCount > 0 && key < best[0]) {
+                best[0] = key;
+                siftDown(best, bestCount);
+            }
+        }
+        return page(best, bestCount, offset, count, totalExact);
+    }
+
+    // Ids of the hits past the offset, from a heap of sort keys ending in document numbers
+    private Hits page(long[] best, int bestCount, int offset, int matches, boolean totalExact) {
+        if (offset >= bestCount) {
+            return new Hits(List.of(), matches, totalExact);
+        }
+        Arrays.sort(best, 0, bestCount);
+        List<Long> page = new ArrayList<>(bestCount - offset);
+        for (int i = offset; i < bestCount; i++) {
+            page.add(ids[(int) (best[i] & DOC_MASK)]);
+        }
+        return new Hits(page, matches, totalExact);
+    }
+
+    // Indexed words within the edits allowed for a query word, cheapest first
+    private List<Term> fuzzyTerms(String word) {
+        int maxEdits = word.length() < 3 ? 0 : word.length() < 6 ? 1 : 2;
+        if (maxEdits == 0) {
+            Postings postings = words.get(word);
+            return postings == null ? List.of() : List.of(new Term(postings, 0));
+        }
+
+        // An edit changes at most three trigrams, so a close word shares at least
+        // this many of the query word's, and with it one of the rarest beyond that
+        List<String> queryGrams = new ArrayList<>(new LinkedHashSet<>(indexGrams(word)));
+        int shared = Math.max(1, queryGrams.size() - 3 * maxEdits);
+        queryGrams.sort(Comparator.comparingInt(gram -> wordsByGram.getOrDefault(gram, Set.of()).size()));
+        Set<String> candidates = new HashSet<>();
+        for (String gram : queryGrams.subList(0, queryGrams.size() - shared + 1)) {
+            candidates.addAll(wordsByGram.getOrDefault(gram, Set.of()));
+        }
+
+        Set<String> gramSet = new HashSet<>(queryGrams);
+        List<Term> terms = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (Math.abs(candidate.length() - word.length()) > maxEdits) {
+                continue;
+            }
+            int distance = editDistance(word, candidate, maxEdits);
+            if (distance <= maxEdits) {
+                int dissimilarity = 1023 - (int) (dice(gramSet, candidate) * 1023);
+                terms.add(new Term(words.get(candidate), distance * 1024 + dissimilarity));
+            }
+        }
+        terms.sort(Comparator.comparingInt(term -> term.cost));
+        return terms.size() > MAX_FUZZY_TERMS ? terms.subList(0, MAX_FUZZY_TERMS) : terms;
+    }
+
+    // Share of distinct padded trigrams two words have in common, 1 for the same word
+    private static double dice(Set<String> queryGrams, String word) {
+        Set<String> wordGrams = new HashSet<>(indexGrams(word));
+        int common = 0;
+        for (String gram : wordGrams) {
+            if (queryGrams.contains(gram)) {
+                common++;
+            }
+        }
+        return 2.0 * common / (queryGrams.size() + wordGrams.size());
+    }
+
+    /**
+     * Levenshtein distance, or max + 1 as soon as it is known to exceed max
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    // Sorted, one entry per document: the cheapest, which sorts first
+    private static long[] cheapestPerDoc(long[] matches) {
+        Arrays.sort(matches);
+        int kept = 0;
+        for (int i = 0; i < matches.length; i++) {
+            if (kept == 0 || matches[i] >>> 32 != matches[kept - 1] >>> 32) {
+                matches[kept++] = matches[i];
+            }
+        }
+        return Arrays.copyOf(matches, kept);
+    }
+
+    // Keep the candidates also in the other list, adding its cost to theirs
+    private static int intersect(long[] candidates, int count, long[] other) {
+        int kept = 0;
+        int at = 0;
+        for (int i = 0; i < count && at < other.length; i++) {
+            long doc = candidates[i] >>> 32;
+            while (at < other.length && other[at] >>> 32 < doc) {
+                at++;
+            }
+            if (at < other.length && other[at] >>> 32 == doc) {
+                candidates[kept++] = candidates[i] + (other[at] & 0xFFFFFFFFL);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Lower-case, accent-free form of a text; both documents and queries go
+     * through it so "Café" is found by "cafe"
+     */
+    static String normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        if (isAscii(text)) {
+            return text.toLowerCase(Locale.ROOT).trim();
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<String> queryWords(String query) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String word : NON_WORD.split(normalize(query))) {
+            if (!word.isEmpty() && distinct.size() < MAX_QUERY_WORDS) {
+                distinct.add(word);
+            }
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    // Padded trigrams of an indexed word
+    static List<String> indexGrams(String word) {
+        String padded = "  " + word + " ";
+        List<String> result = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    // Inner trigrams of a query word, or its padded start when it is shorter than three
+    static List<String> queryGrams(String word) {
+        if (word.length() < 3) {
+            return List.of(("  " + word).substring(word.length() - 1));
+        }
+        List<String> result = new ArrayList<>(word.length() - 2);
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            result.add(word.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    // Signature bits of the padded trigrams of some words, or of some trigrams
+    private static long signature(String[] textWords) {
+        long signature = 0;
+        for (String word : textWords) {
+            if (!word.isEmpty()) {
+                signature |= signature(indexGrams(word));
+            }
+        }
+        return signature;
+    }
+
+    private static long signature(List<String> grams) {
+        long signature = 0;
+        for (String gram : grams) {
+            signature |= signatureBit(gram);
+        }
+        return signature;
+    }
+
+    private static long signatureBit(String gram) {
+        return 1L << ((gram.hashCode() * 0x9E3779B9) >>> 26);
+    }
+
+    private boolean containsAll(int doc, List<String> queryWords, int wordBits) {
+        for (int w = 0; w < queryWords.size(); w++) {
+            if ((wordBits & (1 << w)) != 0 && !names[doc].contains(queryWords.get(w))
+                    && !secondaries[doc].contains(queryWords.get(w))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Name part of the score: each query word starting a word of the name, or inside
+    // one; words shorter than three characters only count at word starts, as they match
+    private static int nameScore(String name, List<String> queryWords) {
+        int score = 0;
+        for (String word : queryWords) {
+            int at = name.indexOf(word);
+            if (at >= 0 && startsWord(name, word, at)) {
+                score += NAME_PREFIX_SCORE;
+            } else if (at >= 0 && word.length() >= 3) {
+                score += NAME_SUBSTRING_SCORE;
+            }
+        }
+        return score;
+    }
+
+    private static boolean startsWord(String text, String word, int from) {
+        for (int at = from; at >= 0; at = text.indexOf(word, at + 1)) {
+            if (at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long key(int score, int nameLength, int doc) {
+        return ((long) (0x7FFF - score) << 48) | ((long) Math.min(nameLength, 0xFFFF) << 32) | doc;
+    }
+
+    // Whether the postings after the leading ones all hold the document; each is
+    // walked forward from its position, as documents are asked for in ascending order
+    private static boolean containsDoc(List<Postings> required, int[] at, int doc) {
+        for (int p = 1; p < required.size(); p++) {
+            Postings postings = required.get(p);
+            at[p] = postings.seek(at[p], doc);
+            if (at[p] == postings.size || postings.docs[at[p]] != doc) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Max-heap on the worst of the best hits, so it is the one replaced
+    private static void siftUp(long[] heap, int at) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (heap[parent] >= heap[at]) {
+                return;
+            }
+            swap(heap, parent, at);
+            at = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int at = 0;
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[at] >= heap[child]) {
+                return;
+            }
+            swap(heap, at, child);
+            at = child;
+        }
+    }
+
+    private static void swap(long[] heap, int i, int j) {
+        long tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private static Set<String> wordsOf(String name, String secondary) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String text : new String[] { name, secondary }) {
+            for (String word : NON_WORD.split(text)) {
+                if (!word.isEmpty()) {
+                    result.add(word);
+                }
+            }
+        }
+        return result;
+    }
+
+    // True when that was the key's last document
+    private static boolean unpost(Map<String, Postings> index, String key, int doc) {
+        Postings postings = index.get(key);
+        if (postings != null) {
+            postings.remove(doc);
+            if (postings.size == 0) {
+                index.remove(key);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int newDoc() {
+        if (docCount == ids.length) {
+            int capacity = docCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            secondaries = Arrays.copyOf(secondaries, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+            nameSignatures = Arrays.copyOf(nameSignatures, capacity);
+        }
+        return docCount++;
+    }
+}
@@ -0,0 +1,181 @@
+package com.startupsphere.capstone.service;
+
+/**
+ * Bounded top-K selection over scores, best first.
+ *
+ * Keeps a min-heap of the K best candidates seen so far, so selecting K out of N
+ * costs O(N log K) instead of sorting all N. Ties are broken by position (earlier
+ * wins), which gives exactly the order of a stable descending sort such as
+ * {@code sorted(Comparator.comparingDouble(score).reversed())}.
+ *
+ * The ranking snapshot asks for every candidate (K = N), which makes this a heap
+ * sort: it orders each metric and industry once per build, and ranking pages are
+ * then cut from that order without selecting anything per request. Only the
+ * weight profile comparison, which builds its two lists on demand, selects a
+ * bounded K and counts ranks with {@link #ranks}.
+ */
+public final class TopKSelector {
+
+    private TopKSelector() {
+    }
+
+    /**
+     * Select the indices of the k highest scores
+     *
+     * @return At most k indices ordered by descending score, ties by ascending index
+     */
+    public static int[] selectTop(double[] scores, int k) {
+        return selectRange(scores, 0, scores.length, k);
+    }
+
+    /**
+     * Select the k highest scores among a subset of indices, e.g. one industry
+     *
+     * @param candidates Indices into scores
+     */
+    public static int[] selectTop(double[] scores, int[] candidates, int k) {
+        int capacity = Math.min(Math.max(k, 0), candidates.length);
+        int[] heap = new int[capacity];
+        int size = 0;
+        if (capacity == 0) {
+            return heap;
+        }
+        for (int index : candidates) {
+            size = offer(heap, size, index, scores);
+        }
+        return drain(heap, size, scores);
+    }
+
+    private static int[] selectRange(double[] scores, int from, int to, int k) {
+        int capacity = Math.min(Math.max(k, 0), to - from);
+        int[] heap = new int[Math.max(capacity, 0)];
+        int size = 0;
+        if (capacity <= 0) {
+            return heap;
+        }
+        for (int i = from; i < to; i++) {
+            size = offer(heap, size, i, scores);
+        }
+        return drain(heap, size, scores);
+    }
+
+    /**
+     * Merge two best-first index arrays, keeping at most k entries, e.g. the
+     * orders of two scoring partitions
+     */
+    static int[] merge(int[] left, int[] right, int k, double[] scores) {
+        int[] merged = new int[Math.min(k, left.length + right.length)];
+        int l = 0;
+        int r = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (r >= right.length || (l < left.length && isBetter(left[l], right[r], scores))) {
+                merged[i] = left[l++];
+            } else {
+                merged[i] = right[r++];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * One-based rank of each of a few rows among all candidates, as it would be
+     * in the full order, without sorting the candidates: O(N log K) for K rows
+     *
+     * @param rows       Rows to rank, each one of the candidates
+     * @param candidates Indices into scores
+     * @return Rank of rows[i] at index i
+     */
+    public static int[] ranks(double[] scores, int[] rows, int[] candidates) {
+        int[] ordered = selectTop(scores, rows, rows.length);
+        // beaten[p]: candidates better than ordered[p] but not better than ordered[p - 1]
+        int[] beaten = new int[ordered.length];
+        for (int candidate : candidates) {
+            int low = 0;
+            int high = ordered.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (isBetter(candidate, ordered[mid], scores)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            if (low < ordered.length) {
+                beaten[low]++;
+            }
+        }
+        int[] rankOfRow = new int[scores.length];
+        int better = 0;
+        for (int p = 0; p < ordered.length; p++) {
+            better += beaten[p];
+            rankOfRow[ordered[p]] = better + 1;
+        }
+        int[] ranks = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            ranks[i] = rankOfRow[rows[i]];
+        }
+        return ranks;
+    }
+
+    // Root of the heap is always the worst candidate kept so far
+    private static int offer(int[] heap, int size, int index, double[] scores) {
+        if (size < heap.length) {
+            heap[size] = index;
+            siftUp(heap, size, scores);
+            return size + 1;
+        }
+        if (isBetter(index, heap[0], scores)) {
+            heap[0] = index;
+            siftDown(heap, 0, size, scores);
+        }
+        return size;
+    }
+
+    // In-place heap sort: repeatedly moving the worst to the end leaves the best first
+    private static int[] drain(int[] heap, int size, double[] scores) {
+        for (int end = size - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, 0, end, scores);
+        }
+        return heap;
+    }
+
+    private static void siftUp(int[] heap, int position, double[] scores) {
+        int index = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!isBetter(heap[parent], index, scores)) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = index;
+    }
+
+    private static void siftDown(int[] heap, int position, int size, double[] scores) {
+        int index = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && isBetter(heap[child], heap[right], scores)) {
+                child = right;
+            }
+            if (!isBetter(index, heap[child], scores)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = index;
+    }
+
+    // Higher score wins, equal scores keep their original order
+    static boolean isBetter(int a, int b, double[] scores) {
+        int cmp = Double.compare(scores[a], scores[b]);
+        return cmp > 0 || (cmp == 0 && a < b);
+    }
+}
@@ -25,10 +25,12 @@ import java.util.Optional;
 public class ViewsService {
 
     private final ViewsRepository viewsRepository;
+    private final StartupRankingService rankingService;
 
     @Autowired
-    public ViewsService(ViewsRepository viewsRepository) {
+    public ViewsService(ViewsRepository viewsRepository, StartupRankingService rankingService) {
         this.viewsRepository = viewsRepository;
+        this.rankingService = rankingService;
     }
 
     // Create a view
@@ -42,7 +44,9 @@ public class ViewsService {
 
         // Create and save the view
         Views view = new Views(user, startup, Instant.now());
-        return viewsRepository.save(view);
+        Views saved = viewsRepository.save(view);
+        rankingService.refreshScore(startup.getId());
+        return saved;
     }
 
     // Create or update a view
@@ -0,0 +1,85 @@
+package com.startupsphere.capstone.benchmark;
+
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
+import com.startupsphere.capstone.service.RankingSnapshot;
+import com.startupsphere.capstone.service.StartupMetricsSnapshot;
+import com.startupsphere.capstone.service.StartupRankingService;
+import com.startupsphere.capstone.service.StartupScoringPipeline;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds a full ranking snapshot (all scores, every metric order) sequentially
+ * and with the fork-join {@link StartupScoringPipeline}.
+ *
+ * Run from the IDE via {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ScoringPipelineBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int startupCount;
+
+    @Param({"1", "4", "8"})
+    public int parallelism;
+
+    private final StartupRankingService rankingService = new StartupRankingService(null, null, null, null, null);
+
+    private StartupScoringPipeline pipeline;
+
+    private StartupMetricsSnapshot metrics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<StartupMetricsDTO> rows = new ArrayList<>(startupCount);
+        for (long id = 1; id <= startupCount; id++) {
+            rows.add(new StartupMetricsDTO(id, "Startup " + id, "Industry " + random.nextInt(12), "Approved",
+                    random.nextDouble() * 500_000_000, random.nextDouble() * 120, random.nextDouble() * 100,
+                    random.nextDouble() * 100_000_000, random.nextDouble() * 100_000_000, random.nextInt(12),
+                    random.nextInt(2), random.nextDouble() * 50_000_000, random.nextInt(2), random.nextInt(60),
+                    random.nextInt(25), random.nextInt(12_000), random.nextInt(150), random.nextInt(80),
+                    random.nextInt(16), random.nextInt(6)));
+        }
+        metrics = StartupMetricsSnapshot.of(rows);
+        pipeline = new StartupScoringPipeline(rankingService, parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Benchmark
+    public RankingSnapshot sequential() {
+        double[][] scores = new double[RankingSnapshot.METRICS.length][];
+        for (int m = 0; m < scores.length; m++) {
+            scores[m] = rankingService.scoreColumn(metrics, RankingSnapshot.METRICS[m]);
+        }
+        return RankingSnapshot.build(1, rankingService.getWeights(), metrics, scores);
+    }
+
+    @Benchmark
+    public RankingSnapshot forkJoinPipeline() {
+        StartupScoringPipeline.Result result = pipeline.score(metrics);
+        return RankingSnapshot.fromOrders(1, result.getWeights(), metrics, result.getScores(), result.getOrders());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ScoringPipelineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
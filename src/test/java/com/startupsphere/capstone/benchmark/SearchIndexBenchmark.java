@@ -0,0 +1,119 @@
+package com.startupsphere.capstone.benchmark;
+
+import com.startupsphere.capstone.service.TextSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency of {@link TextSearchIndex} over synthetic startup names built
+ * from a skewed vocabulary, for word prefixes, whole words, two-word queries and
+ * location prefixes, and of fuzzy search for the same words with typos.
+ * Sample mode reports the percentiles, p99 included.
+ *
+ * Run from the IDE via {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class SearchIndexBenchmark {
+
+    private static final String[] CITIES = {"Cebu City", "Mandaue", "Lapu-Lapu", "Talisay", "Makati", "Taguig",
+            "Davao City", "Iloilo", "Quezon City", "Pasig"};
+    private static final String[] SUFFIXES = {"tech", "labs", "ion", "ify", "hub"};
+
+    @Param({"100000", "1000000"})
+    public int documentCount;
+
+    private TextSearchIndex index;
+
+    private String[] vocabulary;
+
+    private String[] queries;
+
+    private String[] misspelledQueries;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        vocabulary = new String[20_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int syllable = 2 + random.nextInt(3); syllable > 0; syllable--) {
+                word.append("bcdfghjklmnprstvwyz".charAt(random.nextInt(19))).append("aeiou".charAt(random.nextInt(5)));
+            }
+            if (random.nextInt(4) == 0) {
+                word.append(SUFFIXES[random.nextInt(SUFFIXES.length)]);
+            }
+            vocabulary[i] = word.toString();
+        }
+
+        index = new TextSearchIndex();
+        for (long id = 1; id <= documentCount; id++) {
+            StringBuilder name = new StringBuilder(word(random));
+            for (int words = random.nextInt(3); words > 0; words--) {
+                name.append(' ').append(word(random));
+            }
+            index.put(id, name.toString(), CITIES[random.nextInt(CITIES.length)]);
+        }
+
+        queries = new String[4096];
+        for (int i = 0; i < queries.length; i++) {
+            String word = word(random);
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                queries[i] = word.substring(0, 1 + random.nextInt(word.length()));
+            } else if (kind < 8) {
+                queries[i] = word + " " + vocabulary[random.nextInt(vocabulary.length)].substring(0, 2);
+            } else if (kind < 9) {
+                queries[i] = CITIES[random.nextInt(CITIES.length)].substring(0, 4);
+            } else {
+                queries[i] = vocabulary[random.nextInt(vocabulary.length)];
+            }
+        }
+
+        misspelledQueries = new String[4096];
+        for (int i = 0; i < misspelledQueries.length; i++) {
+            StringBuilder typo = new StringBuilder(word(random));
+            int at = random.nextInt(typo.length());
+            switch (random.nextInt(3)) {
+                case 0 -> typo.setCharAt(at, "aeiou".charAt(random.nextInt(5)));
+                case 1 -> typo.deleteCharAt(at);
+                default -> typo.insert(at, 'y');
+            }
+            misspelledQueries[i] = typo.toString();
+        }
+    }
+
+    // Common words far more often than rare ones
+    private String word(Random random) {
+        return vocabulary[(int) (Math.pow(random.nextDouble(), 3) * vocabulary.length)];
+    }
+
+    @Benchmark
+    public TextSearchIndex.Hits firstPage() {
+        next = (next + 1) & (queries.length - 1);
+        return index.search(queries[next], 0, 20);
+    }
+
+    @Benchmark
+    public TextSearchIndex.Hits fuzzyFirstPage() {
+        next = (next + 1) & (misspelledQueries.length - 1);
+        return index.fuzzySearch(misspelledQueries[next], 0, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SearchIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
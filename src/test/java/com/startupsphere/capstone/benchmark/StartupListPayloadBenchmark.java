@@ -0,0 +1,146 @@
+package com.startupsphere.capstone.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.startupsphere.capstone.dtos.StartupSummaryDTO;
+import com.startupsphere.capstone.entity.Startup;
+import com.startupsphere.capstone.entity.User;
+import jakarta.persistence.OneToMany;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one list page of startups as full entities, the way the list
+ * endpoints used to return them, against {@link StartupSummaryDTO} projections.
+ * Times the JSON serialization and prints, once per trial, the response bytes
+ * and the column bytes each page reads from the database (LOBs and the joined
+ * owner row included for entities).
+ *
+ * Run from the IDE via {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx2g"})
+public class StartupListPayloadBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"64", "512"})
+    public int photoKilobytes;
+
+    private final ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+
+    private List<Startup> entities;
+
+    private List<StartupSummaryDTO> summaries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        User owner = new User("Ana", "Reyes", "ana@example.com", "secret", "USER");
+        entities = new ArrayList<>();
+        summaries = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            Startup startup = new Startup();
+            startup.setId(id);
+            startup.setUser(owner);
+            startup.setCompanyName("Startup " + id);
+            startup.setIndustry("Technology");
+            startup.setStatus("Approved");
+            startup.setRegion("Region VII");
+            startup.setCity("Cebu City");
+            startup.setContactEmail("hello" + id + "@example.com");
+            startup.setCompanyDescription("A company description. ".repeat(200));
+            byte[] photo = new byte[photoKilobytes * 1024];
+            random.nextBytes(photo);
+            startup.setPhoto(photo);
+            byte[] certificate = new byte[256 * 1024];
+            random.nextBytes(certificate);
+            startup.setRegistrationCertificate(certificate);
+            startup.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(id));
+            entities.add(startup);
+            summaries.add(new StartupSummaryDTO(id, startup.getCompanyName(), startup.getIndustry(),
+                    startup.getStatus(), startup.getRegion(), startup.getCity(), null, null, null, null, null, null,
+                    null, startup.getContactEmail(), null, 0, 0, 0, false, false, true, null, true, null,
+                    startup.getCreatedAt(), null));
+        }
+
+        long entityColumns = 0;
+        long summaryColumns = 0;
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            entityColumns += columnBytes(entities.get(i)) + columnBytes(owner);
+            summaryColumns += recordBytes(summaries.get(i));
+        }
+        System.out.printf("%n%d KB photos, page of %d: response %,d B as entities, %,d B as summaries; "
+                + "columns read %,d B as entities, %,d B as summaries%n", photoKilobytes, PAGE_SIZE,
+                mapper.writeValueAsBytes(entities).length, mapper.writeValueAsBytes(summaries).length,
+                entityColumns, summaryColumns);
+    }
+
+    @Benchmark
+    public byte[] entityPage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] summaryPage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(summaries);
+    }
+
+    // Bytes of every mapped column of an entity row, collections left out
+    private static long columnBytes(Object entity) throws IllegalAccessException {
+        long total = 0;
+        for (Field field : entity.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isAnnotationPresent(OneToMany.class)
+                    || field.getType() == User.class || List.class.isAssignableFrom(field.getType())) {
+                continue;
+            }
+            field.setAccessible(true);
+            total += valueBytes(field.get(entity));
+        }
+        return total;
+    }
+
+    private static long recordBytes(Record record) throws ReflectiveOperationException {
+        long total = 0;
+        for (RecordComponent component : record.getClass().getRecordComponents()) {
+            total += valueBytes(component.getAccessor().invoke(record));
+        }
+        return total;
+    }
+
+    private static long valueBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (value instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return 8;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StartupListPayloadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.startupsphere.capstone.benchmark;
+
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
+import com.startupsphere.capstone.entity.Startup;
+import com.startupsphere.capstone.service.StartupMetricsSnapshot;
+import com.startupsphere.capstone.service.StartupRankingService;
+import com.startupsphere.capstone.service.TopKSelector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the old sort-everything path of /api/rankings/top with the bounded
+ * heap selection in {@link TopKSelector} that builds the ranking snapshot, over
+ * synthetic approved startups scored from a columnar {@link StartupMetricsSnapshot}.
+ *
+ * Run from the IDE via {@link #main(String[])} after {@code mvn test-compile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class TopKSelectorBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int startupCount;
+
+    @Param({"10"})
+    public int limit;
+
+    private final StartupRankingService rankingService = new StartupRankingService(null, null, null, null, null);
+
+    private List<Startup> startups;
+
+    private double[] scores;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        startups = new ArrayList<>(startupCount);
+        List<StartupMetricsDTO> rows = new ArrayList<>(startupCount);
+        for (long id = 1; id <= startupCount; id++) {
+            Startup startup = new Startup();
+            startup.setId(id);
+            startup.setStatus("Approved");
+            startup.setCompanyName("Startup " + id);
+            startup.setIndustry("Technology");
+            startup.setAnnualRevenue(random.nextDouble() * 500_000_000);
+            startup.setAverageStartupGrowthRate(random.nextDouble() * 120);
+            startup.setStartupSurvivalRate(random.nextDouble() * 100);
+            startup.setPaidUpCapital(random.nextDouble() * 100_000_000);
+            startup.setTotalStartupFundingReceived(random.nextDouble() * 100_000_000);
+            startup.setNumberOfFundingRounds(random.nextInt(12));
+            startup.setNumberOfStartupsWithForeignInvestment(random.nextInt(2));
+            startup.setAmountOfGovernmentGrantsOrSubsidiesReceived(random.nextDouble() * 50_000_000);
+            startup.setNumberOfStartupsInIncubationPrograms(random.nextInt(2));
+            startup.setNumberOfMentorsOrAdvisorsInvolved(random.nextInt(60));
+            startup.setPublicPrivatePartnershipsInvolvingStartups(random.nextInt(25));
+            startup.setViewsCount(random.nextInt(12_000));
+            startups.add(startup);
+            rows.add(new StartupMetricsDTO(id, startup.getCompanyName(), startup.getIndustry(), startup.getStatus(),
+                    startup.getAnnualRevenue(), startup.getAverageStartupGrowthRate(),
+                    startup.getStartupSurvivalRate(), startup.getPaidUpCapital(),
+                    startup.getTotalStartupFundingReceived(), startup.getNumberOfFundingRounds(),
+                    startup.getNumberOfStartupsWithForeignInvestment(),
+                    startup.getAmountOfGovernmentGrantsOrSubsidiesReceived(),
+                    startup.getNumberOfStartupsInIncubationPrograms(), startup.getNumberOfMentorsOrAdvisorsInvolved(),
+                    startup.getPublicPrivatePartnershipsInvolvingStartups(), startup.getViewsCount(), 0, 0, 0, 0));
+        }
+        scores = rankingService.scoreColumn(StartupMetricsSnapshot.of(rows), "overall");
+    }
+
+    @Benchmark
+    public List<Startup> sortEverything() {
+        return startups.stream()
+                .sorted(Comparator.comparingDouble((Startup startup) -> rankingService.calculateOverallScore(startup))
+                        .reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Integer> sortScores() {
+        return IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer row) -> scores[row]).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int[] heapTopK() {
+        return TopKSelector.selectTop(scores, limit);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TopKSelectorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
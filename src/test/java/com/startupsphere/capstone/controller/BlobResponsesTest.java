@@ -0,0 +1,190 @@
+package com.startupsphere.capstone.controller;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Range headers of every form against the bytes they select, and the status,
+ * headers and body of a blob served with Range, If-Range and If-None-Match,
+ * through a request and response that only record what is set on them.
+ */
+class BlobResponsesTest {
+
+    private static final String HASH = "a".repeat(64);
+    private static final String ETAG = "\"" + HASH + "\"";
+    private static final byte[] CONTENT = "0123456789".getBytes();
+
+    @Test
+    void parseRangeOfEachForm() {
+        assertArrayEquals(new long[] { 0, 9 }, BlobResponses.parseRange("bytes=0-9", 100));
+        assertArrayEquals(new long[] { 90, 99 }, BlobResponses.parseRange("bytes=90-200", 100));
+        assertArrayEquals(new long[] { 7, 7 }, BlobResponses.parseRange("bytes= 7 - 7 ", 100));
+
+        // Open-ended: from a byte to the end
+        assertArrayEquals(new long[] { 95, 99 }, BlobResponses.parseRange("bytes=95-", 100));
+        assertArrayEquals(new long[] { 0, 99 }, BlobResponses.parseRange("bytes=0-", 100));
+
+        // Suffix: the final n bytes, all of them when n is larger
+        assertArrayEquals(new long[] { 90, 99 }, BlobResponses.parseRange("bytes=-10", 100));
+        assertArrayEquals(new long[] { 0, 99 }, BlobResponses.parseRange("bytes=-500", 100));
+        assertArrayEquals(new long[] { 99, 99 }, BlobResponses.parseRange("bytes=-1", 100));
+    }
+
+    @Test
+    void unsatisfiableRangesAreEmpty() {
+        assertArrayEquals(new long[0], BlobResponses.parseRange("bytes=100-", 100));
+        assertArrayEquals(new long[0], BlobResponses.parseRange("bytes=100-120", 100));
+        assertArrayEquals(new long[0], BlobResponses.parseRange("bytes=-0", 100));
+        assertArrayEquals(new long[0], BlobResponses.parseRange("bytes=0-", 0));
+        assertArrayEquals(new long[0], BlobResponses.parseRange("bytes=-5", 0));
+    }
+
+    @Test
+    void multipleAndMalformedRangesSendEverything() {
+        assertNull(BlobResponses.parseRange("bytes=0-1,5-6", 100));
+        assertNull(BlobResponses.parseRange("bytes=0-1, -5", 100));
+        assertNull(BlobResponses.parseRange("items=0-1", 100));
+        assertNull(BlobResponses.parseRange("bytes=5", 100));
+        assertNull(BlobResponses.parseRange("bytes=a-b", 100));
+        assertNull(BlobResponses.parseRange("bytes=-", 100));
+        assertNull(BlobResponses.parseRange("bytes=5-2", 100));
+    }
+
+    @Test
+    void rangeRequestsGetTheirBytes() throws IOException {
+        Recorded partial = serve("GET", Map.of("Range", "bytes=2-5"));
+        assertEquals(206, partial.status);
+        assertEquals("bytes 2-5/10", partial.headers.get("Content-Range"));
+        assertEquals(Long.valueOf(4), partial.contentLength);
+        assertArrayEquals("2345".getBytes(), partial.body.toByteArray());
+
+        Recorded suffix = serve("GET", Map.of("Range", "bytes=-3"));
+        assertEquals(206, suffix.status);
+        assertEquals("bytes 7-9/10", suffix.headers.get("Content-Range"));
+        assertArrayEquals("789".getBytes(), suffix.body.toByteArray());
+
+        Recorded openEnded = serve("GET", Map.of("Range", "bytes=8-"));
+        assertEquals("bytes 8-9/10", openEnded.headers.get("Content-Range"));
+        assertArrayEquals("89".getBytes(), openEnded.body.toByteArray());
+
+        Recorded unsatisfiable = serve("GET", Map.of("Range", "bytes=10-"));
+        assertEquals(416, unsatisfiable.status);
+        assertEquals("bytes */10", unsatisfiable.headers.get("Content-Range"));
+        assertEquals(0, unsatisfiable.body.size());
+
+        Recorded multiple = serve("GET", Map.of("Range", "bytes=0-1,4-5"));
+        assertWhole(multiple);
+        assertNull(multiple.headers.get("Content-Range"));
+    }
+
+    @Test
+    void ifRangeOnlyHonoursTheCurrentStrongEtag() throws IOException {
+        Recorded same = serve("GET", Map.of("Range", "bytes=0-0", "If-Range", ETAG));
+        assertEquals(206, same.status);
+        assertArrayEquals("0".getBytes(), same.body.toByteArray());
+
+        // Another version, a weak tag or a date: the range may be stale, so everything is sent
+        for (String ifRange : new String[] { "\"" + "b".repeat(64) + "\"", "W/" + ETAG,
+                "Wed, 21 Oct 2015 07:28:00 GMT" }) {
+            Recorded other = serve("GET", Map.of("Range", "bytes=0-0", "If-Range", ifRange));
+            assertWhole(other);
+        }
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws IOException {
+        for (String ifNoneMatch : new String[] { ETAG, "W/" + ETAG, "*", "\"other\", " + ETAG }) {
+            Recorded notModified = serve("GET", Map.of("If-None-Match", ifNoneMatch, "Range", "bytes=0-1"));
+            assertEquals(304, notModified.status, ifNoneMatch);
+            assertEquals(ETAG, notModified.headers.get("ETag"));
+            assertEquals(0, notModified.body.size());
+            assertNull(notModified.contentLength);
+        }
+        assertWhole(serve("GET", Map.of("If-None-Match", "\"other\"")));
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws IOException {
+        Recorded head = serve("HEAD", Map.of());
+        assertEquals(200, head.status);
+        assertEquals(Long.valueOf(10), head.contentLength);
+        assertEquals("bytes", head.headers.get("Accept-Ranges"));
+        assertEquals(0, head.body.size());
+    }
+
+    private static void assertWhole(Recorded recorded) {
+        assertEquals(200, recorded.status);
+        assertEquals(ETAG, recorded.headers.get("ETag"));
+        assertEquals("nosniff", recorded.headers.get("X-Content-Type-Options"));
+        assertEquals("image/png", recorded.contentType);
+        assertEquals(Long.valueOf(CONTENT.length), recorded.contentLength);
+        assertArrayEquals(CONTENT, recorded.body.toByteArray());
+    }
+
+    private static Recorded serve(String method, Map<String, String> headers) throws IOException {
+        Recorded recorded = new Recorded();
+        HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(
+                HttpServletRequest.class.getClassLoader(), new Class<?>[] { HttpServletRequest.class },
+                (proxy, m, args) -> switch (m.getName()) {
+                    case "getMethod" -> method;
+                    case "getHeader" -> headers.get((String) args[0]);
+                    case "getAttribute" -> null;
+                    default -> throw new UnsupportedOperationException(m.getName());
+                });
+        HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(
+                HttpServletResponse.class.getClassLoader(), new Class<?>[] { HttpServletResponse.class },
+                (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "setHeader" -> recorded.headers.put((String) args[0], (String) args[1]);
+                        case "setStatus", "sendError" -> recorded.status = (Integer) args[0];
+                        case "setContentType" -> recorded.contentType = (String) args[0];
+                        case "setContentLengthLong" -> recorded.contentLength = (Long) args[0];
+                        case "getOutputStream" -> {
+                            return recorded.output;
+                        }
+                        default -> throw new UnsupportedOperationException(m.getName() + Arrays.toString(args));
+                    }
+                    return null;
+                });
+        BlobResponses.serve(CONTENT, HASH, "image/png", BlobResponses.IMMUTABLE, request, response);
+        return recorded;
+    }
+
+    private static final class Recorded {
+        final Map<String, String> headers = new HashMap<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int status = 200;
+        String contentType;
+        Long contentLength;
+
+        final ServletOutputStream output = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package com.startupsphere.capstone.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The bitmap against {@link BitSet}, with groups kept around the 4096 values
+ * where they turn from sorted arrays into bitsets and back, and intersections
+ * of every pair of container kinds landing on either side of that limit.
+ */
+class CompressedBitmapTest {
+
+    private static final int GROUP = 1 << 16;
+    private static final int ARRAY_LIMIT = 4096;
+
+    private final Random random = new Random(1);
+
+    @Test
+    void matchesBitSetThroughAddsAndRemoves() {
+        for (int round = 0; round < 50; round++) {
+            int range = round % 2 == 0 ? 300_000 : 20_000;
+            CompressedBitmap bitmap = new CompressedBitmap();
+            BitSet expected = new BitSet();
+            for (int i = random.nextInt(60_000); i > 0; i--) {
+                int value = random.nextInt(range);
+                bitmap.add(value);
+                expected.set(value);
+            }
+            for (int i = random.nextInt(30_000); i > 0; i--) {
+                int value = random.nextInt(range);
+                bitmap.remove(value);
+                expected.clear(value);
+            }
+            assertMatches(expected, bitmap);
+        }
+    }
+
+    @Test
+    void groupsCrossTheArrayLimitBothWays() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        // Two groups, filled to the limit, one past it, then drained back below it
+        for (int group : new int[] { 0, 3 }) {
+            for (int i = 0; i < ARRAY_LIMIT; i++) {
+                set(bitmap, expected, group * GROUP + i * 13 % GROUP, true);
+            }
+        }
+        assertMatches(expected, bitmap);
+        set(bitmap, expected, 3 * GROUP + 1, true);
+        set(bitmap, expected, 3 * GROUP + 2, true);
+        assertMatches(expected, bitmap);
+        set(bitmap, expected, 3 * GROUP + 1, false);
+        set(bitmap, expected, 3 * GROUP + 1, false);
+        assertMatches(expected, bitmap);
+        set(bitmap, expected, 3 * GROUP + 2, false);
+        assertMatches(expected, bitmap);
+
+        // Many steps back and forth across the limit in one group
+        for (int step = 0; step < 20_000; step++) {
+            int value = 3 * GROUP + random.nextInt(8_192);
+            boolean add = expected.cardinality() - expected.get(0, GROUP).cardinality() < ARRAY_LIMIT
+                    ? random.nextInt(3) > 0 : random.nextInt(3) == 0;
+            set(bitmap, expected, value, add);
+            if (step % 500 == 0) {
+                assertMatches(expected, bitmap);
+            }
+        }
+        assertMatches(expected, bitmap);
+
+        // Emptied groups disappear, others are kept
+        for (int i = 0; i < GROUP; i++) {
+            set(bitmap, expected, i, false);
+        }
+        assertMatches(expected, bitmap);
+        assertFalse(bitmap.isEmpty());
+    }
+
+    @Test
+    void andMatchesBitSetForEveryKindOfGroup() {
+        for (int round = 0; round < 200; round++) {
+            CompressedBitmap a = new CompressedBitmap();
+            CompressedBitmap b = new CompressedBitmap();
+            BitSet expectedA = new BitSet();
+            BitSet expectedB = new BitSet();
+            // Per group, each side sparse (an array) or dense (a bitset), or the group absent
+            for (int group = 0; group < 6; group++) {
+                fill(a, expectedA, group, random.nextInt(4));
+                fill(b, expectedB, group, random.nextInt(4));
+            }
+            assertAnd(expectedA, a, expectedB, b);
+            assertAnd(expectedB, b, expectedA, a);
+        }
+    }
+
+    @Test
+    void andOfBitsetsOnTheArrayLimit() {
+        for (int common : new int[] { ARRAY_LIMIT - 1, ARRAY_LIMIT, ARRAY_LIMIT + 1, 20_000 }) {
+            CompressedBitmap a = new CompressedBitmap();
+            CompressedBitmap b = new CompressedBitmap();
+            BitSet expectedA = new BitSet();
+            BitSet expectedB = new BitSet();
+            // Both dense, sharing exactly the first "common" values of the group
+            for (int i = 0; i < 30_000; i++) {
+                int value = GROUP + i * 2;
+                set(a, expectedA, value, true);
+                set(b, expectedB, i < common ? value : value + 1, true);
+            }
+            assertAnd(expectedA, a, expectedB, b);
+            CompressedBitmap and = a.and(b);
+            assertEquals(common, and.cardinality());
+
+            // The intersection keeps working as a bitmap of its own
+            and.add(7);
+            and.remove(GROUP);
+            BitSet expected = (BitSet) expectedA.clone();
+            expected.and(expectedB);
+            expected.set(7);
+            expected.clear(GROUP);
+            assertMatches(expected, and);
+        }
+    }
+
+    @Test
+    void emptyBitmaps() {
+        CompressedBitmap empty = new CompressedBitmap();
+        CompressedBitmap one = new CompressedBitmap();
+        one.add(Integer.MAX_VALUE);
+
+        assertTrue(empty.isEmpty());
+        assertTrue(empty.and(one).isEmpty());
+        assertEquals(0, one.andCardinality(empty));
+        assertTrue(one.contains(Integer.MAX_VALUE));
+        one.remove(Integer.MAX_VALUE);
+        assertTrue(one.isEmpty());
+        assertFalse(one.contains(Integer.MAX_VALUE));
+    }
+
+    // Nothing, a few values, just under the array limit, or well past it
+    private void fill(CompressedBitmap bitmap, BitSet expected, int group, int kind) {
+        int count = kind == 0 ? 0 : kind == 1 ? 1 + random.nextInt(100) : kind == 2 ? ARRAY_LIMIT : 30_000;
+        // Values from a narrow window, so two sides overlap a lot
+        int window = Math.max(count * 2, 8_000);
+        for (int i = 0; i < count; i++) {
+            set(bitmap, expected, group * GROUP + random.nextInt(window), true);
+        }
+    }
+
+    private static void set(CompressedBitmap bitmap, BitSet expected, int value, boolean add) {
+        if (add) {
+            bitmap.add(value);
+            expected.set(value);
+        } else {
+            bitmap.remove(value);
+            expected.clear(value);
+        }
+    }
+
+    private void assertAnd(BitSet expectedA, CompressedBitmap a, BitSet expectedB, CompressedBitmap b) {
+        BitSet expected = (BitSet) expectedA.clone();
+        expected.and(expectedB);
+        assertMatches(expected, a.and(b));
+        assertEquals(expected.cardinality(), a.andCardinality(b));
+    }
+
+    private void assertMatches(BitSet expected, CompressedBitmap bitmap) {
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+        assertEquals(expected.isEmpty(), bitmap.isEmpty());
+        BitSet visited = new BitSet();
+        int[] previous = { -1 };
+        bitmap.forEach(value -> {
+            assertTrue(value > previous[0], "not ascending at " + value);
+            previous[0] = value;
+            visited.set(value);
+        });
+        assertEquals(expected, visited);
+        for (int i = 0; i < 1_000; i++) {
+            int value = random.nextInt(Math.max(1, expected.length() + GROUP));
+            assertEquals(expected.get(value), bitmap.contains(value), "contains " + value);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.entity.Startup;
+import com.startupsphere.capstone.entity.User;
+import com.startupsphere.capstone.repository.StartupRepository;
+import com.startupsphere.capstone.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The ETags of polled reads through the controllers: a matching If-None-Match
+ * is answered with an empty 304, and anything that changes the response
+ * changes the ETag first, including counter updates that bypass @PreUpdate
+ * and so leave lastUpdated where it was, and a new ranking snapshot.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ConditionalGetServiceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StartupRepository startupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RankingSnapshotService rankingSnapshotService;
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        String uri = "/startups/" + seed("Etag Labs");
+
+        MvcResult first = mockMvc.perform(get(uri)).andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        assertEquals(200, first.getResponse().getStatus());
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/\""), etag);
+        assertEquals("no-cache", first.getResponse().getHeader("Cache-Control"));
+
+        MvcResult revalidated = mockMvc.perform(get(uri).header("If-None-Match", etag)).andReturn();
+        assertEquals(304, revalidated.getResponse().getStatus());
+        assertEquals(etag, revalidated.getResponse().getHeader("ETag"));
+        assertEquals(0, revalidated.getResponse().getContentAsByteArray().length);
+
+        MvcResult other = mockMvc.perform(get(uri).header("If-None-Match", "W/\"0-0-0-0-0-0\"")).andReturn();
+        assertEquals(200, other.getResponse().getStatus());
+    }
+
+    @Test
+    void counterUpdatesChangeTheEtag() throws Exception {
+        long id = seed("Counter Labs");
+        String uri = "/startups/" + id;
+        String etag = mockMvc.perform(get(uri)).andReturn().getResponse().getHeader("ETag");
+
+        // Bulk and native updates, none of which touches lastUpdated
+        startupRepository.adjustLikesCount(id, 1);
+        etag = assertChanged(uri, etag, "like");
+        startupRepository.adjustBookmarksCount(id, 1);
+        etag = assertChanged(uri, etag, "bookmark");
+        jdbcTemplate.update("UPDATE startups SET views_count = views_count + 1 WHERE id = ?", id);
+        etag = assertChanged(uri, etag, "view");
+        startupRepository.adjustLikesCount(id, -1);
+        assertChanged(uri, etag, "unlike");
+    }
+
+    @Test
+    @WithMockUser
+    void newRankingSnapshotChangesTheEtag() throws Exception {
+        seed("Ranked Labs");
+        // The first snapshot is built in the background at startup; versions only move once it is out
+        for (int i = 0; i < 500 && rankingSnapshotService.current().getVersion() == 0; i++) {
+            Thread.sleep(10);
+        }
+        rankingSnapshotService.rebuild();
+
+        String etag = mockMvc.perform(get("/api/rankings")).andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+        assertEquals(304, mockMvc.perform(get("/api/rankings").header("If-None-Match", etag))
+                .andReturn().getResponse().getStatus());
+
+        rankingSnapshotService.rebuild();
+        MvcResult rebuilt = mockMvc.perform(get("/api/rankings").header("If-None-Match", etag)).andReturn();
+        assertEquals(200, rebuilt.getResponse().getStatus());
+        assertNotEquals(etag, rebuilt.getResponse().getHeader("ETag"));
+    }
+
+    // A 200 with a new ETag for the one that was current before the change, which is returned
+    private String assertChanged(String uri, String etag, String change) throws Exception {
+        MvcResult result = mockMvc.perform(get(uri).header("If-None-Match", etag)).andReturn();
+        assertEquals(200, result.getResponse().getStatus(), change);
+        String changed = result.getResponse().getHeader("ETag");
+        assertNotEquals(etag, changed, change);
+        return changed;
+    }
+
+    private long seed(String companyName) {
+        User owner = userRepository.save(new User("Etag", "Owner", companyName.replace(' ', '.').toLowerCase()
+                + "@example.com", "secret", "USER"));
+        Startup startup = new Startup();
+        startup.setUser(owner);
+        startup.setCompanyName(companyName);
+        startup.setStatus("Approved");
+        return startupRepository.saveAndFlush(startup).getId();
+    }
+}
@@ -0,0 +1,147 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.MapClusterDTO;
+import com.startupsphere.capstone.dtos.MapPointDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clusters kept up to date by adds and subtracts against the markers grouped
+ * by cell from scratch, at every zoom level: members, centroid, the single
+ * member's id and members per industry, and which clusters a viewport gets.
+ */
+class GeoClusterIndexTest {
+
+    private static final String[] INDUSTRIES = { "Fintech", "fintech", "Agri", null };
+
+    private final Random random = new Random(7);
+
+    @Test
+    void clustersMatchMarkersGroupedByCell() {
+        GeoClusterIndex clusters = new GeoClusterIndex();
+        Map<Long, MapPointDTO> points = new HashMap<>();
+        for (int step = 0; step < 30_000; step++) {
+            long id = random.nextInt(3_000);
+            MapPointDTO old = points.remove(id);
+            if (old != null) {
+                clusters.subtract(old);
+            }
+            if (random.nextInt(5) != 0) {
+                MapPointDTO point = point(id);
+                clusters.add(point);
+                points.put(id, point);
+            }
+        }
+
+        for (int zoom = 0; zoom <= GeoClusterIndex.MAX_ZOOM; zoom++) {
+            Map<Long, List<MapPointDTO>> cells = new HashMap<>();
+            for (MapPointDTO point : points.values()) {
+                cells.computeIfAbsent(cell(point.getLat(), point.getLng(), zoom), k -> new ArrayList<>()).add(point);
+            }
+
+            GeoClusterIndex.Result result = clusters.clusters(zoom, -90, -180, 90, 180, points.size());
+            assertEquals(cells.size(), result.getTotal(), "zoom " + zoom);
+            assertEquals(cells.size(), result.getClusters().size(), "zoom " + zoom);
+            for (MapClusterDTO cluster : result.getClusters()) {
+                List<MapPointDTO> members = cells.get(cell(cluster.getLat(), cluster.getLng(), zoom));
+                assertNotNull(members, "zoom " + zoom + " cluster at " + cluster.getLat() + "," + cluster.getLng());
+                assertMatches(members, cluster, zoom);
+            }
+        }
+    }
+
+    @Test
+    void viewportGetsTheClustersOfItsMarkers() {
+        GeoClusterIndex clusters = new GeoClusterIndex();
+        List<MapPointDTO> points = new ArrayList<>();
+        for (long id = 0; id < 5_000; id++) {
+            // Around the Philippines and on both sides of the antimeridian
+            MapPointDTO point = random.nextBoolean() ? point(id)
+                    : new MapPointDTO(id, "Startup " + id, null, random.nextDouble() * 20 - 10,
+                            random.nextBoolean() ? 179 + random.nextDouble() : -180 + random.nextDouble(), null, null);
+            clusters.add(point);
+            points.add(point);
+        }
+
+        for (int round = 0; round < 500; round++) {
+            int zoom = random.nextInt(GeoClusterIndex.MAX_ZOOM + 1);
+            double minLat = random.nextDouble() * 40 - 15;
+            double maxLat = minLat + random.nextDouble() * 10;
+            double minLng = round % 2 == 0 ? 115 + random.nextDouble() * 10 : 175 + random.nextDouble() * 5;
+            double maxLng = round % 2 == 0 ? minLng + random.nextDouble() * 5 : -180 + random.nextDouble() * 5;
+
+            Map<Long, Integer> returned = new HashMap<>();
+            for (MapClusterDTO cluster : clusters.clusters(zoom, minLat, minLng, maxLat, maxLng, points.size())
+                    .getClusters()) {
+                assertNull(returned.put(cell(cluster.getLat(), cluster.getLng(), zoom), cluster.getCount()));
+            }
+            for (MapPointDTO point : points) {
+                boolean inside = point.getLat() >= minLat && point.getLat() <= maxLat && (minLng <= maxLng
+                        ? point.getLng() >= minLng && point.getLng() <= maxLng
+                        : point.getLng() >= minLng || point.getLng() <= maxLng);
+                if (inside) {
+                    assertTrue(returned.containsKey(cell(point.getLat(), point.getLng(), zoom)),
+                            "zoom " + zoom + " misses " + point.getLat() + "," + point.getLng());
+                }
+            }
+        }
+    }
+
+    @Test
+    void limitOnlyCutsTheClustersReturned() {
+        GeoClusterIndex clusters = new GeoClusterIndex();
+        for (long id = 0; id < 1_000; id++) {
+            clusters.add(point(id));
+        }
+
+        GeoClusterIndex.Result all = clusters.clusters(10, -90, -180, 90, 180, Integer.MAX_VALUE);
+        GeoClusterIndex.Result limited = clusters.clusters(10, -90, -180, 90, 180, 5);
+        assertEquals(all.getTotal(), limited.getTotal());
+        assertEquals(5, limited.getClusters().size());
+    }
+
+    private static void assertMatches(List<MapPointDTO> members, MapClusterDTO cluster, int zoom) {
+        String where = "zoom " + zoom + " cluster at " + cluster.getLat() + "," + cluster.getLng();
+        double lat = 0;
+        double lng = 0;
+        Map<String, Integer> industries = new HashMap<>();
+        for (MapPointDTO member : members) {
+            lat += member.getLat();
+            lng += member.getLng();
+            if (member.getIndustry() != null) {
+                industries.merge(member.getIndustry().toLowerCase(Locale.ROOT), 1, Integer::sum);
+            }
+        }
+        assertEquals(members.size(), cluster.getCount(), where);
+        assertEquals(lat / members.size(), cluster.getLat(), 1e-9, where);
+        assertEquals(lng / members.size(), cluster.getLng(), 1e-9, where);
+        assertEquals(members.size() == 1 ? members.get(0).getId() : null, cluster.getId(), where);
+
+        // Spellings of one industry are counted together, under whichever came first
+        Map<String, Integer> clusterIndustries = new HashMap<>();
+        cluster.getIndustries().forEach((industry, count) -> clusterIndustries.put(industry.toLowerCase(Locale.ROOT),
+                count));
+        assertEquals(industries, clusterIndustries, where);
+    }
+
+    private static long cell(double lat, double lng, int zoom) {
+        return GeoClusterIndex.row(lat, zoom) * (GeoClusterIndex.CELLS_PER_TILE << zoom)
+                + GeoClusterIndex.column(lng, zoom);
+    }
+
+    private MapPointDTO point(long id) {
+        return new MapPointDTO(id, "Startup " + id, null, 10 + random.nextGaussian() * 3,
+                121 + random.nextGaussian() * 2, INDUSTRIES[random.nextInt(INDUSTRIES.length)], null);
+    }
+}
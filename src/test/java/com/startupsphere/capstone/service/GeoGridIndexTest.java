@@ -0,0 +1,247 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.MapPointDTO;
+import com.startupsphere.capstone.dtos.NearbyPointDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Viewport and nearest-neighbour queries of the map grid against a scan of
+ * every point, on a grid that went through puts, moves and removes, with
+ * viewports across the antimeridian, points on its edge, searches around the
+ * antimeridian and the poles, and category filters.
+ */
+class GeoGridIndexTest {
+
+    private static final String[] INDUSTRIES = { "Fintech", "Agri", null };
+
+    private static final String[] STATUSES = { "Approved", "In Review", null };
+
+    private final Random random = new Random(5);
+
+    @Test
+    void withinMatchesAFullScan() {
+        GeoGridIndex grid = new GeoGridIndex();
+        Map<Long, MapPointDTO> points = new HashMap<>();
+        for (int step = 0; step < 50_000; step++) {
+            long id = random.nextInt(5_000);
+            if (random.nextInt(5) == 0) {
+                grid.remove(id);
+                points.remove(id);
+            } else {
+                // Mostly around the Philippines, some anywhere, a few on the antimeridian itself
+                double lat = random.nextInt(10) == 0 ? random.nextDouble() * 180 - 90 : 5 + random.nextDouble() * 15;
+                double lng = random.nextInt(50) == 0 ? 180
+                        : random.nextInt(10) == 0 ? random.nextDouble() * 360 - 180 : 117 + random.nextDouble() * 10;
+                MapPointDTO point = point(id, lat, lng);
+                grid.put(point);
+                points.put(id, point);
+            }
+        }
+        assertEquals(points.size(), grid.size());
+
+        for (int round = 0; round < 2_000; round++) {
+            double minLat;
+            double maxLat;
+            double minLng;
+            double maxLng;
+            if (round % 2 == 0) {
+                minLat = 5 + random.nextDouble() * 10;
+                maxLat = minLat + random.nextDouble() * 5;
+                minLng = 115 + random.nextDouble() * 5;
+                maxLng = minLng + random.nextDouble() * 5;
+            } else {
+                // Any two longitudes, so about half of these cross the antimeridian
+                minLat = random.nextDouble() * 180 - 90;
+                maxLat = Math.min(90, minLat + random.nextDouble() * (round % 3 == 0 ? 30 : 2));
+                minLng = random.nextDouble() * 360 - 180;
+                maxLng = random.nextDouble() * 360 - 180;
+            }
+            String industry = random.nextBoolean() ? null : random.nextBoolean() ? "fintech" : "AGRI";
+            String status = random.nextBoolean() ? null : "approved";
+            assertMatchesScan(points, grid, minLat, minLng, maxLat, maxLng, industry, status);
+        }
+    }
+
+    @Test
+    void edgesAndAntimeridianAreInside() {
+        GeoGridIndex grid = new GeoGridIndex();
+        grid.put(point(1, 10, 180));
+        grid.put(point(2, 10, -180));
+        grid.put(point(3, 10, 179.99));
+        grid.put(point(4, 10, 0));
+        grid.put(point(5, 90, 10));
+
+        assertEquals(Set.of(1L, 2L, 3L), ids(grid.within(9, 179.9, 11, -179.9, null, null, 10)));
+        assertEquals(Set.of(1L), ids(grid.within(10, 180, 10, 180, null, null, 10)));
+        assertEquals(Set.of(4L), ids(grid.within(10, 0, 10, 0, null, null, 10)));
+        assertEquals(Set.of(5L), ids(grid.within(89.99, -180, 90, 180, null, null, 10)));
+    }
+
+    @Test
+    void pointsOffTheGlobeAreLeftOut() {
+        GeoGridIndex grid = new GeoGridIndex();
+        grid.put(point(1, 10, 120));
+        grid.put(point(1, 91, 120));
+        grid.put(point(2, 10, Double.NaN));
+
+        assertEquals(0, grid.size());
+        assertNull(grid.get(1));
+        assertEquals(0, grid.within(-90, -180, 90, 180, null, null, 10).getTotal());
+    }
+
+    @Test
+    void unknownCategoryMatchesNothing() {
+        GeoGridIndex grid = new GeoGridIndex();
+        grid.put(point(1, 10, 120));
+
+        assertEquals(0, grid.within(-90, -180, 90, 180, "Mining", null, 10).getTotal());
+        assertEquals(0, grid.within(-90, -180, 90, 180, null, "Rejected", 10).getTotal());
+    }
+
+    @Test
+    void nearestMatchesAFullScan() {
+        GeoGridIndex grid = new GeoGridIndex();
+        List<MapPointDTO> points = new ArrayList<>();
+        for (long id = 0; id < 20_000; id++) {
+            double lat;
+            double lng;
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                lat = 14.6 + random.nextGaussian();
+                lng = 121 + random.nextGaussian();
+            } else if (kind < 8) {
+                lat = random.nextDouble() * 180 - 90;
+                lng = random.nextDouble() * 360 - 180;
+            } else {
+                // Within half a degree of the antimeridian, on either side
+                lat = random.nextDouble() * 20 - 10;
+                lng = random.nextBoolean() ? 179.5 + random.nextDouble() * 0.5 : -180 + random.nextDouble() * 0.5;
+            }
+            MapPointDTO point = point(id, lat, lng);
+            grid.put(point);
+            points.add(point);
+        }
+
+        for (int round = 0; round < 500; round++) {
+            double lat;
+            double lng;
+            switch (round % 4) {
+                case 0 -> {
+                    lat = 14.6 + random.nextGaussian();
+                    lng = 121 + random.nextGaussian();
+                }
+                case 1 -> {
+                    lat = random.nextDouble() * 10 - 5;
+                    lng = random.nextBoolean() ? 179.9 : -179.9;
+                }
+                case 2 -> {
+                    lat = random.nextBoolean() ? 89.9 : -89.9;
+                    lng = random.nextDouble() * 360 - 180;
+                }
+                default -> {
+                    lat = random.nextDouble() * 180 - 90;
+                    lng = random.nextDouble() * 360 - 180;
+                }
+            }
+            int k = 1 + random.nextInt(20);
+            double radiusKm = random.nextBoolean() ? random.nextDouble() * 50 : random.nextDouble() * 3_000;
+            String industry = random.nextBoolean() ? null : "fintech";
+            String status = random.nextBoolean() ? null : "Approved";
+            assertNearestMatchesScan(points, grid, lat, lng, k, radiusKm, industry, status);
+        }
+    }
+
+    @Test
+    void nearestReachesAcrossTheAntimeridianAndOverThePole() {
+        GeoGridIndex grid = new GeoGridIndex();
+        grid.put(point(1, 0, 179.99));
+        grid.put(point(2, 0, -179.98));
+        grid.put(point(3, 0, 170));
+        grid.put(point(4, 89.9, 0));
+        grid.put(point(5, 89.9, 180));
+
+        List<NearbyPointDTO> east = grid.nearest(0, -179.99, 2, 100, null, null);
+        assertEquals(List.of(2L, 1L), east.stream().map(NearbyPointDTO::getId).toList());
+        assertEquals(GeoGridIndex.distanceKm(0, -179.99, 0, 179.99), east.get(1).getDistanceKm(), 1e-9);
+        assertTrue(east.get(1).getDistanceKm() < 3);
+
+        // The two points face each other across the pole, about 22 km apart
+        List<NearbyPointDTO> polar = grid.nearest(89.9, 0, 2, 50, null, null);
+        assertEquals(List.of(4L, 5L), polar.stream().map(NearbyPointDTO::getId).toList());
+        assertEquals(List.of(4L), grid.nearest(89.9, 0, 5, 10, null, null).stream().map(NearbyPointDTO::getId).toList());
+    }
+
+    private static void assertNearestMatchesScan(List<MapPointDTO> points, GeoGridIndex grid, double lat, double lng,
+            int k, double radiusKm, String industry, String status) {
+        List<Double> expected = new ArrayList<>();
+        for (MapPointDTO point : points) {
+            if ((industry == null || industry.equalsIgnoreCase(point.getIndustry()))
+                    && (status == null || status.equalsIgnoreCase(point.getStatus()))) {
+                double distance = GeoGridIndex.distanceKm(lat, lng, point.getLat(), point.getLng());
+                if (distance <= radiusKm) {
+                    expected.add(distance);
+                }
+            }
+        }
+        expected.sort(null);
+
+        // Compared by distance, as points at the same distance may come in either order
+        List<Double> actual = new ArrayList<>();
+        for (NearbyPointDTO nearby : grid.nearest(lat, lng, k, radiusKm, industry, status)) {
+            actual.add(nearby.getDistanceKm());
+        }
+        assertEquals(expected.subList(0, Math.min(k, expected.size())), actual,
+                lat + "," + lng + " k=" + k + " radius=" + radiusKm + " " + industry + " " + status);
+    }
+
+    private static void assertMatchesScan(Map<Long, MapPointDTO> points, GeoGridIndex grid, double minLat,
+            double minLng, double maxLat, double maxLng, String industry, String status) {
+        Set<Long> expected = new HashSet<>();
+        for (MapPointDTO point : points.values()) {
+            boolean inside = point.getLat() >= minLat && point.getLat() <= maxLat && (minLng <= maxLng
+                    ? point.getLng() >= minLng && point.getLng() <= maxLng
+                    : point.getLng() >= minLng || point.getLng() <= maxLng);
+            if (inside && (industry == null || industry.equalsIgnoreCase(point.getIndustry()))
+                    && (status == null || status.equalsIgnoreCase(point.getStatus()))) {
+                expected.add(point.getId());
+            }
+        }
+
+        String viewport = minLat + "," + minLng + " " + maxLat + "," + maxLng + " " + industry + " " + status;
+        GeoGridIndex.Result all = grid.within(minLat, minLng, maxLat, maxLng, industry, status, points.size());
+        assertEquals(expected.size(), all.getTotal(), viewport);
+        assertEquals(expected.size(), all.getPoints().size(), viewport);
+        assertEquals(expected, ids(all), viewport);
+
+        // Past the limit points are still counted
+        GeoGridIndex.Result limited = grid.within(minLat, minLng, maxLat, maxLng, industry, status, 3);
+        assertEquals(expected.size(), limited.getTotal(), viewport);
+        assertEquals(Math.min(3, expected.size()), limited.getPoints().size(), viewport);
+        assertTrue(expected.containsAll(ids(limited)), viewport);
+    }
+
+    private static Set<Long> ids(GeoGridIndex.Result result) {
+        Set<Long> ids = new HashSet<>();
+        for (MapPointDTO point : result.getPoints()) {
+            ids.add(point.getId());
+        }
+        return ids;
+    }
+
+    private MapPointDTO point(long id, double lat, double lng) {
+        return new MapPointDTO(id, "Startup " + id, null, lat, lng, INDUSTRIES[random.nextInt(INDUSTRIES.length)],
+                STATUSES[random.nextInt(STATUSES.length)]);
+    }
+}
@@ -0,0 +1,92 @@
+package com.startupsphere.capstone.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rank and select of the leaderboard tree against a sorted list of the same
+ * entries, through inserts, deletes and many equal scores.
+ */
+class OrderStatisticTreeTest {
+
+    // Same order as the ranking pages: score descending, then id ascending
+    private static final Comparator<double[]> ORDER = Comparator.<double[]>comparingDouble(entry -> -entry[0])
+            .thenComparingDouble(entry -> entry[1]);
+
+    @Test
+    void equalScoresRankByAscendingId() {
+        OrderStatisticTree tree = new OrderStatisticTree();
+        tree.insert(50.0, 7);
+        tree.insert(80.0, 9);
+        tree.insert(50.0, 3);
+        tree.insert(50.0, 5);
+
+        assertEquals(0, tree.rankOf(80.0, 9));
+        assertEquals(1, tree.rankOf(50.0, 3));
+        assertEquals(2, tree.rankOf(50.0, 5));
+        assertEquals(3, tree.rankOf(50.0, 7));
+        assertEquals(7, tree.idAt(3));
+        assertEquals(80.0, tree.scoreAt(0), 0.0);
+    }
+
+    @Test
+    void missingEntriesHaveNoRank() {
+        OrderStatisticTree tree = new OrderStatisticTree();
+        tree.insert(50.0, 1);
+
+        assertEquals(-1, tree.rankOf(50.0, 2));
+        assertEquals(-1, tree.rankOf(49.0, 1));
+        assertFalse(tree.remove(49.0, 1));
+        assertTrue(tree.remove(50.0, 1));
+        assertEquals(0, tree.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.idAt(0));
+    }
+
+    @Test
+    void rankAndSelectFollowInsertsAndDeletes() {
+        Random random = new Random(5);
+        OrderStatisticTree tree = new OrderStatisticTree();
+        List<double[]> expected = new ArrayList<>();
+        for (int step = 0; step < 5_000; step++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                // Few distinct scores, so most inserts land among equal ones
+                double score = random.nextInt(10) * 10.0;
+                long id = random.nextInt(100_000);
+                if (tree.rankOf(score, id) >= 0) {
+                    continue;
+                }
+                tree.insert(score, id);
+                expected.add(new double[] { score, id });
+            } else {
+                double[] removed = expected.remove(random.nextInt(expected.size()));
+                assertTrue(tree.remove(removed[0], (long) removed[1]));
+            }
+
+            if (step % 100 == 0) {
+                assertMatches(expected, tree);
+            }
+        }
+        assertMatches(expected, tree);
+    }
+
+    private static void assertMatches(List<double[]> entries, OrderStatisticTree tree) {
+        List<double[]> sorted = new ArrayList<>(entries);
+        sorted.sort(ORDER);
+        assertEquals(sorted.size(), tree.size());
+        for (int rank = 0; rank < sorted.size(); rank++) {
+            double[] entry = sorted.get(rank);
+            assertEquals((long) entry[1], tree.idAt(rank), "id at " + rank);
+            assertEquals(entry[0], tree.scoreAt(rank), 0.0, "score at " + rank);
+            assertEquals(rank, tree.rankOf(entry[0], (long) entry[1]));
+        }
+    }
+}
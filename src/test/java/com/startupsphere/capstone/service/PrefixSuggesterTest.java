@@ -0,0 +1,151 @@
+package com.startupsphere.capstone.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Suggestions against a scan of every name for one with a word starting with
+ * the prefix, through puts, replacing puts and removes that split and merge
+ * edges of the trie. Weights and name lengths tie often, so the order falls
+ * back to the id; suggestions are compared as id and name pairs.
+ */
+class PrefixSuggesterTest {
+
+    private static final String[] WORDS = { "tech", "techno", "te", "t", "biotech", "labs", "lab", "cebu", "city",
+            "café", "cafe", "agri", "agritech", "hub", "ion", "ba", "bay", "bayan", "lapu-lapu", "a", "ab", "abc" };
+
+    private static final String[] PREFIXES = { "t", "te", "tec", "tech", "techn", "technox", "l", "lab", "labs",
+            "cafe", "Café", "CAFÉ ", "b", "ba", "bay", "baya", "bayan c", "cebu c", "cebu city", "lapu", "lapu lapu",
+            "lapu-lapu h", "a", "ab", "abc", "abcd", "agri t", " hub", "-", "", "zzz" };
+
+    private final Random random = new Random(15);
+
+    @Test
+    void suggestionsMatchAScan() {
+        for (int limit : new int[] { 1, 5, 40 }) {
+            Map<Long, String> names = new HashMap<>();
+            Map<Long, Long> weights = new HashMap<>();
+            PrefixSuggester suggester = new PrefixSuggester(limit);
+            for (int step = 0; step < 6_000; step++) {
+                long id = 1 + random.nextInt(300);
+                if (random.nextInt(3) == 0) {
+                    names.remove(id);
+                    suggester.remove(id);
+                } else {
+                    // Replaces the name when the id is already in
+                    String name = name();
+                    long weight = random.nextInt(4);
+                    suggester.put(id, name, weight);
+                    if (PrefixSuggester.normalize(name).isEmpty()) {
+                        names.remove(id);
+                    } else {
+                        names.put(id, name);
+                        weights.put(id, weight);
+                    }
+                }
+                if (step % 200 == 0) {
+                    assertEquals(names.size(), suggester.size());
+                    for (String prefix : PREFIXES) {
+                        for (int count : new int[] { 1, 3, 100 }) {
+                            assertMatchesScan(names, weights, suggester, limit, prefix, count);
+                        }
+                    }
+                }
+            }
+
+            // Removing everything leaves no edge behind to match
+            for (Long id : new ArrayList<>(names.keySet())) {
+                suggester.remove(id);
+            }
+            assertEquals(0, suggester.size());
+            for (String prefix : PREFIXES) {
+                assertEquals(List.of(), pairs(suggester.suggest(prefix, 100)), prefix);
+            }
+        }
+    }
+
+    @Test
+    void everyWordStartIsAKey() {
+        PrefixSuggester suggester = new PrefixSuggester(10);
+        suggester.put(1, "  Acme Labs ", 1);
+        suggester.put(2, "Lab-Acme", 2);
+        suggester.put(3, "Acmes", 0);
+
+        assertEquals(List.of("2 Lab-Acme", "1 Acme Labs", "3 Acmes"), pairs(suggester.suggest("acme", 10)));
+        assertEquals(List.of("2 Lab-Acme", "1 Acme Labs"), pairs(suggester.suggest("LAB", 10)));
+        assertEquals(List.of("2 Lab-Acme"), pairs(suggester.suggest("lab acme", 10)));
+        assertEquals(List.of(), pairs(suggester.suggest("cme", 10)));
+        assertEquals(List.of("2 Lab-Acme"), pairs(suggester.suggest("acme", 1)));
+    }
+
+    @Test
+    void putReplacesAndBlankNamesRemove() {
+        PrefixSuggester suggester = new PrefixSuggester(10);
+        suggester.put(1, "Tech Hub", 5);
+        suggester.put(1, "Agri Hub", 1);
+        assertEquals(List.of(), pairs(suggester.suggest("tech", 10)));
+        assertEquals(List.of("1 Agri Hub"), pairs(suggester.suggest("hub", 10)));
+
+        suggester.put(1, " - ", 1);
+        assertEquals(0, suggester.size());
+        assertEquals(List.of(), pairs(suggester.suggest("hub", 10)));
+
+        suggester.put(2, "Hub", 0);
+        suggester.clear();
+        assertEquals(0, suggester.size());
+        assertEquals(List.of(), pairs(suggester.suggest("hub", 10)));
+        suggester.put(3, "Hub", 0);
+        assertEquals(List.of("3 Hub"), pairs(suggester.suggest("h", 10)));
+    }
+
+    private static void assertMatchesScan(Map<Long, String> names, Map<Long, Long> weights,
+            PrefixSuggester suggester, int limit, String prefix, int count) {
+        String key = PrefixSuggester.normalize(prefix);
+        List<Long> matching = new ArrayList<>();
+        if (!key.isEmpty()) {
+            names.forEach((id, name) -> {
+                String normalized = PrefixSuggester.normalize(name);
+                if (normalized.startsWith(key) || normalized.contains(" " + key)) {
+                    matching.add(id);
+                }
+            });
+        }
+        // Heavier first, then shorter names, then lower ids
+        matching.sort(Comparator.<Long>comparingLong(id -> -weights.get(id))
+                .thenComparingInt(id -> names.get(id).trim().length())
+                .thenComparingLong(id -> id));
+        List<String> expected = new ArrayList<>();
+        for (Long id : matching.subList(0, Math.min(Math.min(count, limit), matching.size()))) {
+            expected.add(id + " " + names.get(id).trim());
+        }
+        assertEquals(expected, pairs(suggester.suggest(prefix, count)), "limit " + limit + ", " + prefix);
+    }
+
+    private static List<String> pairs(List<PrefixSuggester.Suggestion> suggestions) {
+        List<String> pairs = new ArrayList<>();
+        for (PrefixSuggester.Suggestion suggestion : suggestions) {
+            pairs.add(suggestion.getId() + " " + suggestion.getName());
+        }
+        return pairs;
+    }
+
+    // Words that are prefixes of each other, so keys share and split edges
+    private String name() {
+        if (random.nextInt(40) == 0) {
+            return random.nextBoolean() ? " " : "--";
+        }
+        StringBuilder name = new StringBuilder(random.nextInt(8) == 0 ? " " : "");
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            name.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(5) == 0 ? "-" : " ");
+        }
+        return random.nextInt(10) == 0 ? name.toString().toUpperCase() : name.toString();
+    }
+}
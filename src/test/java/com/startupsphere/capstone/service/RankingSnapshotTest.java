@@ -0,0 +1,120 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A snapshot updated with a few changed startups must rank exactly like one
+ * built from scratch over the same rows, including startups that were added,
+ * deleted, approved, unapproved or moved to another industry.
+ */
+class RankingSnapshotTest {
+
+    private static final String[] INDUSTRIES = { "Technology", "Fintech", "agriculture", null };
+
+    private static final String[] SCOPES = { null, "Technology", "FINTECH", "Agriculture", "Mining" };
+
+    private final StartupScoringPipeline pipeline = new StartupScoringPipeline(
+            new StartupRankingService(null, null, null, null, null), 2);
+
+    private final Random random = new Random(3);
+
+    @Test
+    void updateMatchesFullBuild() {
+        for (int round = 0; round < 20; round++) {
+            // Even ids only, so that inserts can land between existing rows
+            TreeMap<Long, StartupMetricsDTO> rows = new TreeMap<>();
+            for (long id = 2; id <= 4_000; id += 2) {
+                rows.put(id, row(id));
+            }
+            RankingSnapshot snapshot = build(1, rows);
+
+            TreeMap<Long, StartupMetricsDTO> changed = new TreeMap<>();
+            List<Long> changedIds = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(200); i++) {
+                long id = 1 + random.nextInt(4_100);
+                if (changedIds.contains(id)) {
+                    continue;
+                }
+                changedIds.add(id);
+                if (random.nextInt(4) == 0) {
+                    rows.remove(id);
+                } else {
+                    rows.put(id, row(id));
+                    changed.put(id, rows.get(id));
+                }
+            }
+
+            RankingSnapshot updated = snapshot.update(2, ids(changedIds), new ArrayList<>(changed.values()));
+            assertSameRanking(build(2, rows), updated);
+        }
+    }
+
+    @Test
+    void updateOfEmptySnapshotMatchesFullBuild() {
+        TreeMap<Long, StartupMetricsDTO> rows = new TreeMap<>();
+        for (long id = 1; id <= 50; id++) {
+            rows.put(id, row(id));
+        }
+
+        RankingSnapshot updated = RankingSnapshot.EMPTY.update(1, ids(new ArrayList<>(rows.keySet())),
+                new ArrayList<>(rows.values()));
+        assertSameRanking(build(1, rows), updated);
+    }
+
+    @Test
+    void deletingEveryStartupLeavesAnEmptyRanking() {
+        TreeMap<Long, StartupMetricsDTO> rows = new TreeMap<>();
+        for (long id = 1; id <= 10; id++) {
+            rows.put(id, row(id));
+        }
+
+        RankingSnapshot updated = build(1, rows).update(2, ids(new ArrayList<>(rows.keySet())), List.of());
+        assertEquals(0, updated.getMetrics().size());
+        assertEquals(0, updated.order("overall", null).length);
+    }
+
+    private void assertSameRanking(RankingSnapshot expected, RankingSnapshot actual) {
+        assertArrayEquals(expected.getMetrics().ids, actual.getMetrics().ids);
+        for (String metric : RankingSnapshot.METRICS) {
+            for (int row = 0; row < expected.getMetrics().size(); row++) {
+                assertEquals(expected.score(metric, row), actual.score(metric, row), 0.0, metric + " of row " + row);
+            }
+            for (String industry : SCOPES) {
+                assertArrayEquals(expected.order(metric, industry), actual.order(metric, industry),
+                        metric + " order in " + industry);
+            }
+        }
+    }
+
+    private RankingSnapshot build(long version, TreeMap<Long, StartupMetricsDTO> rows) {
+        StartupMetricsSnapshot metrics = StartupMetricsSnapshot.of(new ArrayList<>(rows.values()));
+        StartupScoringPipeline.Result result = pipeline.score(metrics, RankingWeights.DEFAULT);
+        return RankingSnapshot.fromOrders(version, result.getWeights(), metrics, result.getScores(),
+                result.getOrders());
+    }
+
+    private static long[] ids(List<Long> ids) {
+        return ids.stream().sorted(Comparator.naturalOrder()).mapToLong(Long::longValue).toArray();
+    }
+
+    // Coarse values, so that changed startups often tie with unchanged ones
+    private StartupMetricsDTO row(long id) {
+        return new StartupMetricsDTO(id, "Startup " + id, INDUSTRIES[random.nextInt(INDUSTRIES.length)],
+                random.nextInt(4) == 0 ? "Pending" : "Approved",
+                random.nextInt(3) * 1e8, random.nextInt(3) * 40.0, random.nextInt(3) * 50.0,
+                random.nextInt(3) * 5e7, random.nextInt(3) * 5e7, random.nextInt(3) * 6, random.nextInt(2),
+                random.nextInt(3) * 2e7, random.nextInt(2), random.nextInt(3) * 30, random.nextInt(3) * 12,
+                random.nextInt(3) * 6_000, random.nextInt(3) * 200, random.nextInt(3) * 200, random.nextInt(17),
+                random.nextInt(4));
+    }
+}
@@ -0,0 +1,123 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.SearchResultsDTO;
+import com.startupsphere.capstone.entity.Stakeholder;
+import com.startupsphere.capstone.entity.Startup;
+import com.startupsphere.capstone.entity.StartupStakeholder;
+import com.startupsphere.capstone.entity.User;
+import com.startupsphere.capstone.repository.StakeholderRepository;
+import com.startupsphere.capstone.repository.StartupRepository;
+import com.startupsphere.capstone.repository.StartupStakeholderRepository;
+import com.startupsphere.capstone.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards against the N+1 graph walk coming back into SearchService.search:
+ * expanding the matches to their linked startups and stakeholders must take
+ * the same number of statements however many links there are. Runs on the
+ * in-memory database of the test profile, with only the JPA layer and the
+ * two search beans.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({ SearchService.class, SearchIndexService.class })
+class SearchServiceQueryCountTest {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StartupRepository startupRepository;
+
+    @Autowired
+    private StakeholderRepository stakeholderRepository;
+
+    @Autowired
+    private StartupStakeholderRepository startupStakeholderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void searchRunsTwoStatementsHoweverManyLinksMatch() {
+        seed("Zqxfew", 1);
+        seed("Zqxmany", 15);
+        entityManager.flush();
+        entityManager.clear();
+        searchIndexService.rebuild();
+
+        SearchResultsDTO few = search("Zqxfew");
+        long fewStatements = statistics().getPrepareStatementCount();
+        SearchResultsDTO many = search("Zqxmany");
+        long manyStatements = statistics().getPrepareStatementCount();
+
+        assertEquals(1 + 1, few.getStartups().size());
+        assertEquals(1, few.getStakeholders().size());
+        assertEquals(1 + 15, many.getStartups().size());
+        assertEquals(15, many.getStakeholders().size());
+        assertEquals(2, fewStatements);
+        assertEquals(2, manyStatements);
+    }
+
+    private SearchResultsDTO search(String query) {
+        entityManager.clear();
+        statistics().clear();
+        return searchService.search(query, false, 0, 20);
+    }
+
+    // One matching startup, and stakeholders that match, each linked to it and to a startup of its own
+    private void seed(String name, int stakeholders) {
+        User owner = userRepository.save(new User(name, "Owner", name.toLowerCase() + "@example.com", "secret",
+                "USER"));
+        Startup startup = startup(owner, name + " Labs");
+        for (int i = 0; i < stakeholders; i++) {
+            Stakeholder stakeholder = new Stakeholder();
+            stakeholder.setName(name + " Partner " + i);
+            stakeholder.setEmail(name.toLowerCase() + i + "@example.com");
+            stakeholder = stakeholderRepository.save(stakeholder);
+            link(startup, stakeholder);
+            link(startup(owner, "Linked Venture " + name.length() + i), stakeholder);
+        }
+    }
+
+    private Startup startup(User owner, String companyName) {
+        Startup startup = new Startup();
+        startup.setUser(owner);
+        startup.setCompanyName(companyName);
+        return startupRepository.save(startup);
+    }
+
+    private void link(Startup startup, Stakeholder stakeholder) {
+        StartupStakeholder link = new StartupStakeholder();
+        link.setStartup(startup);
+        link.setStakeholder(stakeholder);
+        link.setRole("Mentor");
+        link.setStatus("Active");
+        startupStakeholderRepository.save(link);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
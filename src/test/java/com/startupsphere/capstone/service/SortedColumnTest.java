@@ -0,0 +1,143 @@
+package com.startupsphere.capstone.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Range queries of a sorted column against a scan of every value, through
+ * loads, adds and removes, with many equal values, bounds landing exactly on
+ * stored values, open, empty and inverted ranges, signed zeros, infinities
+ * and NaN.
+ */
+class SortedColumnTest {
+
+    private final Random random = new Random(21);
+
+    @Test
+    void rangeMatchesAScan() {
+        for (int round = 0; round < 20; round++) {
+            SortedColumn column = new SortedColumn();
+            Map<Integer, Double> values = new HashMap<>();
+            if (round % 2 == 0) {
+                int count = random.nextInt(3_000);
+                int[] docs = new int[count];
+                double[] loaded = new double[count];
+                for (int i = 0; i < count; i++) {
+                    docs[i] = i;
+                    loaded[i] = value();
+                    if (!Double.isNaN(loaded[i])) {
+                        values.put(i, loaded[i]);
+                    }
+                }
+                column.load(docs, loaded, count);
+            }
+
+            for (int step = 0; step < 3_000; step++) {
+                int doc = random.nextInt(4_000);
+                Double old = values.remove(doc);
+                if (old != null) {
+                    column.remove(doc, old);
+                }
+                if (random.nextInt(4) > 0) {
+                    double value = value();
+                    column.add(doc, value);
+                    if (!Double.isNaN(value)) {
+                        values.put(doc, value);
+                    }
+                }
+                if (step % 100 == 0) {
+                    assertEquals(values.size(), column.size());
+                    for (int query = 0; query < 20; query++) {
+                        assertRangeMatchesScan(values, column, bound(), bound());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void boundsOnStoredValuesAreInclusive() {
+        SortedColumn column = new SortedColumn();
+        column.load(new int[] { 4, 1, 3, 2, 0 }, new double[] { 20, 10, 20, 20, 30 }, 5);
+
+        assertEquals(bits(1, 2, 3, 4), bits(column.range(10.0, 20.0)));
+        assertEquals(bits(2, 3, 4), bits(column.range(20.0, 20.0)));
+        assertEquals(bits(), bits(column.range(20.5, 20.0)));
+        assertEquals(bits(), bits(column.range(31.0, null)));
+        assertEquals(bits(0, 1, 2, 3, 4), bits(column.range(null, null)));
+        assertEquals(bits(0), bits(column.range(30.0, Double.POSITIVE_INFINITY)));
+    }
+
+    @Test
+    void addingTwiceAndRemovingWithAnotherValueChangeNothing() {
+        SortedColumn column = new SortedColumn();
+        column.add(1, 5.0);
+        column.add(1, 5.0);
+        column.remove(1, 6.0);
+        column.remove(2, 5.0);
+        column.add(3, Double.NaN);
+
+        assertEquals(1, column.size());
+        assertEquals(bits(1), bits(column.range(5.0, 5.0)));
+        column.remove(1, 5.0);
+        assertEquals(0, column.size());
+    }
+
+    private static void assertRangeMatchesScan(Map<Integer, Double> values, SortedColumn column, Double min,
+            Double max) {
+        BitSet expected = new BitSet();
+        values.forEach((doc, value) -> {
+            if ((min == null || value >= min) && (max == null || value <= max)) {
+                expected.set(doc);
+            }
+        });
+        assertEquals(expected, bits(column.range(min, max)), "[" + min + ", " + max + "]");
+    }
+
+    // Few distinct values, so that runs of equal values are common
+    private double value() {
+        int pick = random.nextInt(40);
+        return switch (pick) {
+            case 0 -> Double.NaN;
+            case 1 -> -0.0;
+            case 2 -> Double.POSITIVE_INFINITY;
+            case 3 -> Double.NEGATIVE_INFINITY;
+            default -> random.nextInt(30) - 10;
+        };
+    }
+
+    // Mostly a stored value or just next to one, sometimes open, signed zero or NaN
+    private Double bound() {
+        int pick = random.nextInt(20);
+        return switch (pick) {
+            case 0, 1 -> null;
+            case 2 -> 0.0;
+            case 3 -> -0.0;
+            case 4 -> Double.NaN;
+            case 5 -> Double.NEGATIVE_INFINITY;
+            case 6 -> Math.nextUp((double) random.nextInt(30) - 10);
+            case 7 -> Math.nextDown((double) random.nextInt(30) - 10);
+            default -> (double) random.nextInt(30) - 10;
+        };
+    }
+
+    private static BitSet bits(CompressedBitmap bitmap) {
+        BitSet bits = new BitSet();
+        bitmap.forEach(bits::set);
+        return bits;
+    }
+
+    private static BitSet bits(int... docs) {
+        BitSet bits = new BitSet();
+        for (int doc : docs) {
+            bits.set(doc);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,257 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.MetricTrendPointDTO;
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
+import com.startupsphere.capstone.entity.StartupMetricHistory;
+import com.startupsphere.capstone.repository.StartupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.startupsphere.capstone.entity.StartupMetricHistory.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The metric history written as monthly full rows and flushed deltas, some of
+ * whose batches fail, replayed back into full states: every row written must
+ * replay to the metrics the startup had when it was written, and a trend over
+ * any range must start from the state in effect at its start.
+ */
+class StartupMetricHistoryServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final Random random = new Random(12);
+
+    // Current metrics per startup, in changed_fields bit order
+    private final Map<Long, double[]> metrics = new TreeMap<>();
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+
+    private final StartupMetricHistoryService service;
+
+    StartupMetricHistoryServiceTest() {
+        StartupRepository startupRepository = (StartupRepository) Proxy.newProxyInstance(
+                StartupRepository.class.getClassLoader(), new Class<?>[] { StartupRepository.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllMetrics" -> dtos(new ArrayList<>(metrics.keySet()));
+                    case "findMetricsByIds" -> {
+                        @SuppressWarnings("unchecked")
+                        List<Long> ids = (List<Long>) args[0];
+                        yield dtos(ids);
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        service = new StartupMetricHistoryService(startupRepository, null,
+                new StartupMetricsSnapshotService(startupRepository), jdbcTemplate);
+    }
+
+    @Test
+    void deltasReplayToTheStatesTheyWereWrittenAt() {
+        for (long id = 1; id <= 40; id++) {
+            metrics.put(id, new double[] { value(), value(), value(), value(), count(), count(), count() });
+        }
+        service.captureMonth();
+
+        int failures = 0;
+        for (int step = 1; step <= 2_000; step++) {
+            if (step % 400 == 0) {
+                jdbcTemplate.failNext = random.nextInt(4) == 0;
+                failures += run(service::captureMonth);
+                continue;
+            }
+            for (int i = 1 + random.nextInt(4); i > 0; i--) {
+                long id = 1 + random.nextInt(metrics.size());
+                double[] values = metrics.get(id);
+                for (int field = 0; field < values.length; field++) {
+                    if (random.nextInt(3) == 0) {
+                        values[field] = field < 4 ? value() : count();
+                    }
+                }
+                service.onRankingChanged(new RankingChangedEvent(id));
+            }
+            jdbcTemplate.failNext = random.nextInt(8) == 0;
+            failures += run(service::flush);
+        }
+        jdbcTemplate.failNext = false;
+        service.flush();
+        assertTrue(failures > 0, "no batch failed");
+
+        Map<Long, List<StartupMetricHistory>> entries = new HashMap<>();
+        Map<Long, List<double[]>> expected = new HashMap<>();
+        for (int i = 0; i < jdbcTemplate.rows.size(); i++) {
+            StartupMetricHistory entry = entry(jdbcTemplate.rows.get(i), jdbcTemplate.ticks.get(i));
+            entries.computeIfAbsent(entry.getStartupId(), k -> new ArrayList<>()).add(entry);
+            expected.computeIfAbsent(entry.getStartupId(), k -> new ArrayList<>()).add(jdbcTemplate.states.get(i));
+        }
+
+        for (long id : metrics.keySet()) {
+            List<MetricTrendPointDTO> points = StartupMetricHistoryService.replay(entries.get(id), START);
+            assertEquals(expected.get(id).size(), points.size(), "startup " + id);
+            for (int i = 0; i < points.size(); i++) {
+                assertArrayEquals(expected.get(id).get(i), values(points.get(i)), "startup " + id + " row " + i);
+            }
+            // Nothing left unwritten once a flush went through
+            assertArrayEquals(metrics.get(id), values(points.get(points.size() - 1)), "startup " + id);
+
+            for (int range = 0; range < 20; range++) {
+                LocalDateTime from = START.plusMinutes(random.nextInt(jdbcTemplate.tick + 2));
+                LocalDateTime to = from.plusMinutes(random.nextInt(jdbcTemplate.tick / 4 + 1));
+                assertTrend(entries.get(id), expected.get(id), from, to, "startup " + id);
+            }
+        }
+    }
+
+    @Test
+    void deltaHoldsOnlyTheChangedMetrics() {
+        double[] previous = { 1, 2, 3, 4, 5, 6, 7 };
+        LocalDateTime at = LocalDateTime.of(2025, 3, 9, 10, 0);
+
+        Object[] delta = StartupMetricHistoryService.row(previous, 9, "Agri", new double[] { 1, 2.5, 3, 4, 5, 8, 7 },
+                at, false);
+        assertEquals(9L, delta[0]);
+        assertEquals(202503, delta[1]);
+        assertEquals(false, delta[4]);
+        assertEquals(GROWTH_RATE | LIKES, delta[5]);
+        assertArrayEquals(new Object[] { null, 2.5, null, null, null, 8, null }, Arrays.copyOfRange(delta, 7, 14));
+
+        assertNull(StartupMetricHistoryService.row(previous, 9, "Agri", previous.clone(), at, false));
+        Object[] monthly = StartupMetricHistoryService.row(previous, 9, "Agri", previous.clone(), at, true);
+        assertEquals(true, monthly[4]);
+        assertEquals(ALL_FIELDS, monthly[5]);
+        Object[] first = StartupMetricHistoryService.row(null, 9, "Agri", previous.clone(), at, false);
+        assertEquals(true, first[4]);
+        assertEquals(false, first[3]);
+    }
+
+    @Test
+    void deltasWithoutAFullRowBeforeThemAreSkipped() {
+        LocalDateTime at = START.plusMinutes(1);
+        List<StartupMetricHistory> entries = List.of(
+                new StartupMetricHistory(1L, 202501, at, false, false, VIEWS, null, null, null, null, null, 3, null,
+                        null),
+                new StartupMetricHistory(1L, 202501, at.plusMinutes(1), false, true, ALL_FIELDS, null, 1.0, 2.0,
+                        3.0, 4.0, 5, 6, 7),
+                new StartupMetricHistory(1L, 202501, at.plusMinutes(2), false, false, VIEWS, null, null, null, null,
+                        null, 9, null, null));
+
+        List<MetricTrendPointDTO> points = StartupMetricHistoryService.replay(entries, START);
+        assertEquals(2, points.size());
+        assertArrayEquals(new double[] { 1, 2, 3, 4, 9, 6, 7 }, values(points.get(1)));
+    }
+
+    // What getTrend reads: from the last full row before the range to its end
+    private static void assertTrend(List<StartupMetricHistory> entries, List<double[]> states, LocalDateTime from,
+            LocalDateTime to, String message) {
+        LocalDateTime scanFrom = from;
+        for (StartupMetricHistory entry : entries) {
+            if (entry.isFullSnapshot() && entry.getCapturedAt().isBefore(from)) {
+                scanFrom = entry.getCapturedAt();
+            }
+        }
+        List<StartupMetricHistory> scanned = new ArrayList<>();
+        List<double[]> expected = new ArrayList<>();
+        double[] atStart = null;
+        for (int i = 0; i < entries.size(); i++) {
+            LocalDateTime capturedAt = entries.get(i).getCapturedAt();
+            if (!capturedAt.isBefore(scanFrom) && !capturedAt.isAfter(to)) {
+                scanned.add(entries.get(i));
+            }
+            if (capturedAt.isBefore(from)) {
+                atStart = states.get(i);
+            } else if (!capturedAt.isAfter(to)) {
+                expected.add(states.get(i));
+            }
+        }
+        if (atStart != null) {
+            expected.add(0, atStart);
+        }
+
+        List<MetricTrendPointDTO> points = StartupMetricHistoryService.replay(scanned, from);
+        String range = message + " from " + from + " to " + to;
+        assertEquals(expected.size(), points.size(), range);
+        for (int i = 0; i < points.size(); i++) {
+            assertArrayEquals(expected.get(i), values(points.get(i)), range);
+        }
+        if (atStart != null) {
+            assertTrue(points.get(0).getCapturedAt().isBefore(from), range);
+        }
+    }
+
+    private static int run(Runnable write) {
+        try {
+            write.run();
+            return 0;
+        } catch (DataAccessResourceFailureException e) {
+            return 1;
+        }
+    }
+
+    private List<StartupMetricsDTO> dtos(List<Long> ids) {
+        List<StartupMetricsDTO> rows = new ArrayList<>();
+        for (Long id : ids) {
+            double[] values = metrics.get(id);
+            rows.add(new StartupMetricsDTO(id, "Startup " + id, "Agri", "Approved", values[0], values[1], values[2],
+                    0.0, values[3], 0, 0, 0.0, 0, 0, 0, (int) values[4], (int) values[5], (int) values[6], 0, 0));
+        }
+        return rows;
+    }
+
+    // An inserted row as read back, with its batch's minute as capture time
+    private static StartupMetricHistory entry(Object[] row, int tick) {
+        return new StartupMetricHistory((Long) row[0], (Integer) row[1], START.plusMinutes(tick), (Boolean) row[3],
+                (Boolean) row[4], (Integer) row[5], (String) row[6], (Double) row[7], (Double) row[8],
+                (Double) row[9], (Double) row[10], (Integer) row[11], (Integer) row[12], (Integer) row[13]);
+    }
+
+    private static double[] values(MetricTrendPointDTO point) {
+        return new double[] { point.getAnnualRevenue(), point.getGrowthRate(), point.getSurvivalRate(),
+                point.getFundingReceived(), point.getViews(), point.getLikes(), point.getBookmarks() };
+    }
+
+    // Few distinct values, so a field is often set to what it already was
+    private double value() {
+        return random.nextInt(4) * 1.5;
+    }
+
+    private double count() {
+        return random.nextInt(4);
+    }
+
+    // Keeps the rows of batches that went in, and the metrics their startups had at that moment
+    private final class RecordingJdbcTemplate extends JdbcTemplate {
+        final List<Object[]> rows = new ArrayList<>();
+        final List<Integer> ticks = new ArrayList<>();
+        final List<double[]> states = new ArrayList<>();
+        boolean failNext;
+        int tick;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            tick++;
+            if (failNext) {
+                failNext = false;
+                throw new DataAccessResourceFailureException("Connection lost");
+            }
+            for (Object[] row : batchArgs) {
+                rows.add(row);
+                ticks.add(tick);
+                states.add(metrics.get((Long) row[0]).clone());
+            }
+            return new int[batchArgs.size()];
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.startupsphere.capstone.service;
+
+import com.startupsphere.capstone.dtos.StartupMetricsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The parallel scoring pipeline must rank exactly like the sequential
+ * Comparator sort over the same rows did: same scores, ties in id order, NaN
+ * and missing metrics handled the same way, and the same industry subsets.
+ */
+class StartupScoringPipelineTest {
+
+    private static final String[] INDUSTRIES = { "Technology", "technology ", "Fintech", "Agriculture", null, "", "All" };
+
+    private final StartupRankingService rankingService = new StartupRankingService(null, null, null, null, null);
+
+    private final StartupScoringPipeline pipeline = new StartupScoringPipeline(rankingService, 4);
+
+    @Test
+    void matchesSequentialRankingAcrossPartitions() {
+        // Enough rows for several leaf tasks and merges
+        assertMatchesSequential(rows(30_000, new Random(11)));
+    }
+
+    @Test
+    void matchesSequentialRankingInOnePartition() {
+        assertMatchesSequential(rows(500, new Random(12)));
+    }
+
+    @Test
+    void emptySnapshotHasEmptyOrders() {
+        RankingSnapshot snapshot = rank(new ArrayList<>());
+
+        for (String metric : RankingSnapshot.METRICS) {
+            assertEquals(0, snapshot.order(metric, null).length);
+        }
+    }
+
+    private void assertMatchesSequential(List<StartupMetricsDTO> rows) {
+        RankingSnapshot snapshot = rank(rows);
+
+        List<ToDoubleFunction<StartupMetricsDTO>> scorers = List.of(rankingService::calculateOverallScore,
+                rankingService::calculateGrowthScore, rankingService::calculateInvestmentScore,
+                rankingService::calculateEcosystemScore, rankingService::calculateEngagementScore);
+        for (int m = 0; m < RankingSnapshot.METRICS.length; m++) {
+            String metric = RankingSnapshot.METRICS[m];
+            ToDoubleFunction<StartupMetricsDTO> scorer = scorers.get(m);
+            for (int row = 0; row < rows.size(); row++) {
+                assertEquals(scorer.applyAsDouble(rows.get(row)), snapshot.score(metric, row), 0.0,
+                        metric + " score of row " + row);
+            }
+            for (String industry : new String[] { null, "All", "Technology", "FINTECH", "Agriculture", "Mining" }) {
+                assertArrayEquals(sequentialIds(rows, scorer, industry), ids(snapshot, metric, industry),
+                        metric + " order in " + industry);
+            }
+        }
+    }
+
+    private RankingSnapshot rank(List<StartupMetricsDTO> rows) {
+        StartupMetricsSnapshot metrics = StartupMetricsSnapshot.of(rows);
+        StartupScoringPipeline.Result result = pipeline.score(metrics, RankingWeights.DEFAULT);
+        return RankingSnapshot.fromOrders(1, result.getWeights(), metrics, result.getScores(), result.getOrders());
+    }
+
+    // The ranking as it was computed before the pipeline: filter, then a stable descending sort in id order
+    private static long[] sequentialIds(List<StartupMetricsDTO> rows, ToDoubleFunction<StartupMetricsDTO> scorer,
+            String industry) {
+        String key = RankingSnapshot.industryKey(industry);
+        return rows.stream()
+                .filter(row -> "Approved".equalsIgnoreCase(row.getStatus()))
+                .filter(row -> key.isEmpty() || key.equals(RankingSnapshot.industryKey(row.getIndustry())))
+                .sorted(Comparator.comparingDouble(scorer).reversed())
+                .mapToLong(StartupMetricsDTO::getId)
+                .toArray();
+    }
+
+    private static long[] ids(RankingSnapshot snapshot, String metric, String industry) {
+        int[] order = snapshot.order(metric, industry);
+        long[] ids = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            ids[i] = snapshot.getMetrics().getId(order[i]);
+        }
+        return ids;
+    }
+
+    // Metrics drawn from a few values each so that many scores tie, with nulls and NaN mixed in
+    private static List<StartupMetricsDTO> rows(int count, Random random) {
+        List<StartupMetricsDTO> rows = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            rows.add(new StartupMetricsDTO(id, "Startup " + id, INDUSTRIES[random.nextInt(INDUSTRIES.length)],
+                    random.nextInt(5) == 0 ? "Pending" : random.nextBoolean() ? "Approved" : "approved",
+                    amount(random, 500_000_000), amount(random, 120), amount(random, 100),
+                    amount(random, 100_000_000), amount(random, 100_000_000), count(random, 12), count(random, 2),
+                    amount(random, 50_000_000), count(random, 2), count(random, 60), count(random, 25),
+                    count(random, 12_000), count(random, 500), count(random, 500), count(random, 17),
+                    count(random, 4)));
+        }
+        return rows;
+    }
+
+    private static Double amount(Random random, double max) {
+        int pick = random.nextInt(20);
+        if (pick == 0) {
+            return null;
+        }
+        if (pick == 1) {
+            return Double.NaN;
+        }
+        return max * random.nextInt(4) / 3;
+    }
+
+    private static Integer count(Random random, int max) {
+        return random.nextInt(10) == 0 ? null : max * random.nextInt(3) / 2;
+    }
+}
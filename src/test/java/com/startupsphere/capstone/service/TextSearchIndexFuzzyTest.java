@@ -0,0 +1,190 @@
+package com.startupsphere.capstone.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Typo-tolerant search against a scan of every word of every document with
+ * the edit distances worked out in full, on an index that went through puts,
+ * replacements and removes. Hits tying on cost and name length may come in
+ * any order, so pages are compared by the sort key of each hit.
+ */
+class TextSearchIndexFuzzyTest {
+
+    private static final String[] SYLLABLES = { "ka", "ta", "na", "ma", "ri", "lo", "sa", "be", "tech", "agri",
+            "fin", "cebu", "lab", "hub", "café", "ion", "go", "barangay", "lapu" };
+
+    private final Random random = new Random(3);
+
+    @Test
+    void hitsMatchAFullScan() {
+        TextSearchIndex index = new TextSearchIndex();
+        Map<Long, String[]> docs = new HashMap<>();
+        for (int step = 0; step < 20_000; step++) {
+            long id = random.nextInt(3_000);
+            if (random.nextInt(6) == 0) {
+                index.remove(id);
+                docs.remove(id);
+            } else {
+                String[] doc = { text(), random.nextBoolean() ? text() : null };
+                index.put(id, doc[0], doc[1]);
+                docs.put(id, doc);
+            }
+        }
+
+        for (int round = 0; round < 300; round++) {
+            String query = random.nextInt(3) == 0 ? typo(word()) + " " + typo(word()) : typo(word());
+            Map<Long, Long> expected = new HashMap<>();
+            docs.forEach((id, doc) -> {
+                Long key = key(doc, query);
+                if (key != null) {
+                    expected.put(id, key);
+                }
+            });
+
+            TextSearchIndex.Hits all = index.fuzzySearch(query, 0, docs.size());
+            assertTrue(all.isTotalExact(), query);
+            assertEquals(expected.size(), all.getTotal(), query);
+            assertEquals(expected.keySet(), new HashSet<>(all.getIds()), query);
+            List<Long> keys = new ArrayList<>();
+            all.getIds().forEach(id -> keys.add(expected.get(id)));
+            List<Long> sorted = new ArrayList<>(expected.values());
+            sorted.sort(null);
+            assertEquals(sorted, keys, query);
+
+            int offset = random.nextInt(20);
+            int limit = 1 + random.nextInt(10);
+            List<Long> page = all.getIds().subList(Math.min(offset, all.getIds().size()),
+                    Math.min(offset + limit, all.getIds().size()));
+            assertEquals(page, index.fuzzySearch(query, offset, limit).getIds(), query);
+        }
+    }
+
+    @Test
+    void misspelledWordsFindTheirDocuments() {
+        TextSearchIndex index = new TextSearchIndex();
+        index.put(1, "Barangay Lahug Foods", "Cebu City");
+        index.put(2, "Cebuana Tech", "Mandaue");
+        index.put(3, "Lapu Lapu Ventures", null);
+
+        assertEquals(List.of(1L), index.fuzzySearch("barangy", 0, 5).getIds());
+        assertEquals(List.of(), index.search("barangy", 0, 5).getIds());
+        assertEquals(List.of(1L), index.fuzzySearch("cebu", 0, 5).getIds());
+        assertEquals(List.of(3L), index.fuzzySearch("lapo", 0, 5).getIds());
+        // Words shorter than three characters must match exactly
+        assertEquals(List.of(), index.fuzzySearch("ce", 0, 5).getIds());
+    }
+
+    @Test
+    void editDistanceStopsPastTheMaximum() {
+        assertEquals(0, TextSearchIndex.editDistance("cebu", "cebu", 2));
+        assertEquals(1, TextSearchIndex.editDistance("cebu", "cebuu", 2));
+        assertEquals(2, TextSearchIndex.editDistance("barangay", "brangy", 2));
+        assertEquals(3, TextSearchIndex.editDistance("fintech", "agri", 2));
+        assertEquals(2, TextSearchIndex.editDistance("", "ab", 2));
+    }
+
+    // Sort key of a document for the query, cheapest then shorter names first, or null when some
+    // query word has no word within its edits: none below three characters, one below six, else two
+    private static Long key(String[] doc, String query) {
+        String name = TextSearchIndex.normalize(doc[0]);
+        List<String> docWords = words(name);
+        docWords.addAll(words(TextSearchIndex.normalize(doc[1])));
+        long cost = 0;
+        for (String word : TextSearchIndex.queryWords(query)) {
+            int maxEdits = word.length() < 3 ? 0 : word.length() < 6 ? 1 : 2;
+            long cheapest = Long.MAX_VALUE;
+            for (String docWord : docWords) {
+                int distance = distance(word, docWord);
+                if (distance <= maxEdits) {
+                    cheapest = Math.min(cheapest, distance * 1024L + 1023 - (int) (dice(word, docWord) * 1023));
+                }
+            }
+            if (cheapest == Long.MAX_VALUE) {
+                return null;
+            }
+            cost += cheapest;
+        }
+        return cost << 32 | name.length();
+    }
+
+    // Full Levenshtein table, with no early exit
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                d[i][j] = Math.min(substitution, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static double dice(String a, String b) {
+        Set<String> aGrams = new HashSet<>(TextSearchIndex.indexGrams(a));
+        Set<String> bGrams = new HashSet<>(TextSearchIndex.indexGrams(b));
+        int common = 0;
+        for (String gram : bGrams) {
+            if (aGrams.contains(gram)) {
+                common++;
+            }
+        }
+        return 2.0 * common / (aGrams.size() + bGrams.size());
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private String word() {
+        StringBuilder word = new StringBuilder();
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private String text() {
+        StringBuilder text = new StringBuilder(word());
+        for (int i = random.nextInt(3); i > 0; i--) {
+            text.append(' ').append(word());
+        }
+        return text.toString();
+    }
+
+    // Up to two random substitutions, deletions or insertions
+    private String typo(String word) {
+        StringBuilder typo = new StringBuilder(word);
+        for (int edits = random.nextInt(3); edits > 0 && typo.length() > 1; edits--) {
+            int at = random.nextInt(typo.length());
+            switch (random.nextInt(3)) {
+                case 0 -> typo.setCharAt(at, "aeiouxk".charAt(random.nextInt(7)));
+                case 1 -> typo.deleteCharAt(at);
+                default -> typo.insert(at, 'y');
+            }
+        }
+        return typo.toString();
+    }
+}
@@ -0,0 +1,231 @@
+package com.startupsphere.capstone.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Search hits and their order against a scan of every document, and an index
+ * kept up to date by puts and removes against one built from scratch. Hits
+ * that tie on score and name length may come in any order, so pages are
+ * compared by the sort key of each hit.
+ */
+class TextSearchIndexTest {
+
+    private static final String[] WORDS = { "tech", "techno", "biotech", "labs", "lab", "cebu", "city", "café",
+            "cafe", "agri", "agritech", "hub", "ion", "fusion", "ba", "bay", "solutions", "lapu-lapu" };
+
+    private static final String[] QUERIES = { "tech", "te", "t", "lab", "labs", "cafe", "Café", "cebu city",
+            "agri tech", "ion", "sion", "ba", "b", "solutions", "lapu", "hub tech", "techx", "zzz", "city cebu" };
+
+    private final Random random = new Random(13);
+
+    @Test
+    void hitsRankLikeAFullScan() {
+        for (int round = 0; round < 4; round++) {
+            Map<Long, String[]> docs = new HashMap<>();
+            TextSearchIndex index = new TextSearchIndex();
+            for (long id = 1; id <= 2_000; id++) {
+                String[] doc = { text(3), random.nextInt(3) == 0 ? null : text(2) };
+                docs.put(id, doc);
+                index.put(id, doc[0], doc[1]);
+            }
+
+            for (String query : QUERIES) {
+                for (int limit : new int[] { 1, 10, 5_000 }) {
+                    assertMatchesScan(docs, index, query, 0, limit);
+                }
+                assertMatchesScan(docs, index, query, 7, 20);
+            }
+        }
+    }
+
+    @Test
+    void wholeWordsRankBeforeWordStartsBeforeSubstrings() {
+        TextSearchIndex index = new TextSearchIndex();
+        index.put(1, "Biotech Labs", null);
+        index.put(2, "Technology Labs", null);
+        index.put(3, "Acme", "Tech District");
+        index.put(4, "Tech Labs", null);
+        index.put(5, "Tech", null);
+
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), index.search("tech", 0, 10).getIds());
+        assertEquals(List.of(1L), index.search("biotech", 0, 10).getIds());
+    }
+
+    @Test
+    void updatedIndexMatchesRebuiltIndex() {
+        Map<Long, String[]> docs = new HashMap<>();
+        TextSearchIndex index = new TextSearchIndex();
+        for (int step = 0; step < 5_000; step++) {
+            long id = 1 + random.nextInt(800);
+            if (random.nextInt(4) == 0) {
+                docs.remove(id);
+                index.remove(id);
+            } else {
+                // Replaces the document when the id is already indexed
+                String[] doc = { text(3), random.nextBoolean() ? null : text(2) };
+                docs.put(id, doc);
+                index.put(id, doc[0], doc[1]);
+            }
+        }
+
+        TextSearchIndex rebuilt = new TextSearchIndex();
+        docs.forEach((id, doc) -> rebuilt.put(id, doc[0], doc[1]));
+        assertEquals(rebuilt.size(), index.size());
+        for (String query : QUERIES) {
+            TextSearchIndex.Hits expected = rebuilt.search(query, 0, docs.size());
+            TextSearchIndex.Hits actual = index.search(query, 0, docs.size());
+            assertEquals(expected.getTotal(), actual.getTotal(), query);
+            assertEquals(new HashSet<>(expected.getIds()), new HashSet<>(actual.getIds()), query);
+            assertEquals(keys(docs, query, expected.getIds()), keys(docs, query, actual.getIds()), query);
+        }
+        assertMatchesScan(docs, index, "tech", 0, 10);
+    }
+
+    @Test
+    void clearedIndexFindsNothing() {
+        TextSearchIndex index = new TextSearchIndex();
+        index.put(1, "Tech Labs", "Cebu City");
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.search("tech", 0, 10).getTotal());
+        index.put(2, "Tech", null);
+        assertEquals(List.of(2L), index.search("tech", 0, 10).getIds());
+    }
+
+    @Test
+    void pagesPastAnIntOffsetAreEmpty() {
+        TextSearchIndex index = new TextSearchIndex();
+        index.put(1, "Tech Labs", null);
+        index.put(2, "Techno Hub", null);
+
+        assertEquals(40, SearchIndexService.offset(2, 20));
+        int offset = SearchIndexService.offset(Integer.MAX_VALUE, 100);
+        assertEquals(Integer.MAX_VALUE, offset);
+        for (boolean fuzzy : new boolean[] { false, true }) {
+            TextSearchIndex.Hits first = fuzzy ? index.fuzzySearch("tech", 0, 100) : index.search("tech", 0, 100);
+            TextSearchIndex.Hits last = fuzzy ? index.fuzzySearch("tech", offset, 100)
+                    : index.search("tech", offset, 100);
+            assertFalse(first.getIds().isEmpty());
+            assertEquals(List.of(), last.getIds());
+            assertEquals(first.getTotal(), last.getTotal());
+        }
+    }
+
+    @Test
+    void broadQueryStopsOnceItsPageIsFull() {
+        TextSearchIndex index = new TextSearchIndex();
+        for (long id = 1; id <= 40_000; id++) {
+            index.put(id, "Acme Tech " + id, "Cebu City");
+        }
+
+        TextSearchIndex.Hits hits = index.search("tech", 0, 10);
+        assertEquals(10, hits.getIds().size());
+        assertFalse(hits.isTotalExact());
+        assertTrue(hits.getTotal() >= 10_000 && hits.getTotal() < 40_000);
+    }
+
+    @Test
+    void queryWithFewMatchesLooksAtEveryCandidate() {
+        TextSearchIndex index = new TextSearchIndex();
+        // Every document has the trigrams of "techx", only the last ones the word
+        for (long id = 1; id <= 30_000; id++) {
+            index.put(id, "Tech Echx " + id, null);
+        }
+        index.put(30_001, "Techx", null);
+        index.put(30_002, "Techx Labs", null);
+
+        TextSearchIndex.Hits hits = index.search("techx", 0, 10);
+        assertEquals(List.of(30_001L, 30_002L), hits.getIds());
+        assertEquals(2, hits.getTotal());
+        assertTrue(hits.isTotalExact());
+    }
+
+    private void assertMatchesScan(Map<Long, String[]> docs, TextSearchIndex index, String query, int offset,
+            int limit) {
+        List<Long> matching = new ArrayList<>();
+        for (Map.Entry<Long, String[]> doc : docs.entrySet()) {
+            if (key(doc.getValue(), query) != null) {
+                matching.add(doc.getKey());
+            }
+        }
+        List<Long> expected = keys(docs, query, matching);
+        expected.sort(null);
+        expected = expected.subList(Math.min(offset, expected.size()), Math.min(offset + limit, expected.size()));
+
+        TextSearchIndex.Hits hits = index.search(query, offset, limit);
+        assertEquals(matching.size(), hits.getTotal(), query);
+        assertTrue(hits.isTotalExact(), query);
+        assertEquals(new HashSet<>(hits.getIds()).size(), hits.getIds().size(), query + " repeats a hit");
+        assertEquals(expected, keys(docs, query, hits.getIds()), query);
+    }
+
+    private static List<Long> keys(Map<Long, String[]> docs, String query, List<Long> ids) {
+        List<Long> keys = new ArrayList<>();
+        for (Long id : ids) {
+            Long key = key(docs.get(id), query);
+            assertNotNull(key, query + " does not match " + id);
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    // Sort key of a document for the query, higher scores then shorter names first, or null when
+    // it does not match; per query word: whole word 4, in the name at a word start 2 or inside a word 1
+    private static Long key(String[] doc, String query) {
+        String name = TextSearchIndex.normalize(doc[0]);
+        List<String> nameWords = words(name);
+        List<String> allWords = new ArrayList<>(nameWords);
+        allWords.addAll(words(TextSearchIndex.normalize(doc[1])));
+        long score = 0;
+        for (String word : TextSearchIndex.queryWords(query)) {
+            boolean matches = false;
+            boolean exact = false;
+            for (String docWord : allWords) {
+                matches |= word.length() < 3 ? docWord.startsWith(word) : docWord.contains(word);
+                exact |= docWord.equals(word);
+            }
+            if (!matches) {
+                return null;
+            }
+            boolean nameStart = false;
+            boolean nameInside = false;
+            for (String nameWord : nameWords) {
+                nameStart |= nameWord.startsWith(word);
+                nameInside |= word.length() >= 3 && nameWord.contains(word);
+            }
+            score += (exact ? 4 : 0) + (nameStart ? 2 : nameInside ? 1 : 0);
+        }
+        return (1_000 - score) << 32 | name.length();
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private String text(int maxWords) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1 + random.nextInt(maxWords); i > 0; i--) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(5) == 0 ? "-" : " ");
+        }
+        return random.nextInt(10) == 0 ? text.toString().toUpperCase() : text.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.startupsphere.capstone.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the heap selection behind the ranking snapshot, and the ranks the
+ * profile comparison counts without it, against a stable descending sort,
+ * which is the order the rankings were served in before.
+ */
+class TopKSelectorTest {
+
+    private final Random random = new Random(7);
+
+    @Test
+    void selectTopMatchesStableSort() {
+        for (int round = 0; round < 200; round++) {
+            double[] scores = scores(random.nextInt(300));
+            for (int k : new int[] {1, 5, scores.length / 2, scores.length, scores.length + 3}) {
+                assertArrayEquals(sorted(scores, IntStream.range(0, scores.length).toArray(), k),
+                        TopKSelector.selectTop(scores, k), "n=" + scores.length + " k=" + k);
+            }
+        }
+    }
+
+    @Test
+    void selectTopOverCandidatesMatchesStableSort() {
+        for (int round = 0; round < 200; round++) {
+            double[] scores = scores(1 + random.nextInt(300));
+            int[] candidates = IntStream.range(0, scores.length).filter(i -> random.nextInt(3) == 0).toArray();
+            for (int k : new int[] {1, 7, candidates.length, candidates.length + 1}) {
+                assertArrayEquals(sorted(scores, candidates, k), TopKSelector.selectTop(scores, candidates, k),
+                        "candidates=" + candidates.length + " k=" + k);
+            }
+        }
+    }
+
+    @Test
+    void tiesKeepIndexOrderAndNaNRanksFirst() {
+        double[] scores = {1.0, Double.NaN, 3.0, 1.0, 3.0, -0.0, 0.0, Double.NaN};
+
+        assertArrayEquals(new int[] {1, 7, 2, 4, 0, 3, 6, 5}, TopKSelector.selectTop(scores, scores.length));
+        assertArrayEquals(new int[] {1, 7, 2}, TopKSelector.selectTop(scores, 3));
+    }
+
+    @Test
+    void nonPositiveLimitSelectsNothing() {
+        double[] scores = scores(20);
+
+        assertEquals(0, TopKSelector.selectTop(scores, 0).length);
+        assertEquals(0, TopKSelector.selectTop(scores, -1).length);
+        assertEquals(0, TopKSelector.selectTop(scores, new int[] {1, 2, 3}, 0).length);
+        assertEquals(0, TopKSelector.selectTop(new double[0], 5).length);
+    }
+
+    @Test
+    void mergeOfPartitionsMatchesWholeSelection() {
+        for (int round = 0; round < 200; round++) {
+            double[] scores = scores(2 + random.nextInt(300));
+            int mid = 1 + random.nextInt(scores.length - 1);
+            int[] left = IntStream.range(0, mid).toArray();
+            int[] right = IntStream.range(mid, scores.length).toArray();
+            for (int k : new int[] {1, 10, scores.length}) {
+                int[] merged = TopKSelector.merge(TopKSelector.selectTop(scores, left, k),
+                        TopKSelector.selectTop(scores, right, k), k, scores);
+                assertArrayEquals(TopKSelector.selectTop(scores, k), merged, "mid=" + mid + " k=" + k);
+            }
+        }
+    }
+
+    @Test
+    void ranksMatchPositionsInTheFullOrder() {
+        for (int round = 0; round < 200; round++) {
+            double[] scores = scores(1 + random.nextInt(300));
+            int[] candidates = IntStream.range(0, scores.length).filter(i -> random.nextInt(4) > 0).toArray();
+            int[] full = sorted(scores, candidates, candidates.length);
+            // A few rows from anywhere in the order, in no particular order
+            int[] rows = IntStream.of(candidates).filter(i -> random.nextInt(5) == 0).toArray();
+
+            int[] ranks = TopKSelector.ranks(scores, rows, candidates);
+            for (int i = 0; i < rows.length; i++) {
+                int row = rows[i];
+                assertEquals(1 + IntStream.range(0, full.length).filter(p -> full[p] == row).findFirst().getAsInt(),
+                        ranks[i], "row " + row + " of " + candidates.length);
+            }
+        }
+    }
+
+    // Few distinct values so that ties are common, with the odd NaN and signed zero
+    private double[] scores(int n) {
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) {
+            int pick = random.nextInt(20);
+            scores[i] = pick == 0 ? Double.NaN : pick == 1 ? -0.0 : random.nextInt(8) / 4.0;
+        }
+        return scores;
+    }
+
+    private static int[] sorted(double[] scores, int[] candidates, int k) {
+        return IntStream.of(candidates).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}